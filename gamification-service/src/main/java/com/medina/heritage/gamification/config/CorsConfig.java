@@ -39,7 +39,8 @@ public class CorsConfig {
         ));
         config.setExposedHeaders(Arrays.asList(
                 "Access-Control-Allow-Origin",
-                "Access-Control-Allow-Credentials"
+                "Access-Control-Allow-Credentials",
+                "X-Next-Cursor"
         ));
         config.setMaxAge(3600L);
 
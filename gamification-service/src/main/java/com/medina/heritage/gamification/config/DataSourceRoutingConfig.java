@@ -0,0 +1,112 @@
+package com.medina.heritage.gamification.config;
+
+import com.medina.heritage.gamification.service.ReadYourWritesGuard;
+import com.medina.heritage.gamification.service.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Répartition des lectures entre le primaire et un réplica PostgreSQL (activée par
+ * {@code gamification.datasource.replica.enabled}) : remplace la DataSource auto-configurée par
+ * deux pools et une DataSource de routage.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gamification.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(@Value("${spring.datasource.url}") String url,
+                                              @Value("${spring.datasource.username}") String username,
+                                              @Value("${spring.datasource.password}") String password,
+                                              @Value("${gamification.datasource.primary.pool-size:10}") int poolSize) {
+        return pool("primary", url, username, password, poolSize);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(@Value("${gamification.datasource.replica.url}") String url,
+                                              @Value("${gamification.datasource.replica.username}") String username,
+                                              @Value("${gamification.datasource.replica.password}") String password,
+                                              @Value("${gamification.datasource.replica.pool-size:10}") int poolSize) {
+        HikariDataSource replica = pool("replica", url, username, password, poolSize);
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${gamification.datasource.replica.max-lag-ms:2000}") long maxLagMillis,
+                                               @Value("${gamification.datasource.replica.lag-check-interval-ms:1000}") long checkIntervalMillis) {
+        return new ReplicaLagMonitor(replicaDataSource, meterRegistry, maxLagMillis, checkIntervalMillis);
+    }
+
+    /**
+     * DataSource de l'application (JPA, JdbcTemplate) : connexion ouverte à la première requête SQL,
+     * sur le primaire ou le réplica selon la transaction en cours.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesGuard readYourWritesGuard,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor, readYourWritesGuard, meterRegistry));
+    }
+
+    /**
+     * Renseigne l'utilisateur de la requête ({@code {userId}} dans le chemin) pour la garde de lecture
+     * de ses propres écritures.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+                if (variables instanceof Map<?, ?> map && map.get("userId") instanceof String userId) {
+                    try {
+                        ReadYourWritesGuard.setCurrentUser(UUID.fromString(userId));
+                    } catch (IllegalArgumentException e) {
+                        // Identifiant invalide : la requête échouera à la conversion du paramètre
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                ReadYourWritesGuard.clearCurrentUser();
+            }
+        });
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password, int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+}
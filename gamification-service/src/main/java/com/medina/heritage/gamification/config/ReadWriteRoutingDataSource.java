@@ -0,0 +1,63 @@
+package com.medina.heritage.gamification.config;
+
+import com.medina.heritage.gamification.service.ReadYourWritesGuard;
+import com.medina.heritage.gamification.service.ReplicaLagMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Choisit le primaire ou le réplica à l'ouverture de chaque connexion : les transactions en lecture
+ * seule vont au réplica, sauf si son retard dépasse le seuil ou si l'utilisateur de la requête vient
+ * d'écrire ; tout le reste (écritures, accès hors transaction) va au primaire.
+ *
+ * Doit être enveloppée dans un {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} :
+ * la connexion n'est alors ouverte qu'à la première requête SQL, quand la transaction a déjà
+ * déclaré sa lecture seule.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.primaryReads = Counter.builder("gamification.datasource.read.routes")
+                .description("Read-only transactions by target database")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        this.replicaReads = Counter.builder("gamification.datasource.read.routes")
+                .description("Read-only transactions by target database")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable() || readYourWritesGuard.isCurrentUserPinned()) {
+            primaryReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+}
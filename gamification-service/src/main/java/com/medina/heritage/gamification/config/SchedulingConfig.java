@@ -0,0 +1,12 @@
+package com.medina.heritage.gamification.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (réconciliation périodique des wallets).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,70 @@
+package com.medina.heritage.gamification.controller;
+
+import com.medina.heritage.gamification.dto.response.ApiResponse;
+import com.medina.heritage.gamification.dto.response.LeaderboardEntryResponse;
+import com.medina.heritage.gamification.dto.response.LeaderboardPageResponse;
+import com.medina.heritage.gamification.enums.LeaderboardWindow;
+import com.medina.heritage.gamification.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Contrôleur REST pour le classement des utilisateurs.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * Récupère une page du classement (général, hebdomadaire ou mensuel).
+     * GET /api/leaderboard?window=WEEKLY&offset=0&limit=20
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<LeaderboardPageResponse>> getLeaderboard(
+            @RequestParam(defaultValue = "ALL_TIME") LeaderboardWindow window,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        LeaderboardPageResponse response = leaderboardService.getPage(window, offset, limit);
+        return ResponseEntity.ok(ApiResponse.success("Leaderboard retrieved", response));
+    }
+
+    /**
+     * Récupère les utilisateurs classés autour d'un utilisateur.
+     * GET /api/leaderboard/around/{userId}?window=MONTHLY&radius=5
+     */
+    @GetMapping("/around/{userId}")
+    public ResponseEntity<ApiResponse<List<LeaderboardEntryResponse>>> getAround(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "ALL_TIME") LeaderboardWindow window,
+            @RequestParam(defaultValue = "5") int radius) {
+        List<LeaderboardEntryResponse> entries = leaderboardService.getAround(window, userId, radius);
+        if (entries.isEmpty()) {
+            return ResponseEntity.ok(ApiResponse.success("User has no rank yet", entries));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Leaderboard window retrieved", entries));
+    }
+
+    /**
+     * Récupère le rang d'un utilisateur dans un classement.
+     * GET /api/leaderboard/rank/{userId}?window=WEEKLY
+     */
+    @GetMapping("/rank/{userId}")
+    public ResponseEntity<ApiResponse<LeaderboardEntryResponse>> getRank(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "ALL_TIME") LeaderboardWindow window) {
+        LeaderboardEntryResponse entry = leaderboardService.getEntry(window, userId);
+        if (entry == null) {
+            return ResponseEntity.ok(ApiResponse.success("User has no rank yet", null));
+        }
+        return ResponseEntity.ok(ApiResponse.success("User rank retrieved", entry));
+    }
+}
@@ -1,6 +1,7 @@
 package com.medina.heritage.gamification.controller;
 
 import com.medina.heritage.gamification.dto.response.ApiResponse;
+import com.medina.heritage.gamification.dto.response.PointTransactionPage;
 import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
 import com.medina.heritage.gamification.enums.TransactionType;
 import com.medina.heritage.gamification.service.PointTransactionService;
@@ -23,30 +24,36 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class PointTransactionController {
 
+    /**
+     * En-tête portant le jeton de la page suivante (absent sur la dernière page).
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final PointTransactionService transactionService;
 
     /**
-     * Récupère toutes les transactions d'un utilisateur.
-     * GET /api/transactions/user/{userId}
+     * Récupère les transactions d'un utilisateur, page par page.
+     * GET /api/transactions/user/{userId}?cursor=...&size=50
      */
     @GetMapping("/user/{userId}")
     public ResponseEntity<ApiResponse<List<PointTransactionResponse>>> getTransactionsByUser(
-            @PathVariable UUID userId) {
-        List<PointTransactionResponse> response = transactionService.getTransactionsByUser(userId);
-        return ResponseEntity.ok(ApiResponse.success("Transactions retrieved", response));
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return page(transactionService.getTransactionsByUser(userId, cursor, size));
     }
 
     /**
      * Récupère les transactions d'un utilisateur par type.
-     * GET /api/transactions/user/{userId}/type/{type}
+     * GET /api/transactions/user/{userId}/type/{type}?cursor=...&size=50
      */
     @GetMapping("/user/{userId}/type/{type}")
     public ResponseEntity<ApiResponse<List<PointTransactionResponse>>> getTransactionsByUserAndType(
             @PathVariable UUID userId,
-            @PathVariable TransactionType type) {
-        List<PointTransactionResponse> response = transactionService
-                .getTransactionsByUserAndType(userId, type);
-        return ResponseEntity.ok(ApiResponse.success("Transactions retrieved", response));
+            @PathVariable TransactionType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return page(transactionService.getTransactionsByUserAndType(userId, type, cursor, size));
     }
 
     /**
@@ -62,29 +69,29 @@ public class PointTransactionController {
 
     /**
      * Récupère les transactions dans une période donnée.
-     * GET /api/transactions/user/{userId}/period
+     * GET /api/transactions/user/{userId}/period?startDate=...&endDate=...&cursor=...&size=50
      */
     @GetMapping("/user/{userId}/period")
     public ResponseEntity<ApiResponse<List<PointTransactionResponse>>> getTransactionsByPeriod(
             @PathVariable UUID userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate) {
-        List<PointTransactionResponse> response = transactionService
-                .getTransactionsByPeriod(userId, startDate, endDate);
-        return ResponseEntity.ok(ApiResponse.success("Transactions retrieved", response));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return page(transactionService.getTransactionsByPeriod(userId, startDate, endDate, cursor, size));
     }
 
     /**
      * Récupère les transactions liées à une entité.
-     * GET /api/transactions/reference/{referenceType}/{referenceId}
+     * GET /api/transactions/reference/{referenceType}/{referenceId}?cursor=...&size=50
      */
     @GetMapping("/reference/{referenceType}/{referenceId}")
     public ResponseEntity<ApiResponse<List<PointTransactionResponse>>> getTransactionsByReference(
             @PathVariable String referenceType,
-            @PathVariable UUID referenceId) {
-        List<PointTransactionResponse> response = transactionService
-                .getTransactionsByReference(referenceId, referenceType);
-        return ResponseEntity.ok(ApiResponse.success("Transactions retrieved", response));
+            @PathVariable UUID referenceId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return page(transactionService.getTransactionsByReference(referenceId, referenceType, cursor, size));
     }
 
     /**
@@ -96,4 +103,15 @@ public class PointTransactionController {
         PointTransactionResponse response = transactionService.getTransactionById(id);
         return ResponseEntity.ok(ApiResponse.success("Transaction retrieved", response));
     }
+
+    /**
+     * Le corps garde la forme d'une liste ; le jeton de la page suivante est renvoyé en en-tête.
+     */
+    private static ResponseEntity<ApiResponse<List<PointTransactionResponse>>> page(PointTransactionPage page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(ApiResponse.success("Transactions retrieved", page.getItems()));
+    }
 }
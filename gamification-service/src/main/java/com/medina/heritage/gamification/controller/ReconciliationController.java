@@ -0,0 +1,70 @@
+package com.medina.heritage.gamification.controller;
+
+import com.medina.heritage.gamification.dto.response.ApiResponse;
+import com.medina.heritage.gamification.dto.response.ReconciliationRunResponse;
+import com.medina.heritage.gamification.dto.response.WalletDriftResponse;
+import com.medina.heritage.gamification.enums.ReconciliationMode;
+import com.medina.heritage.gamification.mapper.ReconciliationMapper;
+import com.medina.heritage.gamification.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Contrôleur REST pour la réconciliation des wallets avec le ledger.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+    private final ReconciliationMapper reconciliationMapper;
+
+    /**
+     * Lance une réconciliation en arrière-plan.
+     * POST /api/reconciliation/runs?mode=INCREMENTAL&repair=false
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<ApiResponse<ReconciliationRunResponse>> startRun(
+            @RequestParam(defaultValue = "INCREMENTAL") ReconciliationMode mode,
+            @RequestParam(defaultValue = "false") boolean repair) {
+        ReconciliationRunResponse response = reconciliationMapper.toRunResponse(
+                reconciliationService.start(mode, repair));
+        log.info("Wallet reconciliation started: id={}, mode={}, repair={}", response.getId(), response.getMode(), repair);
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Reconciliation started", response));
+    }
+
+    /**
+     * Récupère l'état d'une réconciliation.
+     * GET /api/reconciliation/runs/{runId}
+     */
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<ApiResponse<ReconciliationRunResponse>> getRun(@PathVariable UUID runId) {
+        return reconciliationService.getRun(runId)
+                .map(run -> ResponseEntity.ok(ApiResponse.success("Reconciliation retrieved",
+                        reconciliationMapper.toRunResponse(run))))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Reconciliation not found: " + runId)));
+    }
+
+    /**
+     * Récupère les écarts enregistrés par une réconciliation.
+     * GET /api/reconciliation/runs/{runId}/drifts
+     */
+    @GetMapping("/runs/{runId}/drifts")
+    public ResponseEntity<ApiResponse<List<WalletDriftResponse>>> getDrifts(@PathVariable UUID runId) {
+        List<WalletDriftResponse> response = reconciliationMapper.toDriftResponses(
+                reconciliationService.getDrifts(runId));
+        return ResponseEntity.ok(ApiResponse.success("Drifts retrieved", response));
+    }
+}
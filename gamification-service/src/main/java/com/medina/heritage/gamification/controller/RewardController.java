@@ -0,0 +1,111 @@
+package com.medina.heritage.gamification.controller;
+
+import com.medina.heritage.gamification.dto.request.CreateRewardRequest;
+import com.medina.heritage.gamification.dto.request.RedeemRewardRequest;
+import com.medina.heritage.gamification.dto.response.ApiResponse;
+import com.medina.heritage.gamification.dto.response.RedemptionResponse;
+import com.medina.heritage.gamification.dto.response.RewardResponse;
+import com.medina.heritage.gamification.service.RewardService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Contrôleur REST pour le catalogue des récompenses et leurs échanges contre des points.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/rewards")
+@RequiredArgsConstructor
+public class RewardController {
+
+    private final RewardService rewardService;
+
+    /**
+     * Récupère les récompenses actives.
+     * GET /api/rewards
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<RewardResponse>>> getCatalog() {
+        return ResponseEntity.ok(ApiResponse.success("Rewards retrieved", rewardService.getCatalog()));
+    }
+
+    /**
+     * Ajoute une récompense au catalogue.
+     * POST /api/rewards
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<RewardResponse>> createReward(@Valid @RequestBody CreateRewardRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Reward created", rewardService.createReward(request)));
+    }
+
+    /**
+     * Réapprovisionne une récompense.
+     * POST /api/rewards/{rewardId}/restock?quantity=100
+     */
+    @PostMapping("/{rewardId}/restock")
+    public ResponseEntity<ApiResponse<RewardResponse>> restock(@PathVariable UUID rewardId, @RequestParam int quantity) {
+        return ResponseEntity.ok(ApiResponse.success("Reward restocked", rewardService.restock(rewardId, quantity)));
+    }
+
+    /**
+     * Réserve une unité, à confirmer avant l'expiration de la réservation.
+     * POST /api/rewards/{rewardId}/reservations
+     */
+    @PostMapping("/{rewardId}/reservations")
+    public ResponseEntity<ApiResponse<RedemptionResponse>> reserve(@PathVariable UUID rewardId,
+                                                                   @Valid @RequestBody RedeemRewardRequest request) {
+        RedemptionResponse response = rewardService.reserve(request.getUserId(), rewardId);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Reward reserved", response));
+    }
+
+    /**
+     * Réserve et confirme en un seul appel.
+     * POST /api/rewards/{rewardId}/redeem
+     */
+    @PostMapping("/{rewardId}/redeem")
+    public ResponseEntity<ApiResponse<RedemptionResponse>> redeem(@PathVariable UUID rewardId,
+                                                                  @Valid @RequestBody RedeemRewardRequest request) {
+        RedemptionResponse response = rewardService.redeem(request.getUserId(), rewardId);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Reward redeemed", response));
+    }
+
+    /**
+     * Récupère une réservation.
+     * GET /api/rewards/reservations/{reservationId}
+     */
+    @GetMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponse<RedemptionResponse>> getReservation(@PathVariable UUID reservationId) {
+        return ResponseEntity.ok(ApiResponse.success("Reservation retrieved", rewardService.getRedemption(reservationId)));
+    }
+
+    /**
+     * Débite les points et confirme une réservation.
+     * POST /api/rewards/reservations/{reservationId}/confirm
+     */
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<ApiResponse<RedemptionResponse>> confirm(@PathVariable UUID reservationId) {
+        return ResponseEntity.ok(ApiResponse.success("Reward redeemed", rewardService.confirm(reservationId)));
+    }
+
+    /**
+     * Annule une réservation pas encore confirmée.
+     * DELETE /api/rewards/reservations/{reservationId}
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponse<RedemptionResponse>> cancel(@PathVariable UUID reservationId) {
+        return ResponseEntity.ok(ApiResponse.success("Reservation cancelled", rewardService.cancel(reservationId)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.medina.heritage.gamification.controller;
+
+import com.medina.heritage.gamification.dto.response.ActivityCohortResponse;
+import com.medina.heritage.gamification.dto.response.ApiResponse;
+import com.medina.heritage.gamification.dto.response.LevelDistributionResponse;
+import com.medina.heritage.gamification.dto.response.PlatformCountersResponse;
+import com.medina.heritage.gamification.enums.CounterGranularity;
+import com.medina.heritage.gamification.service.ActivityTracker;
+import com.medina.heritage.gamification.service.LevelHistogram;
+import com.medina.heritage.gamification.service.PlatformCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Contrôleur REST pour les statistiques globales (tableaux de bord d'administration).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final LevelHistogram levelHistogram;
+    private final ActivityTracker activityTracker;
+    private final PlatformCounters platformCounters;
+
+    /**
+     * Récupère la répartition des utilisateurs par niveau, depuis l'histogramme en mémoire.
+     * GET /api/stats/levels
+     */
+    @GetMapping("/levels")
+    public ResponseEntity<ApiResponse<LevelDistributionResponse>> getLevelDistribution() {
+        return ResponseEntity.ok(ApiResponse.success("Level distribution retrieved", levelHistogram.getDistribution()));
+    }
+
+    /**
+     * Récupère les utilisateurs actifs chacun des jours d'une période (intersection des bitmaps des jours).
+     * GET /api/stats/activity/cohort?from=2025-06-02&to=2025-06-08&limit=100
+     */
+    @GetMapping("/activity/cohort")
+    public ResponseEntity<ApiResponse<ActivityCohortResponse>> getActivityCohort(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(ApiResponse.success("Activity cohort retrieved", activityTracker.getCohort(from, to, limit)));
+    }
+
+    /**
+     * Récupère les indicateurs globaux (points crédités, échanges, bonus de bienvenue...) par tranche, depuis les
+     * compteurs et sans lire le ledger. Par défaut : la journée UTC en cours, par heure.
+     * GET /api/stats/counters?from=2025-06-02T00:00:00Z&to=2025-06-03T00:00:00Z&granularity=HOUR
+     */
+    @GetMapping("/counters")
+    public ResponseEntity<ApiResponse<PlatformCountersResponse>> getPlatformCounters(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(defaultValue = "HOUR") CounterGranularity granularity) {
+        OffsetDateTime end = to != null ? to : OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime start = from != null ? from
+                : end.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate().atStartOfDay().atOffset(ZoneOffset.UTC);
+        return ResponseEntity.ok(ApiResponse.success("Platform counters retrieved",
+                platformCounters.getCounters(start, end, granularity)));
+    }
+}
@@ -3,16 +3,30 @@ package com.medina.heritage.gamification.controller;
 import com.medina.heritage.gamification.dto.request.AddPointsRequest;
 import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
 import com.medina.heritage.gamification.dto.response.ApiResponse;
+import com.medina.heritage.gamification.dto.response.BadgeResponse;
+import com.medina.heritage.gamification.dto.response.BulkAddPointsResponse;
 import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
+import com.medina.heritage.gamification.dto.response.UserActivityResponse;
+import com.medina.heritage.gamification.dto.response.UserPointStatsResponse;
 import com.medina.heritage.gamification.dto.response.WalletResponse;
+import com.medina.heritage.gamification.service.AchievementService;
+import com.medina.heritage.gamification.service.ActivityTracker;
+import com.medina.heritage.gamification.service.BulkAwardService;
+import com.medina.heritage.gamification.service.PointStatsService;
 import com.medina.heritage.gamification.service.WalletService;
+import com.medina.heritage.gamification.service.WalletWriteRouter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -25,6 +39,11 @@ import java.util.UUID;
 public class WalletController {
 
     private final WalletService walletService;
+    private final WalletWriteRouter walletWriteRouter;
+    private final BulkAwardService bulkAwardService;
+    private final PointStatsService pointStatsService;
+    private final AchievementService achievementService;
+    private final ActivityTracker activityTracker;
 
     /**
      * Récupère le wallet d'un utilisateur.
@@ -49,6 +68,39 @@ public class WalletController {
         return ResponseEntity.ok(ApiResponse.success("Rank retrieved", rank));
     }
 
+    /**
+     * Récupère les statistiques de points d'un utilisateur (totaux et détail par code de raison).
+     * GET /api/wallets/{userId}/stats
+     */
+    @GetMapping("/{userId}/stats")
+    public ResponseEntity<ApiResponse<UserPointStatsResponse>> getStats(@PathVariable UUID userId) {
+        UserPointStatsResponse response = pointStatsService.getStats(userId);
+        return ResponseEntity.ok(ApiResponse.success("Stats retrieved", response));
+    }
+
+    /**
+     * Récupère les badges obtenus par un utilisateur.
+     * GET /api/wallets/{userId}/badges
+     */
+    @GetMapping("/{userId}/badges")
+    public ResponseEntity<ApiResponse<List<BadgeResponse>>> getBadges(@PathVariable UUID userId) {
+        List<BadgeResponse> response = achievementService.getBadges(userId);
+        return ResponseEntity.ok(ApiResponse.success("Badges retrieved", response));
+    }
+
+    /**
+     * Récupère l'activité quotidienne d'un utilisateur (jours actifs, séries).
+     * GET /api/wallets/{userId}/activity?from=2025-01-01&to=2025-01-31
+     */
+    @GetMapping("/{userId}/activity")
+    public ResponseEntity<ApiResponse<UserActivityResponse>> getActivity(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        UserActivityResponse response = activityTracker.getUserActivity(userId, from, to);
+        return ResponseEntity.ok(ApiResponse.success("Activity retrieved", response));
+    }
+
     /**
      * Ajoute des points à un utilisateur.
      * POST /api/wallets/add-points
@@ -56,13 +108,27 @@ public class WalletController {
     @PostMapping("/add-points")
     public ResponseEntity<ApiResponse<PointTransactionResponse>> addPoints(
             @Valid @RequestBody AddPointsRequest request) {
-        PointTransactionResponse response = walletService.addPoints(request);
+        PointTransactionResponse response = walletWriteRouter.addPoints(request);
         log.info("Points added: userId={}, points={}", request.getUserId(), request.getPoints());
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Points added successfully", response));
     }
 
+    /**
+     * Ajoute des points à un grand nombre d'utilisateurs (campagnes).
+     * Le corps, un tableau JSON d'AddPointsRequest, est lu en flux ; la réponse donne le résultat de chaque élément.
+     * POST /api/wallets/add-points:bulk
+     */
+    @PostMapping(value = "/add-points:bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<BulkAddPointsResponse>> addPointsBulk(InputStream body) {
+        BulkAddPointsResponse response = bulkAwardService.award(body);
+        log.info("Bulk points processed: total={}, awarded={}, duplicates={}, invalid={}, failed={}",
+                response.getTotal(), response.getAwarded(), response.getDuplicates(),
+                response.getInvalid(), response.getFailed());
+        return ResponseEntity.ok(ApiResponse.success("Bulk points processed", response));
+    }
+
     /**
      * Déduit des points d'un utilisateur.
      * POST /api/wallets/deduct-points
@@ -70,7 +136,7 @@ public class WalletController {
     @PostMapping("/deduct-points")
     public ResponseEntity<ApiResponse<PointTransactionResponse>> deductPoints(
             @Valid @RequestBody DeductPointsRequest request) {
-        PointTransactionResponse response = walletService.deductPoints(request);
+        PointTransactionResponse response = walletWriteRouter.deductPoints(request);
         log.info("Points deducted: userId={}, points={}", request.getUserId(), request.getPoints());
         return ResponseEntity
                 .status(HttpStatus.CREATED)
@@ -0,0 +1,45 @@
+package com.medina.heritage.gamification.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour ajouter une récompense au catalogue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateRewardRequest {
+
+    /**
+     * Nom de la récompense.
+     */
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must be at most 100 characters")
+    private String name;
+
+    /**
+     * Description optionnelle.
+     */
+    @Size(max = 500, message = "Description must be at most 500 characters")
+    private String description;
+
+    /**
+     * Prix en points.
+     */
+    @NotNull(message = "Cost is required")
+    @Min(value = 1, message = "Cost must be at least 1")
+    private Integer cost;
+
+    /**
+     * Stock initial.
+     */
+    @NotNull(message = "Stock is required")
+    @Min(value = 0, message = "Stock must not be negative")
+    private Integer stock;
+}
@@ -0,0 +1,23 @@
+package com.medina.heritage.gamification.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO pour réserver ou échanger une récompense.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedeemRewardRequest {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    @NotNull(message = "User ID is required")
+    private UUID userId;
+}
@@ -0,0 +1,38 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour les utilisateurs actifs chaque jour d'une période.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityCohortResponse {
+
+    /**
+     * Premier jour de la période (inclus).
+     */
+    private LocalDate from;
+
+    /**
+     * Dernier jour de la période (inclus).
+     */
+    private LocalDate to;
+
+    /**
+     * Nombre d'utilisateurs actifs chacun des jours.
+     */
+    private Long userCount;
+
+    /**
+     * Premiers de ces utilisateurs (par numéro d'activité), au plus la limite demandée.
+     */
+    private List<UUID> userIds;
+}
@@ -0,0 +1,37 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.Badge;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * DTO de réponse pour un badge obtenu.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeResponse {
+
+    /**
+     * Code du badge.
+     */
+    private Badge badge;
+
+    /**
+     * Libellé du badge.
+     */
+    private String description;
+
+    /**
+     * Points crédités à l'obtention.
+     */
+    private Integer points;
+
+    /**
+     * Date d'obtention.
+     */
+    private OffsetDateTime earnedAt;
+}
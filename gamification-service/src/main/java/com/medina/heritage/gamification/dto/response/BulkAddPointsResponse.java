@@ -0,0 +1,46 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de réponse pour une attribution de points groupée.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAddPointsResponse {
+
+    /**
+     * Nombre d'éléments reçus.
+     */
+    private Integer total;
+
+    /**
+     * Nombre d'attributions réussies.
+     */
+    private Integer awarded;
+
+    /**
+     * Nombre de doublons ignorés.
+     */
+    private Integer duplicates;
+
+    /**
+     * Nombre d'éléments invalides.
+     */
+    private Integer invalid;
+
+    /**
+     * Nombre d'éléments en échec.
+     */
+    private Integer failed;
+
+    /**
+     * Résultat de chaque élément, dans l'ordre de l'envoi.
+     */
+    private List<BulkAwardResult> results;
+}
@@ -0,0 +1,47 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.BulkAwardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour le résultat d'un élément d'un envoi groupé.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAwardResult {
+
+    /**
+     * Position de l'élément dans l'envoi (à partir de 0).
+     */
+    private Integer index;
+
+    /**
+     * ID de l'utilisateur.
+     */
+    private UUID userId;
+
+    /**
+     * Résultat de l'attribution.
+     */
+    private BulkAwardStatus status;
+
+    /**
+     * ID de la transaction créée (attribution réussie uniquement).
+     */
+    private UUID transactionId;
+
+    /**
+     * Solde après la transaction (attribution réussie uniquement).
+     */
+    private Integer balanceAfter;
+
+    /**
+     * Détail en cas de rejet ou d'échec.
+     */
+    private String message;
+}
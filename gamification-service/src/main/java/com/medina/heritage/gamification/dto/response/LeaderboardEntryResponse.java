@@ -0,0 +1,41 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour une ligne du classement.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+
+    /**
+     * Rang (à partir de 1) ; les scores égaux partagent le même rang.
+     */
+    private Long rank;
+
+    /**
+     * ID de l'utilisateur.
+     */
+    private UUID userId;
+
+    /**
+     * Total des points gagnés.
+     */
+    private Integer totalEarned;
+
+    /**
+     * Niveau correspondant au total gagné.
+     */
+    private Integer level;
+
+    /**
+     * Points comptés par le classement : total gagné, ou points gagnés sur la période.
+     */
+    private Integer points;
+}
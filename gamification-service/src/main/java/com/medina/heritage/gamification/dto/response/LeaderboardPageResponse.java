@@ -0,0 +1,48 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.LeaderboardWindow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * DTO de réponse pour une page du classement.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardPageResponse {
+
+    /**
+     * Position de la première ligne (à partir de 0).
+     */
+    private Integer offset;
+
+    /**
+     * Nombre maximal de lignes demandé (après plafonnement).
+     */
+    private Integer limit;
+
+    /**
+     * Nombre total d'utilisateurs classés.
+     */
+    private Integer total;
+
+    /**
+     * Lignes du classement.
+     */
+    private List<LeaderboardEntryResponse> entries;
+
+    /**
+     * Période du classement.
+     */
+    private LeaderboardWindow window;
+
+    /**
+     * Début de la période en cours (null pour le classement général).
+     */
+    private OffsetDateTime windowStart;
+}
@@ -0,0 +1,24 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de réponse pour le nombre d'utilisateurs d'un niveau.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LevelCountResponse {
+
+    /**
+     * Niveau.
+     */
+    private Integer level;
+
+    /**
+     * Nombre d'utilisateurs ayant ce niveau.
+     */
+    private Long userCount;
+}
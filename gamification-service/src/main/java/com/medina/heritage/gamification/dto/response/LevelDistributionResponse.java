@@ -0,0 +1,32 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * DTO de réponse pour la répartition des utilisateurs par niveau.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LevelDistributionResponse {
+
+    /**
+     * Nombre total d'utilisateurs ayant un wallet.
+     */
+    private Long totalUsers;
+
+    /**
+     * Nombre d'utilisateurs par niveau (niveaux non vides, par ordre croissant).
+     */
+    private List<LevelCountResponse> levels;
+
+    /**
+     * Date de la dernière synchronisation avec l'histogramme partagé.
+     */
+    private OffsetDateTime syncedAt;
+}
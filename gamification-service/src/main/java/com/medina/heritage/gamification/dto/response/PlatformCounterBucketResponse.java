@@ -0,0 +1,28 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.PlatformMetric;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * DTO de réponse pour les indicateurs globaux d'une tranche de temps.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlatformCounterBucketResponse {
+
+    /**
+     * Début de la tranche (UTC).
+     */
+    private OffsetDateTime start;
+
+    /**
+     * Valeur de chaque indicateur sur la tranche.
+     */
+    private Map<PlatformMetric, Long> values;
+}
@@ -0,0 +1,45 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.CounterGranularity;
+import com.medina.heritage.gamification.enums.PlatformMetric;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO de réponse pour les indicateurs globaux de la plateforme sur une période.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlatformCountersResponse {
+
+    /**
+     * Début de la période (début de la première tranche).
+     */
+    private OffsetDateTime from;
+
+    /**
+     * Fin (exclue) de la période (fin de la dernière tranche).
+     */
+    private OffsetDateTime to;
+
+    /**
+     * Pas des tranches.
+     */
+    private CounterGranularity granularity;
+
+    /**
+     * Total de chaque indicateur sur la période.
+     */
+    private Map<PlatformMetric, Long> totals;
+
+    /**
+     * Valeurs par tranche, de la plus ancienne à la plus récente.
+     */
+    private List<PlatformCounterBucketResponse> buckets;
+}
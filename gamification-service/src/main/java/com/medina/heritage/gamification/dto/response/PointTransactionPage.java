@@ -0,0 +1,26 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'un historique de transactions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointTransactionPage {
+
+    /**
+     * Transactions de la page, de la plus récente à la plus ancienne.
+     */
+    private List<PointTransactionResponse> items;
+
+    /**
+     * Jeton de la page suivante (null s'il n'y en a pas).
+     */
+    private String nextCursor;
+}
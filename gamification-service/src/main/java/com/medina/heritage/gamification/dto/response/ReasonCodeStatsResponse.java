@@ -0,0 +1,42 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * DTO de réponse pour les statistiques d'un code de raison.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReasonCodeStatsResponse {
+
+    /**
+     * Code de raison.
+     */
+    private String reasonCode;
+
+    /**
+     * Type de transaction (CREDIT ou DEBIT).
+     */
+    private TransactionType transactionType;
+
+    /**
+     * Nombre de transactions.
+     */
+    private Long transactionCount;
+
+    /**
+     * Somme des points.
+     */
+    private Long points;
+
+    /**
+     * Date de la dernière transaction.
+     */
+    private OffsetDateTime lastTransactionAt;
+}
@@ -0,0 +1,54 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.ReconciliationMode;
+import com.medina.heritage.gamification.enums.ReconciliationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour une exécution de réconciliation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunResponse {
+
+    private UUID id;
+
+    private ReconciliationMode mode;
+
+    /**
+     * Les écarts sont corrigés (sinon seulement signalés).
+     */
+    private Boolean repair;
+
+    private ReconciliationStatus status;
+
+    /**
+     * Coupure des snapshots de départ (null pour un replay complet).
+     */
+    private OffsetDateTime sinceCutoff;
+
+    /**
+     * Coupure des snapshots écrits par cette exécution.
+     */
+    private OffsetDateTime cutoff;
+
+    private OffsetDateTime startedAt;
+
+    private OffsetDateTime finishedAt;
+
+    private Long walletsChecked;
+
+    private Long transactionsFolded;
+
+    private Long driftCount;
+
+    private Long repairedCount;
+
+    private String errorMessage;
+}
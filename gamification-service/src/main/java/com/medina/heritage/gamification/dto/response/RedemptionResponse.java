@@ -0,0 +1,53 @@
+package com.medina.heritage.gamification.dto.response;
+
+import com.medina.heritage.gamification.enums.RedemptionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour une réservation de récompense.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedemptionResponse {
+
+    /**
+     * ID de la réservation.
+     */
+    private UUID id;
+
+    /**
+     * ID de la récompense.
+     */
+    private UUID rewardId;
+
+    /**
+     * ID de l'utilisateur.
+     */
+    private UUID userId;
+
+    /**
+     * Points débités à la confirmation.
+     */
+    private Integer points;
+
+    /**
+     * Statut de la réservation.
+     */
+    private RedemptionStatus status;
+
+    /**
+     * Transaction de débit (réservation confirmée uniquement).
+     */
+    private UUID transactionId;
+
+    /**
+     * Date limite de confirmation.
+     */
+    private OffsetDateTime expiresAt;
+}
@@ -0,0 +1,46 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour une récompense du catalogue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardResponse {
+
+    /**
+     * ID de la récompense.
+     */
+    private UUID id;
+
+    /**
+     * Nom de la récompense.
+     */
+    private String name;
+
+    /**
+     * Description.
+     */
+    private String description;
+
+    /**
+     * Prix en points.
+     */
+    private Integer cost;
+
+    /**
+     * Unités mises au catalogue depuis la création.
+     */
+    private Integer totalStock;
+
+    /**
+     * Unités pas encore attribuées aux instances ; chaque bail en cours en détient au plus quelques-unes.
+     */
+    private Integer availableStock;
+}
@@ -0,0 +1,42 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour l'activité quotidienne d'un utilisateur (jours UTC avec au moins un crédit).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityResponse {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    private UUID userId;
+
+    /**
+     * Nombre de jours actifs sur la période demandée (tout l'historique par défaut).
+     */
+    private Integer activeDays;
+
+    /**
+     * Jours consécutifs jusqu'à aujourd'hui, ou jusqu'à hier si l'utilisateur n'est pas encore actif aujourd'hui.
+     */
+    private Integer currentStreak;
+
+    /**
+     * Plus longue suite de jours actifs consécutifs.
+     */
+    private Integer longestStreak;
+
+    /**
+     * Dernier jour actif (null si aucun).
+     */
+    private LocalDate lastActiveDay;
+}
@@ -0,0 +1,47 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour les statistiques de points d'un utilisateur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPointStatsResponse {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    private UUID userId;
+
+    /**
+     * Total des points gagnés.
+     */
+    private Long totalEarned;
+
+    /**
+     * Total des points dépensés.
+     */
+    private Long totalSpent;
+
+    /**
+     * Nombre de crédits.
+     */
+    private Long creditCount;
+
+    /**
+     * Nombre de débits.
+     */
+    private Long debitCount;
+
+    /**
+     * Détail par code de raison.
+     */
+    private List<ReasonCodeStatsResponse> byReasonCode;
+}
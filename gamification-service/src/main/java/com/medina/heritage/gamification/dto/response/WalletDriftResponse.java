@@ -0,0 +1,41 @@
+package com.medina.heritage.gamification.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO de réponse pour un écart entre un wallet et son ledger.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletDriftResponse {
+
+    private UUID userId;
+
+    /**
+     * Valeurs du wallet au moment de la comparaison (null si le wallet n'existait pas).
+     */
+    private Integer walletBalance;
+
+    private Integer walletTotalEarned;
+
+    private Integer walletTotalSpent;
+
+    /**
+     * Valeurs attendues d'après le ledger.
+     */
+    private Long expectedBalance;
+
+    private Long expectedTotalEarned;
+
+    private Long expectedTotalSpent;
+
+    /**
+     * Le wallet a été corrigé.
+     */
+    private Boolean repaired;
+}
@@ -0,0 +1,57 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.AchievementCounter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Valeur d'un compteur de badges pour un utilisateur.
+ * Mise à jour dans la même transaction que chaque insertion dans le ledger qui la concerne.
+ */
+@Entity
+@Table(name = "achievement_progress")
+@IdClass(AchievementProgressId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AchievementProgress {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * Compteur.
+     */
+    @Id
+    @Column(name = "counter_code", length = 50)
+    @Enumerated(EnumType.STRING)
+    private AchievementCounter counter;
+
+    /**
+     * Valeur courante (nombre de transactions ou longueur de la série en cours).
+     */
+    @Column(name = "progress", nullable = false)
+    private Long progress;
+
+    /**
+     * Dernier jour d'activité compté (séries de jours consécutifs uniquement).
+     */
+    @Column(name = "last_activity_day")
+    private LocalDate lastActivityDay;
+
+    /**
+     * Date de la dernière mise à jour.
+     */
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.AchievementCounter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Clé composite de {@link AchievementProgress}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AchievementProgressId implements Serializable {
+
+    private UUID userId;
+    private AchievementCounter counter;
+}
@@ -0,0 +1,44 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Avancement de la reconstruction des jours d'activité depuis le ledger (une seule ligne).
+ */
+@Entity
+@Table(name = "activity_backfill")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityBackfill {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    /**
+     * Dernier utilisateur (ordre des userId) dont tous les crédits sont écrits ; null : aucun.
+     */
+    @Column(name = "last_user_id")
+    private UUID lastUserId;
+
+    /**
+     * Fin de la reconstruction ; null tant qu'elle n'est pas terminée.
+     */
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+
+    /**
+     * Date de la dernière mise à jour.
+     */
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
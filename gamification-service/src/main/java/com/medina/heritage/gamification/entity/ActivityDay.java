@@ -0,0 +1,45 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Utilisateurs actifs un jour donné (bitmap compressé de leurs numéros), partagé entre les instances.
+ */
+@Entity
+@Table(name = "activity_days")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityDay {
+
+    /**
+     * Jour (UTC).
+     */
+    @Id
+    @Column(name = "activity_day")
+    private LocalDate activityDay;
+
+    /**
+     * Numéros des utilisateurs actifs ce jour ({@link UserActivity#getOrdinal()}), sérialisés.
+     */
+    @Column(name = "user_ordinals", nullable = false, columnDefinition = "bytea")
+    private byte[] userOrdinals;
+
+    /**
+     * Nombre d'utilisateurs actifs ce jour.
+     */
+    @Column(name = "user_count", nullable = false)
+    private Long userCount;
+
+    /**
+     * Date de la dernière mise à jour.
+     */
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
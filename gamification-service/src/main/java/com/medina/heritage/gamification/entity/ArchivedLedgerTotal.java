@@ -0,0 +1,53 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Totaux du ledger d'un utilisateur pour les partitions archivées (sorties de {@code point_transactions}).
+ * Un replay complet de la réconciliation part de ces totaux au lieu de zéro.
+ * Cumulés par {@code LedgerPartitionRepository} dans la transaction qui supprime la partition ; l'entité sert au schéma.
+ */
+@Entity
+@Table(name = "archived_ledger_totals")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedLedgerTotal {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * Somme des crédits archivés.
+     */
+    @Column(name = "total_earned", nullable = false)
+    private Long totalEarned;
+
+    /**
+     * Somme des débits archivés.
+     */
+    @Column(name = "total_spent", nullable = false)
+    private Long totalSpent;
+
+    /**
+     * Nombre de transactions archivées.
+     */
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    /**
+     * Fin (exclue) de la dernière partition archivée contenant des transactions de l'utilisateur.
+     */
+    @Column(name = "archived_until", nullable = false)
+    private OffsetDateTime archivedUntil;
+}
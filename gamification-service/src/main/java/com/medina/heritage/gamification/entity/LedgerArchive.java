@@ -0,0 +1,69 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Partition de {@code point_transactions} détachée et archivée dans un fichier CSV compressé (gzip).
+ */
+@Entity
+@Table(name = "ledger_archives")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerArchive {
+
+    @Id
+    private UUID id;
+
+    /**
+     * Nom de la partition supprimée (ex: point_transactions_p2025_01).
+     */
+    @Column(name = "partition_name", nullable = false, unique = true, length = 63)
+    private String partitionName;
+
+    /**
+     * Début (inclus) de la plage de created_at ; null pour la partition des données antérieures au partitionnement.
+     */
+    @Column(name = "range_start")
+    private OffsetDateTime rangeStart;
+
+    /**
+     * Fin (exclue) de la plage de created_at.
+     */
+    @Column(name = "range_end", nullable = false)
+    private OffsetDateTime rangeEnd;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    /**
+     * Chemin du fichier d'archive.
+     */
+    @Column(name = "file_path", nullable = false, length = 500)
+    private String filePath;
+
+    /**
+     * Empreinte SHA-256 (hexadécimal) du fichier d'archive.
+     */
+    @Column(name = "checksum", nullable = false, length = 64)
+    private String checksum;
+
+    @Column(name = "archived_at", nullable = false)
+    private OffsetDateTime archivedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (archivedAt == null) {
+            archivedAt = OffsetDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Nombre d'utilisateurs d'un niveau, partagé entre les instances.
+ * Chaque instance y ajoute périodiquement les changements de niveau qu'elle a observés.
+ */
+@Entity
+@Table(name = "level_histogram")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LevelHistogramBucket {
+
+    /**
+     * Niveau.
+     */
+    @Id
+    @Column(name = "level")
+    private Integer level;
+
+    /**
+     * Nombre d'utilisateurs ayant ce niveau.
+     */
+    @Column(name = "user_count", nullable = false)
+    private Long userCount;
+
+    /**
+     * Date de la dernière mise à jour.
+     */
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
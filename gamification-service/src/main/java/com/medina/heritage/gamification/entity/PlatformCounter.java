@@ -0,0 +1,50 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Valeur d'un indicateur global sur une minute, pour une instance.
+ * Chaque instance n'écrit que ses propres lignes ; les instances sont additionnées à la lecture.
+ * Écrite par lots JDBC ({@code PlatformCounterRepository}) ; l'entité sert au schéma.
+ */
+@Entity
+@Table(name = "platform_counters")
+@IdClass(PlatformCounterId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlatformCounter {
+
+    /**
+     * Minute de la tranche, en minutes depuis l'epoch (UTC).
+     */
+    @Id
+    @Column(name = "bucket_minute")
+    private Long bucketMinute;
+
+    /**
+     * Indicateur ({@code PlatformMetric}).
+     */
+    @Id
+    @Column(name = "metric", length = 40)
+    private String metric;
+
+    /**
+     * Instance ayant compté la valeur.
+     */
+    @Id
+    @Column(name = "instance_id")
+    private UUID instanceId;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long counterValue;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
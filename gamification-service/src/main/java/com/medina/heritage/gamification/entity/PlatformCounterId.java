@@ -0,0 +1,21 @@
+package com.medina.heritage.gamification.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Clé composite de {@link PlatformCounter}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlatformCounterId implements Serializable {
+
+    private Long bucketMinute;
+    private String metric;
+    private UUID instanceId;
+}
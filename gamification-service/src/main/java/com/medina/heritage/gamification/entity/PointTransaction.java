@@ -16,7 +16,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "point_transactions", indexes = {
     @Index(name = "idx_point_transactions_user_id", columnList = "user_id"),
-    @Index(name = "idx_point_transactions_created_at", columnList = "created_at")
+    @Index(name = "idx_point_transactions_created_at", columnList = "created_at"),
+    @Index(name = "idx_point_transactions_user_keyset", columnList = "user_id, created_at DESC, id DESC"),
+    @Index(name = "idx_point_transactions_reference_keyset", columnList = "reference_id, reference_type, created_at DESC, id DESC")
 })
 @Data
 @NoArgsConstructor
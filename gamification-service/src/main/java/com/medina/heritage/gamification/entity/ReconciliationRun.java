@@ -0,0 +1,82 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.ReconciliationMode;
+import com.medina.heritage.gamification.enums.ReconciliationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Exécution d'une réconciliation des wallets avec le ledger.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "mode", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private ReconciliationMode mode;
+
+    /**
+     * Les écarts sont corrigés (sinon seulement signalés).
+     */
+    @Column(name = "repair", nullable = false)
+    private Boolean repair;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private ReconciliationStatus status;
+
+    /**
+     * Coupure des snapshots de la réconciliation précédente (null pour un replay complet).
+     */
+    @Column(name = "since_cutoff")
+    private OffsetDateTime sinceCutoff;
+
+    /**
+     * Coupure des snapshots écrits par cette réconciliation.
+     */
+    @Column(name = "cutoff", nullable = false)
+    private OffsetDateTime cutoff;
+
+    @Column(name = "started_at", nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    @Column(name = "wallets_checked")
+    private Long walletsChecked;
+
+    /**
+     * Nombre de transactions repliées (hors snapshots).
+     */
+    @Column(name = "transactions_folded")
+    private Long transactionsFolded;
+
+    @Column(name = "drift_count")
+    private Long driftCount;
+
+    @Column(name = "repaired_count")
+    private Long repairedCount;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Récompense du catalogue, échangeable contre des points dans la limite de son stock.
+ */
+@Entity
+@Table(name = "rewards")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reward {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "description", length = 500)
+    private String description;
+
+    /**
+     * Prix en points.
+     */
+    @Column(name = "cost", nullable = false)
+    private Integer cost;
+
+    /**
+     * Unités mises au catalogue depuis la création (réapprovisionnements compris).
+     */
+    @Column(name = "total_stock", nullable = false)
+    private Integer totalStock;
+
+    /**
+     * Unités pas encore attribuées à une instance par un bail.
+     */
+    @Column(name = "available_stock", nullable = false)
+    private Integer availableStock;
+
+    @Column(name = "active", nullable = false)
+    private Boolean active;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+}
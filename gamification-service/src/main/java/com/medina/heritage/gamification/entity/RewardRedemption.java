@@ -0,0 +1,75 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.RedemptionStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Réservation d'une unité de récompense par un utilisateur, puis son échange contre des points.
+ */
+@Entity
+@Table(name = "reward_redemptions", indexes = {
+    @Index(name = "idx_reward_redemptions_lease_status", columnList = "lease_id, status"),
+    @Index(name = "idx_reward_redemptions_status_expires", columnList = "status, expires_at"),
+    @Index(name = "idx_reward_redemptions_user_id", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardRedemption {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "reward_id", nullable = false)
+    private UUID rewardId;
+
+    /**
+     * Bail sur lequel l'unité a été réservée.
+     */
+    @Column(name = "lease_id", nullable = false)
+    private UUID leaseId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /**
+     * Prix en points au moment de la réservation.
+     */
+    @Column(name = "points", nullable = false)
+    private Integer points;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private RedemptionStatus status;
+
+    /**
+     * Transaction de débit, une fois la réservation confirmée.
+     */
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * Au-delà, une réservation non confirmée est libérée.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "settled_at")
+    private OffsetDateTime settledAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.StockLeaseStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Bloc d'unités de stock prélevé par une instance : ses réservations sont décomptées en mémoire,
+ * sans verrouiller la ligne de la récompense.
+ */
+@Entity
+@Table(name = "reward_stock_leases", indexes = {
+    @Index(name = "idx_reward_stock_leases_status_expires", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLease {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "reward_id", nullable = false)
+    private UUID rewardId;
+
+    /**
+     * Instance détentrice du bail.
+     */
+    @Column(name = "instance_id", nullable = false)
+    private UUID instanceId;
+
+    /**
+     * Unités prélevées sur le stock de la récompense.
+     */
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private StockLeaseStatus status;
+
+    /**
+     * Unités non réservées rendues au stock à la clôture du bail.
+     */
+    @Column(name = "returned_quantity")
+    private Integer returnedQuantity;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * Au-delà, l'instance ne réserve plus sur ce bail.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "settled_at")
+    private OffsetDateTime settledAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+}
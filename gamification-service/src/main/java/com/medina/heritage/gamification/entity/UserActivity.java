@@ -0,0 +1,59 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Jours d'activité d'un utilisateur (bitmap sérialisé, un bit par jour).
+ */
+@Entity
+@Table(name = "user_activity")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivity {
+
+    /**
+     * Numéro de l'utilisateur dans les bitmaps des jours d'activité, attribué à la création.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ordinal")
+    private Integer ordinal;
+
+    /**
+     * ID de l'utilisateur.
+     */
+    @Column(name = "user_id", nullable = false, unique = true)
+    private UUID userId;
+
+    /**
+     * Jours d'activité sérialisés (blocs de 64 jours).
+     */
+    @Column(name = "days", nullable = false, columnDefinition = "bytea")
+    private byte[] days;
+
+    /**
+     * Nombre de jours actifs.
+     */
+    @Column(name = "active_days", nullable = false)
+    private Integer activeDays;
+
+    /**
+     * Dernier jour actif (UTC).
+     */
+    @Column(name = "last_active_day")
+    private LocalDate lastActiveDay;
+
+    /**
+     * Date de la dernière mise à jour.
+     */
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
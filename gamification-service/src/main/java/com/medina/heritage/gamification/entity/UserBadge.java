@@ -0,0 +1,43 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.Badge;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Badge obtenu par un utilisateur (au plus une ligne par badge).
+ */
+@Entity
+@Table(name = "user_badges")
+@IdClass(UserBadgeId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBadge {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * Badge obtenu.
+     */
+    @Id
+    @Column(name = "badge", length = 50)
+    @Enumerated(EnumType.STRING)
+    private Badge badge;
+
+    /**
+     * Date d'obtention.
+     */
+    @Column(name = "earned_at", nullable = false)
+    private OffsetDateTime earnedAt;
+}
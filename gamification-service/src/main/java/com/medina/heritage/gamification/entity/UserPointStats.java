@@ -0,0 +1,64 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Statistiques cumulées d'un utilisateur par type de transaction et code de raison.
+ * Mises à jour dans la même transaction que chaque insertion dans le ledger : leur lecture
+ * ne dépend pas de la longueur de l'historique.
+ */
+@Entity
+@Table(name = "user_point_stats")
+@IdClass(UserPointStatsId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPointStats {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * Type de transaction (CREDIT ou DEBIT).
+     */
+    @Id
+    @Column(name = "transaction_type", length = 20)
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    /**
+     * Code de raison des transactions.
+     */
+    @Id
+    @Column(name = "reason_code", length = 50)
+    private String reasonCode;
+
+    /**
+     * Nombre de transactions.
+     */
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    /**
+     * Somme des points.
+     */
+    @Column(name = "points", nullable = false)
+    private Long points;
+
+    /**
+     * Date de la dernière transaction.
+     */
+    @Column(name = "last_transaction_at")
+    private OffsetDateTime lastTransactionAt;
+}
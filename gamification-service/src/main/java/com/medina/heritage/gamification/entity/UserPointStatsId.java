@@ -0,0 +1,22 @@
+package com.medina.heritage.gamification.entity;
+
+import com.medina.heritage.gamification.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Clé composite de {@link UserPointStats}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPointStatsId implements Serializable {
+
+    private UUID userId;
+    private TransactionType transactionType;
+    private String reasonCode;
+}
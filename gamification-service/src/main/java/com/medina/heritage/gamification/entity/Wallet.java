@@ -100,6 +100,13 @@ public class Wallet {
      * Formule simple: 1 niveau tous les 1000 points gagnés.
      */
     private void updateLevel() {
-        this.level = Math.max(1, (this.totalEarned / 1000) + 1);
+        this.level = levelFor(this.totalEarned);
+    }
+
+    /**
+     * Niveau correspondant à un total de points gagnés.
+     */
+    public static int levelFor(int totalEarned) {
+        return Math.max(1, (totalEarned / 1000) + 1);
     }
 }
@@ -0,0 +1,67 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Écart constaté entre un wallet et les totaux de son ledger lors d'une réconciliation.
+ */
+@Entity
+@Table(name = "wallet_drifts", indexes = {
+    @Index(name = "idx_wallet_drifts_run_id", columnList = "run_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletDrift {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /**
+     * Valeurs du wallet (null si le wallet n'existe pas).
+     */
+    @Column(name = "wallet_balance")
+    private Integer walletBalance;
+
+    @Column(name = "wallet_total_earned")
+    private Integer walletTotalEarned;
+
+    @Column(name = "wallet_total_spent")
+    private Integer walletTotalSpent;
+
+    /**
+     * Valeurs attendues d'après le ledger.
+     */
+    @Column(name = "expected_balance", nullable = false)
+    private Long expectedBalance;
+
+    @Column(name = "expected_total_earned", nullable = false)
+    private Long expectedTotalEarned;
+
+    @Column(name = "expected_total_spent", nullable = false)
+    private Long expectedTotalSpent;
+
+    /**
+     * Le wallet a été corrigé.
+     */
+    @Column(name = "repaired", nullable = false)
+    private Boolean repaired;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.medina.heritage.gamification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Totaux du ledger d'un utilisateur arrêtés à une date de coupure.
+ * Une réconciliation incrémentale part de ces totaux et ne replie que les transactions postérieures.
+ * Écrite par lots JDBC ({@code PointsBatchRepository}) ; l'entité sert au schéma.
+ */
+@Entity
+@Table(name = "wallet_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletSnapshot {
+
+    /**
+     * ID de l'utilisateur.
+     */
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * Somme des crédits jusqu'à la coupure.
+     */
+    @Column(name = "total_earned", nullable = false)
+    private Long totalEarned;
+
+    /**
+     * Somme des débits jusqu'à la coupure.
+     */
+    @Column(name = "total_spent", nullable = false)
+    private Long totalSpent;
+
+    /**
+     * Nombre de transactions repliées.
+     */
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    /**
+     * Date de coupure : toutes les transactions créées jusqu'à cette date sont incluses.
+     */
+    @Column(name = "cutoff", nullable = false)
+    private OffsetDateTime cutoff;
+}
@@ -0,0 +1,54 @@
+package com.medina.heritage.gamification.enums;
+
+import java.util.Set;
+
+/**
+ * Compteurs par utilisateur sur lesquels reposent les badges.
+ * Chaque compteur n'est mis à jour que par les transactions de ses codes de raison.
+ */
+public enum AchievementCounter {
+
+    /**
+     * Nombre de signalements validés.
+     */
+    VALIDATED_REPORTS(Kind.COUNT, ReasonCode.REPORT_VALIDATED),
+
+    /**
+     * Jours consécutifs (UTC) avec au moins une contribution créditée.
+     */
+    CONTRIBUTION_STREAK(Kind.DAILY_STREAK, ReasonCode.REPORT_VALIDATED, ReasonCode.REPORT_WITH_PHOTOS,
+            ReasonCode.EVENT_PARTICIPATION),
+
+    /**
+     * Niveau du wallet, déduit du total gagné après chaque crédit (sans état propre).
+     */
+    LEVEL(Kind.LEVEL);
+
+    /**
+     * Mode de calcul d'un compteur.
+     */
+    public enum Kind {
+        /** Nombre de transactions. */
+        COUNT,
+        /** Longueur de la série de jours consécutifs en cours. */
+        DAILY_STREAK,
+        /** Niveau du wallet. */
+        LEVEL
+    }
+
+    private final Kind kind;
+    private final Set<ReasonCode> reasonCodes;
+
+    AchievementCounter(Kind kind, ReasonCode... reasonCodes) {
+        this.kind = kind;
+        this.reasonCodes = Set.of(reasonCodes);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Set<ReasonCode> getReasonCodes() {
+        return reasonCodes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * Badges attribuables : chacun est obtenu une seule fois, quand son compteur atteint le seuil.
+ * L'obtention crédite {@link ReasonCode#BADGE_EARNED} dans la même transaction.
+ */
+public enum Badge {
+
+    /**
+     * Premier signalement validé.
+     */
+    FIRST_REPORT("Premier signalement", AchievementCounter.VALIDATED_REPORTS, 1),
+
+    /**
+     * 10 signalements validés.
+     */
+    CONFIRMED_REPORTER("Signaleur confirmé", AchievementCounter.VALIDATED_REPORTS, 10),
+
+    /**
+     * 50 signalements validés.
+     */
+    HERITAGE_GUARDIAN("Gardien du patrimoine", AchievementCounter.VALIDATED_REPORTS, 50),
+
+    /**
+     * Contributions 7 jours de suite.
+     */
+    WEEK_STREAK("Une semaine d'affilée", AchievementCounter.CONTRIBUTION_STREAK, 7),
+
+    /**
+     * Contributions 30 jours de suite.
+     */
+    MONTH_STREAK("Un mois d'affilée", AchievementCounter.CONTRIBUTION_STREAK, 30),
+
+    /**
+     * Niveau 5 atteint.
+     */
+    LEVEL_5("Niveau 5", AchievementCounter.LEVEL, 5),
+
+    /**
+     * Niveau 10 atteint.
+     */
+    LEVEL_10("Niveau 10", AchievementCounter.LEVEL, 10);
+
+    private final String description;
+    private final AchievementCounter counter;
+    private final long threshold;
+
+    Badge(String description, AchievementCounter counter, long threshold) {
+        this.description = description;
+        this.counter = counter;
+        this.threshold = threshold;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public AchievementCounter getCounter() {
+        return counter;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Points crédités à l'obtention.
+     */
+    public int getPoints() {
+        return ReasonCode.BADGE_EARNED.getDefaultPoints();
+    }
+}
@@ -0,0 +1,26 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * Résultat d'une attribution de points dans un envoi groupé.
+ */
+public enum BulkAwardStatus {
+    /**
+     * Points attribués.
+     */
+    AWARDED,
+
+    /**
+     * Référence déjà attribuée (en base ou plus tôt dans le même envoi).
+     */
+    DUPLICATE,
+
+    /**
+     * Élément invalide (champ manquant ou points négatifs).
+     */
+    INVALID,
+
+    /**
+     * Échec technique du lot contenant l'élément ; il peut être renvoyé.
+     */
+    FAILED
+}
@@ -0,0 +1,23 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * Pas des séries d'indicateurs globaux (tranches UTC).
+ */
+public enum CounterGranularity {
+    MINUTE(1),
+    HOUR(60),
+    DAY(1440);
+
+    private final int minutes;
+
+    CounterGranularity(int minutes) {
+        this.minutes = minutes;
+    }
+
+    /**
+     * Durée d'une tranche, en minutes.
+     */
+    public int getMinutes() {
+        return minutes;
+    }
+}
@@ -0,0 +1,38 @@
+package com.medina.heritage.gamification.enums;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Période couverte par un classement.
+ */
+public enum LeaderboardWindow {
+    /**
+     * Total gagné depuis la création du wallet.
+     */
+    ALL_TIME,
+
+    /**
+     * Points gagnés depuis le lundi 00:00 UTC de la semaine en cours.
+     */
+    WEEKLY,
+
+    /**
+     * Points gagnés depuis le 1er du mois en cours, 00:00 UTC.
+     */
+    MONTHLY;
+
+    /**
+     * Début de la période contenant {@code at} ({@code null} pour {@link #ALL_TIME}).
+     */
+    public Instant start(Instant at) {
+        LocalDate day = LocalDate.ofInstant(at, ZoneOffset.UTC);
+        return switch (this) {
+            case ALL_TIME -> null;
+            case WEEKLY -> day.with(DayOfWeek.MONDAY).atStartOfDay(ZoneOffset.UTC).toInstant();
+            case MONTHLY -> day.withDayOfMonth(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        };
+    }
+}
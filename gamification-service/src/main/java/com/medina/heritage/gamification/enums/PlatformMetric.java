@@ -0,0 +1,36 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * Indicateurs globaux de la plateforme, comptés à chaque écriture du ledger.
+ */
+public enum PlatformMetric {
+    /**
+     * Points crédités.
+     */
+    POINTS_EARNED,
+
+    /**
+     * Points débités.
+     */
+    POINTS_SPENT,
+
+    /**
+     * Transactions de crédit.
+     */
+    CREDIT_TRANSACTIONS,
+
+    /**
+     * Transactions de débit.
+     */
+    DEBIT_TRANSACTIONS,
+
+    /**
+     * Bonus de bienvenue attribués ({@link ReasonCode#WELCOME_BONUS}).
+     */
+    WELCOME_BONUSES,
+
+    /**
+     * Récompenses échangées ({@link ReasonCode#REWARD_REDEMPTION}).
+     */
+    REWARD_REDEMPTIONS
+}
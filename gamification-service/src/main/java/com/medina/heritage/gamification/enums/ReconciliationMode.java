@@ -0,0 +1,16 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * Mode d'une réconciliation des wallets avec le ledger.
+ */
+public enum ReconciliationMode {
+    /**
+     * Replie tout le ledger et réécrit les snapshots.
+     */
+    FULL,
+
+    /**
+     * Part des snapshots de la dernière réconciliation et ne replie que les nouvelles transactions.
+     */
+    INCREMENTAL
+}
@@ -0,0 +1,10 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * État d'une réconciliation.
+ */
+public enum ReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,27 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * Statut d'une réservation de récompense.
+ */
+public enum RedemptionStatus {
+
+    /**
+     * Unité de stock retenue, points pas encore débités.
+     */
+    RESERVED,
+
+    /**
+     * Points débités : la récompense est échangée.
+     */
+    CONFIRMED,
+
+    /**
+     * Réservation annulée ou débit refusé : l'unité est rendue au stock.
+     */
+    RELEASED,
+
+    /**
+     * Réservation non confirmée à temps : l'unité est rendue au stock.
+     */
+    EXPIRED
+}
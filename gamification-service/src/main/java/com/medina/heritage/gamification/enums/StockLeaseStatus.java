@@ -0,0 +1,17 @@
+package com.medina.heritage.gamification.enums;
+
+/**
+ * Statut d'un bail de stock attribué à une instance.
+ */
+public enum StockLeaseStatus {
+
+    /**
+     * L'instance peut encore réserver sur ce bail.
+     */
+    OPEN,
+
+    /**
+     * Bail soldé : les unités non réservées sont revenues au stock de la récompense.
+     */
+    SETTLED
+}
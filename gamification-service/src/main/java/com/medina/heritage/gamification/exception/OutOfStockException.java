@@ -0,0 +1,13 @@
+package com.medina.heritage.gamification.exception;
+
+import java.util.UUID;
+
+/**
+ * Exception levée quand plus aucune unité d'une récompense n'est disponible.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(UUID rewardId) {
+        super("Reward out of stock: " + rewardId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.medina.heritage.gamification.exception;
+
+import java.util.UUID;
+
+/**
+ * Exception levée quand une récompense ou une réservation n'est pas trouvée.
+ */
+public class RewardNotFoundException extends RuntimeException {
+
+    public RewardNotFoundException(UUID rewardId) {
+        super("Reward not found: " + rewardId);
+    }
+
+    public RewardNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.medina.heritage.gamification.mapper;
+
+import com.medina.heritage.gamification.dto.response.ReconciliationRunResponse;
+import com.medina.heritage.gamification.dto.response.WalletDriftResponse;
+import com.medina.heritage.gamification.entity.ReconciliationRun;
+import com.medina.heritage.gamification.entity.WalletDrift;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Mapper pour convertir les entités de réconciliation vers les DTOs.
+ */
+@Component
+public class ReconciliationMapper {
+
+    public ReconciliationRunResponse toRunResponse(ReconciliationRun run) {
+        if (run == null) {
+            return null;
+        }
+        return new ReconciliationRunResponse(run.getId(), run.getMode(), run.getRepair(), run.getStatus(),
+                run.getSinceCutoff(), run.getCutoff(), run.getStartedAt(), run.getFinishedAt(),
+                run.getWalletsChecked(), run.getTransactionsFolded(), run.getDriftCount(),
+                run.getRepairedCount(), run.getErrorMessage());
+    }
+
+    public List<WalletDriftResponse> toDriftResponses(List<WalletDrift> drifts) {
+        return drifts.stream()
+                .map(drift -> new WalletDriftResponse(drift.getUserId(), drift.getWalletBalance(),
+                        drift.getWalletTotalEarned(), drift.getWalletTotalSpent(), drift.getExpectedBalance(),
+                        drift.getExpectedTotalEarned(), drift.getExpectedTotalSpent(), drift.getRepaired()))
+                .collect(Collectors.toList());
+    }
+}
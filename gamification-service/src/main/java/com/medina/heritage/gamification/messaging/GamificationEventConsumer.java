@@ -1,19 +1,19 @@
 package com.medina.heritage.gamification.messaging;
 
-import com.medina.heritage.events.gamification.PointsEarnedEvent;
 import com.medina.heritage.events.user.UserCreatedEvent;
 import com.medina.heritage.events.user.UserDeletedEvent;
 import com.medina.heritage.gamification.dto.request.AddPointsRequest;
-import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
-import com.medina.heritage.gamification.dto.response.WalletResponse;
-import com.medina.heritage.gamification.entity.Wallet;
-import com.medina.heritage.gamification.repository.WalletRepository;
-import com.medina.heritage.gamification.service.WalletService;
+import com.medina.heritage.gamification.dto.response.BulkAddPointsResponse;
+import com.medina.heritage.gamification.service.BulkAwardService;
+import com.medina.heritage.gamification.service.LeaderboardService;
+import com.medina.heritage.gamification.service.WalletCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
 
@@ -26,9 +26,9 @@ import java.util.function.Consumer;
 @Slf4j
 public class GamificationEventConsumer {
 
-    private final WalletService walletService;
-    private final WalletRepository walletRepository;
-    private final GamificationEventPublisher eventPublisher;
+    private final BulkAwardService bulkAwardService;
+    private final LeaderboardService leaderboardService;
+    private final WalletCache walletCache;
 
     // Points configuration
     private static final int WELCOME_POINTS = 100;
@@ -36,41 +36,71 @@ public class GamificationEventConsumer {
     private static final int REPORT_VALIDATED_BONUS_POINTS = 100;
 
     /**
-     * Consumer for UserCreatedEvent.
-     * Creates a wallet and awards welcome points when a new user registers.
+     * Batch consumer for UserCreatedEvent (batch mode, see application.properties).
+     * Creates the wallets and awards the welcome points of the whole batch through
+     * {@link BulkAwardService}: a constant number of set-based statements per chunk, and the
+     * PointsEarnedEvents are built from the values already in memory.
+     * The welcome bonus is keyed on the user id, so a redelivered batch is deduplicated.
      */
     @Bean
-    public Consumer<UserCreatedEvent> userCreatedConsumer() {
+    public Consumer<List<UserCreatedEvent>> userCreatedConsumer() {
+        return events -> {
+            List<AddPointsRequest> requests = new ArrayList<>(events.size());
+            for (UserCreatedEvent event : events) {
+                UUID userId = parseUserId(event);
+                if (userId != null) {
+                    requests.add(createAddPointsRequest(
+                            userId, WELCOME_POINTS, "WELCOME_BONUS",
+                            "Points de bienvenue pour l'inscription",
+                            "USER_REGISTRATION", userId));
+                }
+            }
+            if (requests.isEmpty()) {
+                return;
+            }
+            BulkAddPointsResponse response = bulkAwardService.award(requests);
+            log.info("Processed {} UserCreatedEvents: {} welcome bonuses awarded, {} duplicates, {} invalid, {} failed",
+                    events.size(), response.getAwarded(), response.getDuplicates(), response.getInvalid(),
+                    response.getFailed());
+            if (response.getFailed() > 0) {
+                // The binder redelivers the batch; bonuses already awarded are deduplicated
+                throw new IllegalStateException(response.getFailed() + " welcome bonuses failed, batch will be retried");
+            }
+        };
+    }
+
+    private static UUID parseUserId(UserCreatedEvent event) {
+        try {
+            return UUID.fromString(event.getUserId());
+        } catch (RuntimeException e) {
+            log.error("Error processing UserCreatedEvent for user: {}. Error: {}", event.getUserId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Consumer for LeaderboardUpdateEvent, broadcast by every instance (including this one).
+     * Keeps the in-memory leaderboards consistent with writes handled by other instances.
+     */
+    @Bean
+    public Consumer<LeaderboardUpdateEvent> leaderboardUpdateConsumer() {
         return event -> {
-            log.info("Received UserCreatedEvent for user: {} ({})", event.getUserId(), event.getEmail());
-            try {
-                // Convert userId string from event (UUID string) to UUID
-                UUID userId = UUID.fromString(event.getUserId());
-                
-                // Create wallet for the new user
-                WalletResponse wallet = walletService.getOrCreateWallet(userId);
-                log.info("Wallet created for user: {}", userId);
-                
-                // Award welcome points
-                AddPointsRequest welcomePoints = createAddPointsRequest(
-                        userId, WELCOME_POINTS, "WELCOME_BONUS",
-                        "Points de bienvenue pour l'inscription",
-                        "USER_REGISTRATION", userId);
-                
-                var transaction = walletService.addPoints(welcomePoints);
-                log.info("Welcome points awarded: {} points to user {}", WELCOME_POINTS, userId);
-                
-                // Publish PointsEarnedEvent (no numeric referenceId available for user registration)
-                publishPointsEarned(userId, WELCOME_POINTS, transaction.getBalanceAfter(), 
-                    "USER_REGISTRATION", null, "Points de bienvenue");
-                
-            } catch (Exception e) {
-                log.error("Error processing UserCreatedEvent for user: {}. Error: {}", 
-                        event.getUserId(), e.getMessage(), e);
+            if (event.getUserId() == null || event.getTotalEarned() == null) {
+                return;
             }
+            leaderboardService.apply(event);
         };
     }
-    
+
+    /**
+     * Consumer for WalletCacheInvalidationEvent, broadcast by every instance (including this one).
+     * Drops wallets changed by other instances from the local wallet cache.
+     */
+    @Bean
+    public Consumer<WalletCacheInvalidationEvent> walletCacheInvalidationConsumer() {
+        return walletCache::onInvalidation;
+    }
+
     /**
      * Helper method to create AddPointsRequest.
      */
@@ -85,30 +115,4 @@ public class GamificationEventConsumer {
         request.setReferenceId(referenceId);
         return request;
     }
-    
-    /**
-     * Helper method to publish PointsEarnedEvent.
-     */
-    private void publishPointsEarned(UUID userId, int points, int newBalance, 
-            String referenceType, Long referenceId, String description) {
-        try {
-            Wallet wallet = walletRepository.findByUserId(userId).orElse(null);
-            if (wallet != null) {
-                PointsEarnedEvent event = PointsEarnedEvent.builder()
-                        .userId(userId.getMostSignificantBits())
-                        .pointsEarned(points)
-                        .newBalance(newBalance)
-                        .newTotalEarned(wallet.getTotalEarned())
-                        .referenceType(referenceType)
-                        .referenceId(referenceId)
-                        .description(description)
-                        .build();
-                
-                eventPublisher.publishPointsEarned(event);
-            }
-        } catch (Exception e) {
-            log.error("Error publishing PointsEarnedEvent: {}", e.getMessage());
-        }
-    }
-    
 }
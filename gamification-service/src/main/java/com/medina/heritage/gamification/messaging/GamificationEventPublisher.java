@@ -6,6 +6,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Service for publishing gamification-related events to the message broker.
  */
@@ -17,6 +19,8 @@ public class GamificationEventPublisher {
     private final StreamBridge streamBridge;
 
     private static final String POINTS_EARNED_BINDING = "pointsEarnedSupplier-out-0";
+    private static final String LEADERBOARD_BINDING = "leaderboardUpdates-out-0";
+    private static final String WALLET_CACHE_BINDING = "walletCacheInvalidations-out-0";
 
     /**
      * Publishes a PointsEarnedEvent when a user earns points.
@@ -31,5 +35,42 @@ public class GamificationEventPublisher {
             log.error("Failed to send PointsEarnedEvent for user: {}", event.getUserId());
         }
     }
-    
+
+    /**
+     * Publishes a batch of PointsEarnedEvents (bulk awards, sign-up bursts) with a single summary log.
+     */
+    public void publishPointsEarned(List<PointsEarnedEvent> events) {
+        int failed = 0;
+        for (PointsEarnedEvent event : events) {
+            event.initializeDefaults();
+            if (!streamBridge.send(POINTS_EARNED_BINDING, event)) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.error("Failed to send {} of {} PointsEarnedEvents", failed, events.size());
+        } else {
+            log.info("Published {} PointsEarnedEvents", events.size());
+        }
+    }
+
+    /**
+     * Broadcasts a new earned total to the other instances (in-memory leaderboards).
+     */
+    public void publishLeaderboardUpdate(LeaderboardUpdateEvent event) {
+        boolean sent = streamBridge.send(LEADERBOARD_BINDING, event);
+        if (!sent) {
+            log.warn("Failed to send LeaderboardUpdateEvent for user: {}", event.getUserId());
+        }
+    }
+
+    /**
+     * Broadcasts the changed wallets to the other instances (local wallet cache).
+     */
+    public void publishWalletCacheInvalidation(WalletCacheInvalidationEvent event) {
+        boolean sent = streamBridge.send(WALLET_CACHE_BINDING, event);
+        if (!sent) {
+            log.warn("Failed to send WalletCacheInvalidationEvent for {} wallets", event.getUserIds().size());
+        }
+    }
 }
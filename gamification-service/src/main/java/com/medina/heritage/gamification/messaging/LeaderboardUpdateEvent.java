@@ -0,0 +1,28 @@
+package com.medina.heritage.gamification.messaging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Nouveau total gagné d'un utilisateur, diffusé à toutes les instances du service
+ * pour garder leurs classements en mémoire cohérents.
+ * Le total est absolu et croissant : rejouer ou recevoir dans le désordre est sans effet.
+ * Les points crédités alimentent les classements par période ; l'instance d'origine les a
+ * déjà appliqués et ignore son propre message. Avec le total, ils désignent la tranche
+ * {@code (totalEarned - points, totalEarned]} du crédit : un message redélivré n'est compté qu'une fois.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardUpdateEvent {
+
+    private UUID userId;
+    private Integer totalEarned;
+    private Integer points;
+    private Instant creditedAt;
+    private UUID origin;
+}
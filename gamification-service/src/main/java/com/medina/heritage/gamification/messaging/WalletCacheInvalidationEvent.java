@@ -0,0 +1,25 @@
+package com.medina.heritage.gamification.messaging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Wallets modifiés par une instance, diffusés à toutes les instances du service
+ * pour qu'elles retirent ces wallets de leur cache local.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletCacheInvalidationEvent {
+
+    /**
+     * Instance émettrice (ignore ses propres messages : son cache est déjà à jour).
+     */
+    private UUID origin;
+
+    private List<UUID> userIds;
+}
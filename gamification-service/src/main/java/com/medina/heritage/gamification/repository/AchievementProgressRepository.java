@@ -0,0 +1,23 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.AchievementProgress;
+import com.medina.heritage.gamification.entity.AchievementProgressId;
+import com.medina.heritage.gamification.enums.AchievementCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository pour les compteurs des badges.
+ */
+@Repository
+public interface AchievementProgressRepository extends JpaRepository<AchievementProgress, AchievementProgressId> {
+
+    /**
+     * Compteurs de plusieurs utilisateurs, limités aux compteurs demandés.
+     */
+    List<AchievementProgress> findByUserIdInAndCounterIn(Collection<UUID> userIds, Collection<AchievementCounter> counters);
+}
@@ -0,0 +1,22 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.ActivityBackfill;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository pour l'avancement de la reconstruction des jours d'activité.
+ */
+@Repository
+public interface ActivityBackfillRepository extends JpaRepository<ActivityBackfill, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ActivityBackfill b WHERE b.id = :id")
+    Optional<ActivityBackfill> findForUpdate(@Param("id") Integer id);
+}
@@ -0,0 +1,29 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.ActivityDay;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository pour les utilisateurs actifs par jour.
+ */
+@Repository
+public interface ActivityDayRepository extends JpaRepository<ActivityDay, LocalDate> {
+
+    List<ActivityDay> findByActivityDayIn(Collection<LocalDate> days);
+
+    /**
+     * Jours verrouillés par ordre croissant (pas d'interblocage entre flushs concurrents).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM ActivityDay d WHERE d.activityDay IN :days ORDER BY d.activityDay")
+    List<ActivityDay> findForUpdate(@Param("days") Collection<LocalDate> days);
+}
@@ -0,0 +1,14 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.LedgerArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repository pour les partitions archivées du ledger.
+ */
+@Repository
+public interface LedgerArchiveRepository extends JpaRepository<LedgerArchive, UUID> {
+}
@@ -0,0 +1,221 @@
+package com.medina.heritage.gamification.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partitions mensuelles de {@code point_transactions} (PostgreSQL uniquement) : DDL, lecture et repli des partitions
+ * à archiver.
+ *
+ * Les partitions sont nommées d'après leur plage de created_at (mois UTC) :
+ * <ul>
+ *   <li>{@code point_transactions_p2025_01} : {@code [2025-01-01, 2025-02-01)} ;</li>
+ *   <li>{@code point_transactions_before_2025_01} : tout ce qui précède, soit la table d'origine rattachée
+ *       telle quelle lors de la conversion ;</li>
+ *   <li>{@code point_transactions_default} : filet de sécurité pour un mois dont la partition manquerait.</li>
+ * </ul>
+ * Les appels de DDL sont à faire dans une transaction qui détient {@link #tryLock()}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerPartitionRepository {
+
+    public static final String TABLE = "point_transactions";
+    public static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final Pattern MONTHLY = Pattern.compile(TABLE + "_p(\\d{4})_(\\d{2})");
+    private static final Pattern BEFORE = Pattern.compile(TABLE + "_before_(\\d{4})_(\\d{2})");
+
+    /**
+     * Clé du verrou consultatif partagé par les instances pour la maintenance des partitions.
+     */
+    private static final long LOCK_KEY = 0x6c65646765727061L;
+
+    /**
+     * Index du ledger, recréés sur la table partitionnée (mêmes définitions que schema.sql).
+     */
+    private static final List<String[]> INDEXES = List.of(
+            new String[]{"idx_point_transactions_user_id", "(user_id)"},
+            new String[]{"idx_point_transactions_created_at", "(created_at)"},
+            new String[]{"idx_point_transactions_reason_code", "(reason_code)"},
+            new String[]{"idx_point_transactions_reference", "(reference_id, reference_type)"},
+            new String[]{"idx_point_transactions_user_keyset", "(user_id, created_at DESC, id DESC)"},
+            new String[]{"idx_point_transactions_reference_keyset", "(reference_id, reference_type, created_at DESC, id DESC)"},
+            new String[]{"idx_point_transactions_user_type", "(user_id, transaction_type, created_at) INCLUDE (points)"});
+
+    /**
+     * Partition et sa plage {@code [rangeStart, rangeEnd)} ; bornes nulles : non bornée.
+     */
+    public record Partition(String name, OffsetDateTime rangeStart, OffsetDateTime rangeEnd) {
+    }
+
+    public record LedgerRow(UUID id, UUID userId, int points, String transactionType, String reasonCode,
+                            String description, UUID referenceId, String referenceType, String sfCaseId,
+                            int balanceAfter, OffsetDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${gamification.reconciliation.fetch-size:5000}")
+    private int fetchSize;
+
+    public static OffsetDateTime monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    public static String monthlyName(YearMonth month) {
+        return String.format("%s_p%04d_%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Verrou consultatif de la transaction courante (libéré au commit) ; false si une autre instance le détient.
+     */
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY));
+    }
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))", Boolean.class, TABLE));
+    }
+
+    /**
+     * Convertit la table d'origine en table partitionnée par mois de created_at. La table d'origine devient,
+     * sans copie, la partition de tout ce qui précède {@code firstMonth} ; les index sont recréés sur la table
+     * partitionnée et ceux de la table d'origine y sont rattachés.
+     *
+     * Verrouille le ledger le temps de construire l'index (id, created_at) de la clé primaire sur la table d'origine.
+     */
+    public void convertToPartitioned(YearMonth firstMonth) {
+        String legacy = String.format("%s_before_%04d_%02d", TABLE, firstMonth.getYear(), firstMonth.getMonthValue());
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + legacy);
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " RENAME CONSTRAINT " + TABLE + "_pkey TO " + legacy + "_pkey");
+        for (String[] index : INDEXES) {
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS " + index[0] + " RENAME TO " + index[0].replace(TABLE, legacy));
+        }
+        // Une clé de partitionnement ne peut pas être nulle (la valeur par défaut ne s'applique qu'à l'insertion)
+        jdbcTemplate.execute("UPDATE " + legacy + " SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL");
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " ALTER COLUMN created_at SET NOT NULL");
+        // La clé primaire d'une table partitionnée doit contenir la clé de partitionnement
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + legacy + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS, " +
+                "PRIMARY KEY (id, created_at)) PARTITION BY RANGE (created_at)");
+        for (String[] index : INDEXES) {
+            jdbcTemplate.execute("CREATE INDEX " + index[0] + " ON " + TABLE + " " + index[1]);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + legacy +
+                " FOR VALUES FROM (MINVALUE) TO ('" + monthStart(firstMonth) + "')");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+    }
+
+    /**
+     * Partitions rattachées à {@code point_transactions}, hors partition par défaut.
+     */
+    public List<Partition> listPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname", String.class, TABLE);
+        List<Partition> partitions = new ArrayList<>(names.size());
+        for (String name : names) {
+            Matcher monthly = MONTHLY.matcher(name);
+            Matcher before = BEFORE.matcher(name);
+            if (monthly.matches()) {
+                YearMonth month = YearMonth.of(Integer.parseInt(monthly.group(1)), Integer.parseInt(monthly.group(2)));
+                partitions.add(new Partition(name, monthStart(month), monthStart(month.plusMonths(1))));
+            } else if (before.matches()) {
+                YearMonth month = YearMonth.of(Integer.parseInt(before.group(1)), Integer.parseInt(before.group(2)));
+                partitions.add(new Partition(name, null, monthStart(month)));
+            }
+        }
+        return partitions;
+    }
+
+    public void createMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + monthlyName(month) + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + monthStart(month) + "') TO ('" + monthStart(month.plusMonths(1)) + "')");
+    }
+
+    public long countRows(String partition) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + checked(partition), Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Lit une partition par curseur (à appeler dans une transaction), dans l'ordre (created_at, id).
+     */
+    public void streamRows(String partition, Consumer<LedgerRow> consumer) {
+        String sql = "SELECT id, user_id, points, transaction_type, reason_code, description, reference_id, " +
+                "reference_type, sf_case_id, balance_after, created_at FROM " + checked(partition) +
+                " ORDER BY created_at, id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            consumer.accept(new LedgerRow(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("user_id", UUID.class),
+                    rs.getInt("points"),
+                    rs.getString("transaction_type"),
+                    rs.getString("reason_code"),
+                    rs.getString("description"),
+                    rs.getObject("reference_id", UUID.class),
+                    rs.getString("reference_type"),
+                    rs.getString("sf_case_id"),
+                    rs.getInt("balance_after"),
+                    rs.getObject("created_at", OffsetDateTime.class)));
+        });
+    }
+
+    /**
+     * Ajoute les totaux par utilisateur d'une partition à {@code archived_ledger_totals}.
+     *
+     * @return nombre d'utilisateurs concernés
+     */
+    public int addArchivedTotals(String partition, OffsetDateTime archivedUntil) {
+        return jdbcTemplate.update(
+                "INSERT INTO archived_ledger_totals (user_id, total_earned, total_spent, transaction_count, archived_until) " +
+                "SELECT user_id, " +
+                "SUM(CASE WHEN transaction_type = 'CREDIT' THEN points ELSE 0 END), " +
+                "SUM(CASE WHEN transaction_type = 'DEBIT' THEN points ELSE 0 END), " +
+                "COUNT(*), ? FROM " + checked(partition) + " GROUP BY user_id " +
+                "ON CONFLICT (user_id) DO UPDATE SET " +
+                "total_earned = archived_ledger_totals.total_earned + EXCLUDED.total_earned, " +
+                "total_spent = archived_ledger_totals.total_spent + EXCLUDED.total_spent, " +
+                "transaction_count = archived_ledger_totals.transaction_count + EXCLUDED.transaction_count, " +
+                "archived_until = GREATEST(archived_ledger_totals.archived_until, EXCLUDED.archived_until)",
+                Timestamp.from(archivedUntil.toInstant()));
+    }
+
+    /**
+     * Détache puis supprime une partition ; le verrou exclusif sur {@code point_transactions} est tenu jusqu'au commit.
+     */
+    public void detachAndDrop(String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + checked(partition));
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    /**
+     * Les noms de partition sont concaténés au SQL : seuls les noms générés par ce repository sont acceptés.
+     */
+    private static String checked(String partition) {
+        if (!MONTHLY.matcher(partition).matches() && !BEFORE.matcher(partition).matches()
+                && !DEFAULT_PARTITION.equals(partition)) {
+            throw new IllegalArgumentException("Not a ledger partition: " + partition);
+        }
+        return partition;
+    }
+}
@@ -0,0 +1,41 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.LevelHistogramBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'histogramme des niveaux.
+ */
+@Repository
+public interface LevelHistogramRepository extends JpaRepository<LevelHistogramBucket, Integer> {
+
+    /**
+     * Histogramme complet, par niveau croissant.
+     */
+    List<LevelHistogramBucket> findAllByOrderByLevelAsc();
+
+    /**
+     * Ajoute un écart au nombre d'utilisateurs d'un niveau, en une instruction atomique.
+     *
+     * @return nombre de lignes mises à jour (0 si le niveau n'existe pas encore)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LevelHistogramBucket b SET b.userCount = b.userCount + :delta, b.updatedAt = :now " +
+           "WHERE b.level = :level")
+    int increment(@Param("level") int level, @Param("delta") long delta, @Param("now") OffsetDateTime now);
+
+    /**
+     * Crée le niveau à zéro s'il n'existe pas (création concurrente sans erreur).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO level_histogram (level, user_count, updated_at) VALUES (:level, 0, :now) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("level") int level, @Param("now") OffsetDateTime now);
+}
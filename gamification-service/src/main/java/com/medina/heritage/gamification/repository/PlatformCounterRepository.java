@@ -0,0 +1,91 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.enums.PlatformMetric;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Écritures groupées et lectures agrégées des indicateurs globaux ({@code platform_counters}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class PlatformCounterRepository {
+
+    /**
+     * Valeur à ajouter à un indicateur sur une minute.
+     */
+    public record CounterDelta(long bucketMinute, PlatformMetric metric, long delta) {
+    }
+
+    /**
+     * Somme d'un indicateur sur une tranche, toutes instances confondues ({@code bucket} : numéro de la tranche
+     * depuis l'epoch).
+     */
+    public record BucketSum(long bucket, PlatformMetric metric, long total) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ajoute les écarts aux lignes de l'instance : création des lignes manquantes à zéro puis incrément, en deux batchs.
+     */
+    public void addDeltas(UUID instanceId, List<CounterDelta> deltas, OffsetDateTime now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.from(now.toInstant());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO platform_counters (bucket_minute, metric, instance_id, counter_value, updated_at) " +
+                "VALUES (?, ?, ?, 0, ?) ON CONFLICT DO NOTHING",
+                deltas, deltas.size(), (ps, delta) -> {
+                    ps.setLong(1, delta.bucketMinute());
+                    ps.setString(2, delta.metric().name());
+                    ps.setObject(3, instanceId);
+                    ps.setTimestamp(4, timestamp);
+                });
+        jdbcTemplate.batchUpdate(
+                "UPDATE platform_counters SET counter_value = counter_value + ?, updated_at = ? " +
+                "WHERE bucket_minute = ? AND metric = ? AND instance_id = ?",
+                deltas, deltas.size(), (ps, delta) -> {
+                    ps.setLong(1, delta.delta());
+                    ps.setTimestamp(2, timestamp);
+                    ps.setLong(3, delta.bucketMinute());
+                    ps.setString(4, delta.metric().name());
+                    ps.setObject(5, instanceId);
+                });
+    }
+
+    /**
+     * Sommes par tranche de {@code bucketMinutes} minutes et par indicateur, pour les minutes de
+     * {@code [fromMinute, toMinute)}.
+     */
+    public void sumByBucket(long fromMinute, long toMinute, int bucketMinutes, Consumer<BucketSum> consumer) {
+        // Pas issu de CounterGranularity : concaténé pour que le regroupement porte sur la même expression
+        String bucket = "bucket_minute / " + bucketMinutes;
+        jdbcTemplate.query(
+                "SELECT " + bucket + " AS bucket, metric, SUM(counter_value) AS total FROM platform_counters " +
+                "WHERE bucket_minute >= ? AND bucket_minute < ? GROUP BY " + bucket + ", metric",
+                (RowCallbackHandler) rs -> consumer.accept(new BucketSum(
+                        rs.getLong("bucket"),
+                        PlatformMetric.valueOf(rs.getString("metric")),
+                        rs.getLong("total"))),
+                fromMinute, toMinute);
+    }
+
+    /**
+     * Supprime les minutes antérieures à {@code beforeMinute}.
+     *
+     * @return nombre de lignes supprimées
+     */
+    public int deleteBefore(long beforeMinute) {
+        return jdbcTemplate.update("DELETE FROM platform_counters WHERE bucket_minute < ?", beforeMinute);
+    }
+}
@@ -1,13 +1,16 @@
 package com.medina.heritage.gamification.repository;
 
+import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
 import com.medina.heritage.gamification.entity.PointTransaction;
 import com.medina.heritage.gamification.enums.TransactionType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,36 +21,28 @@ import java.util.UUID;
 public interface PointTransactionRepository extends JpaRepository<PointTransaction, UUID> {
 
     /**
-     * Récupère toutes les transactions d'un utilisateur.
+     * Projection directe vers le DTO (pas d'entité managée ni de mapping).
      */
-    List<PointTransaction> findByUserIdOrderByCreatedAtDesc(UUID userId);
+    String RESPONSE_PROJECTION = "SELECT new com.medina.heritage.gamification.dto.response.PointTransactionResponse(" +
+            "pt.id, pt.userId, pt.points, pt.transactionType, pt.reasonCode, pt.description, " +
+            "pt.referenceId, pt.referenceType, pt.balanceAfter, pt.createdAt) FROM PointTransaction pt ";
 
     /**
-     * Récupère les transactions d'un utilisateur par type.
+     * Transactions strictement après la position (createdAt, id) dans l'ordre (createdAt DESC, id DESC).
      */
-    List<PointTransaction> findByUserIdAndTransactionTypeOrderByCreatedAtDesc(
-            UUID userId, TransactionType transactionType);
+    String AFTER_CURSOR = "(pt.createdAt < :cursorCreatedAt OR (pt.createdAt = :cursorCreatedAt AND pt.id < :cursorId)) ";
 
-    /**
-     * Récupère les transactions par code de raison.
-     */
-    List<PointTransaction> findByUserIdAndReasonCode(UUID userId, String reasonCode);
+    String KEYSET_ORDER = "ORDER BY pt.createdAt DESC, pt.id DESC";
 
     /**
-     * Récupère les transactions liées à une entité spécifique.
+     * Récupère toutes les transactions d'un utilisateur.
      */
-    List<PointTransaction> findByReferenceIdAndReferenceType(UUID referenceId, String referenceType);
+    List<PointTransaction> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
     /**
-     * Récupère les transactions dans une période donnée.
+     * Récupère les transactions par code de raison.
      */
-    @Query("SELECT pt FROM PointTransaction pt WHERE pt.userId = :userId " +
-           "AND pt.createdAt >= :startDate AND pt.createdAt <= :endDate " +
-           "ORDER BY pt.createdAt DESC")
-    List<PointTransaction> findByUserIdAndPeriod(
-            @Param("userId") UUID userId,
-            @Param("startDate") OffsetDateTime startDate,
-            @Param("endDate") OffsetDateTime endDate);
+    List<PointTransaction> findByUserIdAndReasonCode(UUID userId, String reasonCode);
 
     /**
      * Calcule la somme des points gagnés par un utilisateur.
@@ -63,6 +58,15 @@ public interface PointTransactionRepository extends JpaRepository<PointTransacti
            "WHERE pt.userId = :userId AND pt.transactionType = 'DEBIT'")
     Integer sumPointsSpentByUserId(@Param("userId") UUID userId);
 
+    /**
+     * Points gagnés par utilisateur sur une période [from, to) (reconstruction des classements
+     * hebdomadaire et mensuel ; parcours de la période seulement, via l'index sur created_at).
+     */
+    @Query("SELECT pt.userId, SUM(pt.points) FROM PointTransaction pt " +
+           "WHERE pt.transactionType = 'CREDIT' AND pt.createdAt >= :from AND pt.createdAt < :to " +
+           "GROUP BY pt.userId")
+    List<Object[]> sumPointsEarnedByUserBetween(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
     /**
      * Compte le nombre de transactions par code de raison pour un utilisateur.
      */
@@ -80,4 +84,59 @@ public interface PointTransactionRepository extends JpaRepository<PointTransacti
      */
     boolean existsByReferenceIdAndReferenceTypeAndReasonCode(
             UUID referenceId, String referenceType, String reasonCode);
+
+    /**
+     * Clés de référence (referenceId, referenceType, reasonCode) déjà attribuées parmi un ensemble
+     * de referenceId : détection des doublons d'un lot en une seule requête.
+     */
+    @Query("SELECT pt.referenceId, pt.referenceType, pt.reasonCode FROM PointTransaction pt " +
+           "WHERE pt.referenceId IN :referenceIds")
+    List<Object[]> findReferenceKeys(@Param("referenceIds") Collection<UUID> referenceIds);
+
+    /**
+     * Page de l'historique d'un utilisateur après un curseur (taille portée par le Pageable).
+     */
+    @Query(RESPONSE_PROJECTION + "WHERE pt.userId = :userId AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<PointTransactionResponse> findPageByUserId(
+            @Param("userId") UUID userId,
+            @Param("cursorCreatedAt") OffsetDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
+
+    /**
+     * Page de l'historique d'un utilisateur pour un type de transaction.
+     */
+    @Query(RESPONSE_PROJECTION + "WHERE pt.userId = :userId AND pt.transactionType = :transactionType AND " +
+           AFTER_CURSOR + KEYSET_ORDER)
+    List<PointTransactionResponse> findPageByUserIdAndTransactionType(
+            @Param("userId") UUID userId,
+            @Param("transactionType") TransactionType transactionType,
+            @Param("cursorCreatedAt") OffsetDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
+
+    /**
+     * Page de l'historique d'un utilisateur dans une période donnée.
+     */
+    @Query(RESPONSE_PROJECTION + "WHERE pt.userId = :userId " +
+           "AND pt.createdAt >= :startDate AND pt.createdAt <= :endDate AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<PointTransactionResponse> findPageByUserIdAndPeriod(
+            @Param("userId") UUID userId,
+            @Param("startDate") OffsetDateTime startDate,
+            @Param("endDate") OffsetDateTime endDate,
+            @Param("cursorCreatedAt") OffsetDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
+
+    /**
+     * Page des transactions liées à une entité.
+     */
+    @Query(RESPONSE_PROJECTION + "WHERE pt.referenceId = :referenceId AND pt.referenceType = :referenceType AND " +
+           AFTER_CURSOR + KEYSET_ORDER)
+    List<PointTransactionResponse> findPageByReference(
+            @Param("referenceId") UUID referenceId,
+            @Param("referenceType") String referenceType,
+            @Param("cursorCreatedAt") OffsetDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable);
 }
@@ -0,0 +1,230 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.AchievementProgressId;
+import com.medina.heritage.gamification.entity.ActivityBackfill;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Écritures groupées (batch JDBC) pour les attributions de points en masse.
+ * Une instruction préparée par étape, exécutée en un seul aller-retour pour tout le lot.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PointsBatchRepository {
+
+    /**
+     * Transactions à ajouter aux statistiques d'un utilisateur pour un type et un code de raison.
+     */
+    public record StatsDelta(UUID userId, TransactionType transactionType, String reasonCode,
+                             long count, long points, OffsetDateTime lastTransactionAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Crée les wallets manquants (les wallets existants sont laissés tels quels).
+     *
+     * @return nombre de wallets créés
+     */
+    public int insertMissingWallets(Collection<UUID> userIds, OffsetDateTime now) {
+        Timestamp timestamp = Timestamp.from(now.toInstant());
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "INSERT INTO wallets (user_id, balance, level, total_earned, total_spent, last_updated_at) " +
+                "VALUES (?, 0, 1, 0, 0, ?) ON CONFLICT DO NOTHING",
+                userIds, userIds.size(), (ps, userId) -> {
+                    ps.setObject(1, userId);
+                    ps.setTimestamp(2, timestamp);
+                });
+        int created = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                created += count;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Crédite chaque wallet de la somme de ses points. Les lignes sont verrouillées dans l'ordre des
+     * userId (map triée), ce qui évite les interblocages entre lots concurrents.
+     */
+    public void creditWallets(SortedMap<UUID, Integer> pointsByUser, OffsetDateTime now) {
+        Timestamp timestamp = Timestamp.from(now.toInstant());
+        jdbcTemplate.batchUpdate(
+                "UPDATE wallets SET balance = balance + ?, total_earned = total_earned + ?, " +
+                "level = (total_earned + ?) / 1000 + 1, last_updated_at = ? WHERE user_id = ?",
+                pointsByUser.entrySet(), pointsByUser.size(), (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setInt(2, entry.getValue());
+                    ps.setInt(3, entry.getValue());
+                    ps.setTimestamp(4, timestamp);
+                    ps.setObject(5, entry.getKey());
+                });
+    }
+
+    /**
+     * Solde et total gagné des wallets, en une requête.
+     */
+    public Map<UUID, WalletTotals> findTotals(Collection<UUID> userIds) {
+        Map<UUID, WalletTotals> totals = new HashMap<>(userIds.size() * 2);
+        namedJdbcTemplate.query(
+                "SELECT user_id, balance, total_earned FROM wallets WHERE user_id IN (:userIds)",
+                new MapSqlParameterSource("userIds", userIds),
+                (RowCallbackHandler) rs -> totals.put(rs.getObject("user_id", UUID.class),
+                        new WalletTotals(rs.getInt("balance"), rs.getInt("total_earned"))));
+        return totals;
+    }
+
+    /**
+     * Insère les lignes du ledger (identifiants et dates déjà renseignés).
+     */
+    public void insertTransactions(List<PointTransaction> transactions) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO point_transactions (id, user_id, points, transaction_type, reason_code, description, " +
+                "reference_id, reference_type, sf_case_id, balance_after, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                transactions, transactions.size(), (ps, tx) -> {
+                    ps.setObject(1, tx.getId());
+                    ps.setObject(2, tx.getUserId());
+                    ps.setInt(3, tx.getPoints());
+                    ps.setString(4, tx.getTransactionType().name());
+                    ps.setString(5, tx.getReasonCode());
+                    ps.setString(6, tx.getDescription());
+                    ps.setObject(7, tx.getReferenceId());
+                    ps.setString(8, tx.getReferenceType());
+                    ps.setString(9, tx.getSfCaseId());
+                    ps.setInt(10, tx.getBalanceAfter());
+                    ps.setTimestamp(11, Timestamp.from(tx.getCreatedAt().toInstant()));
+                });
+    }
+
+    /**
+     * Crée à zéro les compteurs de badges manquants (les compteurs existants sont laissés tels quels).
+     */
+    public void insertMissingProgress(Collection<AchievementProgressId> keys, OffsetDateTime now) {
+        Timestamp timestamp = Timestamp.from(now.toInstant());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO achievement_progress (user_id, counter_code, progress, updated_at) " +
+                "VALUES (?, ?, 0, ?) ON CONFLICT DO NOTHING",
+                keys, keys.size(), (ps, key) -> {
+                    ps.setObject(1, key.getUserId());
+                    ps.setString(2, key.getCounter().name());
+                    ps.setTimestamp(3, timestamp);
+                });
+    }
+
+    /**
+     * Crée les lignes d'activité manquantes, sans jour actif (les lignes existantes sont laissées telles quelles).
+     * Chaque ligne créée reçoit son numéro d'utilisateur de la colonne identité.
+     */
+    public void insertMissingActivity(Collection<UUID> userIds, OffsetDateTime now) {
+        Timestamp timestamp = Timestamp.from(now.toInstant());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO user_activity (user_id, days, active_days, updated_at) VALUES (?, ?, 0, ?) " +
+                "ON CONFLICT DO NOTHING",
+                userIds, userIds.size(), (ps, userId) -> {
+                    ps.setObject(1, userId);
+                    ps.setBytes(2, new byte[0]);
+                    ps.setTimestamp(3, timestamp);
+                });
+    }
+
+    /**
+     * Crée les jours d'activité manquants, sans utilisateur actif.
+     */
+    public void insertMissingActivityDays(Collection<LocalDate> days, OffsetDateTime now) {
+        Timestamp timestamp = Timestamp.from(now.toInstant());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO activity_days (activity_day, user_ordinals, user_count, updated_at) VALUES (?, ?, 0, ?) " +
+                "ON CONFLICT DO NOTHING",
+                days, days.size(), (ps, day) -> {
+                    ps.setObject(1, day);
+                    ps.setBytes(2, new byte[0]);
+                    ps.setTimestamp(3, timestamp);
+                });
+    }
+
+    /**
+     * Parcourt en flux les crédits du ledger, groupés par utilisateur (ordre des userId), avec leur date UTC,
+     * à partir du premier utilisateur après {@code afterUserId} (null : depuis le début).
+     * À appeler dans une transaction pour que PostgreSQL utilise un curseur.
+     */
+    public void forEachCreditDay(UUID afterUserId, int fetchSize, BiConsumer<UUID, LocalDate> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT user_id, created_at FROM point_transactions WHERE transaction_type = 'CREDIT' " +
+                    (afterUserId != null ? "AND user_id > ? " : "") +
+                    "ORDER BY user_id");
+            if (afterUserId != null) {
+                ps.setObject(1, afterUserId);
+            }
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            OffsetDateTime createdAt = rs.getObject("created_at", OffsetDateTime.class);
+            if (createdAt != null) {
+                consumer.accept(rs.getObject("user_id", UUID.class),
+                        createdAt.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate());
+            }
+        });
+    }
+
+    /**
+     * Crée la ligne d'avancement de la reconstruction des jours d'activité si elle n'existe pas.
+     */
+    public void insertMissingActivityBackfill(OffsetDateTime now) {
+        jdbcTemplate.update(
+                "INSERT INTO activity_backfill (id, updated_at) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                ActivityBackfill.ID, Timestamp.from(now.toInstant()));
+    }
+
+    /**
+     * Ajoute les transactions d'un lot aux statistiques par utilisateur : création des lignes manquantes
+     * puis incrément, en deux batchs. Les deltas sont attendus triés (ordre de verrouillage stable).
+     */
+    public void accumulateStats(List<StatsDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO user_point_stats (user_id, transaction_type, reason_code, transaction_count, points) " +
+                "VALUES (?, ?, ?, 0, 0) ON CONFLICT DO NOTHING",
+                deltas, deltas.size(), (ps, delta) -> {
+                    ps.setObject(1, delta.userId());
+                    ps.setString(2, delta.transactionType().name());
+                    ps.setString(3, delta.reasonCode());
+                });
+        jdbcTemplate.batchUpdate(
+                "UPDATE user_point_stats SET transaction_count = transaction_count + ?, points = points + ?, " +
+                "last_transaction_at = ? WHERE user_id = ? AND transaction_type = ? AND reason_code = ?",
+                deltas, deltas.size(), (ps, delta) -> {
+                    ps.setLong(1, delta.count());
+                    ps.setLong(2, delta.points());
+                    ps.setTimestamp(3, Timestamp.from(delta.lastTransactionAt().toInstant()));
+                    ps.setObject(4, delta.userId());
+                    ps.setString(5, delta.transactionType().name());
+                    ps.setString(6, delta.reasonCode());
+                });
+    }
+}
@@ -0,0 +1,197 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Lectures en flux et écritures groupées de la réconciliation wallets / ledger.
+ *
+ * Toutes les lectures portent sur une plage de user_id {@code [from, to)} ({@code to} null : jusqu'à la fin)
+ * et utilisent un curseur (fetch size) : à appeler dans une transaction pour que PostgreSQL ne matérialise
+ * pas le résultat complet côté client.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReconciliationRepository {
+
+    public record LedgerSum(UUID userId, TransactionType type, long count, long points) {
+    }
+
+    public record WalletRow(UUID userId, int balance, int totalEarned, int totalSpent) {
+    }
+
+    public record SnapshotRow(UUID userId, long totalEarned, long totalSpent, long transactionCount) {
+    }
+
+    public record WalletRepair(UUID userId, int balance, int totalEarned, int totalSpent,
+                               int expectedBalance, int expectedTotalEarned, int expectedTotalSpent) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${gamification.reconciliation.fetch-size:5000}")
+    private int fetchSize;
+
+    /**
+     * Sommes du ledger par utilisateur et type de transaction, pour les transactions créées
+     * dans {@code (after, upTo]} (bornes nulles : non bornées).
+     */
+    public void foldLedger(UUID from, UUID to, OffsetDateTime after, OffsetDateTime upTo, Consumer<LedgerSum> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT user_id, transaction_type, COUNT(*) AS cnt, SUM(points) AS total FROM point_transactions WHERE ");
+        List<Object> params = new ArrayList<>(4);
+        appendRange(sql, params, from, to);
+        if (after != null) {
+            sql.append(" AND created_at > ?");
+            params.add(Timestamp.from(after.toInstant()));
+        }
+        if (upTo != null) {
+            sql.append(" AND created_at <= ?");
+            params.add(Timestamp.from(upTo.toInstant()));
+        }
+        sql.append(" GROUP BY user_id, transaction_type");
+        stream(sql.toString(), params, rs -> consumer.accept(new LedgerSum(
+                rs.getObject("user_id", UUID.class),
+                TransactionType.valueOf(rs.getString("transaction_type")),
+                rs.getLong("cnt"),
+                rs.getLong("total"))));
+    }
+
+    public void forEachWallet(UUID from, UUID to, Consumer<WalletRow> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT user_id, balance, total_earned, total_spent FROM wallets WHERE ");
+        List<Object> params = new ArrayList<>(2);
+        appendRange(sql, params, from, to);
+        stream(sql.toString(), params, rs -> consumer.accept(new WalletRow(
+                rs.getObject("user_id", UUID.class),
+                rs.getInt("balance"),
+                rs.getInt("total_earned"),
+                rs.getInt("total_spent"))));
+    }
+
+    public void forEachSnapshot(UUID from, UUID to, Consumer<SnapshotRow> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT user_id, total_earned, total_spent, transaction_count FROM wallet_snapshots WHERE ");
+        List<Object> params = new ArrayList<>(2);
+        appendRange(sql, params, from, to);
+        stream(sql.toString(), params, rs -> consumer.accept(new SnapshotRow(
+                rs.getObject("user_id", UUID.class),
+                rs.getLong("total_earned"),
+                rs.getLong("total_spent"),
+                rs.getLong("transaction_count"))));
+    }
+
+    /**
+     * Totaux des partitions du ledger archivées (base d'un replay complet).
+     */
+    public void forEachArchivedTotal(UUID from, UUID to, Consumer<SnapshotRow> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT user_id, total_earned, total_spent, transaction_count FROM archived_ledger_totals WHERE ");
+        List<Object> params = new ArrayList<>(2);
+        appendRange(sql, params, from, to);
+        stream(sql.toString(), params, rs -> consumer.accept(new SnapshotRow(
+                rs.getObject("user_id", UUID.class),
+                rs.getLong("total_earned"),
+                rs.getLong("total_spent"),
+                rs.getLong("transaction_count"))));
+    }
+
+    public void deleteSnapshots(UUID from, UUID to) {
+        StringBuilder sql = new StringBuilder("DELETE FROM wallet_snapshots WHERE ");
+        List<Object> params = new ArrayList<>(2);
+        appendRange(sql, params, from, to);
+        jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * Écrit les snapshots (valeurs absolues) : création des lignes manquantes puis mise à jour, en deux batchs.
+     */
+    public void upsertSnapshots(Collection<SnapshotRow> snapshots, OffsetDateTime cutoff) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.from(cutoff.toInstant());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO wallet_snapshots (user_id, total_earned, total_spent, transaction_count, cutoff) " +
+                "VALUES (?, 0, 0, 0, ?) ON CONFLICT DO NOTHING",
+                snapshots, snapshots.size(), (ps, snapshot) -> {
+                    ps.setObject(1, snapshot.userId());
+                    ps.setTimestamp(2, timestamp);
+                });
+        jdbcTemplate.batchUpdate(
+                "UPDATE wallet_snapshots SET total_earned = ?, total_spent = ?, transaction_count = ?, cutoff = ? " +
+                "WHERE user_id = ?",
+                snapshots, snapshots.size(), (ps, snapshot) -> {
+                    ps.setLong(1, snapshot.totalEarned());
+                    ps.setLong(2, snapshot.totalSpent());
+                    ps.setLong(3, snapshot.transactionCount());
+                    ps.setTimestamp(4, timestamp);
+                    ps.setObject(5, snapshot.userId());
+                });
+    }
+
+    /**
+     * Corrige les wallets uniquement s'ils n'ont pas changé depuis leur lecture (sinon l'écart sera
+     * réévalué à la prochaine réconciliation).
+     *
+     * @return nombre de wallets corrigés pour chaque élément (0 ou 1)
+     */
+    public int[] repairWallets(List<WalletRepair> repairs, OffsetDateTime now) {
+        Timestamp timestamp = Timestamp.from(now.toInstant());
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE wallets SET balance = ?, total_earned = ?, total_spent = ?, level = ?, last_updated_at = ? " +
+                "WHERE user_id = ? AND balance = ? AND total_earned = ? AND total_spent = ?",
+                repairs, repairs.size(), (ps, repair) -> {
+                    ps.setInt(1, repair.expectedBalance());
+                    ps.setInt(2, repair.expectedTotalEarned());
+                    ps.setInt(3, repair.expectedTotalSpent());
+                    ps.setInt(4, repair.expectedTotalEarned() / 1000 + 1);
+                    ps.setTimestamp(5, timestamp);
+                    ps.setObject(6, repair.userId());
+                    ps.setInt(7, repair.balance());
+                    ps.setInt(8, repair.totalEarned());
+                    ps.setInt(9, repair.totalSpent());
+                });
+        int[] flat = new int[repairs.size()];
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                flat[i++] = count;
+            }
+        }
+        return flat;
+    }
+
+    private static void appendRange(StringBuilder sql, List<Object> params, UUID from, UUID to) {
+        sql.append("user_id >= ?");
+        params.add(from);
+        if (to != null) {
+            sql.append(" AND user_id < ?");
+            params.add(to);
+        }
+    }
+
+    private void stream(String sql, List<Object> params, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+}
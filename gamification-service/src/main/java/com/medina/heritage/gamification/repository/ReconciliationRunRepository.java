@@ -0,0 +1,26 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.ReconciliationRun;
+import com.medina.heritage.gamification.enums.ReconciliationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository pour les exécutions de réconciliation.
+ */
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, UUID> {
+
+    /**
+     * Dernière réconciliation lancée (point de départ d'une réconciliation incrémentale si elle est terminée).
+     */
+    Optional<ReconciliationRun> findTopByOrderByStartedAtDesc();
+
+    /**
+     * Dernière réconciliation lancée ayant atteint l'état donné.
+     */
+    Optional<ReconciliationRun> findTopByStatusOrderByStartedAtDesc(ReconciliationStatus status);
+}
@@ -0,0 +1,54 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.RewardRedemption;
+import com.medina.heritage.gamification.enums.RedemptionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository pour les réservations et échanges de récompenses.
+ */
+@Repository
+public interface RewardRedemptionRepository extends JpaRepository<RewardRedemption, UUID> {
+
+    /**
+     * Réservations d'un bail qui retiennent encore une unité.
+     */
+    long countByLeaseIdAndStatusIn(UUID leaseId, Collection<RedemptionStatus> statuses);
+
+    @Query("SELECT r.id FROM RewardRedemption r WHERE r.status = :status AND r.expiresAt < :before ORDER BY r.expiresAt")
+    List<UUID> findIdsExpiredBefore(@Param("status") RedemptionStatus status,
+                                    @Param("before") OffsetDateTime before,
+                                    Pageable pageable);
+
+    /**
+     * Confirme une réservation encore valide.
+     *
+     * @return 1 si la réservation a été confirmée, 0 si elle a expiré ou n'est plus réservée
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RewardRedemption r SET r.status = com.medina.heritage.gamification.enums.RedemptionStatus.CONFIRMED, " +
+           "r.transactionId = :transactionId, r.settledAt = :now " +
+           "WHERE r.id = :id AND r.status = com.medina.heritage.gamification.enums.RedemptionStatus.RESERVED " +
+           "AND r.expiresAt > :now")
+    int confirm(@Param("id") UUID id, @Param("transactionId") UUID transactionId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Libère une réservation pas encore confirmée.
+     *
+     * @return 1 si la réservation a été libérée, 0 si elle n'est plus réservée
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RewardRedemption r SET r.status = :status, r.settledAt = :now " +
+           "WHERE r.id = :id AND r.status = com.medina.heritage.gamification.enums.RedemptionStatus.RESERVED")
+    int release(@Param("id") UUID id, @Param("status") RedemptionStatus status, @Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,52 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.Reward;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository pour le catalogue des récompenses.
+ */
+@Repository
+public interface RewardRepository extends JpaRepository<Reward, UUID> {
+
+    List<Reward> findByActiveTrueOrderByNameAsc();
+
+    @Query("SELECT r.availableStock FROM Reward r WHERE r.id = :id")
+    Optional<Integer> findAvailableStock(@Param("id") UUID id);
+
+    /**
+     * Prélève un bloc d'unités pour un bail, uniquement s'il en reste assez (condition évaluée par la base).
+     *
+     * @return 1 si le bloc a été prélevé, 0 sinon
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reward r SET r.availableStock = r.availableStock - :quantity, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.active = true AND r.availableStock >= :quantity")
+    int claimStock(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") OffsetDateTime now);
+
+    /**
+     * Rend des unités au stock (bail soldé, réservation libérée après la clôture de son bail).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reward r SET r.availableStock = r.availableStock + :quantity, r.updatedAt = :now WHERE r.id = :id")
+    int returnStock(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") OffsetDateTime now);
+
+    /**
+     * Réapprovisionne une récompense.
+     *
+     * @return 1 si la récompense existe, 0 sinon
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reward r SET r.totalStock = r.totalStock + :quantity, " +
+           "r.availableStock = r.availableStock + :quantity, r.updatedAt = :now WHERE r.id = :id")
+    int addStock(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") OffsetDateTime now);
+}
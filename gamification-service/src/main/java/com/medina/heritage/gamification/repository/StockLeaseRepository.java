@@ -0,0 +1,38 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.StockLease;
+import com.medina.heritage.gamification.enums.StockLeaseStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository pour les baux de stock des récompenses.
+ */
+@Repository
+public interface StockLeaseRepository extends JpaRepository<StockLease, UUID> {
+
+    /**
+     * Bail verrouillé : sa clôture et les libérations de ses réservations se succèdent.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM StockLease l WHERE l.id = :id")
+    Optional<StockLease> findForUpdate(@Param("id") UUID id);
+
+    /**
+     * Baux expirés avant une date (baux d'instances arrêtées sans les avoir soldés).
+     */
+    @Query("SELECT l.id FROM StockLease l WHERE l.status = :status AND l.expiresAt < :before ORDER BY l.expiresAt")
+    List<UUID> findIdsExpiredBefore(@Param("status") StockLeaseStatus status,
+                                    @Param("before") OffsetDateTime before,
+                                    Pageable pageable);
+}
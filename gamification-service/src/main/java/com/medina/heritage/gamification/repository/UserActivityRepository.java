@@ -0,0 +1,37 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.UserActivity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository pour les jours d'activité par utilisateur.
+ */
+@Repository
+public interface UserActivityRepository extends JpaRepository<UserActivity, Integer> {
+
+    Optional<UserActivity> findByUserId(UUID userId);
+
+    /**
+     * Jours d'activité de plusieurs utilisateurs, verrouillés dans l'ordre des userId
+     * (pas d'interblocage entre flushs concurrents).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserActivity a WHERE a.userId IN :userIds ORDER BY a.userId")
+    List<UserActivity> findForUpdate(@Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * ID des utilisateurs correspondant à des numéros de bitmap.
+     */
+    @Query("SELECT a.userId FROM UserActivity a WHERE a.ordinal IN :ordinals ORDER BY a.ordinal")
+    List<UUID> findUserIdsByOrdinalIn(@Param("ordinals") Collection<Integer> ordinals);
+}
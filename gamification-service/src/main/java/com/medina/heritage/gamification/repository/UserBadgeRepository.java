@@ -0,0 +1,36 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.UserBadge;
+import com.medina.heritage.gamification.entity.UserBadgeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository pour les badges obtenus.
+ */
+@Repository
+public interface UserBadgeRepository extends JpaRepository<UserBadge, UserBadgeId> {
+
+    /**
+     * Badges d'un utilisateur, par date d'obtention.
+     */
+    List<UserBadge> findByUserIdOrderByEarnedAtAsc(UUID userId);
+
+    /**
+     * Enregistre un badge s'il n'a pas déjà été obtenu.
+     *
+     * @return 1 si le badge vient d'être obtenu, 0 sinon
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_badges (user_id, badge, earned_at) VALUES (:userId, :badge, :earnedAt) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId, @Param("badge") String badge,
+                       @Param("earnedAt") OffsetDateTime earnedAt);
+}
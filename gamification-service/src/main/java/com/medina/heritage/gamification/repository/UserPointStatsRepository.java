@@ -0,0 +1,52 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.UserPointStats;
+import com.medina.heritage.gamification.entity.UserPointStatsId;
+import com.medina.heritage.gamification.enums.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository pour les statistiques cumulées des utilisateurs.
+ */
+@Repository
+public interface UserPointStatsRepository extends JpaRepository<UserPointStats, UserPointStatsId> {
+
+    /**
+     * Statistiques d'un utilisateur (une ligne par type de transaction et code de raison).
+     */
+    List<UserPointStats> findByUserIdOrderByTransactionTypeAscReasonCodeAsc(UUID userId);
+
+    /**
+     * Ajoute une transaction aux statistiques existantes, en une instruction atomique.
+     *
+     * @return nombre de lignes mises à jour (0 si la ligne n'existe pas encore)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE UserPointStats s SET s.transactionCount = s.transactionCount + 1, " +
+           "s.points = s.points + :points, s.lastTransactionAt = :at " +
+           "WHERE s.userId = :userId AND s.transactionType = :transactionType AND s.reasonCode = :reasonCode")
+    int increment(@Param("userId") UUID userId,
+                  @Param("transactionType") TransactionType transactionType,
+                  @Param("reasonCode") String reasonCode,
+                  @Param("points") long points,
+                  @Param("at") OffsetDateTime at);
+
+    /**
+     * Crée la ligne de statistiques à zéro si elle n'existe pas (création concurrente sans erreur).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_point_stats (user_id, transaction_type, reason_code, transaction_count, points) " +
+                   "VALUES (:userId, :transactionType, :reasonCode, 0, 0) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId,
+                       @Param("transactionType") String transactionType,
+                       @Param("reasonCode") String reasonCode);
+}
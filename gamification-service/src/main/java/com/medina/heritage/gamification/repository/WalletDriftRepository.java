@@ -0,0 +1,17 @@
+package com.medina.heritage.gamification.repository;
+
+import com.medina.heritage.gamification.entity.WalletDrift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository pour les écarts constatés par les réconciliations.
+ */
+@Repository
+public interface WalletDriftRepository extends JpaRepository<WalletDrift, UUID> {
+
+    List<WalletDrift> findByRunId(UUID runId);
+}
@@ -1,11 +1,17 @@
 package com.medina.heritage.gamification.repository;
 
 import com.medina.heritage.gamification.entity.Wallet;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,7 +45,8 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     List<Wallet> findTopByLevelOrderByLevelDescTotalEarnedDesc();
 
     /**
-     * Compte le nombre d'utilisateurs par niveau.
+     * Compte le nombre d'utilisateurs par niveau (parcours complet de la table : reconstruction et
+     * vérification de {@code LevelHistogram} uniquement).
      */
     @Query("SELECT w.level, COUNT(w) FROM Wallet w GROUP BY w.level ORDER BY w.level")
     List<Object[]> countUsersByLevel();
@@ -50,8 +57,57 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     @Query("SELECT COUNT(w) + 1 FROM Wallet w WHERE w.totalEarned > (SELECT w2.totalEarned FROM Wallet w2 WHERE w2.userId = :userId)")
     Long getUserRank(@Param("userId") UUID userId);
 
+    /**
+     * Crédite un wallet en une seule instruction (pas de lecture-modification-écriture en Java).
+     * Le niveau est recalculé à partir du nouveau total gagné (1 niveau tous les 1000 points).
+     *
+     * @return 1 si le wallet existe, 0 sinon
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :points, w.totalEarned = w.totalEarned + :points, " +
+           "w.level = (w.totalEarned + :points) / 1000 + 1, w.lastUpdatedAt = :now WHERE w.userId = :userId")
+    int creditPoints(@Param("userId") UUID userId, @Param("points") int points, @Param("now") OffsetDateTime now);
+
+    /**
+     * Débite un wallet uniquement si le solde est suffisant (condition évaluée par la base).
+     *
+     * @return 1 si le débit a eu lieu, 0 si le wallet n'existe pas ou si le solde est insuffisant
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :points, w.totalSpent = w.totalSpent + :points, " +
+           "w.lastUpdatedAt = :now WHERE w.userId = :userId AND w.balance >= :points")
+    int debitPoints(@Param("userId") UUID userId, @Param("points") int points, @Param("now") OffsetDateTime now);
+
+    /**
+     * Lecture verrouillante du wallet : la ligne reste verrouillée jusqu'à la fin de la transaction,
+     * sans écriture (un refus qui suit n'annule pas une transaction englobante).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.userId = :userId")
+    Optional<Wallet> findForUpdate(@Param("userId") UUID userId);
+
+    /**
+     * Crée un wallet vide s'il n'existe pas encore, sans erreur en cas de création concurrente.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallets (user_id, balance, level, total_earned, total_spent, last_updated_at) " +
+                   "VALUES (:userId, 0, 1, 0, 0, :now) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Solde courant ; après un crédit ou un débit dans la même transaction, la ligne est verrouillée
+     * et cette valeur est exactement le solde résultant.
+     */
+    @Query("SELECT w.balance FROM Wallet w WHERE w.userId = :userId")
+    Optional<Integer> findBalanceByUserId(@Param("userId") UUID userId);
+
     /**
      * Récupère les wallets d'un niveau spécifique.
      */
     List<Wallet> findByLevelOrderByTotalEarnedDesc(Integer level);
+
+    /**
+     * Wallets ayant gagné des points, page par page (reconstruction du classement en mémoire).
+     */
+    Slice<Wallet> findByTotalEarnedGreaterThan(Integer totalEarned, Pageable pageable);
 }
@@ -0,0 +1,7 @@
+package com.medina.heritage.gamification.repository;
+
+/**
+ * Solde et total gagné d'un wallet, relus après une mise à jour atomique.
+ */
+public record WalletTotals(Integer balance, Integer totalEarned) {
+}
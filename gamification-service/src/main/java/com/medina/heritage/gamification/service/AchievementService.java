@@ -0,0 +1,229 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.BadgeResponse;
+import com.medina.heritage.gamification.entity.AchievementProgress;
+import com.medina.heritage.gamification.entity.AchievementProgressId;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.enums.AchievementCounter;
+import com.medina.heritage.gamification.enums.Badge;
+import com.medina.heritage.gamification.enums.ReasonCode;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.AchievementProgressRepository;
+import com.medina.heritage.gamification.repository.PointsBatchRepository;
+import com.medina.heritage.gamification.repository.UserBadgeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moteur de badges incrémental.
+ *
+ * Les badges ({@link Badge}) sont compilés en compteurs par utilisateur ({@link AchievementCounter}) :
+ * chaque insertion dans le ledger appelle {@link #record} ou {@link #recordAll} dans sa transaction et ne
+ * met à jour que les compteurs de son code de raison, puis compare les anciennes et nouvelles valeurs aux
+ * seuils. Un badge de plus sur un compteur existant n'ajoute aucune requête ; une transaction sans
+ * compteur concerné n'en exécute aucune. Les compteurs d'un utilisateur sont modifiés sous le verrou
+ * de ligne de son wallet, pris par le crédit ou le débit.
+ *
+ * Les badges obtenus sont retournés à l'appelant, qui crédite leurs points dans la même transaction
+ * ({@link WalletService#awardBadge}). Désactivable avec {@code gamification.achievements.enabled=false}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AchievementService {
+
+    /**
+     * Badge obtenu par un utilisateur.
+     */
+    public record EarnedBadge(UUID userId, Badge badge) {
+    }
+
+    private static final Map<String, List<AchievementCounter>> COUNTERS_BY_REASON_CODE = new HashMap<>();
+    private static final Map<AchievementCounter, List<Badge>> BADGES_BY_COUNTER = new EnumMap<>(AchievementCounter.class);
+
+    static {
+        for (AchievementCounter counter : AchievementCounter.values()) {
+            for (ReasonCode reasonCode : counter.getReasonCodes()) {
+                COUNTERS_BY_REASON_CODE.computeIfAbsent(reasonCode.name(), code -> new ArrayList<>()).add(counter);
+            }
+        }
+        for (Badge badge : Badge.values()) {
+            BADGES_BY_COUNTER.computeIfAbsent(badge.getCounter(), counter -> new ArrayList<>()).add(badge);
+        }
+        BADGES_BY_COUNTER.values().forEach(badges -> badges.sort(Comparator.comparingLong(Badge::getThreshold)));
+    }
+
+    private final AchievementProgressRepository progressRepository;
+    private final UserBadgeRepository userBadgeRepository;
+    private final PointsBatchRepository batchRepository;
+
+    @Value("${gamification.achievements.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Met à jour les compteurs concernés par une transaction du ledger.
+     *
+     * @param totalEarned total gagné du wallet après la transaction
+     * @return badges obtenus par cette transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Badge> record(PointTransaction transaction, int totalEarned) {
+        return recordAll(List.of(transaction), Map.of(transaction.getUserId(), totalEarned)).stream()
+                .map(EarnedBadge::badge)
+                .toList();
+    }
+
+    /**
+     * Met à jour les compteurs concernés par un lot de transactions du ledger (dans l'ordre du lot).
+     * Les compteurs sont lus en une requête pour tout le lot ; les compteurs manquants sont créés en un batch.
+     *
+     * @param totalEarnedByUser total gagné de chaque wallet après le lot
+     * @return badges obtenus par ce lot
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<EarnedBadge> recordAll(List<PointTransaction> transactions, Map<UUID, Integer> totalEarnedByUser) {
+        if (!enabled) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<AchievementProgressId, List<PointTransaction>> touched = new LinkedHashMap<>();
+        Map<UUID, Integer> creditedByUser = new LinkedHashMap<>();
+        for (PointTransaction transaction : transactions) {
+            if (transaction.getTransactionType() == TransactionType.CREDIT) {
+                creditedByUser.merge(transaction.getUserId(), transaction.getPoints(), Integer::sum);
+            }
+            for (AchievementCounter counter : COUNTERS_BY_REASON_CODE.getOrDefault(transaction.getReasonCode(), List.of())) {
+                touched.computeIfAbsent(new AchievementProgressId(transaction.getUserId(), counter),
+                        key -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+        List<EarnedBadge> candidates = new ArrayList<>();
+        // Niveaux : déduits du total gagné, sans compteur stocké
+        creditedByUser.forEach((userId, credited) -> {
+            Integer totalEarned = totalEarnedByUser.get(userId);
+            if (totalEarned != null) {
+                crossed(userId, AchievementCounter.LEVEL, Wallet.levelFor(totalEarned - credited),
+                        Wallet.levelFor(totalEarned), candidates);
+            }
+        });
+        if (!touched.isEmpty()) {
+            Map<AchievementProgressId, AchievementProgress> progress = load(touched.keySet(), now);
+            touched.forEach((key, counted) -> {
+                AchievementProgress row = progress.get(key);
+                long before = row.getProgress();
+                long peak = before;
+                for (PointTransaction transaction : counted) {
+                    apply(row, transaction.getCreatedAt() != null ? transaction.getCreatedAt() : now);
+                    peak = Math.max(peak, row.getProgress());
+                }
+                row.setUpdatedAt(now);
+                crossed(key.getUserId(), key.getCounter(), before, peak, candidates);
+            });
+        }
+
+        List<EarnedBadge> earned = new ArrayList<>(candidates.size());
+        for (EarnedBadge candidate : candidates) {
+            if (userBadgeRepository.insertIfAbsent(candidate.userId(), candidate.badge().name(), now) == 1) {
+                log.info("Badge earned: userId={}, badge={}", candidate.userId(), candidate.badge());
+                earned.add(candidate);
+            }
+        }
+        return earned;
+    }
+
+    /**
+     * Badges obtenus par un utilisateur, par date d'obtention.
+     */
+    @Transactional(readOnly = true)
+    public List<BadgeResponse> getBadges(UUID userId) {
+        return userBadgeRepository.findByUserIdOrderByEarnedAtAsc(userId).stream()
+                .map(userBadge -> new BadgeResponse(userBadge.getBadge(), userBadge.getBadge().getDescription(),
+                        userBadge.getBadge().getPoints(), userBadge.getEarnedAt()))
+                .toList();
+    }
+
+    /**
+     * Compteurs demandés (entités gérées : leurs modifications sont écrites au commit),
+     * créés à zéro s'ils n'existent pas encore.
+     */
+    private Map<AchievementProgressId, AchievementProgress> load(Set<AchievementProgressId> keys, OffsetDateTime now) {
+        Map<AchievementProgressId, AchievementProgress> progress = find(keys);
+        if (progress.size() < keys.size()) {
+            Set<AchievementProgressId> missing = new HashSet<>(keys);
+            missing.removeAll(progress.keySet());
+            batchRepository.insertMissingProgress(missing, now);
+            progress.putAll(find(missing));
+        }
+        return progress;
+    }
+
+    private Map<AchievementProgressId, AchievementProgress> find(Set<AchievementProgressId> keys) {
+        Set<UUID> userIds = new HashSet<>();
+        Set<AchievementCounter> counters = EnumSet.noneOf(AchievementCounter.class);
+        for (AchievementProgressId key : keys) {
+            userIds.add(key.getUserId());
+            counters.add(key.getCounter());
+        }
+        Map<AchievementProgressId, AchievementProgress> progress = new HashMap<>(keys.size() * 2);
+        for (AchievementProgress row : progressRepository.findByUserIdInAndCounterIn(userIds, counters)) {
+            AchievementProgressId key = new AchievementProgressId(row.getUserId(), row.getCounter());
+            if (keys.contains(key)) {
+                progress.put(key, row);
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Compte une transaction : +1, ou prolongation de la série si elle tombe le lendemain du dernier
+     * jour compté (UTC). Une transaction du même jour ou antérieure ne change pas la série.
+     */
+    private static void apply(AchievementProgress row, OffsetDateTime at) {
+        if (row.getCounter().getKind() != AchievementCounter.Kind.DAILY_STREAK) {
+            row.setProgress(row.getProgress() + 1);
+            return;
+        }
+        LocalDate day = at.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate();
+        LocalDate last = row.getLastActivityDay();
+        if (last == null || day.isAfter(last.plusDays(1))) {
+            row.setProgress(1L);
+            row.setLastActivityDay(day);
+        } else if (day.equals(last.plusDays(1))) {
+            row.setProgress(row.getProgress() + 1);
+            row.setLastActivityDay(day);
+        }
+    }
+
+    private static void crossed(UUID userId, AchievementCounter counter, long before, long after,
+                                List<EarnedBadge> candidates) {
+        for (Badge badge : BADGES_BY_COUNTER.getOrDefault(counter, List.of())) {
+            if (badge.getThreshold() > after) {
+                return;
+            }
+            if (badge.getThreshold() > before) {
+                candidates.add(new EarnedBadge(userId, badge));
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.medina.heritage.gamification.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.function.IntConsumer;
+
+/**
+ * Jours d'activité d'un utilisateur : un bit par jour (numéro de jour depuis le 1970-01-01, UTC),
+ * regroupés en blocs de 64 jours. Seuls les blocs non vides sont stockés, par clé croissante : une année
+ * d'activité quotidienne tient en 6 blocs, un utilisateur occasionnel en quelques-uns.
+ *
+ * Comptages et séries se calculent sur les mots de 64 bits (bitCount, uns de tête et de queue) ;
+ * une série continue d'un bloc au suivant seulement si leurs clés se suivent.
+ *
+ * Non thread-safe.
+ */
+public final class ActivityDays {
+
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_MASK = 63;
+
+    private int[] keys;
+    private long[] words;
+    private int size;
+
+    public ActivityDays() {
+        this(4);
+    }
+
+    private ActivityDays(int capacity) {
+        keys = new int[capacity];
+        words = new long[capacity];
+    }
+
+    /**
+     * Relit des jours écrits par {@link #toBytes()} ; un tableau vide ou null ne donne aucun jour.
+     */
+    public static ActivityDays fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new ActivityDays();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int count = buffer.getInt();
+        ActivityDays days = new ActivityDays(Math.max(count, 4));
+        for (int i = 0; i < count; i++) {
+            days.keys[i] = buffer.getInt();
+            days.words[i] = buffer.getLong();
+        }
+        days.size = count;
+        return days;
+    }
+
+    /**
+     * Forme sérialisée : nombre de blocs, puis clé et mot de chaque bloc (12 octets par bloc).
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + size * (Integer.BYTES + Long.BYTES));
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(keys[i]);
+            buffer.putLong(words[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Marque un jour actif.
+     *
+     * @return true si le jour n'était pas encore actif
+     */
+    public boolean add(int day) {
+        int key = day >> BLOCK_SHIFT;
+        long bit = 1L << (day & BLOCK_MASK);
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            insert(-index - 1, key, bit);
+            return true;
+        }
+        if ((words[index] & bit) != 0) {
+            return false;
+        }
+        words[index] |= bit;
+        return true;
+    }
+
+    public boolean contains(int day) {
+        int index = Arrays.binarySearch(keys, 0, size, day >> BLOCK_SHIFT);
+        return index >= 0 && (words[index] & (1L << (day & BLOCK_MASK))) != 0;
+    }
+
+    /**
+     * Ajoute les jours actifs d'un autre utilisateur ou d'un lot pas encore enregistré.
+     */
+    public void or(ActivityDays other) {
+        for (int j = 0; j < other.size; j++) {
+            int index = Arrays.binarySearch(keys, 0, size, other.keys[j]);
+            if (index >= 0) {
+                words[index] |= other.words[j];
+            } else {
+                insert(-index - 1, other.keys[j], other.words[j]);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Nombre de jours actifs.
+     */
+    public int count() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Nombre de jours actifs entre deux jours inclus.
+     */
+    public int count(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        int fromKey = fromDay >> BLOCK_SHIFT;
+        int toKey = toDay >> BLOCK_SHIFT;
+        int count = 0;
+        for (int i = 0; i < size && keys[i] <= toKey; i++) {
+            if (keys[i] < fromKey) {
+                continue;
+            }
+            long mask = -1L;
+            if (keys[i] == fromKey) {
+                mask &= -1L << (fromDay & BLOCK_MASK);
+            }
+            if (keys[i] == toKey) {
+                mask &= -1L >>> (BLOCK_MASK - (toDay & BLOCK_MASK));
+            }
+            count += Long.bitCount(words[i] & mask);
+        }
+        return count;
+    }
+
+    /**
+     * Plus longue suite de jours actifs consécutifs.
+     */
+    public int longestStreak() {
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && keys[i] != keys[i - 1] + 1) {
+                run = 0;
+            }
+            long word = words[i];
+            if (word == -1L) {
+                run += 64;
+                longest = Math.max(longest, run);
+                continue;
+            }
+            // Suite venant du bloc précédent, suites internes au bloc, puis suite qui atteint la fin du bloc
+            longest = Math.max(longest, run + Long.numberOfTrailingZeros(~word));
+            longest = Math.max(longest, longestRun(word));
+            run = Long.numberOfLeadingZeros(~word);
+        }
+        return longest;
+    }
+
+    /**
+     * Série en cours : jours actifs consécutifs jusqu'à {@code today}, ou jusqu'à la veille si
+     * {@code today} n'est pas (encore) actif ; 0 si aucun des deux ne l'est.
+     */
+    public int currentStreak(int today) {
+        int end = contains(today) ? today : today - 1;
+        int index = Arrays.binarySearch(keys, 0, size, end >> BLOCK_SHIFT);
+        if (index < 0 || (words[index] & (1L << (end & BLOCK_MASK))) == 0) {
+            return 0;
+        }
+        // Bits du bloc jusqu'au jour de fin, alignés en tête du mot
+        int position = end & BLOCK_MASK;
+        int streak = Long.numberOfLeadingZeros(~(words[index] << (BLOCK_MASK - position)));
+        if (streak <= position) {
+            return streak;
+        }
+        for (int i = index - 1; i >= 0 && keys[i] == keys[i + 1] - 1; i--) {
+            int ones = Long.numberOfLeadingZeros(~words[i]);
+            streak += ones;
+            if (ones < 64) {
+                break;
+            }
+        }
+        return streak;
+    }
+
+    /**
+     * Dernier jour actif.
+     */
+    public OptionalInt lastDay() {
+        if (size == 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((keys[size - 1] << BLOCK_SHIFT) + BLOCK_MASK - Long.numberOfLeadingZeros(words[size - 1]));
+    }
+
+    /**
+     * Parcourt les jours actifs par ordre croissant.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept((keys[i] << BLOCK_SHIFT) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    private void insert(int index, int key, long word) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            words = Arrays.copyOf(words, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(words, index, words, index + 1, size - index);
+        keys[index] = key;
+        words[index] = word;
+        size++;
+    }
+
+    /**
+     * Longueur de la plus longue suite de bits à 1 d'un mot : chaque {@code x & (x << 1)} raccourcit
+     * toutes les suites d'un bit.
+     */
+    private static int longestRun(long word) {
+        int length = 0;
+        while (word != 0) {
+            word &= word << 1;
+            length++;
+        }
+        return length;
+    }
+}
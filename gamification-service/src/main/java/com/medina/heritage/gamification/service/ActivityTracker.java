@@ -0,0 +1,407 @@
+package com.medina.heritage.gamification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medina.heritage.gamification.dto.response.ActivityCohortResponse;
+import com.medina.heritage.gamification.dto.response.UserActivityResponse;
+import com.medina.heritage.gamification.entity.ActivityBackfill;
+import com.medina.heritage.gamification.entity.ActivityDay;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.UserActivity;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.ActivityBackfillRepository;
+import com.medina.heritage.gamification.repository.ActivityDayRepository;
+import com.medina.heritage.gamification.repository.PointsBatchRepository;
+import com.medina.heritage.gamification.repository.UserActivityRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Jours d'activité des utilisateurs (jours UTC avec au moins un crédit), tenus en bitmaps plutôt qu'en
+ * parcours de {@code point_transactions}.
+ *
+ * Par utilisateur, un bit par jour ({@link ActivityDays}) : jours actifs, série en cours et plus longue
+ * série se calculent sur quelques mots de 64 bits. Par jour, les numéros des utilisateurs actifs
+ * ({@link CompressedBitmap}) : une cohorte (« actifs chaque jour de la semaine de l'événement ») est
+ * l'intersection de quelques bitmaps, quel que soit le nombre d'utilisateurs.
+ *
+ * Les crédits validés s'accumulent en mémoire et sont écrits par lots au flush périodique : les lignes
+ * d'utilisateur puis de jour sont verrouillées dans un ordre stable et complétées par OU binaire, une
+ * opération idempotente (un lot rejoué ou écrit par une autre instance ne fausse rien). L'activité d'un
+ * utilisateur inclut ses crédits pas encore écrits ; les cohortes voient l'activité de toutes les instances
+ * avec au plus un intervalle de flush de retard.
+ *
+ * Les bitmaps des jours sont gardés en cache. Les crédits sont datés de leur écriture : seuls aujourd'hui
+ * et hier changent encore, et sont relus à chaque flush. Les jours d'activité antérieurs sont reconstruits
+ * depuis le ledger une fois : l'avancement est noté dans {@code activity_backfill} (dernier utilisateur écrit,
+ * puis fin), une reconstruction interrompue reprend au démarrage suivant ou à la prochaine relance planifiée.
+ */
+@Slf4j
+@Service
+public class ActivityTracker {
+
+    private final UserActivityRepository activityRepository;
+    private final ActivityDayRepository dayRepository;
+    private final ActivityBackfillRepository backfillRepository;
+    private final PointsBatchRepository batchRepository;
+    // Lots écrits chacun dans sa transaction, y compris pendant la lecture du ledger de la reconstruction
+    private final TransactionTemplate writeTemplate;
+    private final TransactionTemplate readTemplate;
+    private final Cache<LocalDate, CompressedBitmap> dayCache;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Jours actifs pas encore écrits, par utilisateur
+    private Map<UUID, ActivityDays> pending = new ConcurrentHashMap<>();
+    // Reconstruction depuis le ledger terminée (lue dans activity_backfill)
+    private volatile boolean backfilled;
+
+    @Value("${gamification.activity.flush-chunk-size:1000}")
+    private int flushChunkSize;
+
+    @Value("${gamification.activity.backfill-fetch-size:5000}")
+    private int backfillFetchSize;
+
+    @Value("${gamification.activity.max-cohort-days:92}")
+    private int maxCohortDays;
+
+    @Value("${gamification.activity.max-cohort-users:1000}")
+    private int maxCohortUsers;
+
+    public ActivityTracker(UserActivityRepository activityRepository,
+                           ActivityDayRepository dayRepository,
+                           ActivityBackfillRepository backfillRepository,
+                           PointsBatchRepository batchRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${gamification.activity.cached-days:120}") long cachedDays) {
+        this.activityRepository = activityRepository;
+        this.dayRepository = dayRepository;
+        this.backfillRepository = backfillRepository;
+        this.batchRepository = batchRepository;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.dayCache = Caffeine.newBuilder()
+                .maximumSize(cachedDays)
+                .build();
+    }
+
+    /**
+     * Enregistre le jour d'un crédit, après le commit de la transaction courante.
+     */
+    public void record(PointTransaction transaction) {
+        recordAll(List.of(transaction));
+    }
+
+    /**
+     * Enregistre les jours des crédits d'un lot, après le commit de la transaction courante.
+     */
+    public void recordAll(List<PointTransaction> transactions) {
+        Map<UUID, ActivityDays> added = new HashMap<>();
+        for (PointTransaction transaction : transactions) {
+            if (transaction.getTransactionType() == TransactionType.CREDIT) {
+                OffsetDateTime at = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : OffsetDateTime.now();
+                added.computeIfAbsent(transaction.getUserId(), userId -> new ActivityDays()).add(dayNumber(at));
+            }
+        }
+        if (!added.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> addPending(added));
+        }
+    }
+
+    /**
+     * Activité d'un utilisateur : jours actifs entre {@code from} et {@code to} inclus (bornes nulles :
+     * non bornées), série en cours et plus longue série.
+     */
+    public UserActivityResponse getUserActivity(UUID userId, LocalDate from, LocalDate to) {
+        ActivityDays days = activityRepository.findByUserId(userId)
+                .map(activity -> ActivityDays.fromBytes(activity.getDays()))
+                .orElseGet(ActivityDays::new);
+        lock.readLock().lock();
+        try {
+            pending.computeIfPresent(userId, (key, local) -> {
+                days.or(local);
+                return local;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        int activeDays = from == null && to == null ? days.count()
+                : days.count(from != null ? dayNumber(from) : Integer.MIN_VALUE,
+                             to != null ? dayNumber(to) : Integer.MAX_VALUE);
+        OptionalInt lastDay = days.lastDay();
+        return new UserActivityResponse(userId, activeDays,
+                days.currentStreak(dayNumber(LocalDate.now(ZoneOffset.UTC))), days.longestStreak(),
+                lastDay.isPresent() ? LocalDate.ofEpochDay(lastDay.getAsInt()) : null);
+    }
+
+    /**
+     * Utilisateurs actifs chacun des jours de {@code from} à {@code to} inclus : leur nombre et les
+     * {@code limit} premiers.
+     */
+    public ActivityCohortResponse getCohort(LocalDate from, LocalDate to, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxCohortDays) {
+            throw new IllegalArgumentException("Cohort period must not exceed " + maxCohortDays + " days");
+        }
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        Map<LocalDate, CompressedBitmap> bitmaps = dayCache.getAll(days, this::loadDays);
+        CompressedBitmap users = CompressedBitmap.andAll(new ArrayList<>(bitmaps.values()));
+
+        int[] ordinals = users.first(Math.max(0, Math.min(limit, maxCohortUsers)));
+        List<UUID> userIds = ordinals.length == 0 ? List.of()
+                : activityRepository.findUserIdsByOrdinalIn(Arrays.stream(ordinals).boxed().toList());
+        return new ActivityCohortResponse(from, to, users.cardinality(), userIds);
+    }
+
+    /**
+     * Écrit les jours actifs accumulés, par lots de {@code gamification.activity.flush-chunk-size}
+     * utilisateurs, puis relit les jours récents en cache. Les lots en échec sont conservés pour le
+     * flush suivant.
+     */
+    @Scheduled(fixedDelayString = "${gamification.activity.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Map<UUID, ActivityDays>> chunks = chunk(drainPending());
+        for (int i = 0; i < chunks.size(); i++) {
+            Map<UUID, ActivityDays> chunk = chunks.get(i);
+            try {
+                writeTemplate.executeWithoutResult(status -> write(chunk, OffsetDateTime.now()));
+            } catch (RuntimeException e) {
+                chunks.subList(i, chunks.size()).forEach(this::addPending);
+                log.error("Activity flush failed, {} chunks kept for the next flush: {}", chunks.size() - i, e.getMessage());
+                return;
+            }
+        }
+        refreshRecentDays();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Reconstruit les jours d'activité depuis le ledger tant que la reconstruction n'est pas terminée, en
+     * reprenant après le dernier utilisateur écrit. Chaque lot d'utilisateurs complets est écrit avec
+     * l'avancement dans la même transaction : un échec ne perd que le lot en cours.
+     * Plusieurs instances peuvent la lancer ensemble : les OU binaires se recouvrent sans erreur.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void backfill() {
+        if (backfilled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int[] users = {0};
+        try {
+            Optional<ActivityBackfill> state = backfillRepository.findById(ActivityBackfill.ID);
+            if (state.map(ActivityBackfill::getCompletedAt).isPresent()) {
+                backfilled = true;
+                return;
+            }
+            UUID after = state.map(ActivityBackfill::getLastUserId).orElse(null);
+            readTemplate.executeWithoutResult(status -> {
+                Map<UUID, ActivityDays> chunk = new LinkedHashMap<>();
+                UUID[] last = {after};
+                // Crédits groupés par utilisateur : un lot n'est écrit qu'avec des utilisateurs complets
+                batchRepository.forEachCreditDay(after, backfillFetchSize, (userId, day) -> {
+                    ActivityDays days = chunk.get(userId);
+                    if (days == null) {
+                        if (chunk.size() == flushChunkSize) {
+                            writeBackfill(new LinkedHashMap<>(chunk), last[0], false);
+                            chunk.clear();
+                        }
+                        days = new ActivityDays();
+                        chunk.put(userId, days);
+                        last[0] = userId;
+                        users[0]++;
+                    }
+                    days.add(dayNumber(day));
+                });
+                writeBackfill(chunk, last[0], true);
+            });
+        } catch (RuntimeException e) {
+            log.error("Activity backfill failed after {} users, resumed at the next attempt: {}", users[0], e.getMessage());
+            return;
+        }
+        backfilled = true;
+        log.info("Activity backfilled from the ledger: {} users in {} ms", users[0], System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Relance une reconstruction interrompue (base indisponible au démarrage, par exemple).
+     */
+    @Scheduled(fixedDelayString = "${gamification.activity.backfill-retry-interval-ms:300000}",
+               initialDelayString = "${gamification.activity.backfill-retry-interval-ms:300000}")
+    public void retryBackfill() {
+        if (!backfilled) {
+            backfill();
+        }
+    }
+
+    /**
+     * Écrit un lot de la reconstruction et avance le point de reprise, dans une même transaction.
+     */
+    private void writeBackfill(Map<UUID, ActivityDays> chunk, UUID lastUserId, boolean completed) {
+        writeTemplate.executeWithoutResult(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            if (!chunk.isEmpty()) {
+                write(chunk, now);
+            }
+            batchRepository.insertMissingActivityBackfill(now);
+            ActivityBackfill state = backfillRepository.findForUpdate(ActivityBackfill.ID).orElseThrow();
+            state.setLastUserId(lastUserId);
+            if (completed) {
+                state.setCompletedAt(now);
+            }
+            state.setUpdatedAt(now);
+        });
+    }
+
+    /**
+     * Ajoute des jours actifs aux lignes des utilisateurs (créées au besoin), puis ajoute les utilisateurs
+     * aux jours qui sont nouveaux pour eux.
+     */
+    private void write(Map<UUID, ActivityDays> added, OffsetDateTime now) {
+        batchRepository.insertMissingActivity(new TreeMap<>(added).keySet(), now);
+        Map<LocalDate, CompressedBitmap> usersByDay = new TreeMap<>();
+        for (UserActivity activity : activityRepository.findForUpdate(added.keySet())) {
+            ActivityDays days = ActivityDays.fromBytes(activity.getDays());
+            added.get(activity.getUserId()).forEach(day -> {
+                if (days.add(day)) {
+                    usersByDay.computeIfAbsent(LocalDate.ofEpochDay(day), key -> new CompressedBitmap())
+                            .add(activity.getOrdinal());
+                }
+            });
+            activity.setDays(days.toBytes());
+            activity.setActiveDays(days.count());
+            activity.setLastActiveDay(LocalDate.ofEpochDay(days.lastDay().getAsInt()));
+            activity.setUpdatedAt(now);
+        }
+        if (usersByDay.isEmpty()) {
+            return;
+        }
+        batchRepository.insertMissingActivityDays(usersByDay.keySet(), now);
+        for (ActivityDay day : dayRepository.findForUpdate(usersByDay.keySet())) {
+            CompressedBitmap users = CompressedBitmap.fromBytes(day.getUserOrdinals());
+            users.or(usersByDay.get(day.getActivityDay()));
+            day.setUserOrdinals(users.toBytes());
+            day.setUserCount(users.cardinality());
+            day.setUpdatedAt(now);
+        }
+    }
+
+    /**
+     * Bitmaps des jours demandés ; un jour sans ligne n'a aucun utilisateur actif.
+     */
+    private Map<LocalDate, CompressedBitmap> loadDays(Set<? extends LocalDate> days) {
+        Map<LocalDate, CompressedBitmap> bitmaps = new HashMap<>(days.size() * 2);
+        for (LocalDate day : days) {
+            bitmaps.put(day, new CompressedBitmap());
+        }
+        for (ActivityDay day : dayRepository.findByActivityDayIn(new ArrayList<>(days))) {
+            bitmaps.put(day.getActivityDay(), CompressedBitmap.fromBytes(day.getUserOrdinals()));
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Relit aujourd'hui et hier s'ils sont en cache (écritures des autres instances).
+     */
+    private void refreshRecentDays() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<LocalDate> cached = new ArrayList<>(2);
+        for (LocalDate day : List.of(today.minusDays(1), today)) {
+            if (dayCache.getIfPresent(day) != null) {
+                cached.add(day);
+            }
+        }
+        if (cached.isEmpty()) {
+            return;
+        }
+        try {
+            dayCache.putAll(loadDays(Set.copyOf(cached)));
+        } catch (RuntimeException e) {
+            log.warn("Activity day refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void addPending(Map<UUID, ActivityDays> added) {
+        lock.readLock().lock();
+        try {
+            added.forEach((userId, days) -> pending.merge(userId, days, (current, more) -> {
+                current.or(more);
+                return current;
+            }));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<UUID, ActivityDays> drainPending() {
+        lock.writeLock().lock();
+        try {
+            Map<UUID, ActivityDays> drained = pending;
+            pending = new ConcurrentHashMap<>();
+            return drained;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Découpe les jours accumulés en lots, par userId croissant (ordre de verrouillage des lignes).
+     */
+    private List<Map<UUID, ActivityDays>> chunk(Map<UUID, ActivityDays> drained) {
+        List<Map<UUID, ActivityDays>> chunks = new ArrayList<>();
+        Map<UUID, ActivityDays> current = new LinkedHashMap<>();
+        for (Map.Entry<UUID, ActivityDays> entry : new TreeMap<>(drained).entrySet()) {
+            if (current.size() == flushChunkSize) {
+                chunks.add(current);
+                current = new LinkedHashMap<>();
+            }
+            current.put(entry.getKey(), entry.getValue());
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private static int dayNumber(OffsetDateTime at) {
+        return dayNumber(at.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate());
+    }
+
+    private static int dayNumber(LocalDate day) {
+        return (int) day.toEpochDay();
+    }
+}
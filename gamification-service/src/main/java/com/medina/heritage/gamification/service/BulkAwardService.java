@@ -0,0 +1,401 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.events.gamification.PointsEarnedEvent;
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.response.BulkAddPointsResponse;
+import com.medina.heritage.gamification.dto.response.BulkAwardResult;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.enums.BulkAwardStatus;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.exception.InvalidTransactionException;
+import com.medina.heritage.gamification.messaging.GamificationEventPublisher;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.PointsBatchRepository;
+import com.medina.heritage.gamification.repository.WalletTotals;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Attribution de points en masse (campagnes de participation).
+ *
+ * Le corps de la requête est lu en flux, élément par élément, et traité par lots de
+ * {@code gamification.bulk.chunk-size} éléments. Chaque lot est une transaction qui exécute un nombre
+ * constant d'allers-retours quelle que soit sa taille : une requête de détection des doublons, la création
+ * des wallets manquants et le crédit (batch JDBC), une nouvelle détection des doublons sous les verrous de ligne
+ * des wallets, une relecture des soldes, l'insertion du ledger
+ * et la mise à jour des statistiques par utilisateur (batch JDBC) et des compteurs de badges. Les points des badges
+ * obtenus sont crédités un par un dans la même transaction. Les événements ne sont publiés qu'après le commit du lot ;
+ * les jours d'activité sont alors enregistrés en mémoire et écrits au flush suivant ({@link ActivityTracker}).
+ *
+ * Une référence enregistrée par une transaction concurrente entre les deux détections annule le lot, qui est
+ * rejoué une fois : l'élément est alors signalé {@link BulkAwardStatus#DUPLICATE}.
+ * Un lot en échec n'empêche pas les suivants : ses éléments sont signalés {@link BulkAwardStatus#FAILED}.
+ */
+@Slf4j
+@Service
+public class BulkAwardService {
+
+    private final PointTransactionRepository transactionRepository;
+    private final PointsBatchRepository batchRepository;
+    private final LeaderboardService leaderboardService;
+    private final WalletCache walletCache;
+    private final PointStatsService pointStatsService;
+    private final LevelHistogram levelHistogram;
+    private final AchievementService achievementService;
+    private final ActivityTracker activityTracker;
+    private final PlatformCounters platformCounters;
+    private final WalletService walletService;
+    private final GamificationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+
+    @Value("${gamification.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${gamification.bulk.max-items:50000}")
+    private int maxItems;
+
+    public BulkAwardService(PointTransactionRepository transactionRepository,
+                            PointsBatchRepository batchRepository,
+                            LeaderboardService leaderboardService,
+                            WalletCache walletCache,
+                            PointStatsService pointStatsService,
+                            LevelHistogram levelHistogram,
+                            AchievementService achievementService,
+                            ActivityTracker activityTracker,
+                            PlatformCounters platformCounters,
+                            WalletService walletService,
+                            GamificationEventPublisher eventPublisher,
+                            TransactionTemplate transactionTemplate,
+                            Validator validator,
+                            JsonMapper jsonMapper) {
+        this.transactionRepository = transactionRepository;
+        this.batchRepository = batchRepository;
+        this.leaderboardService = leaderboardService;
+        this.walletCache = walletCache;
+        this.pointStatsService = pointStatsService;
+        this.levelHistogram = levelHistogram;
+        this.achievementService = achievementService;
+        this.activityTracker = activityTracker;
+        this.platformCounters = platformCounters;
+        this.walletService = walletService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.requestReader = jsonMapper.readerFor(AddPointsRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Lit un tableau JSON d'{@link AddPointsRequest} depuis le flux et attribue les points.
+     */
+    public BulkAddPointsResponse award(InputStream body) {
+        List<BulkAwardResult> results = new ArrayList<>();
+        List<Award> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<AddPointsRequest> items = requestReader.readValues(body)) {
+            while (items.hasNextValue()) {
+                if (results.size() >= maxItems) {
+                    throw new InvalidTransactionException("Bulk request exceeds " + maxItems + " items");
+                }
+                chunk = accept(items.nextValue(), results, chunk);
+            }
+        } catch (JacksonException e) {
+            // Les lots déjà validés restent acquis : un nouvel envoi sera dédoublonné par référence
+            throw new InvalidTransactionException("Malformed bulk request after item " + results.size() + ": " + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk);
+        }
+        return summarize(results);
+    }
+
+    /**
+     * Attribue les points d'une liste déjà en mémoire (lot de messages, par exemple).
+     */
+    public BulkAddPointsResponse award(List<AddPointsRequest> requests) {
+        List<BulkAwardResult> results = new ArrayList<>(requests.size());
+        List<Award> chunk = new ArrayList<>(Math.min(chunkSize, requests.size()));
+        for (AddPointsRequest request : requests) {
+            chunk = accept(request, results, chunk);
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk);
+        }
+        return summarize(results);
+    }
+
+    /**
+     * Valide un élément et l'ajoute au lot courant ; traite le lot quand il est plein.
+     *
+     * @return le lot courant (nouveau si le précédent vient d'être traité)
+     */
+    private List<Award> accept(AddPointsRequest request, List<BulkAwardResult> results, List<Award> chunk) {
+        BulkAwardResult result = new BulkAwardResult();
+        result.setIndex(results.size());
+        result.setUserId(request != null ? request.getUserId() : null);
+        results.add(result);
+
+        String violation = validate(request);
+        if (violation != null) {
+            result.setStatus(BulkAwardStatus.INVALID);
+            result.setMessage(violation);
+            return chunk;
+        }
+        chunk.add(new Award(request, result));
+        if (chunk.size() < chunkSize) {
+            return chunk;
+        }
+        processChunk(chunk);
+        return new ArrayList<>(chunkSize);
+    }
+
+    private String validate(AddPointsRequest request) {
+        if (request == null) {
+            return "Item is null";
+        }
+        Set<ConstraintViolation<AddPointsRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void processChunk(List<Award> chunk) {
+        List<Award> awarded;
+        try {
+            try {
+                awarded = transactionTemplate.execute(status -> writeChunk(chunk));
+            } catch (ConcurrentReferenceException e) {
+                log.info("Bulk award chunk replayed: {}", e.getMessage());
+                awarded = transactionTemplate.execute(status -> writeChunk(chunk));
+            }
+        } catch (RuntimeException e) {
+            log.error("Bulk award chunk of {} items failed: {}", chunk.size(), e.getMessage());
+            for (Award award : chunk) {
+                award.result.setStatus(BulkAwardStatus.FAILED);
+                award.result.setMessage("Chunk failed, item can be resent");
+            }
+            return;
+        }
+        publishChunk(awarded);
+    }
+
+    /**
+     * Écrit un lot dans la transaction courante ; retourne les éléments effectivement attribués.
+     */
+    private List<Award> writeChunk(List<Award> chunk) {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        // Doublons : une requête pour tout le lot, plus les répétitions internes au lot
+        Set<UUID> referenceIds = new HashSet<>();
+        for (Award award : chunk) {
+            if (award.hasReference()) {
+                referenceIds.add(award.request.getReferenceId());
+            }
+        }
+        Set<String> seen = findReferenceKeys(referenceIds);
+
+        List<Award> accepted = new ArrayList<>(chunk.size());
+        SortedMap<UUID, Integer> pointsByUser = new TreeMap<>();
+        for (Award award : chunk) {
+            AddPointsRequest request = award.request;
+            if (award.hasReference() && !seen.add(
+                    referenceKey(request.getReferenceId(), request.getReferenceType(), request.getReasonCode()))) {
+                award.result.setStatus(BulkAwardStatus.DUPLICATE);
+                award.result.setMessage("Transaction already exists for this reference");
+                continue;
+            }
+            accepted.add(award);
+            pointsByUser.merge(request.getUserId(), request.getPoints(), Integer::sum);
+        }
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+
+        levelHistogram.walletsCreated(batchRepository.insertMissingWallets(pointsByUser.keySet(), now));
+        batchRepository.creditWallets(pointsByUser, now);
+
+        // Revérifier sous les verrous de ligne : une attribution concurrente de la même référence au même
+        // utilisateur, validée depuis la première détection, est visible ici
+        Set<String> stored = findReferenceKeys(referenceIds);
+        for (Award award : accepted) {
+            AddPointsRequest request = award.request;
+            if (award.hasReference() && stored.contains(
+                    referenceKey(request.getReferenceId(), request.getReferenceType(), request.getReasonCode()))) {
+                throw new ConcurrentReferenceException(request.getReferenceId());
+            }
+        }
+        Map<UUID, WalletTotals> totals = batchRepository.findTotals(pointsByUser.keySet());
+
+        // Solde avant le lot, puis solde courant après chaque attribution dans l'ordre de l'envoi
+        Map<UUID, Integer> running = new HashMap<>(pointsByUser.size() * 2);
+        pointsByUser.forEach((userId, points) -> {
+            WalletTotals walletTotals = totals.get(userId);
+            running.put(userId, walletTotals.balance() - points);
+            levelHistogram.levelChanged(Wallet.levelFor(walletTotals.totalEarned() - points),
+                    Wallet.levelFor(walletTotals.totalEarned()));
+        });
+
+        List<PointTransaction> transactions = new ArrayList<>(accepted.size());
+        for (Award award : accepted) {
+            AddPointsRequest request = award.request;
+            int balanceAfter = running.merge(request.getUserId(), request.getPoints(), Integer::sum);
+
+            PointTransaction transaction = new PointTransaction();
+            transaction.setId(UUID.randomUUID());
+            transaction.setUserId(request.getUserId());
+            transaction.setPoints(request.getPoints());
+            transaction.setTransactionType(TransactionType.CREDIT);
+            transaction.setReasonCode(request.getReasonCode());
+            transaction.setDescription(request.getDescription());
+            transaction.setReferenceId(request.getReferenceId());
+            transaction.setReferenceType(request.getReferenceType());
+            transaction.setSfCaseId(request.getSfCaseId());
+            transaction.setBalanceAfter(balanceAfter);
+            transaction.setCreatedAt(now);
+            transactions.add(transaction);
+
+            award.transaction = transaction;
+            award.totalEarned = totals.get(request.getUserId()).totalEarned();
+        }
+        batchRepository.insertTransactions(transactions);
+        pointStatsService.recordAll(transactions);
+        platformCounters.recordAll(transactions);
+        activityTracker.recordAll(transactions);
+
+        // Badges obtenus par le lot : crédités un par un, dans la transaction du lot
+        Map<UUID, Integer> totalEarnedByUser = new HashMap<>(totals.size() * 2);
+        totals.forEach((userId, walletTotals) -> totalEarnedByUser.put(userId, walletTotals.totalEarned()));
+        for (AchievementService.EarnedBadge earned : achievementService.recordAll(transactions, totalEarnedByUser)) {
+            walletService.awardBadge(earned.userId(), earned.badge());
+        }
+
+        for (Award award : accepted) {
+            award.result.setStatus(BulkAwardStatus.AWARDED);
+            award.result.setTransactionId(award.transaction.getId());
+            award.result.setBalanceAfter(award.transaction.getBalanceAfter());
+        }
+        return accepted;
+    }
+
+    /**
+     * Publie les événements d'un lot validé : un PointsEarnedEvent par attribution, une mise à jour
+     * du classement par utilisateur et l'invalidation des wallets en cache.
+     */
+    private void publishChunk(List<Award> awarded) {
+        if (awarded.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> totalEarnedByUser = new HashMap<>();
+        Map<UUID, Integer> pointsByUser = new HashMap<>();
+        List<PointsEarnedEvent> events = new ArrayList<>(awarded.size());
+        for (Award award : awarded) {
+            totalEarnedByUser.put(award.request.getUserId(), award.totalEarned);
+            pointsByUser.merge(award.request.getUserId(), award.transaction.getPoints(), Integer::sum);
+            events.add(PointsEarnedEvent.builder()
+                    .userId(award.request.getUserId().getMostSignificantBits())
+                    .pointsEarned(award.transaction.getPoints())
+                    .newBalance(award.transaction.getBalanceAfter())
+                    .newTotalEarned(award.totalEarned)
+                    .referenceType(award.request.getReferenceType())
+                    .description(award.request.getDescription())
+                    .build());
+        }
+        try {
+            eventPublisher.publishPointsEarned(events);
+        } catch (Exception e) {
+            log.error("Error publishing PointsEarnedEvents: {}", e.getMessage());
+        }
+        // Toutes les transactions d'un lot ont la même date de création
+        OffsetDateTime creditedAt = awarded.get(0).transaction.getCreatedAt();
+        totalEarnedByUser.forEach((userId, totalEarned) ->
+                leaderboardService.recordScore(userId, totalEarned, pointsByUser.get(userId), creditedAt));
+        walletCache.evictAfterCommit(totalEarnedByUser.keySet());
+        log.info("Bulk award chunk committed: {} awards for {} users", awarded.size(), totalEarnedByUser.size());
+    }
+
+    private static BulkAddPointsResponse summarize(List<BulkAwardResult> results) {
+        int awarded = 0;
+        int duplicates = 0;
+        int invalid = 0;
+        int failed = 0;
+        for (BulkAwardResult result : results) {
+            switch (result.getStatus()) {
+                case AWARDED -> awarded++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BulkAddPointsResponse(results.size(), awarded, duplicates, invalid, failed, results);
+    }
+
+    private Set<String> findReferenceKeys(Set<UUID> referenceIds) {
+        Set<String> keys = new HashSet<>();
+        if (!referenceIds.isEmpty()) {
+            for (Object[] key : transactionRepository.findReferenceKeys(referenceIds)) {
+                keys.add(referenceKey((UUID) key[0], (String) key[1], (String) key[2]));
+            }
+        }
+        return keys;
+    }
+
+    private static String referenceKey(UUID referenceId, String referenceType, String reasonCode) {
+        return referenceId + "|" + referenceType + "|" + reasonCode;
+    }
+
+    /**
+     * Référence enregistrée par une transaction concurrente pendant l'écriture du lot : le lot est annulé et rejoué.
+     */
+    private static final class ConcurrentReferenceException extends RuntimeException {
+        private ConcurrentReferenceException(UUID referenceId) {
+            super("reference " + referenceId + " stored by a concurrent transaction");
+        }
+    }
+
+    /**
+     * Élément en cours de traitement et son résultat.
+     */
+    private static final class Award {
+        private final AddPointsRequest request;
+        private final BulkAwardResult result;
+        private PointTransaction transaction;
+        private int totalEarned;
+
+        private Award(AddPointsRequest request, BulkAwardResult result) {
+            this.request = request;
+            this.result = result;
+        }
+
+        private boolean hasReference() {
+            return request.getReferenceId() != null && request.getReferenceType() != null;
+        }
+    }
+}
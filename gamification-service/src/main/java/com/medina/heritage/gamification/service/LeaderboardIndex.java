@@ -0,0 +1,254 @@
+package com.medina.heritage.gamification.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Classement en mémoire : skip list indexable (chaque lien mémorise le nombre d'éléments qu'il saute).
+ *
+ * Ordre : score décroissant puis userId croissant. Le rang, l'accès par position et l'insertion
+ * sont en O(log n) ; une page ou une fenêtre de k éléments coûte O(log n + k).
+ * Le rang est celui de la compétition : les scores égaux partagent le même rang (comme
+ * {@code COUNT(score > mien) + 1}).
+ *
+ * Non thread-safe : l'appelant synchronise.
+ */
+public final class LeaderboardIndex {
+
+    private static final int MAX_LEVEL = 32;
+
+    public record Entry(long rank, UUID userId, int score) {
+    }
+
+    private static final class Node {
+        private final UUID userId;
+        private final int score;
+        private final Node[] next;
+        private final int[] span;
+
+        private Node(UUID userId, int score, int levels) {
+            this.userId = userId;
+            this.score = score;
+            this.next = new Node[levels];
+            this.span = new int[levels];
+        }
+    }
+
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+    private final Map<UUID, Node> byUser = new HashMap<>();
+    private int levels = 1;
+
+    // Tampons de chemin réutilisés par l'insertion et la suppression
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] updateRank = new int[MAX_LEVEL];
+
+    /**
+     * Enregistre le score d'un utilisateur s'il est absent ou si le score est supérieur au score connu.
+     * Le total gagné ne fait que croître : appliquer deux fois, ou dans le désordre, la même mise à jour
+     * ne change rien.
+     *
+     * @return true si l'index a été modifié
+     */
+    public boolean offer(UUID userId, int score) {
+        Node existing = byUser.get(userId);
+        if (existing != null) {
+            if (existing.score >= score) {
+                return false;
+            }
+            byUser.remove(userId);
+            unlink(existing);
+        }
+        byUser.put(userId, insert(userId, score));
+        return true;
+    }
+
+    public boolean remove(UUID userId) {
+        Node node = byUser.remove(userId);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    /**
+     * Score connu de l'utilisateur, ou -1 s'il n'est pas classé.
+     */
+    public int score(UUID userId) {
+        Node node = byUser.get(userId);
+        return node != null ? node.score : -1;
+    }
+
+    /**
+     * Rang (à partir de 1) de l'utilisateur, ou -1 s'il n'est pas classé.
+     */
+    public long rank(UUID userId) {
+        Node node = byUser.get(userId);
+        return node != null ? countAbove(node.score) + 1 : -1;
+    }
+
+    /**
+     * Éléments de {@code offset} à {@code offset + limit - 1} dans l'ordre du classement.
+     */
+    public List<Entry> range(int offset, int limit) {
+        if (offset < 0 || limit <= 0 || offset >= size()) {
+            return List.of();
+        }
+        List<Entry> entries = new ArrayList<>(Math.min(limit, size() - offset));
+        Node node = nodeAt(offset);
+        long rank = countAbove(node.score) + 1;
+        int previousScore = node.score;
+        for (int position = offset; node != null && entries.size() < limit; position++, node = node.next[0]) {
+            if (node.score != previousScore) {
+                // Tous les éléments avant cette position ont un score strictement supérieur
+                rank = position + 1;
+                previousScore = node.score;
+            }
+            entries.add(new Entry(rank, node.userId, node.score));
+        }
+        return entries;
+    }
+
+    /**
+     * Fenêtre de {@code radius} éléments de part et d'autre de l'utilisateur (vide s'il n'est pas classé).
+     */
+    public List<Entry> around(UUID userId, int radius) {
+        Node node = byUser.get(userId);
+        if (node == null) {
+            return List.of();
+        }
+        int position = position(node);
+        int from = Math.max(0, position - radius);
+        return range(from, position - from + radius + 1);
+    }
+
+    /**
+     * Nombre d'éléments de score strictement supérieur.
+     */
+    private long countAbove(int score) {
+        Node x = head;
+        long traversed = 0;
+        for (int i = levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].score > score) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return traversed;
+    }
+
+    /**
+     * Position (à partir de 0) d'un nœud présent dans la liste.
+     */
+    private int position(Node node) {
+        Node x = head;
+        int traversed = 0;
+        for (int i = levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i].score, x.next[i].userId, node.score, node.userId)) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return traversed;
+    }
+
+    private Node nodeAt(int position) {
+        Node x = head;
+        int traversed = 0;
+        int target = position + 1;
+        for (int i = levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= target) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == target) {
+                return x;
+            }
+        }
+        throw new IllegalStateException("Leaderboard index corrupted at position " + position);
+    }
+
+    private Node insert(UUID userId, int score) {
+        Node[] update = this.update;
+        int[] rank = this.updateRank;
+        Node x = head;
+        for (int i = levels - 1; i >= 0; i--) {
+            rank[i] = i == levels - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && before(x.next[i].score, x.next[i].userId, score, userId)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevels = randomLevels();
+        if (nodeLevels > levels) {
+            for (int i = levels; i < nodeLevels; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = byUser.size();
+            }
+            levels = nodeLevels;
+        }
+
+        Node node = new Node(userId, score, nodeLevels);
+        for (int i = 0; i < nodeLevels; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        // Les niveaux supérieurs du nouveau nœud sautent désormais un élément de plus
+        for (int i = nodeLevels; i < levels; i++) {
+            update[i].span[i]++;
+        }
+        return node;
+    }
+
+    private static boolean before(int score, UUID userId, int otherScore, UUID otherUserId) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        return userId.compareTo(otherUserId) < 0;
+    }
+
+    private void unlink(Node node) {
+        Node[] update = this.update;
+        Node x = head;
+        for (int i = levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i] != node && before(x.next[i].score, x.next[i].userId, node.score, node.userId)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        for (int i = 0; i < levels; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (levels > 1 && head.next[levels - 1] == null) {
+            head.span[levels - 1] = 0;
+            levels--;
+        }
+    }
+
+    private static int randomLevels() {
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (level < MAX_LEVEL && random.nextInt(4) == 0) {
+            level++;
+        }
+        return level;
+    }
+}
@@ -0,0 +1,275 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.LeaderboardEntryResponse;
+import com.medina.heritage.gamification.dto.response.LeaderboardPageResponse;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.enums.LeaderboardWindow;
+import com.medina.heritage.gamification.messaging.GamificationEventPublisher;
+import com.medina.heritage.gamification.messaging.LeaderboardUpdateEvent;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Classements des utilisateurs tenus en mémoire ({@link LeaderboardIndex}) : total de points gagnés
+ * ({@link LeaderboardWindow#ALL_TIME}) et points gagnés sur la semaine et le mois en cours
+ * ({@link WindowedLeaderboard}).
+ *
+ * Le classement général est reconstruit depuis la table {@code wallets} au démarrage, les classements
+ * par période depuis les crédits du ledger de la période en cours ; tous sont ensuite mis à jour après
+ * chaque crédit validé. Chaque instance diffuse le nouveau total gagné et les points crédités à toutes
+ * les instances ({@link LeaderboardUpdateEvent}) ; le total étant absolu et croissant, une mise à jour
+ * rejouée ou reçue dans le désordre est sans effet sur le classement général, et les classements par période
+ * reconnaissent un crédit déjà compté à la tranche du total gagné qu'il occupe. Seuls les utilisateurs
+ * ayant gagné des points sont classés.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private final WalletRepository walletRepository;
+    private final PointTransactionRepository transactionRepository;
+    private final GamificationEventPublisher eventPublisher;
+
+    @Value("${gamification.leaderboard.rebuild-page-size:1000}")
+    private int rebuildPageSize;
+
+    @Value("${gamification.leaderboard.max-page-size:100}")
+    private int maxPageSize;
+
+    private final LeaderboardIndex index = new LeaderboardIndex();
+    private final Map<LeaderboardWindow, WindowedLeaderboard> windows = windows(Instant.now());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final UUID instanceId = UUID.randomUUID();
+    // Les crédits antérieurs sont lus dans le ledger par la reconstruction, les suivants reçus en messages
+    private final Instant rebuiltUntil = Instant.now();
+
+    /**
+     * Charge les totaux depuis la base. Les mises à jour reçues pendant le chargement sont conservées :
+     * chaque valeur n'est appliquée que si elle est supérieure à celle déjà connue.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Pageable pageable = PageRequest.of(0, rebuildPageSize, Sort.by("userId"));
+        int loaded = 0;
+        Slice<Wallet> slice;
+        do {
+            slice = walletRepository.findByTotalEarnedGreaterThan(0, pageable);
+            lock.writeLock().lock();
+            try {
+                for (Wallet wallet : slice) {
+                    index.offer(wallet.getUserId(), wallet.getTotalEarned());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded += slice.getNumberOfElements();
+            pageable = slice.nextPageable();
+        } while (slice.hasNext());
+        log.info("Leaderboard rebuilt: {} wallets loaded in {} ms", loaded, System.currentTimeMillis() - start);
+        rebuildWindows();
+    }
+
+    /**
+     * Charge les points gagnés depuis le début de chaque période en cours jusqu'au démarrage ; les crédits
+     * suivants, reçus en messages, s'y ajoutent.
+     */
+    private void rebuildWindows() {
+        OffsetDateTime to = rebuiltUntil.atOffset(ZoneOffset.UTC);
+        windows.forEach((window, leaderboard) -> {
+            long start = System.currentTimeMillis();
+            Instant from = window.start(rebuiltUntil);
+            List<Object[]> rows = transactionRepository.sumPointsEarnedByUserBetween(from.atOffset(ZoneOffset.UTC), to);
+            Instant now = Instant.now();
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    leaderboard.add((UUID) row[0], Math.toIntExact(((Number) row[1]).longValue()), from, now);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("{} leaderboard rebuilt: {} users loaded in {} ms", window, rows.size(),
+                    System.currentTimeMillis() - start);
+        });
+    }
+
+    /**
+     * Enregistre un crédit : nouveau total gagné et points crédités à {@code creditedAt}. Dans une
+     * transaction, l'application locale et la diffusion n'ont lieu qu'après le commit : un crédit annulé
+     * ne modifie pas les classements.
+     */
+    public void recordScore(UUID userId, int totalEarned, int points, OffsetDateTime creditedAt) {
+        LeaderboardUpdateEvent event = new LeaderboardUpdateEvent(userId, totalEarned, points,
+                creditedAt.toInstant(), instanceId);
+        TransactionCallbacks.afterCommit(() -> applyAndPublish(event));
+    }
+
+    /**
+     * Applique une mise à jour reçue d'une instance (y compris celle-ci : ses points ont déjà été
+     * ajoutés aux classements par période).
+     */
+    public void apply(LeaderboardUpdateEvent event) {
+        applyLocal(event, !instanceId.equals(event.getOrigin()));
+    }
+
+    /**
+     * Abandonne les compartiments des périodes closes, même sans nouveau crédit.
+     */
+    @Scheduled(cron = "0 0 0 * * *", zone = "UTC")
+    public void rollWindows() {
+        Instant now = Instant.now();
+        lock.writeLock().lock();
+        try {
+            windows.forEach((window, leaderboard) -> {
+                if (leaderboard.roll(now)) {
+                    log.info("{} leaderboard window closed, new window starts at {}", window, leaderboard.start(now));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rang de l'utilisateur au classement général, ou null s'il n'est pas classé.
+     */
+    public Long getRank(UUID userId) {
+        LeaderboardEntryResponse entry = getEntry(LeaderboardWindow.ALL_TIME, userId);
+        return entry != null ? entry.getRank() : null;
+    }
+
+    /**
+     * Ligne de l'utilisateur dans un classement, ou null s'il n'y est pas classé.
+     */
+    public LeaderboardEntryResponse getEntry(LeaderboardWindow window, UUID userId) {
+        lock.readLock().lock();
+        try {
+            LeaderboardIndex ranking = ranking(window, Instant.now());
+            long rank = ranking.rank(userId);
+            if (rank < 1) {
+                return null;
+            }
+            return toResponse(new LeaderboardIndex.Entry(rank, userId, ranking.score(userId)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Page d'un classement ; {@code limit} est plafonné à la taille de page maximale.
+     */
+    public LeaderboardPageResponse getPage(LeaderboardWindow window, int offset, int limit) {
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("Offset must be >= 0 and limit must be >= 1");
+        }
+        int cappedLimit = Math.min(limit, maxPageSize);
+        Instant now = Instant.now();
+        Instant windowStart = window.start(now);
+        lock.readLock().lock();
+        try {
+            LeaderboardIndex ranking = ranking(window, now);
+            return new LeaderboardPageResponse(offset, cappedLimit, ranking.size(),
+                    toResponses(ranking.range(offset, cappedLimit)), window,
+                    windowStart != null ? windowStart.atOffset(ZoneOffset.UTC) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Utilisateurs classés autour de l'utilisateur ({@code radius} de part et d'autre, plafonné),
+     * ou liste vide s'il n'est pas classé.
+     */
+    public List<LeaderboardEntryResponse> getAround(LeaderboardWindow window, UUID userId, int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius must be >= 0");
+        }
+        int cappedRadius = Math.min(radius, maxPageSize / 2);
+        lock.readLock().lock();
+        try {
+            return toResponses(ranking(window, Instant.now()).around(userId, cappedRadius));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void applyAndPublish(LeaderboardUpdateEvent event) {
+        applyLocal(event, true);
+        try {
+            eventPublisher.publishLeaderboardUpdate(event);
+        } catch (Exception e) {
+            // Les autres instances rattraperont ce total à leur prochaine reconstruction
+            log.error("Error publishing LeaderboardUpdateEvent: {}", e.getMessage());
+        }
+    }
+
+    private void applyLocal(LeaderboardUpdateEvent event, boolean includeWindows) {
+        boolean credited = includeWindows && event.getPoints() != null && event.getCreditedAt() != null
+                && !event.getCreditedAt().isBefore(rebuiltUntil);
+        if (event.getTotalEarned() <= 0 && !credited) {
+            return;
+        }
+        Instant now = Instant.now();
+        lock.writeLock().lock();
+        try {
+            if (event.getTotalEarned() > 0) {
+                index.offer(event.getUserId(), event.getTotalEarned());
+            }
+            if (credited) {
+                for (WindowedLeaderboard leaderboard : windows.values()) {
+                    leaderboard.credit(event.getUserId(), event.getTotalEarned(), event.getPoints(),
+                            event.getCreditedAt(), now);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private LeaderboardIndex ranking(LeaderboardWindow window, Instant now) {
+        return window == LeaderboardWindow.ALL_TIME ? index : windows.get(window).index(now);
+    }
+
+    /**
+     * Ligne de classement ; le total gagné et le niveau sont ceux du classement général.
+     */
+    private LeaderboardEntryResponse toResponse(LeaderboardIndex.Entry entry) {
+        int totalEarned = Math.max(0, index.score(entry.userId()));
+        return new LeaderboardEntryResponse(entry.rank(), entry.userId(), totalEarned,
+                Wallet.levelFor(totalEarned), entry.score());
+    }
+
+    private List<LeaderboardEntryResponse> toResponses(List<LeaderboardIndex.Entry> entries) {
+        return entries.stream().map(this::toResponse).toList();
+    }
+
+    private static Map<LeaderboardWindow, WindowedLeaderboard> windows(Instant now) {
+        Map<LeaderboardWindow, WindowedLeaderboard> windows = new EnumMap<>(LeaderboardWindow.class);
+        windows.put(LeaderboardWindow.WEEKLY, new WindowedLeaderboard(LeaderboardWindow.WEEKLY, now));
+        windows.put(LeaderboardWindow.MONTHLY, new WindowedLeaderboard(LeaderboardWindow.MONTHLY, now));
+        return windows;
+    }
+}
@@ -0,0 +1,42 @@
+package com.medina.heritage.gamification.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Étape de migration du ledger vers les partitions mensuelles : lancée une fois, pendant une fenêtre de maintenance,
+ * avec {@code gamification.ledger.partitioning.migrate=true}. Le service convertit le ledger puis s'arrête
+ * (code de sortie 0 si le ledger est partitionné, 1 sinon) ; il est ensuite redéployé sans cette option.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = {"gamification.ledger.partitioning.enabled", "gamification.ledger.partitioning.migrate"},
+        havingValue = "true")
+public class LedgerPartitionMigration implements ApplicationRunner {
+
+    private final LedgerPartitionService partitionService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean partitioned;
+        try {
+            if (!partitionService.migrate()) {
+                log.info("Ledger partition migration skipped: already partitioned or locked by another instance");
+            }
+            partitioned = partitionService.isPartitioned();
+        } catch (RuntimeException e) {
+            log.error("Ledger partition migration failed: {}", e.getMessage(), e);
+            partitioned = false;
+        }
+        int exitCode = partitioned ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
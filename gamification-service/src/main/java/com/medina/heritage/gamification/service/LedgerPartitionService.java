@@ -0,0 +1,310 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.entity.LedgerArchive;
+import com.medina.heritage.gamification.entity.ReconciliationRun;
+import com.medina.heritage.gamification.enums.ReconciliationStatus;
+import com.medina.heritage.gamification.repository.LedgerArchiveRepository;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository.LedgerRow;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository.Partition;
+import com.medina.heritage.gamification.repository.ReconciliationRunRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Partitionnement mensuel du ledger {@code point_transactions} et archivage des mois anciens (PostgreSQL uniquement).
+ *
+ * <ul>
+ *   <li>La table d'origine est convertie en table partitionnée par plage de created_at
+ *       (voir {@link LedgerPartitionRepository#convertToPartitioned}) par une étape de migration explicite,
+ *       {@link #migrate()} (voir {@link LedgerPartitionMigration}), jamais au démarrage normal : la conversion
+ *       verrouille le ledger en exclusif. Les partitions du mois courant et des {@code months-ahead} mois
+ *       suivants sont ensuite créées à l'avance, au démarrage puis chaque nuit.</li>
+ *   <li>Une partition dont la plage se termine avant le début du mois courant moins {@code retention-months}
+ *       est exportée dans un fichier CSV gzip, ses totaux par utilisateur sont ajoutés à
+ *       {@code archived_ledger_totals}, puis elle est détachée et supprimée dans la même transaction.</li>
+ *   <li>Une partition n'est archivée que si sa plage se termine avant la coupure de la dernière réconciliation
+ *       terminée : ses transactions sont alors incluses dans les snapshots des wallets, et une réconciliation
+ *       incrémentale n'a plus à les relire. Un replay complet part de {@code archived_ledger_totals}.</li>
+ * </ul>
+ * Les instances se coordonnent par un verrou consultatif : une seule fait la maintenance à la fois.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "gamification.ledger.partitioning.enabled", havingValue = "true")
+public class LedgerPartitionService {
+
+    private static final String CSV_HEADER = "id,user_id,points,transaction_type,reason_code,description," +
+            "reference_id,reference_type,sf_case_id,balance_after,created_at";
+
+    private final LedgerPartitionRepository partitionRepository;
+    private final LedgerArchiveRepository archiveRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    @Value("${gamification.ledger.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${gamification.ledger.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${gamification.ledger.archive.directory:ledger-archive}")
+    private String archiveDirectory;
+
+    public LedgerPartitionService(LedgerPartitionRepository partitionRepository,
+                                  LedgerArchiveRepository archiveRepository,
+                                  ReconciliationRunRepository runRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.partitionRepository = partitionRepository;
+        this.archiveRepository = archiveRepository;
+        this.runRepository = runRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Crée les partitions à venir d'un ledger déjà converti ; un ledger pas encore converti est laissé tel quel.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!isPartitioned()) {
+            log.warn("Ledger is not partitioned: run the migration once with gamification.ledger.partitioning.migrate=true");
+            return;
+        }
+        ensurePartitions(YearMonth.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Convertit le ledger en table partitionnée puis crée les partitions à venir. Le ledger est verrouillé en
+     * exclusif jusqu'au commit de la conversion : à lancer pendant une fenêtre de maintenance.
+     *
+     * @return false si le ledger était déjà converti ou si une autre instance fait la maintenance
+     */
+    public boolean migrate() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        Boolean converted = writeTransaction.execute(status -> {
+            if (!partitionRepository.tryLock() || partitionRepository.isPartitioned()) {
+                return false;
+            }
+            long start = System.currentTimeMillis();
+            // Le mois courant reste dans la table d'origine : ses transactions y sont déjà
+            partitionRepository.convertToPartitioned(current.plusMonths(1));
+            log.info("Ledger converted to monthly partitions in {} ms", System.currentTimeMillis() - start);
+            return true;
+        });
+        ensurePartitions(current);
+        return Boolean.TRUE.equals(converted);
+    }
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(readTransaction.execute(status -> partitionRepository.isPartitioned()));
+    }
+
+    @Scheduled(cron = "${gamification.ledger.partitioning.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        try {
+            ensurePartitions(current);
+            archiveExpired(current);
+        } catch (RuntimeException e) {
+            log.error("Ledger partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Crée les partitions manquantes de {@code current} à {@code current + months-ahead}.
+     *
+     * @return nombre de partitions créées
+     */
+    int ensurePartitions(YearMonth current) {
+        Integer created = writeTransaction.execute(status -> {
+            if (!partitionRepository.tryLock() || !partitionRepository.isPartitioned()) {
+                return 0;
+            }
+            List<Partition> partitions = partitionRepository.listPartitions();
+            // Mois déjà couverts par la table d'origine rattachée
+            OffsetDateTime coveredUntil = partitions.stream()
+                    .filter(partition -> partition.rangeStart() == null)
+                    .map(Partition::rangeEnd)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+            int count = 0;
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                String name = LedgerPartitionRepository.monthlyName(month);
+                boolean covered = coveredUntil != null && LedgerPartitionRepository.monthStart(month).isBefore(coveredUntil);
+                if (!covered && partitions.stream().noneMatch(partition -> partition.name().equals(name))) {
+                    partitionRepository.createMonthlyPartition(month);
+                    log.info("Ledger partition {} created", name);
+                    count++;
+                }
+            }
+            long misplaced = partitionRepository.countRows(LedgerPartitionRepository.DEFAULT_PARTITION);
+            if (misplaced > 0) {
+                log.warn("{} ledger rows are in the default partition: no monthly partition covers them", misplaced);
+            }
+            return count;
+        });
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Archive les partitions sorties de la fenêtre de rétention dont la plage précède la coupure de la dernière
+     * réconciliation terminée.
+     *
+     * @return nombre de partitions archivées
+     */
+    int archiveExpired(YearMonth current) {
+        OffsetDateTime horizon = LedgerPartitionRepository.monthStart(current.minusMonths(retentionMonths));
+        Optional<OffsetDateTime> reconciledUntil = runRepository
+                .findTopByStatusOrderByStartedAtDesc(ReconciliationStatus.COMPLETED)
+                .map(ReconciliationRun::getCutoff);
+        List<Partition> expired = readTransaction.execute(status -> partitionRepository.listPartitions()).stream()
+                .filter(partition -> !partition.rangeEnd().isAfter(horizon))
+                .sorted(Comparator.comparing(Partition::rangeEnd))
+                .toList();
+
+        int archived = 0;
+        for (Partition partition : expired) {
+            if (reconciledUntil.isEmpty() || partition.rangeEnd().isAfter(reconciledUntil.get())) {
+                log.info("Ledger partition {} kept until a reconciliation completes past {}",
+                        partition.name(), partition.rangeEnd());
+                break;
+            }
+            if (archive(partition)) {
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Exporte une partition, puis la supprime si elle n'a pas changé depuis l'export.
+     *
+     * @return false si une autre instance l'a déjà archivée ou fait la maintenance
+     */
+    boolean archive(Partition partition) {
+        long start = System.currentTimeMillis();
+        Path directory = Path.of(archiveDirectory);
+        Path file = directory.resolve(partition.name() + ".csv.gz");
+        Path temporary = directory.resolve(partition.name() + "." + UUID.randomUUID() + ".tmp");
+        Export export;
+        try {
+            Files.createDirectories(directory);
+            export = readTransaction.execute(status -> export(partition, temporary));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write ledger archive " + file, e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                log.warn("Cannot delete temporary ledger archive {}: {}", temporary, e.getMessage());
+            }
+        }
+
+        Boolean dropped = writeTransaction.execute(status -> {
+            if (!partitionRepository.tryLock() || partitionRepository.listPartitions().stream()
+                    .noneMatch(candidate -> candidate.name().equals(partition.name()))) {
+                return false;
+            }
+            long rows = partitionRepository.countRows(partition.name());
+            if (rows != export.rows()) {
+                throw new IllegalStateException("Ledger partition " + partition.name() + " changed during its export: "
+                        + export.rows() + " rows archived, " + rows + " rows now");
+            }
+            int users = partitionRepository.addArchivedTotals(partition.name(), partition.rangeEnd());
+            archiveRepository.save(new LedgerArchive(null, partition.name(), partition.rangeStart(), partition.rangeEnd(),
+                    rows, file.toAbsolutePath().toString(), export.checksum(), null));
+            // En dernier : le verrou exclusif sur le ledger n'est tenu que jusqu'au commit
+            partitionRepository.detachAndDrop(partition.name());
+            log.info("Ledger partition {} archived to {} in {} ms: {} rows, {} users", partition.name(), file,
+                    System.currentTimeMillis() - start, rows, users);
+            return true;
+        });
+        return Boolean.TRUE.equals(dropped);
+    }
+
+    private Export export(Partition partition, Path target) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long[] rows = {0};
+        try (OutputStream out = new GZIPOutputStream(new DigestOutputStream(Files.newOutputStream(target), digest));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            partitionRepository.streamRows(partition.name(), row -> {
+                try {
+                    writer.write(csv(row));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write ledger archive " + target, e);
+        }
+        return new Export(rows[0], HexFormat.of().formatHex(digest.digest()));
+    }
+
+    static String csv(LedgerRow row) {
+        return String.join(",",
+                field(row.id()), field(row.userId()), field(row.points()), field(row.transactionType()),
+                field(row.reasonCode()), field(row.description()), field(row.referenceId()), field(row.referenceType()),
+                field(row.sfCaseId()), field(row.balanceAfter()),
+                row.createdAt() != null ? row.createdAt().withOffsetSameInstant(ZoneOffset.UTC).toString() : "");
+    }
+
+    /**
+     * Champ CSV (RFC 4180) : entre guillemets s'il contient une virgule, un guillemet ou un saut de ligne.
+     */
+    private static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private record Export(long rows, String checksum) {
+    }
+}
@@ -0,0 +1,307 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.LevelCountResponse;
+import com.medina.heritage.gamification.dto.response.LevelDistributionResponse;
+import com.medina.heritage.gamification.entity.LevelHistogramBucket;
+import com.medina.heritage.gamification.repository.LevelHistogramRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Répartition des utilisateurs par niveau, tenue en mémoire (un compteur par niveau) à la place
+ * d'un {@code GROUP BY level} sur toute la table {@code wallets} à chaque lecture.
+ *
+ * Les créations de wallets et les changements de niveau validés mettent à jour les compteurs locaux
+ * et s'accumulent en écarts. Le flush périodique ajoute ces écarts à l'histogramme partagé
+ * ({@code level_histogram}) et relit celui-ci : chaque instance voit les changements des autres avec
+ * au plus un intervalle de flush de retard.
+ *
+ * Au démarrage, les compteurs sont reconstruits depuis {@code wallets}. La vérification périodique
+ * compare l'histogramme partagé à la base ; seul un écart identique à deux vérifications successives
+ * est corrigé : un écart qui varie provient d'écarts d'autres instances pas encore ajoutés.
+ */
+@Slf4j
+@Service
+public class LevelHistogram {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_LOGGED_DRIFTS = 10;
+
+    private final WalletRepository walletRepository;
+    private final LevelHistogramRepository histogramRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter driftCounter;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Indexés par niveau : vue locale (histogramme partagé + écarts locaux) et écarts pas encore ajoutés
+    private AtomicLongArray counts = new AtomicLongArray(INITIAL_CAPACITY);
+    private AtomicLongArray pending = new AtomicLongArray(INITIAL_CAPACITY);
+    private volatile OffsetDateTime syncedAt;
+    private Map<Integer, Long> previousDrift = Map.of();
+
+    public LevelHistogram(WalletRepository walletRepository,
+                          LevelHistogramRepository histogramRepository,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry) {
+        this.walletRepository = walletRepository;
+        this.histogramRepository = histogramRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.driftCounter = Counter.builder("gamification.level.histogram.drift")
+                .description("Users corrected in the shared level histogram by the drift check")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconstruit les compteurs depuis {@code wallets} ; initialise l'histogramme partagé s'il est vide.
+     * Un changement validé pendant la reconstruction peut être compté deux fois : la vérification
+     * périodique le corrige.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        drainPending();
+        Map<Integer, Long> actual = countWallets();
+        load(actual);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (histogramRepository.count() == 0) {
+                OffsetDateTime now = OffsetDateTime.now();
+                histogramRepository.saveAll(actual.entrySet().stream()
+                        .map(entry -> new LevelHistogramBucket(entry.getKey(), entry.getValue(), now))
+                        .toList());
+            }
+        });
+        log.info("Level histogram rebuilt: {} levels in {} ms", actual.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Enregistre des wallets créés (niveau 1), après le commit de la transaction courante.
+     */
+    public void walletsCreated(int count) {
+        if (count > 0) {
+            TransactionCallbacks.afterCommit(() -> add(1, count));
+        }
+    }
+
+    /**
+     * Enregistre le changement de niveau d'un utilisateur, après le commit de la transaction courante.
+     */
+    public void levelChanged(int fromLevel, int toLevel) {
+        if (fromLevel == toLevel) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            add(fromLevel, -1);
+            add(toLevel, 1);
+        });
+    }
+
+    /**
+     * Répartition courante ; le coût dépend du nombre de niveaux, pas du nombre d'utilisateurs.
+     */
+    public LevelDistributionResponse getDistribution() {
+        List<LevelCountResponse> levels = new ArrayList<>();
+        long totalUsers = 0;
+        lock.readLock().lock();
+        try {
+            for (int level = 1; level < counts.length(); level++) {
+                long count = counts.get(level);
+                if (count > 0) {
+                    levels.add(new LevelCountResponse(level, count));
+                    totalUsers += count;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new LevelDistributionResponse(totalUsers, levels, syncedAt);
+    }
+
+    /**
+     * Ajoute les écarts locaux à l'histogramme partagé et relit celui-ci. En cas d'échec, les écarts
+     * sont conservés pour le flush suivant.
+     */
+    @Scheduled(fixedDelayString = "${gamification.level-histogram.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        long[] deltas = drainPending();
+        List<LevelHistogramBucket> buckets;
+        try {
+            buckets = transactionTemplate.execute(status -> {
+                OffsetDateTime now = OffsetDateTime.now();
+                for (int level = 1; level < deltas.length; level++) {
+                    if (deltas[level] != 0) {
+                        applyDelta(level, deltas[level], now);
+                    }
+                }
+                return histogramRepository.findAllByOrderByLevelAsc();
+            });
+        } catch (RuntimeException e) {
+            restorePending(deltas);
+            log.error("Level histogram flush failed: {}", e.getMessage());
+            return;
+        }
+        Map<Integer, Long> shared = new HashMap<>();
+        for (LevelHistogramBucket bucket : buckets) {
+            shared.put(bucket.getLevel(), bucket.getUserCount());
+        }
+        load(shared);
+    }
+
+    /**
+     * Compare l'histogramme partagé à {@code wallets} et corrige les écarts stables.
+     */
+    @Scheduled(cron = "${gamification.level-histogram.drift-check-cron:0 */15 * * * *}")
+    public synchronized void checkDrift() {
+        flush();
+        Map<Integer, Long> actual = countWallets();
+        Map<Integer, Long> drift = new HashMap<>();
+        TreeSet<Integer> levels = new TreeSet<>(actual.keySet());
+        Map<Integer, Long> shared = new HashMap<>();
+        for (LevelHistogramBucket bucket : histogramRepository.findAllByOrderByLevelAsc()) {
+            shared.put(bucket.getLevel(), bucket.getUserCount());
+            levels.add(bucket.getLevel());
+        }
+        for (int level : levels) {
+            long difference = actual.getOrDefault(level, 0L) - shared.getOrDefault(level, 0L);
+            if (difference != 0) {
+                drift.put(level, difference);
+            }
+        }
+
+        Map<Integer, Long> stable = new HashMap<>();
+        drift.forEach((level, difference) -> {
+            if (difference.equals(previousDrift.get(level))) {
+                stable.put(level, difference);
+            }
+        });
+        previousDrift = drift;
+        if (stable.isEmpty()) {
+            if (!drift.isEmpty()) {
+                log.info("Level histogram differs from wallets on {} levels, rechecking before correcting", drift.size());
+            }
+            return;
+        }
+
+        stable.entrySet().stream().limit(MAX_LOGGED_DRIFTS).forEach(entry ->
+                log.warn("Level histogram drift at level {}: histogram={}, wallets={}", entry.getKey(),
+                        shared.getOrDefault(entry.getKey(), 0L), actual.getOrDefault(entry.getKey(), 0L)));
+        transactionTemplate.executeWithoutResult(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            stable.forEach((level, difference) -> applyDelta(level, difference, now));
+        });
+        stable.values().forEach(difference -> driftCounter.increment(Math.abs(difference)));
+        previousDrift = Map.of();
+        flush();
+    }
+
+    private void applyDelta(int level, long delta, OffsetDateTime now) {
+        if (histogramRepository.increment(level, delta, now) == 0) {
+            histogramRepository.insertIfAbsent(level, now);
+            histogramRepository.increment(level, delta, now);
+        }
+    }
+
+    private Map<Integer, Long> countWallets() {
+        Map<Integer, Long> actual = new HashMap<>();
+        for (Object[] row : walletRepository.countUsersByLevel()) {
+            actual.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        return actual;
+    }
+
+    private void add(int level, long delta) {
+        lock.readLock().lock();
+        try {
+            if (level < counts.length()) {
+                counts.addAndGet(level, delta);
+                pending.addAndGet(level, delta);
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        grow(level + 1);
+        add(level, delta);
+    }
+
+    /**
+     * Remplace la vue locale par l'histogramme donné, plus les écarts pas encore ajoutés.
+     */
+    private void load(Map<Integer, Long> shared) {
+        int maxLevel = shared.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        grow(maxLevel + 1);
+        lock.writeLock().lock();
+        try {
+            AtomicLongArray loaded = new AtomicLongArray(counts.length());
+            for (int level = 0; level < loaded.length(); level++) {
+                loaded.set(level, shared.getOrDefault(level, 0L) + pending.get(level));
+            }
+            counts = loaded;
+            syncedAt = OffsetDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] drainPending() {
+        lock.readLock().lock();
+        try {
+            long[] deltas = new long[pending.length()];
+            for (int level = 0; level < deltas.length; level++) {
+                deltas[level] = pending.getAndSet(level, 0);
+            }
+            return deltas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void restorePending(long[] deltas) {
+        lock.readLock().lock();
+        try {
+            for (int level = 0; level < deltas.length; level++) {
+                pending.addAndGet(level, deltas[level]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void grow(int capacity) {
+        lock.writeLock().lock();
+        try {
+            if (capacity <= counts.length()) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, counts.length() * 2);
+            counts = copyOf(counts, newCapacity);
+            pending = copyOf(pending, newCapacity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static AtomicLongArray copyOf(AtomicLongArray array, int capacity) {
+        AtomicLongArray copy = new AtomicLongArray(capacity);
+        for (int i = 0; i < array.length(); i++) {
+            copy.set(i, array.get(i));
+        }
+        return copy;
+    }
+}
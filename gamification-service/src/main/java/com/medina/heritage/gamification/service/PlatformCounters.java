@@ -0,0 +1,241 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.PlatformCounterBucketResponse;
+import com.medina.heritage.gamification.dto.response.PlatformCountersResponse;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.enums.CounterGranularity;
+import com.medina.heritage.gamification.enums.PlatformMetric;
+import com.medina.heritage.gamification.enums.ReasonCode;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.PlatformCounterRepository;
+import com.medina.heritage.gamification.repository.PlatformCounterRepository.CounterDelta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Indicateurs globaux de la plateforme (points crédités, échanges de récompenses, bonus de bienvenue...)
+ * tenus en compteurs plutôt qu'en agrégats sur {@code point_transactions}.
+ *
+ * Chaque écriture du ledger ajoute ses valeurs, après le commit, à des {@link LongAdder} par minute et par
+ * indicateur : les threads d'écriture incrémentent des cellules distinctes, sans verrou ni ligne partagée
+ * en base. Le flush périodique écrit les valeurs accumulées dans les lignes de l'instance
+ * ({@code platform_counters}, une ligne par minute, indicateur et instance) ; une lecture additionne les
+ * lignes de toutes les instances et les valeurs de cette instance pas encore écrites. Les valeurs des autres
+ * instances arrivent avec au plus un intervalle de flush de retard.
+ */
+@Slf4j
+@Service
+public class PlatformCounters {
+
+    private static final PlatformMetric[] METRICS = PlatformMetric.values();
+
+    private final PlatformCounterRepository counterRepository;
+    private final TransactionTemplate writeTemplate;
+    private final TransactionTemplate readTemplate;
+    private final UUID instanceId = UUID.randomUUID();
+
+    // Compteurs par minute (depuis l'epoch, UTC), un par indicateur
+    private final Map<Long, LongAdder[]> buckets = new ConcurrentHashMap<>();
+    // Minutes retirées au flush précédent : relues une dernière fois pour un incrément commencé avant leur retrait
+    private Map<Long, LongAdder[]> retired = new HashMap<>();
+
+    @Value("${gamification.platform-counters.max-buckets:1500}")
+    private int maxBuckets;
+
+    @Value("${gamification.platform-counters.retention-days:400}")
+    private int retentionDays;
+
+    public PlatformCounters(PlatformCounterRepository counterRepository, PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Compte une transaction du ledger, après le commit de la transaction courante.
+     */
+    public void record(PointTransaction transaction) {
+        recordAll(List.of(transaction));
+    }
+
+    /**
+     * Compte les transactions d'un lot, après le commit de la transaction courante.
+     */
+    public void recordAll(List<PointTransaction> transactions) {
+        Map<Long, long[]> added = new HashMap<>();
+        for (PointTransaction transaction : transactions) {
+            OffsetDateTime at = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : OffsetDateTime.now();
+            long[] values = added.computeIfAbsent(epochMinute(at.toInstant()), minute -> new long[METRICS.length]);
+            if (transaction.getTransactionType() == TransactionType.CREDIT) {
+                values[PlatformMetric.POINTS_EARNED.ordinal()] += transaction.getPoints();
+                values[PlatformMetric.CREDIT_TRANSACTIONS.ordinal()]++;
+            } else {
+                values[PlatformMetric.POINTS_SPENT.ordinal()] += transaction.getPoints();
+                values[PlatformMetric.DEBIT_TRANSACTIONS.ordinal()]++;
+            }
+            if (ReasonCode.WELCOME_BONUS.name().equals(transaction.getReasonCode())) {
+                values[PlatformMetric.WELCOME_BONUSES.ordinal()]++;
+            } else if (ReasonCode.REWARD_REDEMPTION.name().equals(transaction.getReasonCode())) {
+                values[PlatformMetric.REWARD_REDEMPTIONS.ordinal()]++;
+            }
+        }
+        if (!added.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> added.forEach(this::add));
+        }
+    }
+
+    /**
+     * Indicateurs de {@code from} à {@code to} par tranches de {@code granularity}, bornes arrondies aux tranches
+     * qui les contiennent.
+     *
+     * @throws IllegalArgumentException si la période est vide ou compte plus de {@code max-buckets} tranches
+     */
+    public PlatformCountersResponse getCounters(OffsetDateTime from, OffsetDateTime to, CounterGranularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        int step = granularity.getMinutes();
+        long firstBucket = Math.floorDiv(epochMinute(from.toInstant()), step);
+        // Minute de fin entamée incluse
+        long endMinute = -Math.floorDiv(-to.toInstant().getEpochSecond(), 60);
+        long endBucket = -Math.floorDiv(-endMinute, step);
+        if (endBucket - firstBucket > maxBuckets) {
+            throw new IllegalArgumentException("Period must not exceed " + maxBuckets + " " + granularity + " buckets");
+        }
+
+        long[][] values = new long[(int) (endBucket - firstBucket)][METRICS.length];
+        readTemplate.executeWithoutResult(status -> counterRepository.sumByBucket(firstBucket * step, endBucket * step,
+                step, sum -> values[(int) (sum.bucket() - firstBucket)][sum.metric().ordinal()] += sum.total()));
+        // Valeurs de cette instance pas encore écrites (celles en cours de flush ne sont ni ici ni en base)
+        buckets.forEach((minute, adders) -> {
+            long bucket = Math.floorDiv(minute, step);
+            if (bucket >= firstBucket && bucket < endBucket) {
+                for (int i = 0; i < METRICS.length; i++) {
+                    values[(int) (bucket - firstBucket)][i] += adders[i].sum();
+                }
+            }
+        });
+
+        Map<PlatformMetric, Long> totals = new EnumMap<>(PlatformMetric.class);
+        List<PlatformCounterBucketResponse> series = new ArrayList<>(values.length);
+        for (int b = 0; b < values.length; b++) {
+            Map<PlatformMetric, Long> bucketValues = new EnumMap<>(PlatformMetric.class);
+            for (PlatformMetric metric : METRICS) {
+                long value = values[b][metric.ordinal()];
+                bucketValues.put(metric, value);
+                totals.merge(metric, value, Long::sum);
+            }
+            series.add(new PlatformCounterBucketResponse(bucketStart(firstBucket + b, step), bucketValues));
+        }
+        return new PlatformCountersResponse(bucketStart(firstBucket, step), bucketStart(endBucket, step), granularity,
+                totals, series);
+    }
+
+    /**
+     * Écrit les valeurs accumulées dans les lignes de l'instance, en une transaction. Les minutes terminées depuis
+     * plus d'une minute sont retirées de la mémoire. En cas d'échec, les valeurs sont conservées pour le flush suivant.
+     */
+    @Scheduled(fixedDelayString = "${gamification.platform-counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        OffsetDateTime now = OffsetDateTime.now();
+        long currentMinute = epochMinute(now.toInstant());
+        List<CounterDelta> deltas = new ArrayList<>();
+        retired.forEach((minute, adders) -> drain(minute, adders, deltas));
+        Map<Long, LongAdder[]> retiring = new HashMap<>();
+        buckets.forEach((minute, adders) -> {
+            drain(minute, adders, deltas);
+            if (minute < currentMinute - 1 && buckets.remove(minute, adders)) {
+                retiring.put(minute, adders);
+            }
+        });
+        retired = retiring;
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            writeTemplate.executeWithoutResult(status -> counterRepository.addDeltas(instanceId, deltas, now));
+        } catch (RuntimeException e) {
+            for (CounterDelta delta : deltas) {
+                adders(delta.bucketMinute())[delta.metric().ordinal()].add(delta.delta());
+            }
+            log.error("Platform counters flush failed, {} values kept for the next flush: {}", deltas.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Supprime les minutes plus anciennes que {@code retention-days}.
+     */
+    @Scheduled(cron = "${gamification.platform-counters.purge-cron:0 45 3 * * *}")
+    public void purge() {
+        long before = epochMinute(Instant.now()) - (long) retentionDays * CounterGranularity.DAY.getMinutes();
+        Integer deleted = writeTemplate.execute(status -> counterRepository.deleteBefore(before));
+        if (deleted != null && deleted > 0) {
+            log.info("Platform counters purged: {} rows older than {} days", deleted, retentionDays);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void add(long minute, long[] values) {
+        LongAdder[] adders = adders(minute);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0) {
+                adders[i].add(values[i]);
+            }
+        }
+    }
+
+    private LongAdder[] adders(long minute) {
+        LongAdder[] adders = buckets.get(minute);
+        if (adders != null) {
+            return adders;
+        }
+        return buckets.computeIfAbsent(minute, key -> {
+            LongAdder[] created = new LongAdder[METRICS.length];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new LongAdder();
+            }
+            return created;
+        });
+    }
+
+    private static void drain(long minute, LongAdder[] adders, List<CounterDelta> deltas) {
+        for (int i = 0; i < adders.length; i++) {
+            long value = adders[i].sumThenReset();
+            if (value != 0) {
+                deltas.add(new CounterDelta(minute, METRICS[i], value));
+            }
+        }
+    }
+
+    private static long epochMinute(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    private static OffsetDateTime bucketStart(long bucket, int step) {
+        return Instant.ofEpochSecond(bucket * step * 60).atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,103 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.ReasonCodeStatsResponse;
+import com.medina.heritage.gamification.dto.response.UserPointStatsResponse;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.UserPointStats;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.PointsBatchRepository;
+import com.medina.heritage.gamification.repository.PointsBatchRepository.StatsDelta;
+import com.medina.heritage.gamification.repository.UserPointStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Statistiques de points par utilisateur, maintenues au fil des insertions dans le ledger.
+ *
+ * Chaque écriture du ledger appelle {@link #record} ou {@link #recordAll} dans sa propre transaction :
+ * les statistiques et le ledger sont validés ou annulés ensemble. La lecture ne touche qu'une ligne
+ * par type de transaction et code de raison, quelle que soit la longueur de l'historique.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PointStatsService {
+
+    private static final Comparator<StatsDelta> LOCK_ORDER = Comparator
+            .comparing(StatsDelta::userId)
+            .thenComparing(StatsDelta::transactionType)
+            .thenComparing(StatsDelta::reasonCode);
+
+    private final UserPointStatsRepository statsRepository;
+    private final PointsBatchRepository batchRepository;
+
+    /**
+     * Ajoute une transaction du ledger aux statistiques de son utilisateur.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(PointTransaction transaction) {
+        OffsetDateTime at = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : OffsetDateTime.now();
+        if (increment(transaction, at) == 0) {
+            statsRepository.insertIfAbsent(transaction.getUserId(), transaction.getTransactionType().name(),
+                    transaction.getReasonCode());
+            increment(transaction, at);
+        }
+    }
+
+    /**
+     * Ajoute un lot de transactions du ledger aux statistiques, regroupées par utilisateur,
+     * type et code de raison (deux instructions batch pour tout le lot).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<PointTransaction> transactions) {
+        Map<StatsDelta, StatsDelta> grouped = new TreeMap<>(LOCK_ORDER);
+        for (PointTransaction transaction : transactions) {
+            StatsDelta delta = new StatsDelta(transaction.getUserId(), transaction.getTransactionType(),
+                    transaction.getReasonCode(), 1, transaction.getPoints(), transaction.getCreatedAt());
+            grouped.merge(delta, delta, (current, added) -> new StatsDelta(current.userId(),
+                    current.transactionType(), current.reasonCode(), current.count() + added.count(),
+                    current.points() + added.points(), added.lastTransactionAt()));
+        }
+        batchRepository.accumulateStats(new ArrayList<>(grouped.values()));
+    }
+
+    /**
+     * Statistiques d'un utilisateur (vides s'il n'a aucune transaction).
+     */
+    @Transactional(readOnly = true)
+    public UserPointStatsResponse getStats(UUID userId) {
+        long totalEarned = 0;
+        long totalSpent = 0;
+        long creditCount = 0;
+        long debitCount = 0;
+        List<ReasonCodeStatsResponse> byReasonCode = new ArrayList<>();
+        for (UserPointStats stats : statsRepository.findByUserIdOrderByTransactionTypeAscReasonCodeAsc(userId)) {
+            if (stats.getTransactionType() == TransactionType.CREDIT) {
+                totalEarned += stats.getPoints();
+                creditCount += stats.getTransactionCount();
+            } else {
+                totalSpent += stats.getPoints();
+                debitCount += stats.getTransactionCount();
+            }
+            byReasonCode.add(new ReasonCodeStatsResponse(stats.getReasonCode(), stats.getTransactionType(),
+                    stats.getTransactionCount(), stats.getPoints(), stats.getLastTransactionAt()));
+        }
+        return new UserPointStatsResponse(userId, totalEarned, totalSpent, creditCount, debitCount, byReasonCode);
+    }
+
+    private int increment(PointTransaction transaction, OffsetDateTime at) {
+        return statsRepository.increment(transaction.getUserId(), transaction.getTransactionType(),
+                transaction.getReasonCode(), transaction.getPoints(), at);
+    }
+}
@@ -1,5 +1,6 @@
 package com.medina.heritage.gamification.service;
 
+import com.medina.heritage.gamification.dto.response.PointTransactionPage;
 import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
 import com.medina.heritage.gamification.entity.PointTransaction;
 import com.medina.heritage.gamification.enums.TransactionType;
@@ -7,6 +8,8 @@ import com.medina.heritage.gamification.mapper.PointTransactionMapper;
 import com.medina.heritage.gamification.repository.PointTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,21 +29,27 @@ public class PointTransactionService {
     private final PointTransactionRepository transactionRepository;
     private final PointTransactionMapper transactionMapper;
 
+    @Value("${gamification.transactions.max-page-size:200}")
+    private int maxPageSize;
+
     /**
-     * Récupère toutes les transactions d'un utilisateur.
+     * Récupère une page des transactions d'un utilisateur.
      */
-    public List<PointTransactionResponse> getTransactionsByUser(UUID userId) {
-        List<PointTransaction> transactions = transactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return transactionMapper.toPointTransactionResponseList(transactions);
+    public PointTransactionPage getTransactionsByUser(UUID userId, String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int limit = pageSize(size);
+        return page(transactionRepository.findPageByUserId(
+                userId, position.createdAt(), position.id(), PageRequest.of(0, limit + 1)), limit);
     }
 
     /**
-     * Récupère les transactions d'un utilisateur par type.
+     * Récupère une page des transactions d'un utilisateur par type.
      */
-    public List<PointTransactionResponse> getTransactionsByUserAndType(UUID userId, TransactionType type) {
-        List<PointTransaction> transactions = transactionRepository
-                .findByUserIdAndTransactionTypeOrderByCreatedAtDesc(userId, type);
-        return transactionMapper.toPointTransactionResponseList(transactions);
+    public PointTransactionPage getTransactionsByUserAndType(UUID userId, TransactionType type, String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int limit = pageSize(size);
+        return page(transactionRepository.findPageByUserIdAndTransactionType(
+                userId, type, position.createdAt(), position.id(), PageRequest.of(0, limit + 1)), limit);
     }
 
     /**
@@ -52,20 +61,32 @@ public class PointTransactionService {
     }
 
     /**
-     * Récupère les transactions d'un utilisateur dans une période donnée.
+     * Récupère une page des transactions d'un utilisateur dans une période donnée.
+     *
+     * La fin de période est ramenée à la position du curseur : le ledger étant partitionné par mois de created_at,
+     * chaque page ne parcourt que les partitions qui la concernent au lieu de toutes celles de la période.
+     * Les mois archivés ne sont plus dans le ledger (voir {@link LedgerPartitionService}).
      */
-    public List<PointTransactionResponse> getTransactionsByPeriod(
-            UUID userId, OffsetDateTime startDate, OffsetDateTime endDate) {
-        List<PointTransaction> transactions = transactionRepository.findByUserIdAndPeriod(userId, startDate, endDate);
-        return transactionMapper.toPointTransactionResponseList(transactions);
+    public PointTransactionPage getTransactionsByPeriod(
+            UUID userId, OffsetDateTime startDate, OffsetDateTime endDate, String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int limit = pageSize(size);
+        OffsetDateTime upTo = position.createdAt().isBefore(endDate) ? position.createdAt() : endDate;
+        if (upTo.isBefore(startDate)) {
+            return new PointTransactionPage(List.of(), null);
+        }
+        return page(transactionRepository.findPageByUserIdAndPeriod(
+                userId, startDate, upTo, position.createdAt(), position.id(), PageRequest.of(0, limit + 1)), limit);
     }
 
     /**
-     * Récupère les transactions liées à une entité.
+     * Récupère une page des transactions liées à une entité.
      */
-    public List<PointTransactionResponse> getTransactionsByReference(UUID referenceId, String referenceType) {
-        List<PointTransaction> transactions = transactionRepository.findByReferenceIdAndReferenceType(referenceId, referenceType);
-        return transactionMapper.toPointTransactionResponseList(transactions);
+    public PointTransactionPage getTransactionsByReference(UUID referenceId, String referenceType, String cursor, int size) {
+        TransactionCursor position = TransactionCursor.decode(cursor);
+        int limit = pageSize(size);
+        return page(transactionRepository.findPageByReference(
+                referenceId, referenceType, position.createdAt(), position.id(), PageRequest.of(0, limit + 1)), limit);
     }
 
     /**
@@ -76,4 +97,23 @@ public class PointTransactionService {
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + id));
         return transactionMapper.toPointTransactionResponse(transaction);
     }
+
+    private int pageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    /**
+     * Une ligne de plus que la taille de page est lue : sa présence indique qu'une page suivante existe.
+     */
+    private static PointTransactionPage page(List<PointTransactionResponse> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new PointTransactionPage(rows, null);
+        }
+        List<PointTransactionResponse> items = rows.subList(0, limit);
+        PointTransactionResponse last = items.get(limit - 1);
+        return new PointTransactionPage(items, new TransactionCursor(last.getCreatedAt(), last.getId()).encode());
+    }
 }
@@ -0,0 +1,69 @@
+package com.medina.heritage.gamification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Lecture de ses propres écritures avec un réplica : un utilisateur dont le wallet vient d'être
+ * modifié (sur cette instance ou, via l'invalidation du cache, sur une autre) lit sur le primaire
+ * pendant quelques secondes.
+ *
+ * L'utilisateur de la requête en cours est celui du chemin ({@code /{userId}/...}). La durée
+ * d'épinglage doit dépasser le retard maximal toléré du réplica : au-delà, le réplica contient
+ * l'écriture. Sans réplica, ou garde désactivée, rien n'est épinglé.
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private static final ThreadLocal<UUID> CURRENT_USER = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Cache<UUID, Boolean> pinned;
+
+    public ReadYourWritesGuard(@Value("${gamification.datasource.replica.enabled:false}") boolean replicaEnabled,
+                               @Value("${gamification.datasource.replica.read-your-writes.enabled:true}") boolean guardEnabled,
+                               @Value("${gamification.datasource.replica.read-your-writes.pin-seconds:5}") long pinSeconds,
+                               @Value("${gamification.datasource.replica.read-your-writes.maximum-size:100000}") long maximumSize) {
+        this.enabled = replicaEnabled && guardEnabled;
+        this.pinned = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(pinSeconds))
+                .build();
+    }
+
+    /**
+     * Épingle des utilisateurs au primaire (appelé après le commit de leurs écritures).
+     */
+    public void pin(Collection<UUID> userIds) {
+        if (enabled) {
+            for (UUID userId : userIds) {
+                pinned.put(userId, Boolean.TRUE);
+            }
+        }
+    }
+
+    public boolean isPinned(UUID userId) {
+        return enabled && userId != null && pinned.getIfPresent(userId) != null;
+    }
+
+    /**
+     * L'utilisateur de la requête en cours a écrit récemment.
+     */
+    public boolean isCurrentUserPinned() {
+        return isPinned(CURRENT_USER.get());
+    }
+
+    public static void setCurrentUser(UUID userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+}
@@ -0,0 +1,463 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.entity.ReconciliationRun;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.entity.WalletDrift;
+import com.medina.heritage.gamification.enums.ReconciliationMode;
+import com.medina.heritage.gamification.enums.ReconciliationStatus;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.PointsBatchRepository;
+import com.medina.heritage.gamification.repository.ReconciliationRepository;
+import com.medina.heritage.gamification.repository.ReconciliationRepository.LedgerSum;
+import com.medina.heritage.gamification.repository.ReconciliationRepository.SnapshotRow;
+import com.medina.heritage.gamification.repository.ReconciliationRepository.WalletRepair;
+import com.medina.heritage.gamification.repository.ReconciliationRunRepository;
+import com.medina.heritage.gamification.repository.WalletDriftRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Réconciliation des wallets (valeurs dénormalisées) avec le ledger {@code point_transactions}.
+ *
+ * L'espace des user_id est découpé en 2^{@code partitions-bits} plages contiguës (bits de poids fort de l'UUID),
+ * traitées en parallèle par un pool fork-join. Pour chaque plage, dans une transaction en lecture seule
+ * REPEATABLE READ (vue cohérente du ledger et des wallets) :
+ * <ol>
+ *   <li>le ledger est replié par utilisateur (agrégat SQL lu par curseur), en distinguant les transactions
+ *       antérieures à la coupure de celles qui la suivent ;</li>
+ *   <li>en mode incrémental, seules les transactions postérieures à la coupure précédente sont repliées,
+ *       et ajoutées aux snapshots ;</li>
+ *   <li>chaque wallet est comparé au total attendu ; les écarts sont enregistrés et, si demandé, corrigés
+ *       par une mise à jour conditionnelle (le wallet ne doit pas avoir changé depuis sa lecture).</li>
+ * </ol>
+ * Les snapshots sont ensuite arrêtés à la nouvelle coupure, fixée à {@code settle-lag-seconds} avant le début
+ * de l'exécution pour que les transactions encore en cours à la coupure ne soient pas oubliées.
+ *
+ * Les partitions archivées du ledger ({@link LedgerPartitionService}) ne sont plus lisibles : un replay complet
+ * part de leurs totaux ({@code archived_ledger_totals}) au lieu de zéro.
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    private final ReconciliationRepository reconciliationRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final WalletDriftRepository driftRepository;
+    private final PointsBatchRepository batchRepository;
+    private final WalletCache walletCache;
+    private final LevelHistogram levelHistogram;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    @Value("${gamification.reconciliation.partitions-bits:6}")
+    private int partitionBits;
+
+    @Value("${gamification.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${gamification.reconciliation.settle-lag-seconds:600}")
+    private long settleLagSeconds;
+
+    @Value("${gamification.reconciliation.max-reported-drifts:1000}")
+    private int maxReportedDrifts;
+
+    @Value("${gamification.reconciliation.scheduled-repair:false}")
+    private boolean scheduledRepair;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wallet-reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReconciliationService(ReconciliationRepository reconciliationRepository,
+                                 ReconciliationRunRepository runRepository,
+                                 WalletDriftRepository driftRepository,
+                                 PointsBatchRepository batchRepository,
+                                 WalletCache walletCache,
+                                 LevelHistogram levelHistogram,
+                                 PlatformTransactionManager transactionManager) {
+        this.reconciliationRepository = reconciliationRepository;
+        this.runRepository = runRepository;
+        this.driftRepository = driftRepository;
+        this.batchRepository = batchRepository;
+        this.walletCache = walletCache;
+        this.levelHistogram = levelHistogram;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Lance une réconciliation en arrière-plan et retourne son enregistrement (état RUNNING).
+     *
+     * @throws IllegalStateException si une réconciliation est déjà en cours
+     */
+    public ReconciliationRun start(ReconciliationMode mode, boolean repair) {
+        ReconciliationRun run = begin(mode, repair);
+        executor.submit(() -> execute(run));
+        return run;
+    }
+
+    /**
+     * Exécute une réconciliation dans le thread appelant.
+     *
+     * @throws IllegalStateException si une réconciliation est déjà en cours
+     */
+    public ReconciliationRun runNow(ReconciliationMode mode, boolean repair) {
+        return execute(begin(mode, repair));
+    }
+
+    public Optional<ReconciliationRun> getRun(UUID runId) {
+        return runRepository.findById(runId);
+    }
+
+    public List<WalletDrift> getDrifts(UUID runId) {
+        return driftRepository.findByRunId(runId);
+    }
+
+    @Scheduled(cron = "${gamification.reconciliation.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (running.get()) {
+            log.info("Scheduled reconciliation skipped: a run is already in progress");
+            return;
+        }
+        try {
+            runNow(ReconciliationMode.INCREMENTAL, scheduledRepair);
+        } catch (IllegalStateException e) {
+            log.info("Scheduled reconciliation skipped: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ReconciliationRun begin(ReconciliationMode mode, boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A wallet reconciliation is already running");
+        }
+        try {
+            // Précision des colonnes timestamp(6) : une borne en nanosecondes serait arrondie à l'enregistrement
+            // et ne correspondrait plus à celle utilisée pour les sommes
+            OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            OffsetDateTime sinceCutoff = null;
+            if (mode == ReconciliationMode.INCREMENTAL) {
+                // Une exécution interrompue a pu avancer les snapshots d'une partie des plages seulement :
+                // les snapshots ne sont exploitables que si la dernière exécution est allée au bout
+                sinceCutoff = runRepository.findTopByOrderByStartedAtDesc()
+                        .filter(previous -> previous.getStatus() == ReconciliationStatus.COMPLETED)
+                        .map(ReconciliationRun::getCutoff)
+                        .orElse(null);
+                if (sinceCutoff == null) {
+                    mode = ReconciliationMode.FULL;
+                }
+            }
+            OffsetDateTime cutoff = now.minusSeconds(settleLagSeconds);
+            if (sinceCutoff != null && cutoff.isBefore(sinceCutoff)) {
+                cutoff = sinceCutoff;
+            }
+
+            ReconciliationRun run = new ReconciliationRun();
+            run.setMode(mode);
+            run.setRepair(repair);
+            run.setStatus(ReconciliationStatus.RUNNING);
+            run.setSinceCutoff(sinceCutoff);
+            run.setCutoff(cutoff);
+            run.setStartedAt(now);
+            return runRepository.save(run);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private ReconciliationRun execute(ReconciliationRun run) {
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            RangeResult result = pool.invoke(new RangeTask(run, 0, 1 << partitionBits));
+            run.setWalletsChecked(result.walletsChecked);
+            run.setTransactionsFolded(result.transactionsFolded);
+            run.setDriftCount(result.driftCount);
+            run.setRepairedCount(result.repairedCount);
+            run.setStatus(ReconciliationStatus.COMPLETED);
+            log.info("Wallet reconciliation {} ({}) completed in {} ms: {} wallets, {} transactions folded, "
+                            + "{} drifts, {} repaired", run.getId(), run.getMode(), System.currentTimeMillis() - start,
+                    result.walletsChecked, result.transactionsFolded, result.driftCount, result.repairedCount);
+        } catch (RuntimeException e) {
+            run.setStatus(ReconciliationStatus.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            run.setErrorMessage(message.length() > 500 ? message.substring(0, 500) : message);
+            log.error("Wallet reconciliation {} failed: {}", run.getId(), message, e);
+        } finally {
+            pool.shutdown();
+            run.setFinishedAt(OffsetDateTime.now());
+            try {
+                runRepository.save(run);
+            } finally {
+                running.set(false);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Borne inférieure de la partition {@code index} : ses {@code partitionBits} bits de poids fort.
+     * Les UUID sont comparés octet par octet (non signés) par la base, ce qui respecte cet ordre.
+     */
+    private UUID lowerBound(int index) {
+        return new UUID((long) index << (Long.SIZE - partitionBits), 0L);
+    }
+
+    private RangeResult reconcileRange(ReconciliationRun run, int partition) {
+        UUID from = lowerBound(partition);
+        UUID to = partition + 1 < (1 << partitionBits) ? lowerBound(partition + 1) : null;
+        boolean incremental = run.getMode() == ReconciliationMode.INCREMENTAL;
+
+        RangeResult result = new RangeResult();
+        Map<UUID, Fold> folds = new HashMap<>();
+        List<WalletDrift> drifts = new ArrayList<>();
+        List<WalletRepair> repairs = new ArrayList<>();
+
+        readTransaction.executeWithoutResult(status -> {
+            // Base : snapshots en mode incrémental, totaux des partitions archivées pour un replay complet
+            Consumer<SnapshotRow> base = snapshot -> folds.put(snapshot.userId(),
+                    new Fold(snapshot.totalEarned(), snapshot.totalSpent(), snapshot.transactionCount()));
+            if (incremental) {
+                reconciliationRepository.forEachSnapshot(from, to, base);
+            } else {
+                reconciliationRepository.forEachArchivedTotal(from, to, base);
+            }
+            // Transactions jusqu'à la coupure : intégrées au snapshot
+            reconciliationRepository.foldLedger(from, to, run.getSinceCutoff(), run.getCutoff(), sum -> {
+                folds.computeIfAbsent(sum.userId(), id -> new Fold()).addSettled(sum);
+                result.transactionsFolded += sum.count();
+            });
+            // Transactions après la coupure : comptées pour la comparaison seulement
+            reconciliationRepository.foldLedger(from, to, run.getCutoff(), null, sum -> {
+                folds.computeIfAbsent(sum.userId(), id -> new Fold()).addRecent(sum);
+                result.transactionsFolded += sum.count();
+            });
+
+            reconciliationRepository.forEachWallet(from, to, wallet -> {
+                result.walletsChecked++;
+                Fold fold = folds.get(wallet.userId());
+                if (fold == null) {
+                    fold = new Fold();
+                    folds.put(wallet.userId(), fold);
+                }
+                fold.walletSeen = true;
+                long earned = fold.expectedEarned();
+                long spent = fold.expectedSpent();
+                if (wallet.totalEarned() == earned && wallet.totalSpent() == spent && wallet.balance() == earned - spent) {
+                    return;
+                }
+                drifts.add(drift(run, wallet.userId(), wallet.balance(), wallet.totalEarned(), wallet.totalSpent(), fold));
+                repairs.add(new WalletRepair(wallet.userId(), wallet.balance(), wallet.totalEarned(), wallet.totalSpent(),
+                        Math.toIntExact(earned - spent), Math.toIntExact(earned), Math.toIntExact(spent)));
+            });
+        });
+
+        // Ledger sans wallet : signalé, et le wallet est recréé en cas de correction
+        List<UUID> missingWallets = new ArrayList<>();
+        folds.forEach((userId, fold) -> {
+            if (!fold.walletSeen && fold.hasLedger()) {
+                drifts.add(drift(run, userId, null, null, null, fold));
+                missingWallets.add(userId);
+                repairs.add(new WalletRepair(userId, 0, 0, 0, Math.toIntExact(fold.expectedEarned() - fold.expectedSpent()),
+                        Math.toIntExact(fold.expectedEarned()), Math.toIntExact(fold.expectedSpent())));
+            }
+        });
+        result.driftCount = drifts.size();
+
+        writeTransaction.executeWithoutResult(status -> {
+            if (!incremental) {
+                reconciliationRepository.deleteSnapshots(from, to);
+            }
+            List<SnapshotRow> snapshots = new ArrayList<>();
+            folds.forEach((userId, fold) -> {
+                // Un replay complet réécrit aussi les snapshots des utilisateurs dont tout le ledger est archivé
+                if (fold.settledCount > 0 || (!incremental && fold.baseCount > 0)) {
+                    snapshots.add(new SnapshotRow(userId, fold.baseEarned + fold.settledEarned,
+                            fold.baseSpent + fold.settledSpent, fold.baseCount + fold.settledCount));
+                }
+            });
+            reconciliationRepository.upsertSnapshots(snapshots, run.getCutoff());
+        });
+
+        if (Boolean.TRUE.equals(run.getRepair()) && !repairs.isEmpty()) {
+            writeTransaction.executeWithoutResult(status -> {
+                OffsetDateTime now = OffsetDateTime.now();
+                if (!missingWallets.isEmpty()) {
+                    levelHistogram.walletsCreated(batchRepository.insertMissingWallets(missingWallets, now));
+                }
+                int[] counts = reconciliationRepository.repairWallets(repairs, now);
+                List<UUID> repairedUsers = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    boolean repaired = counts[i] != 0;
+                    drifts.get(i).setRepaired(repaired);
+                    if (repaired) {
+                        repairedUsers.add(drifts.get(i).getUserId());
+                        levelHistogram.levelChanged(Wallet.levelFor(repairs.get(i).totalEarned()),
+                                Wallet.levelFor(repairs.get(i).expectedTotalEarned()));
+                        result.repairedCount++;
+                    }
+                }
+                // Une réparation peut faire décroître les totaux : invalidation plutôt que mise à jour du cache
+                walletCache.evictAfterCommit(repairedUsers);
+            });
+        }
+
+        if (!drifts.isEmpty()) {
+            for (int i = 0; i < Math.min(drifts.size(), 10); i++) {
+                WalletDrift drift = drifts.get(i);
+                log.warn("Wallet drift for user {}: wallet balance={}, earned={}, spent={} / ledger balance={}, earned={}, spent={}",
+                        drift.getUserId(), drift.getWalletBalance(), drift.getWalletTotalEarned(), drift.getWalletTotalSpent(),
+                        drift.getExpectedBalance(), drift.getExpectedTotalEarned(), drift.getExpectedTotalSpent());
+            }
+            // Nombre d'écarts enregistrés borné par partition
+            int limit = Math.max(1, maxReportedDrifts >> partitionBits);
+            driftRepository.saveAll(drifts.subList(0, Math.min(drifts.size(), limit)));
+        }
+        return result;
+    }
+
+    private static WalletDrift drift(ReconciliationRun run, UUID userId, Integer balance, Integer earned,
+                                     Integer spent, Fold fold) {
+        WalletDrift drift = new WalletDrift();
+        drift.setRunId(run.getId());
+        drift.setUserId(userId);
+        drift.setWalletBalance(balance);
+        drift.setWalletTotalEarned(earned);
+        drift.setWalletTotalSpent(spent);
+        drift.setExpectedBalance(fold.expectedEarned() - fold.expectedSpent());
+        drift.setExpectedTotalEarned(fold.expectedEarned());
+        drift.setExpectedTotalSpent(fold.expectedSpent());
+        drift.setRepaired(false);
+        return drift;
+    }
+
+    /**
+     * Découpe récursive des partitions jusqu'à une partition par tâche.
+     */
+    private final class RangeTask extends RecursiveTask<RangeResult> {
+        private final ReconciliationRun run;
+        private final int fromPartition;
+        private final int toPartition;
+
+        private RangeTask(ReconciliationRun run, int fromPartition, int toPartition) {
+            this.run = run;
+            this.fromPartition = fromPartition;
+            this.toPartition = toPartition;
+        }
+
+        @Override
+        protected RangeResult compute() {
+            if (toPartition - fromPartition == 1) {
+                return reconcileRange(run, fromPartition);
+            }
+            int middle = (fromPartition + toPartition) >>> 1;
+            RangeTask left = new RangeTask(run, fromPartition, middle);
+            RangeTask right = new RangeTask(run, middle, toPartition);
+            left.fork();
+            RangeResult result = right.compute();
+            return result.merge(left.join());
+        }
+    }
+
+    private static final class RangeResult {
+        private long walletsChecked;
+        private long transactionsFolded;
+        private long driftCount;
+        private long repairedCount;
+
+        private RangeResult merge(RangeResult other) {
+            walletsChecked += other.walletsChecked;
+            transactionsFolded += other.transactionsFolded;
+            driftCount += other.driftCount;
+            repairedCount += other.repairedCount;
+            return this;
+        }
+    }
+
+    /**
+     * Totaux d'un utilisateur : base du snapshot, transactions jusqu'à la coupure, transactions après.
+     */
+    private static final class Fold {
+        private final long baseEarned;
+        private final long baseSpent;
+        private final long baseCount;
+        private long settledEarned;
+        private long settledSpent;
+        private long settledCount;
+        private long recentEarned;
+        private long recentSpent;
+        private long recentCount;
+        private boolean walletSeen;
+
+        private Fold() {
+            this(0, 0, 0);
+        }
+
+        private Fold(long baseEarned, long baseSpent, long baseCount) {
+            this.baseEarned = baseEarned;
+            this.baseSpent = baseSpent;
+            this.baseCount = baseCount;
+        }
+
+        private void addSettled(LedgerSum sum) {
+            settledCount += sum.count();
+            if (sum.type() == TransactionType.CREDIT) {
+                settledEarned += sum.points();
+            } else {
+                settledSpent += sum.points();
+            }
+        }
+
+        private void addRecent(LedgerSum sum) {
+            recentCount += sum.count();
+            if (sum.type() == TransactionType.CREDIT) {
+                recentEarned += sum.points();
+            } else {
+                recentSpent += sum.points();
+            }
+        }
+
+        private long expectedEarned() {
+            return baseEarned + settledEarned + recentEarned;
+        }
+
+        private long expectedSpent() {
+            return baseSpent + settledSpent + recentSpent;
+        }
+
+        private boolean hasLedger() {
+            return baseCount + settledCount + recentCount > 0;
+        }
+    }
+}
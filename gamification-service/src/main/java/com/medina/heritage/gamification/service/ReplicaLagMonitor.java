@@ -0,0 +1,90 @@
+package com.medina.heritage.gamification.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Retard de réplication du réplica de lecture, mesuré périodiquement sur le réplica lui-même.
+ *
+ * Le retard est l'âge de la dernière transaction rejouée, ou zéro quand tout le WAL reçu est
+ * rejoué (un primaire sans écriture ne fait pas vieillir le réplica). Un serveur qui n'est pas en
+ * réplication (paire locale de test) a un retard nul. Le réplica n'est plus utilisé quand le
+ * retard dépasse le seuil, quand la mesure échoue ou quand la dernière mesure réussie est trop
+ * ancienne ; les lectures reviennent sur le primaire jusqu'à la mesure suivante sous le seuil.
+ *
+ * Exposé par les métriques {@code gamification.datasource.replica.lag} (secondes, -1 si inconnu)
+ * et {@code gamification.datasource.replica.usable}.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), -1) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMillis;
+    private final long staleAfterMillis;
+
+    private volatile double lagSeconds = -1;
+    private volatile long measuredAt;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, MeterRegistry meterRegistry,
+                             long maxLagMillis, long checkIntervalMillis) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(Math.max(1, (int) (checkIntervalMillis / 1000)));
+        this.maxLagMillis = maxLagMillis;
+        this.staleAfterMillis = 3 * checkIntervalMillis;
+        Gauge.builder("gamification.datasource.replica.lag", this, ReplicaLagMonitor::getLagSeconds)
+                .description("Replication lag of the read replica in seconds (-1 when unknown)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("gamification.datasource.replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+                .description("1 when read-only transactions are routed to the replica, 0 when they fall back to the primary")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${gamification.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            lagSeconds = lag == null ? -1 : lag;
+            measuredAt = System.currentTimeMillis();
+            usable = lagSeconds >= 0 && lagSeconds * 1000 <= maxLagMillis;
+        } catch (RuntimeException e) {
+            lagSeconds = -1;
+            usable = false;
+            if (wasUsable) {
+                log.error("Replica lag check failed, routing reads to the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasUsable != usable) {
+            if (usable) {
+                log.info("Replica lag back to {} s, routing read-only transactions to the replica", lagSeconds);
+            } else {
+                log.warn("Replica lag {} s above {} ms, routing read-only transactions to the primary",
+                        lagSeconds, maxLagMillis);
+            }
+        }
+    }
+
+    /**
+     * Le réplica est assez à jour pour servir les lectures.
+     */
+    public boolean isReplicaUsable() {
+        return usable && System.currentTimeMillis() - measuredAt <= staleAfterMillis;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
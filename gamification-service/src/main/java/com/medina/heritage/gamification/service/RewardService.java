@@ -0,0 +1,508 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.request.CreateRewardRequest;
+import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
+import com.medina.heritage.gamification.dto.response.RedemptionResponse;
+import com.medina.heritage.gamification.dto.response.RewardResponse;
+import com.medina.heritage.gamification.entity.Reward;
+import com.medina.heritage.gamification.entity.RewardRedemption;
+import com.medina.heritage.gamification.entity.StockLease;
+import com.medina.heritage.gamification.enums.ReasonCode;
+import com.medina.heritage.gamification.enums.RedemptionStatus;
+import com.medina.heritage.gamification.enums.StockLeaseStatus;
+import com.medina.heritage.gamification.exception.InsufficientBalanceException;
+import com.medina.heritage.gamification.exception.OutOfStockException;
+import com.medina.heritage.gamification.exception.RewardNotFoundException;
+import com.medina.heritage.gamification.exception.WalletNotFoundException;
+import com.medina.heritage.gamification.repository.RewardRedemptionRepository;
+import com.medina.heritage.gamification.repository.RewardRepository;
+import com.medina.heritage.gamification.repository.StockLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalogue des récompenses et échanges de points, sans verrou sur la ligne de la récompense par échange.
+ *
+ * Chaque instance prélève le stock par blocs ({@code reward_stock_leases}) : une seule mise à jour
+ * conditionnelle de {@code rewards} par bloc. Les réservations décrémentent ensuite le compteur du bloc
+ * en mémoire (compare-and-set) et insèrent leur ligne ; la confirmation débite les points
+ * ({@link WalletService#deductPoints}) dans la même transaction que le passage à CONFIRMED.
+ * Une réservation annulée, refusée ou expirée rend son unité au bloc.
+ *
+ * À la clôture d'un bloc (épuisé, expiré, arrêt de l'instance), les unités non retenues par une
+ * réservation sont recomptées en base et rendues au stock : le total ne dépasse jamais le stock mis
+ * au catalogue. Les blocs d'une instance arrêtée sans les solder sont clos par les autres instances
+ * après un délai de grâce. La taille des blocs diminue avec le stock restant, pour limiter les unités
+ * retenues par une instance quand une autre n'en a plus.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RewardService {
+
+    private static final List<RedemptionStatus> HOLDING = List.of(RedemptionStatus.RESERVED, RedemptionStatus.CONFIRMED);
+    private static final int CLAIM_ATTEMPTS = 3;
+    private static final int LEASE_SHARE = 4;
+    private static final int SWEEP_BATCH_SIZE = 500;
+    private static final long SOLD_OUT_RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RewardRepository rewardRepository;
+    private final StockLeaseRepository leaseRepository;
+    private final RewardRedemptionRepository redemptionRepository;
+    private final WalletService walletService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final UUID instanceId = UUID.randomUUID();
+    private final ConcurrentMap<UUID, LocalStock> stocks = new ConcurrentHashMap<>();
+
+    @Value("${gamification.rewards.lease-size:50}")
+    private int leaseSize;
+
+    @Value("${gamification.rewards.lease-ttl-seconds:30}")
+    private long leaseTtlSeconds;
+
+    @Value("${gamification.rewards.reservation-ttl-seconds:300}")
+    private long reservationTtlSeconds;
+
+    @Value("${gamification.rewards.orphan-grace-seconds:60}")
+    private long orphanGraceSeconds;
+
+    /**
+     * Ajoute une récompense au catalogue.
+     */
+    public RewardResponse createReward(CreateRewardRequest request) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Reward reward = new Reward(null, request.getName(), request.getDescription(), request.getCost(),
+                request.getStock(), request.getStock(), true, now, now);
+        Reward saved = rewardRepository.save(reward);
+        log.info("Reward created: id={}, name={}, cost={}, stock={}", saved.getId(), saved.getName(),
+                saved.getCost(), saved.getTotalStock());
+        return toResponse(saved);
+    }
+
+    /**
+     * Réapprovisionne une récompense ; les instances qui la croyaient épuisée la revoient au plus
+     * une seconde plus tard.
+     */
+    public RewardResponse restock(UUID rewardId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        Reward reward = transactionTemplate.execute(status -> {
+            if (rewardRepository.addStock(rewardId, quantity, OffsetDateTime.now()) == 0) {
+                throw new RewardNotFoundException(rewardId);
+            }
+            return rewardRepository.findById(rewardId).orElseThrow(() -> new RewardNotFoundException(rewardId));
+        });
+        LocalStock stock = stocks.get(rewardId);
+        if (stock != null) {
+            stock.soldOutUntil = System.nanoTime();
+        }
+        log.info("Reward restocked: id={}, quantity={}, totalStock={}", rewardId, quantity, reward.getTotalStock());
+        return toResponse(reward);
+    }
+
+    /**
+     * Récompenses actives, par nom.
+     */
+    public List<RewardResponse> getCatalog() {
+        return rewardRepository.findByActiveTrueOrderByNameAsc().stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    public RedemptionResponse getRedemption(UUID redemptionId) {
+        return toResponse(findRedemption(redemptionId));
+    }
+
+    /**
+     * Réserve une unité pour l'utilisateur jusqu'à sa confirmation (ou l'expiration de la réservation).
+     *
+     * @throws OutOfStockException si aucune unité n'est disponible pour cette instance
+     */
+    public RedemptionResponse reserve(UUID userId, UUID rewardId) {
+        LocalStock stock = stocks.computeIfAbsent(rewardId, LocalStock::new);
+        while (true) {
+            LocalLease lease = stock.lease;
+            if (lease != null) {
+                RewardRedemption reservation = tryReserve(lease, userId);
+                if (reservation != null) {
+                    return toResponse(reservation);
+                }
+            }
+            if (!renew(stock, lease)) {
+                throw new OutOfStockException(rewardId);
+            }
+        }
+    }
+
+    /**
+     * Débite les points et confirme la réservation, ou la libère si le solde est insuffisant.
+     */
+    public RedemptionResponse confirm(UUID redemptionId) {
+        RewardRedemption reservation = findRedemption(redemptionId);
+        if (reservation.getStatus() != RedemptionStatus.RESERVED) {
+            throw new IllegalStateException("Reservation is already " + reservation.getStatus() + ": " + redemptionId);
+        }
+        if (!reservation.getExpiresAt().isAfter(OffsetDateTime.now())) {
+            release(redemptionId, RedemptionStatus.EXPIRED);
+            throw new IllegalStateException("Reservation has expired: " + redemptionId);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                PointTransactionResponse debit = walletService.deductPoints(new DeductPointsRequest(
+                        reservation.getUserId(), reservation.getPoints(), ReasonCode.REWARD_REDEMPTION.name(),
+                        ReasonCode.REWARD_REDEMPTION.getDescription(), redemptionId,
+                        ReasonCode.REWARD_REDEMPTION.name(), null));
+                if (redemptionRepository.confirm(redemptionId, debit.getId(), OffsetDateTime.now()) == 0) {
+                    // Expirée ou annulée pendant le débit : le débit est annulé avec la transaction
+                    throw new IllegalStateException("Reservation is no longer active: " + redemptionId);
+                }
+            });
+        } catch (InsufficientBalanceException | WalletNotFoundException e) {
+            release(redemptionId, RedemptionStatus.RELEASED);
+            throw e;
+        }
+        log.info("Reward redeemed: reservation={}, rewardId={}, userId={}, points={}", redemptionId,
+                reservation.getRewardId(), reservation.getUserId(), reservation.getPoints());
+        return toResponse(findRedemption(redemptionId));
+    }
+
+    /**
+     * Réserve puis confirme dans la foulée.
+     */
+    public RedemptionResponse redeem(UUID userId, UUID rewardId) {
+        return confirm(reserve(userId, rewardId).getId());
+    }
+
+    /**
+     * Annule une réservation pas encore confirmée.
+     */
+    public RedemptionResponse cancel(UUID redemptionId) {
+        RewardRedemption reservation = findRedemption(redemptionId);
+        if (!release(redemptionId, RedemptionStatus.RELEASED)) {
+            throw new IllegalStateException("Reservation is already " + findRedemption(redemptionId).getStatus()
+                    + ": " + redemptionId);
+        }
+        log.info("Reward reservation cancelled: reservation={}, rewardId={}", redemptionId, reservation.getRewardId());
+        return toResponse(findRedemption(redemptionId));
+    }
+
+    /**
+     * Libère les réservations expirées (de toutes les instances), solde les baux expirés de cette
+     * instance et ceux laissés ouverts par une instance arrêtée.
+     */
+    @Scheduled(fixedDelayString = "${gamification.rewards.sweep-interval-ms:5000}")
+    public void sweep() {
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            int expired = 0;
+            for (UUID id : redemptionRepository.findIdsExpiredBefore(RedemptionStatus.RESERVED, now,
+                    PageRequest.of(0, SWEEP_BATCH_SIZE))) {
+                if (release(id, RedemptionStatus.EXPIRED)) {
+                    expired++;
+                }
+            }
+            if (expired > 0) {
+                log.info("Expired {} reward reservations", expired);
+            }
+        } catch (RuntimeException e) {
+            log.error("Reward reservation expiry failed: {}", e.getMessage());
+        }
+
+        for (LocalStock stock : stocks.values()) {
+            synchronized (stock) {
+                LocalLease lease = stock.lease;
+                if (lease != null && !now.isBefore(lease.expiresAt)) {
+                    settle(lease);
+                    stock.lease = null;
+                }
+            }
+        }
+
+        try {
+            for (UUID id : leaseRepository.findIdsExpiredBefore(StockLeaseStatus.OPEN,
+                    now.minusSeconds(orphanGraceSeconds), PageRequest.of(0, SWEEP_BATCH_SIZE))) {
+                int returned = settleLease(id);
+                log.warn("Settled orphan stock lease: lease={}, returned={}", id, returned);
+            }
+        } catch (RuntimeException e) {
+            log.error("Orphan stock lease settlement failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rend au stock les unités des baux de cette instance avant l'arrêt.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (LocalStock stock : stocks.values()) {
+            synchronized (stock) {
+                if (stock.lease != null) {
+                    settle(stock.lease);
+                    stock.lease = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Prend une unité du bail et insère la réservation ; null si le bail est clos, expiré ou épuisé.
+     * Le verrou en lecture empêche la clôture du bail entre la prise de l'unité et l'insertion.
+     */
+    private RewardRedemption tryReserve(LocalLease lease, UUID userId) {
+        lease.lock.readLock().lock();
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            if (!lease.open || !now.isBefore(lease.expiresAt) || !take(lease.available)) {
+                return null;
+            }
+            try {
+                RewardRedemption reservation = new RewardRedemption(null, lease.rewardId, lease.id, userId, lease.cost,
+                        RedemptionStatus.RESERVED, null, now, now.plusSeconds(reservationTtlSeconds), null);
+                return transactionTemplate.execute(status -> redemptionRepository.save(reservation));
+            } catch (RuntimeException e) {
+                lease.available.incrementAndGet();
+                throw e;
+            }
+        } finally {
+            lease.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Décrémente le compteur s'il est positif.
+     */
+    private static boolean take(AtomicInteger available) {
+        int current;
+        do {
+            current = available.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!available.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    /**
+     * Remplace un bail épuisé ou expiré par un nouveau bloc.
+     *
+     * @return false si la récompense est épuisée
+     */
+    private boolean renew(LocalStock stock, LocalLease exhausted) {
+        synchronized (stock) {
+            if (stock.lease != exhausted) {
+                // Un autre thread a déjà renouvelé le bail
+                return true;
+            }
+            if (System.nanoTime() - stock.soldOutUntil < 0) {
+                return false;
+            }
+            if (exhausted != null) {
+                settle(exhausted);
+                stock.lease = null;
+            }
+            LocalLease lease;
+            try {
+                lease = claimLease(stock.rewardId);
+            } catch (RewardNotFoundException e) {
+                stocks.remove(stock.rewardId, stock);
+                throw e;
+            }
+            if (lease == null) {
+                stock.soldOutUntil = System.nanoTime() + SOLD_OUT_RECHECK_NANOS;
+                return false;
+            }
+            stock.lease = lease;
+            return true;
+        }
+    }
+
+    /**
+     * Prélève un bloc sur le stock de la récompense : un quart du stock restant, entre 1 et
+     * {@code leaseSize} unités ; null si la récompense est épuisée ou inactive.
+     */
+    private LocalLease claimLease(UUID rewardId) {
+        return transactionTemplate.execute(status -> {
+            Reward reward = rewardRepository.findById(rewardId).orElseThrow(() -> new RewardNotFoundException(rewardId));
+            if (!reward.getActive()) {
+                return null;
+            }
+            int available = reward.getAvailableStock();
+            for (int attempt = 0; attempt < CLAIM_ATTEMPTS && available > 0; attempt++) {
+                int quantity = Math.max(1, Math.min(leaseSize, available / LEASE_SHARE));
+                OffsetDateTime now = OffsetDateTime.now();
+                if (rewardRepository.claimStock(rewardId, quantity, now) == 1) {
+                    StockLease lease = leaseRepository.save(new StockLease(null, rewardId, instanceId, quantity,
+                            StockLeaseStatus.OPEN, null, now, now.plusSeconds(leaseTtlSeconds), null));
+                    log.debug("Stock lease claimed: lease={}, rewardId={}, quantity={}", lease.getId(), rewardId, quantity);
+                    return new LocalLease(lease.getId(), rewardId, reward.getCost(), quantity, lease.getExpiresAt());
+                }
+                // Stock pris entre-temps par une autre instance
+                available = rewardRepository.findAvailableStock(rewardId).orElse(0);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Clôt un bail local, puis le solde en base. En cas d'échec, le bail reste ouvert en base
+     * et sera soldé comme bail orphelin.
+     */
+    private void settle(LocalLease lease) {
+        lease.lock.writeLock().lock();
+        try {
+            if (!lease.open) {
+                return;
+            }
+            lease.open = false;
+        } finally {
+            lease.lock.writeLock().unlock();
+        }
+        try {
+            settleLease(lease.id);
+        } catch (RuntimeException e) {
+            log.error("Stock lease settlement failed: lease={}, error={}", lease.id, e.getMessage());
+        }
+    }
+
+    /**
+     * Rend au stock les unités du bail qui ne sont retenues par aucune réservation.
+     *
+     * @return unités rendues
+     */
+    private int settleLease(UUID leaseId) {
+        Integer returned = transactionTemplate.execute(status -> {
+            StockLease lease = leaseRepository.findForUpdate(leaseId).orElse(null);
+            if (lease == null || lease.getStatus() != StockLeaseStatus.OPEN) {
+                return 0;
+            }
+            long holding = redemptionRepository.countByLeaseIdAndStatusIn(leaseId, HOLDING);
+            int remainder = (int) Math.max(0, lease.getQuantity() - holding);
+            OffsetDateTime now = OffsetDateTime.now();
+            lease.setStatus(StockLeaseStatus.SETTLED);
+            lease.setReturnedQuantity(remainder);
+            lease.setSettledAt(now);
+            leaseRepository.save(lease);
+            if (remainder > 0) {
+                rewardRepository.returnStock(lease.getRewardId(), remainder, now);
+            }
+            return remainder;
+        });
+        return returned == null ? 0 : returned;
+    }
+
+    /**
+     * Libère une réservation pas encore confirmée. Son unité revient au bail s'il est encore ouvert
+     * (et au compteur en mémoire si le bail appartient à cette instance), sinon directement au stock.
+     *
+     * @return false si la réservation n'était plus réservée
+     */
+    private boolean release(UUID redemptionId, RedemptionStatus target) {
+        RewardRedemption released = transactionTemplate.execute(status -> {
+            RewardRedemption reservation = redemptionRepository.findById(redemptionId).orElse(null);
+            if (reservation == null || reservation.getStatus() != RedemptionStatus.RESERVED) {
+                return null;
+            }
+            // Le verrou du bail ordonne la libération et la clôture du bail
+            StockLease lease = leaseRepository.findForUpdate(reservation.getLeaseId()).orElse(null);
+            OffsetDateTime now = OffsetDateTime.now();
+            if (redemptionRepository.release(redemptionId, target, now) == 0) {
+                return null;
+            }
+            if (lease == null || lease.getStatus() == StockLeaseStatus.SETTLED) {
+                rewardRepository.returnStock(reservation.getRewardId(), 1, now);
+            }
+            return reservation;
+        });
+        if (released == null) {
+            return false;
+        }
+        LocalStock stock = stocks.get(released.getRewardId());
+        LocalLease lease = stock == null ? null : stock.lease;
+        if (lease != null && lease.id.equals(released.getLeaseId())) {
+            lease.lock.readLock().lock();
+            try {
+                if (lease.open) {
+                    lease.available.incrementAndGet();
+                }
+            } finally {
+                lease.lock.readLock().unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lue dans une transaction en écriture, donc sur le primaire : la réservation vient souvent d'être
+     * créée ou modifiée, un réplica de lecture pourrait ne pas encore la voir.
+     */
+    private RewardRedemption findRedemption(UUID redemptionId) {
+        return transactionTemplate.execute(status -> redemptionRepository.findById(redemptionId))
+                .orElseThrow(() -> new RewardNotFoundException("Reservation not found: " + redemptionId));
+    }
+
+    private RewardResponse toResponse(Reward reward) {
+        return new RewardResponse(reward.getId(), reward.getName(), reward.getDescription(), reward.getCost(),
+                reward.getTotalStock(), reward.getAvailableStock());
+    }
+
+    private RedemptionResponse toResponse(RewardRedemption redemption) {
+        return new RedemptionResponse(redemption.getId(), redemption.getRewardId(), redemption.getUserId(),
+                redemption.getPoints(), redemption.getStatus(), redemption.getTransactionId(), redemption.getExpiresAt());
+    }
+
+    /**
+     * Bail en cours d'une récompense sur cette instance.
+     */
+    private static final class LocalStock {
+
+        private final UUID rewardId;
+        private volatile LocalLease lease;
+        // System.nanoTime() avant lequel la récompense est considérée épuisée sans relire la base
+        private volatile long soldOutUntil = System.nanoTime();
+
+        private LocalStock(UUID rewardId) {
+            this.rewardId = rewardId;
+        }
+    }
+
+    /**
+     * Bloc d'unités détenu par cette instance ; le prix est celui lu au prélèvement du bloc.
+     */
+    private static final class LocalLease {
+
+        private final UUID id;
+        private final UUID rewardId;
+        private final int cost;
+        private final OffsetDateTime expiresAt;
+        private final AtomicInteger available;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean open = true;
+
+        private LocalLease(UUID id, UUID rewardId, int cost, int quantity, OffsetDateTime expiresAt) {
+            this.id = id;
+            this.rewardId = rewardId;
+            this.cost = cost;
+            this.expiresAt = expiresAt;
+            this.available = new AtomicInteger(quantity);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.medina.heritage.gamification.service;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position dans un historique de transactions trié par (createdAt DESC, id DESC).
+ *
+ * Encodé en un jeton opaque (base64url de la date à la nanoseconde et de l'ID) : le client le renvoie
+ * tel quel pour obtenir la page suivante.
+ */
+public record TransactionCursor(OffsetDateTime createdAt, UUID id) {
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * Position de départ : avant toute transaction existante.
+     */
+    public static TransactionCursor first() {
+        return new TransactionCursor(OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC),
+                new UUID(-1L, -1L));
+    }
+
+    public String encode() {
+        Instant instant = createdAt.toInstant();
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .putLong(instant.getEpochSecond())
+                .putInt(instant.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Décode un jeton ; {@code null} ou vide : première page.
+     *
+     * @throws IllegalArgumentException si le jeton est invalide
+     */
+    public static TransactionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return first();
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        if (bytes.length != ENCODED_BYTES) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        OffsetDateTime createdAt;
+        try {
+            if (nanos < 0 || nanos > 999_999_999) {
+                throw new DateTimeException("nanos out of range");
+            }
+            createdAt = Instant.ofEpochSecond(seconds, nanos).atOffset(ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        return new TransactionCursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+}
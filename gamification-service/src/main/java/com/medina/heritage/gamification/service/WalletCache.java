@@ -0,0 +1,167 @@
+package com.medina.heritage.gamification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medina.heritage.gamification.dto.response.WalletResponse;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.mapper.WalletMapper;
+import com.medina.heritage.gamification.messaging.GamificationEventPublisher;
+import com.medina.heritage.gamification.messaging.WalletCacheInvalidationEvent;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cache local des wallets, en lecture traversante devant {@link WalletRepository#findByUserId}.
+ *
+ * Caffeine borne le cache en nombre d'entrées avec une politique W-TinyLFU : les wallets consultés
+ * à chaque écran restent en cache, un parcours ponctuel de nombreux wallets ne les évince pas.
+ * Seuls les wallets existants sont mis en cache.
+ *
+ * Les crédits et débits écrivent le nouvel état dans le cache local après le commit et diffusent
+ * une invalidation aux autres instances ; les écritures groupées (attribution en masse, réparation)
+ * invalident seulement. L'expiration après écriture borne la durée de vie d'une entrée si un message
+ * d'invalidation est perdu.
+ *
+ * Chaque écriture validée, locale ou signalée par une autre instance, épingle aussi l'utilisateur au
+ * primaire pour ses prochaines lectures ({@link ReadYourWritesGuard}).
+ */
+@Slf4j
+@Component
+public class WalletCache {
+
+    private static final String CACHE_NAME = "wallets";
+
+    private final WalletRepository walletRepository;
+    private final WalletMapper walletMapper;
+    private final GamificationEventPublisher eventPublisher;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final Cache<UUID, WalletResponse> cache;
+    private final Timer loadTimer;
+    private final UUID instanceId = UUID.randomUUID();
+
+    public WalletCache(WalletRepository walletRepository,
+                       WalletMapper walletMapper,
+                       GamificationEventPublisher eventPublisher,
+                       ReadYourWritesGuard readYourWritesGuard,
+                       MeterRegistry meterRegistry,
+                       @Value("${gamification.wallet-cache.maximum-size:100000}") long maximumSize,
+                       @Value("${gamification.wallet-cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds) {
+        this.walletRepository = walletRepository;
+        this.walletMapper = walletMapper;
+        this.eventPublisher = eventPublisher;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("gamification.wallet.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Wallet cache hit ratio since startup")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("gamification.wallet.cache.load")
+                .description("Wallet loads from the database on cache misses")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wallet de l'utilisateur, chargé depuis la base en cas d'absence du cache ; null si l'utilisateur
+     * n'a pas de wallet.
+     */
+    public WalletResponse get(UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return cache.get(userId, this::load);
+        }
+        // Dans une transaction, la lecture peut voir des écritures non validées : seul un état
+        // validé entre dans le cache
+        WalletResponse cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        WalletResponse loaded = load(userId);
+        if (loaded != null) {
+            TransactionCallbacks.afterCommit(() -> put(loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * Écrit le nouvel état du wallet dans le cache après le commit de la transaction courante
+     * et invalide les autres instances.
+     */
+    public void putAfterCommit(Wallet wallet) {
+        WalletResponse response = walletMapper.toWalletResponse(wallet);
+        TransactionCallbacks.afterCommit(() -> {
+            put(response);
+            readYourWritesGuard.pin(List.of(response.getUserId()));
+            broadcast(List.of(response.getUserId()));
+        });
+    }
+
+    /**
+     * Retire les wallets du cache, local et distant, après le commit de la transaction courante.
+     */
+    public void evictAfterCommit(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<UUID> evicted = List.copyOf(userIds);
+        TransactionCallbacks.afterCommit(() -> {
+            cache.invalidateAll(evicted);
+            readYourWritesGuard.pin(evicted);
+            broadcast(evicted);
+        });
+    }
+
+    /**
+     * Applique une invalidation reçue d'une instance (y compris celle-ci, ignorée).
+     */
+    public void onInvalidation(WalletCacheInvalidationEvent event) {
+        if (instanceId.equals(event.getOrigin()) || event.getUserIds() == null) {
+            return;
+        }
+        cache.invalidateAll(event.getUserIds());
+        readYourWritesGuard.pin(event.getUserIds());
+    }
+
+    /**
+     * Un état n'en remplace un autre que s'il est plus récent : totalEarned et totalSpent ne font
+     * que croître, leur somme ordonne les états d'un wallet même si deux commits concurrents
+     * arrivent ici dans le désordre.
+     */
+    void put(WalletResponse response) {
+        cache.asMap().merge(response.getUserId(), response,
+                (current, candidate) -> version(candidate) >= version(current) ? candidate : current);
+    }
+
+    private WalletResponse load(UUID userId) {
+        return loadTimer.record(() -> walletRepository.findByUserId(userId)
+                .map(walletMapper::toWalletResponse)
+                .orElse(null));
+    }
+
+    private void broadcast(List<UUID> userIds) {
+        try {
+            eventPublisher.publishWalletCacheInvalidation(new WalletCacheInvalidationEvent(instanceId, userIds));
+        } catch (Exception e) {
+            log.error("Error publishing WalletCacheInvalidationEvent: {}", e.getMessage());
+        }
+    }
+
+    private static long version(WalletResponse response) {
+        return (long) response.getTotalEarned() + response.getTotalSpent();
+    }
+}
@@ -6,6 +6,8 @@ import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
 import com.medina.heritage.gamification.dto.response.WalletResponse;
 import com.medina.heritage.gamification.entity.PointTransaction;
 import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.enums.Badge;
+import com.medina.heritage.gamification.enums.ReasonCode;
 import com.medina.heritage.gamification.enums.TransactionType;
 import com.medina.heritage.gamification.exception.DuplicateTransactionException;
 import com.medina.heritage.gamification.exception.InsufficientBalanceException;
@@ -17,8 +19,10 @@ import com.medina.heritage.gamification.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 /**
@@ -33,35 +37,52 @@ public class WalletService {
     private final PointTransactionRepository transactionRepository;
     private final WalletMapper walletMapper;
     private final PointTransactionMapper transactionMapper;
+    private final LeaderboardService leaderboardService;
+    private final WalletCache walletCache;
+    private final PointStatsService pointStatsService;
+    private final LevelHistogram levelHistogram;
+    private final AchievementService achievementService;
+    private final ActivityTracker activityTracker;
+    private final PlatformCounters platformCounters;
 
     /**
-     * Récupère le wallet d'un utilisateur.
+     * Récupère le wallet d'un utilisateur, depuis le cache local.
      * Crée un nouveau wallet si l'utilisateur n'en a pas.
      */
     @Transactional
     public WalletResponse getOrCreateWallet(UUID userId) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    log.info("Creating new wallet for user: {}", userId);
-                    Wallet newWallet = new Wallet(userId);
-                    return walletRepository.save(newWallet);
-                });
+        WalletResponse cached = walletCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        log.info("Creating new wallet for user: {}", userId);
+        Wallet wallet = walletRepository.save(new Wallet(userId));
+        walletCache.putAfterCommit(wallet);
+        levelHistogram.walletsCreated(1);
         return walletMapper.toWalletResponse(wallet);
     }
 
     /**
-     * Récupère le wallet d'un utilisateur (sans création automatique).
+     * Récupère le wallet d'un utilisateur (sans création automatique), depuis le cache local.
      */
     public WalletResponse getWallet(UUID userId) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new WalletNotFoundException(userId));
-        return walletMapper.toWalletResponse(wallet);
+        WalletResponse wallet = walletCache.get(userId);
+        if (wallet == null) {
+            throw new WalletNotFoundException(userId);
+        }
+        return wallet;
     }
 
     /**
      * Ajoute des points au wallet d'un utilisateur.
+     * Le crédit est une mise à jour SQL atomique : des crédits concurrents sur le même wallet
+     * sont sérialisés par le verrou de ligne et aucun n'est perdu.
+     * Un doublon est refusé avant toute écriture : il n'annule pas une transaction englobante
+     * (lot d'un shard de {@link WalletWriteRouter}). La référence est revérifiée sous le verrou de ligne
+     * du wallet, pris par une lecture verrouillante avant le crédit : un doublon concurrent pour le même
+     * utilisateur est lui aussi refusé avant toute écriture.
      */
-    @Transactional
+    @Transactional(noRollbackFor = DuplicateTransactionException.class)
     public PointTransactionResponse addPoints(AddPointsRequest request) {
         // Vérifier les doublons si une référence est fournie
         if (request.getReferenceId() != null && request.getReferenceType() != null) {
@@ -73,16 +94,54 @@ public class WalletService {
             }
         }
 
-        // Récupérer ou créer le wallet
-        Wallet wallet = walletRepository.findByUserId(request.getUserId())
-                .orElseGet(() -> {
-                    log.info("Creating new wallet for user: {}", request.getUserId());
-                    return walletRepository.save(new Wallet(request.getUserId()));
-                });
+        PointTransaction savedTransaction = credit(request);
+        log.info("Points added: userId={}, points={}, reason={}, newBalance={}", 
+                request.getUserId(), request.getPoints(), request.getReasonCode(), savedTransaction.getBalanceAfter());
 
-        // Ajouter les points
-        wallet.addPoints(request.getPoints());
-        walletRepository.save(wallet);
+        return transactionMapper.toPointTransactionResponse(savedTransaction);
+    }
+
+    /**
+     * Crédite les points d'un badge obtenu, dans la transaction de l'insertion qui l'a déclenché.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void awardBadge(UUID userId, Badge badge) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(userId);
+        request.setPoints(badge.getPoints());
+        request.setReasonCode(ReasonCode.BADGE_EARNED.name());
+        request.setDescription(ReasonCode.BADGE_EARNED.getDescription() + " : " + badge.getDescription());
+        PointTransaction savedTransaction = credit(request);
+        log.info("Badge points added: userId={}, badge={}, points={}, newBalance={}",
+                userId, badge, badge.getPoints(), savedTransaction.getBalanceAfter());
+    }
+
+    /**
+     * Crédite le wallet et insère la transaction dans le ledger, puis crédite les badges qu'elle fait obtenir.
+     */
+    private PointTransaction credit(AddPointsRequest request) {
+        // Verrouiller le wallet (le créer s'il n'existe pas encore) avant de contrôler la référence
+        OffsetDateTime now = OffsetDateTime.now();
+        if (walletRepository.findForUpdate(request.getUserId()).isEmpty()) {
+            log.info("Creating new wallet for user: {}", request.getUserId());
+            levelHistogram.walletsCreated(walletRepository.insertIfAbsent(request.getUserId(), now));
+            walletRepository.findForUpdate(request.getUserId());
+        }
+        // Revérifier sous le verrou de ligne : un doublon concurrent pour le même utilisateur est visible ici
+        if (request.getReferenceId() != null && request.getReferenceType() != null
+                && transactionRepository.existsByReferenceIdAndReferenceTypeAndReasonCode(
+                        request.getReferenceId(), request.getReferenceType(), request.getReasonCode())) {
+            throw new DuplicateTransactionException(
+                    request.getReferenceId(), request.getReferenceType(), request.getReasonCode());
+        }
+        // Créditer en une instruction
+        walletRepository.creditPoints(request.getUserId(), request.getPoints(), now);
+        Wallet wallet = walletRepository.findByUserId(request.getUserId())
+                .orElseThrow(() -> new WalletNotFoundException(request.getUserId()));
+        int balanceAfter = wallet.getBalance();
+        leaderboardService.recordScore(request.getUserId(), wallet.getTotalEarned(), request.getPoints(), now);
+        walletCache.putAfterCommit(wallet);
+        levelHistogram.levelChanged(Wallet.levelFor(wallet.getTotalEarned() - request.getPoints()), wallet.getLevel());
 
         // Créer la transaction
         PointTransaction transaction = new PointTransaction();
@@ -94,32 +153,34 @@ public class WalletService {
         transaction.setReferenceId(request.getReferenceId());
         transaction.setReferenceType(request.getReferenceType());
         transaction.setSfCaseId(request.getSfCaseId());
-        transaction.setBalanceAfter(wallet.getBalance());
+        transaction.setBalanceAfter(balanceAfter);
 
         PointTransaction savedTransaction = transactionRepository.save(transaction);
-        log.info("Points added: userId={}, points={}, reason={}, newBalance={}", 
-                request.getUserId(), request.getPoints(), request.getReasonCode(), wallet.getBalance());
-
-        return transactionMapper.toPointTransactionResponse(savedTransaction);
+        pointStatsService.record(savedTransaction);
+        platformCounters.record(savedTransaction);
+        activityTracker.record(savedTransaction);
+        for (Badge badge : achievementService.record(savedTransaction, wallet.getTotalEarned())) {
+            awardBadge(request.getUserId(), badge);
+        }
+        return savedTransaction;
     }
 
     /**
      * Déduit des points du wallet d'un utilisateur.
+     * Le contrôle du solde et le débit forment une seule mise à jour conditionnelle.
+     * Un solde insuffisant ou un wallet absent est refusé avant toute écriture : il n'annule pas
+     * une transaction englobante.
      */
-    @Transactional
+    @Transactional(noRollbackFor = {InsufficientBalanceException.class, WalletNotFoundException.class})
     public PointTransactionResponse deductPoints(DeductPointsRequest request) {
-        // Récupérer le wallet
+        // Débiter uniquement si le solde suffit : la condition est vérifiée par la base
+        if (walletRepository.debitPoints(request.getUserId(), request.getPoints(), OffsetDateTime.now()) == 0) {
+            throw new InsufficientBalanceException(request.getPoints(), currentBalance(request.getUserId()));
+        }
         Wallet wallet = walletRepository.findByUserId(request.getUserId())
                 .orElseThrow(() -> new WalletNotFoundException(request.getUserId()));
-
-        // Vérifier le solde
-        if (wallet.getBalance() < request.getPoints()) {
-            throw new InsufficientBalanceException(request.getPoints(), wallet.getBalance());
-        }
-
-        // Déduire les points
-        wallet.deductPoints(request.getPoints());
-        walletRepository.save(wallet);
+        int balanceAfter = wallet.getBalance();
+        walletCache.putAfterCommit(wallet);
 
         // Créer la transaction
         PointTransaction transaction = new PointTransaction();
@@ -131,19 +192,38 @@ public class WalletService {
         transaction.setReferenceId(request.getReferenceId());
         transaction.setReferenceType(request.getReferenceType());
         transaction.setSfCaseId(request.getSfCaseId());
-        transaction.setBalanceAfter(wallet.getBalance());
+        transaction.setBalanceAfter(balanceAfter);
 
         PointTransaction savedTransaction = transactionRepository.save(transaction);
+        pointStatsService.record(savedTransaction);
+        platformCounters.record(savedTransaction);
+        for (Badge badge : achievementService.record(savedTransaction, wallet.getTotalEarned())) {
+            awardBadge(request.getUserId(), badge);
+        }
         log.info("Points deducted: userId={}, points={}, reason={}, newBalance={}", 
-                request.getUserId(), request.getPoints(), request.getReasonCode(), wallet.getBalance());
+                request.getUserId(), request.getPoints(), request.getReasonCode(), balanceAfter);
 
         return transactionMapper.toPointTransactionResponse(savedTransaction);
     }
 
+    /**
+     * Solde du wallet (verrouillé par la mise à jour précédente dans la transaction courante).
+     */
+    private int currentBalance(UUID userId) {
+        return walletRepository.findBalanceByUserId(userId)
+                .orElseThrow(() -> new WalletNotFoundException(userId));
+    }
+
     /**
      * Récupère le rang d'un utilisateur.
+     * Le classement en mémoire répond en O(log n) ; la requête SQL ne sert que pour un wallet
+     * pas encore classé (créé sans points, ou mise à jour d'une autre instance pas encore reçue).
      */
     public Long getUserRank(UUID userId) {
+        Long rank = leaderboardService.getRank(userId);
+        if (rank != null && rank >= 1) {
+            return rank;
+        }
         if (!walletRepository.existsByUserId(userId)) {
             return null;
         }
@@ -151,9 +231,9 @@ public class WalletService {
     }
 
     /**
-     * Vérifie si un wallet existe pour un utilisateur.
+     * Vérifie si un wallet existe pour un utilisateur, depuis le cache local.
      */
     public boolean walletExists(UUID userId) {
-        return walletRepository.existsByUserId(userId);
+        return walletCache.get(userId) != null;
     }
 }
@@ -0,0 +1,227 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
+import com.medina.heritage.gamification.exception.DuplicateTransactionException;
+import com.medina.heritage.gamification.exception.InsufficientBalanceException;
+import com.medina.heritage.gamification.exception.WalletNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Point d'entrée des crédits et débits unitaires.
+ *
+ * Par défaut, chaque appel est une transaction de {@link WalletService} ; les écritures concurrentes
+ * sur un même wallet sont sérialisées par le verrou de ligne de la base.
+ *
+ * Avec {@code gamification.wallet-shards.enabled=true}, les écritures sont routées par hash(userId)
+ * vers N shards mono-thread : dans cette instance, un wallet n'a qu'un seul écrivain et les requêtes
+ * n'attendent plus sur le verrou de ligne. Chaque shard applique les commandes en attente par lots
+ * (group commit) : une transaction pour au plus {@code max-batch} commandes. Si la transaction d'un lot
+ * échoue, chaque commande est rejouée seule pour isoler la commande fautive.
+ *
+ * Le verrou de ligne reste la garantie entre instances et pour les attributions en masse, qui ne passent
+ * pas par les shards.
+ */
+@Slf4j
+@Service
+public class WalletWriteRouter {
+
+    private final WalletService walletService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long timeoutMillis;
+    private final Shard[] shards;
+    private final DistributionSummary batchSize;
+
+    public WalletWriteRouter(WalletService walletService,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${gamification.wallet-shards.enabled:false}") boolean enabled,
+                             @Value("${gamification.wallet-shards.count:8}") int shardCount,
+                             @Value("${gamification.wallet-shards.max-batch:32}") int maxBatch,
+                             @Value("${gamification.wallet-shards.queue-capacity:10000}") int queueCapacity,
+                             @Value("${gamification.wallet-shards.timeout-ms:5000}") long timeoutMillis) {
+        this.walletService = walletService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.timeoutMillis = timeoutMillis;
+        this.batchSize = DistributionSummary.builder("gamification.wallet.shard.batch.size")
+                .description("Commands applied per wallet shard transaction")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.shards = new Shard[enabled ? shardCount : 0];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+            Gauge.builder("gamification.wallet.shard.queue.size", shards[i].queue, BlockingQueue::size)
+                    .description("Commands waiting in a wallet shard")
+                    .tag("shard", Integer.toString(i))
+                    .register(meterRegistry);
+            shards[i].thread.start();
+        }
+        if (enabled) {
+            log.info("Wallet shards enabled: {} shards, group commits of up to {} commands", shardCount, maxBatch);
+        }
+    }
+
+    /**
+     * Ajoute des points (voir {@link WalletService#addPoints}).
+     */
+    public PointTransactionResponse addPoints(AddPointsRequest request) {
+        if (!enabled) {
+            return walletService.addPoints(request);
+        }
+        return submit(request.getUserId(), () -> walletService.addPoints(request));
+    }
+
+    /**
+     * Déduit des points (voir {@link WalletService#deductPoints}).
+     */
+    public PointTransactionResponse deductPoints(DeductPointsRequest request) {
+        if (!enabled) {
+            return walletService.deductPoints(request);
+        }
+        return submit(request.getUserId(), () -> walletService.deductPoints(request));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.running = false;
+        }
+        for (Shard shard : shards) {
+            shard.thread.join(timeoutMillis);
+        }
+    }
+
+    /**
+     * Confie la commande au shard du wallet et attend son résultat. Après un délai dépassé, la commande
+     * peut encore être appliquée.
+     *
+     * @throws IllegalStateException si la file du shard est pleine ou si le délai est dépassé
+     */
+    private <T> T submit(UUID userId, Supplier<T> action) {
+        Shard shard = shards[Math.floorMod(userId.hashCode(), shards.length)];
+        Command<T> command = new Command<>(action, new CompletableFuture<>());
+        if (!shard.running || !shard.queue.offer(command)) {
+            throw new IllegalStateException("Wallet shard " + shard.index + " is not accepting commands");
+        }
+        try {
+            return command.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Wallet shard command failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Wallet shard " + shard.index + " did not answer within " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for wallet shard " + shard.index);
+        }
+    }
+
+    /**
+     * Applique un lot dans une transaction ; les résultats ne sont rendus qu'après le commit.
+     */
+    private void execute(List<Command<?>> batch) {
+        batchSize.record(batch.size());
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Command<?> command : batch) {
+                    completions.add(command.run());
+                }
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.warn("Wallet shard group commit of {} commands failed, replaying one by one: {}", batch.size(), e.getMessage());
+            for (Command<?> command : batch) {
+                execute(List.of(command));
+            }
+            return;
+        }
+        completions.forEach(Runnable::run);
+    }
+
+    private record Command<T>(Supplier<T> action, CompletableFuture<T> result) {
+
+        /**
+         * Exécute la commande dans la transaction du lot ; retourne la complétion à appliquer après le commit.
+         * Les refus métier sont levés avant toute écriture et ne marquent pas la transaction
+         * (noRollbackFor de {@link WalletService}) : le reste du lot est validé.
+         */
+        Runnable run() {
+            try {
+                T value = action.get();
+                return () -> result.complete(value);
+            } catch (DuplicateTransactionException | InsufficientBalanceException | WalletNotFoundException e) {
+                return () -> result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final class Shard implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<Command<?>> queue;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "wallet-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Command<?>> batch = new ArrayList<>(maxBatch);
+            while (running || !queue.isEmpty()) {
+                Command<?> first;
+                try {
+                    first = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                try {
+                    execute(batch);
+                } catch (RuntimeException e) {
+                    log.error("Wallet shard {} failed to apply {} commands: {}", index, batch.size(), e.getMessage());
+                    batch.forEach(command -> command.result.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.enums.LeaderboardWindow;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Classement d'une période (semaine, mois) : compartiment des points gagnés par utilisateur depuis le
+ * début de la période en cours, indexé par {@link LeaderboardIndex}.
+ *
+ * Dans une période, le score d'un utilisateur ne fait que croître. Quand la période se termine, le
+ * compartiment est abandonné et le suivant part de zéro : aucune lecture du ledger n'est nécessaire.
+ *
+ * Un crédit est identifié par la tranche {@code (totalEarned - points, totalEarned]} du total gagné de
+ * l'utilisateur qu'il occupe : le total gagné étant croissant, deux crédits distincts n'ont jamais de tranche
+ * commune. Les tranches déjà comptées sont conservées (fusionnées quand elles se touchent, soit en général une
+ * par utilisateur) : une mise à jour redélivrée ou rejouée est sans effet.
+ *
+ * Non thread-safe : l'appelant synchronise.
+ */
+public final class WindowedLeaderboard {
+
+    private static final LeaderboardIndex EMPTY = new LeaderboardIndex();
+
+    private final LeaderboardWindow window;
+    private Instant start;
+    private Map<UUID, Score> scores = new HashMap<>();
+    private LeaderboardIndex index = new LeaderboardIndex();
+
+    public WindowedLeaderboard(LeaderboardWindow window, Instant now) {
+        this.window = window;
+        this.start = window.start(now);
+    }
+
+    /**
+     * Ajoute des points gagnés à {@code at} et lus dans le ledger (reconstruction au démarrage) ; ignorés si
+     * leur période est close (ou pas encore ouverte).
+     *
+     * @return true si le classement a été modifié
+     */
+    public boolean add(UUID userId, int points, Instant at, Instant now) {
+        roll(now);
+        if (points <= 0 || !start.equals(window.start(at))) {
+            return false;
+        }
+        Score score = scores.computeIfAbsent(userId, id -> new Score());
+        score.points += points;
+        return index.offer(userId, score.points);
+    }
+
+    /**
+     * Ajoute un crédit de {@code points} à {@code at} portant le total gagné de l'utilisateur à
+     * {@code totalEarned} ; ignoré si sa période est close (ou pas encore ouverte) ou s'il a déjà été compté.
+     *
+     * @return true si le classement a été modifié
+     */
+    public boolean credit(UUID userId, int totalEarned, int points, Instant at, Instant now) {
+        roll(now);
+        if (points <= 0 || totalEarned < points || !start.equals(window.start(at))) {
+            return false;
+        }
+        Score score = scores.computeIfAbsent(userId, id -> new Score());
+        if (!score.credit(totalEarned - points, totalEarned)) {
+            return false;
+        }
+        return index.offer(userId, score.points);
+    }
+
+    /**
+     * Passe à la période contenant {@code now} si la période courante est close.
+     *
+     * @return true si le compartiment a été abandonné
+     */
+    public boolean roll(Instant now) {
+        Instant current = window.start(now);
+        if (current.equals(start)) {
+            return false;
+        }
+        start = current;
+        scores = new HashMap<>();
+        index = new LeaderboardIndex();
+        return true;
+    }
+
+    /**
+     * Classement de la période contenant {@code now} (vide si la période courante est close et
+     * n'a pas encore été remplacée).
+     */
+    public LeaderboardIndex index(Instant now) {
+        return start.equals(window.start(now)) ? index : EMPTY;
+    }
+
+    public Instant start(Instant now) {
+        return window.start(now);
+    }
+
+    /**
+     * Points d'un utilisateur sur la période et tranches du total gagné déjà comptées (début exclu -> fin incluse).
+     */
+    private static final class Score {
+        private int points;
+        private final NavigableMap<Integer, Integer> ranges = new TreeMap<>();
+
+        /**
+         * Compte la tranche {@code (from, to]} ; false si elle recoupe une tranche déjà comptée.
+         */
+        private boolean credit(int from, int to) {
+            Map.Entry<Integer, Integer> before = ranges.floorEntry(from);
+            Map.Entry<Integer, Integer> after = ranges.higherEntry(from);
+            if ((before != null && before.getValue() > from) || (after != null && after.getKey() < to)) {
+                return false;
+            }
+            int start = from;
+            int end = to;
+            if (before != null && before.getValue() == from) {
+                start = before.getKey();
+            }
+            if (after != null && after.getKey() == to) {
+                end = ranges.remove(to);
+            }
+            ranges.put(start, end);
+            points += to - from;
+            return true;
+        }
+    }
+}
@@ -16,6 +16,7 @@ CREATE TABLE IF NOT EXISTS wallets (
 );
 
 -- Table des transactions de points
+-- (convertie en table partitionnée par mois de created_at par l'étape de migration LedgerPartitionMigration)
 CREATE TABLE IF NOT EXISTS point_transactions (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     user_id UUID NOT NULL,                                       -- ID de l'utilisateur
@@ -38,7 +39,212 @@ CREATE INDEX IF NOT EXISTS idx_point_transactions_user_id ON point_transactions(
 CREATE INDEX IF NOT EXISTS idx_point_transactions_created_at ON point_transactions(created_at);
 CREATE INDEX IF NOT EXISTS idx_point_transactions_reason_code ON point_transactions(reason_code);
 CREATE INDEX IF NOT EXISTS idx_point_transactions_reference ON point_transactions(reference_id, reference_type);
+-- Pagination par curseur (created_at DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_point_transactions_user_keyset ON point_transactions(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_point_transactions_reference_keyset ON point_transactions(reference_id, reference_type, created_at DESC, id DESC);
 
 -- Index sur wallets pour le classement
 CREATE INDEX IF NOT EXISTS idx_wallets_total_earned ON wallets(total_earned DESC);
 CREATE INDEX IF NOT EXISTS idx_wallets_level ON wallets(level DESC);
+
+-- Snapshots du ledger par utilisateur (réconciliation incrémentale)
+CREATE TABLE IF NOT EXISTS wallet_snapshots (
+    user_id UUID PRIMARY KEY,
+    total_earned BIGINT NOT NULL,                                -- Somme des crédits jusqu'à la coupure
+    total_spent BIGINT NOT NULL,                                 -- Somme des débits jusqu'à la coupure
+    transaction_count BIGINT NOT NULL,
+    cutoff TIMESTAMP WITH TIME ZONE NOT NULL                     -- Transactions créées jusqu'à cette date incluses
+);
+
+-- Totaux par utilisateur des partitions du ledger archivées (base d'un replay complet de la réconciliation)
+CREATE TABLE IF NOT EXISTS archived_ledger_totals (
+    user_id UUID PRIMARY KEY,
+    total_earned BIGINT NOT NULL,
+    total_spent BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    archived_until TIMESTAMP WITH TIME ZONE NOT NULL             -- Fin de la dernière partition archivée
+);
+
+-- Partitions du ledger détachées et archivées dans des fichiers CSV gzip
+CREATE TABLE IF NOT EXISTS ledger_archives (
+    id UUID PRIMARY KEY,
+    partition_name VARCHAR(63) NOT NULL UNIQUE,
+    range_start TIMESTAMP WITH TIME ZONE,                        -- NULL : données antérieures au partitionnement
+    range_end TIMESTAMP WITH TIME ZONE NOT NULL,
+    row_count BIGINT NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    checksum VARCHAR(64) NOT NULL,                               -- SHA-256 du fichier
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Exécutions de réconciliation
+CREATE TABLE IF NOT EXISTS reconciliation_runs (
+    id UUID PRIMARY KEY,
+    mode VARCHAR(20) NOT NULL,                                   -- 'FULL' ou 'INCREMENTAL'
+    repair BOOLEAN NOT NULL,
+    status VARCHAR(20) NOT NULL,                                 -- 'RUNNING', 'COMPLETED' ou 'FAILED'
+    since_cutoff TIMESTAMP WITH TIME ZONE,
+    cutoff TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    wallets_checked BIGINT,
+    transactions_folded BIGINT,
+    drift_count BIGINT,
+    repaired_count BIGINT,
+    error_message VARCHAR(500)
+);
+
+-- Écarts constatés
+CREATE TABLE IF NOT EXISTS wallet_drifts (
+    id UUID PRIMARY KEY,
+    run_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    wallet_balance INTEGER,                                      -- NULL si le wallet n'existe pas
+    wallet_total_earned INTEGER,
+    wallet_total_spent INTEGER,
+    expected_balance BIGINT NOT NULL,
+    expected_total_earned BIGINT NOT NULL,
+    expected_total_spent BIGINT NOT NULL,
+    repaired BOOLEAN NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_wallet_drifts_run_id ON wallet_drifts(run_id);
+-- Replis par plage de user_id : index couvrant pour l'agrégat du ledger
+CREATE INDEX IF NOT EXISTS idx_point_transactions_user_type ON point_transactions(user_id, transaction_type, created_at) INCLUDE (points);
+
+-- Statistiques cumulées par utilisateur, type de transaction et code de raison
+-- (mises à jour dans la même transaction que chaque insertion dans point_transactions)
+CREATE TABLE IF NOT EXISTS user_point_stats (
+    user_id UUID NOT NULL,
+    transaction_type VARCHAR(20) NOT NULL,                       -- 'CREDIT' ou 'DEBIT'
+    reason_code VARCHAR(50) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    points BIGINT NOT NULL,
+    last_transaction_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (user_id, transaction_type, reason_code)
+);
+
+-- Initialisation depuis l'historique existant (uniquement tant que la table est vide)
+INSERT INTO user_point_stats (user_id, transaction_type, reason_code, transaction_count, points, last_transaction_at)
+SELECT user_id, transaction_type, reason_code, COUNT(*), SUM(points), MAX(created_at)
+FROM point_transactions
+WHERE NOT EXISTS (SELECT 1 FROM user_point_stats)
+GROUP BY user_id, transaction_type, reason_code;
+
+-- Nombre d'utilisateurs par niveau, partagé entre les instances
+-- (initialisé au démarrage depuis wallets, puis mis à jour par écarts)
+CREATE TABLE IF NOT EXISTS level_histogram (
+    level INTEGER PRIMARY KEY,
+    user_count BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE
+);
+
+-- Compteurs des badges par utilisateur (mis à jour dans la même transaction que le ledger)
+CREATE TABLE IF NOT EXISTS achievement_progress (
+    user_id UUID NOT NULL,
+    counter_code VARCHAR(50) NOT NULL,                           -- Ex: 'VALIDATED_REPORTS'
+    progress BIGINT NOT NULL,                                    -- Nombre de transactions ou série en cours
+    last_activity_day DATE,                                      -- Séries de jours consécutifs uniquement
+    updated_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (user_id, counter_code)
+);
+
+-- Initialisation des compteurs depuis l'historique existant (uniquement tant que la table est vide) ;
+-- les seuils déjà dépassés ne donnent pas de badge rétroactif
+INSERT INTO achievement_progress (user_id, counter_code, progress, updated_at)
+SELECT user_id, 'VALIDATED_REPORTS', COUNT(*), MAX(created_at)
+FROM point_transactions
+WHERE reason_code = 'REPORT_VALIDATED' AND NOT EXISTS (SELECT 1 FROM achievement_progress)
+GROUP BY user_id;
+
+-- Badges obtenus
+CREATE TABLE IF NOT EXISTS user_badges (
+    user_id UUID NOT NULL,
+    badge VARCHAR(50) NOT NULL,
+    earned_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (user_id, badge)
+);
+
+-- Jours d'activité par utilisateur (un bit par jour UTC avec au moins un crédit, blocs de 64 jours)
+CREATE TABLE IF NOT EXISTS user_activity (
+    ordinal INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, -- Numéro de l'utilisateur dans activity_days
+    user_id UUID NOT NULL UNIQUE,
+    days BYTEA NOT NULL,
+    active_days INTEGER NOT NULL,
+    last_active_day DATE,
+    updated_at TIMESTAMP WITH TIME ZONE
+);
+
+-- Utilisateurs actifs par jour (bitmap compressé des numéros d'utilisateur)
+-- (reconstruits depuis le ledger jusqu'au bout une fois, puis écrits par lots)
+CREATE TABLE IF NOT EXISTS activity_days (
+    activity_day DATE PRIMARY KEY,
+    user_ordinals BYTEA NOT NULL,
+    user_count BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE
+);
+
+-- Avancement de la reconstruction des jours d'activité depuis le ledger (une seule ligne, id = 1) ;
+-- reprise après le dernier utilisateur écrit tant que completed_at est nul
+CREATE TABLE IF NOT EXISTS activity_backfill (
+    id INTEGER PRIMARY KEY,
+    last_user_id UUID,
+    completed_at TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE
+);
+
+-- Indicateurs globaux par minute et par instance (additionnés entre instances à la lecture)
+CREATE TABLE IF NOT EXISTS platform_counters (
+    bucket_minute BIGINT NOT NULL,                               -- Minutes depuis l'epoch (UTC)
+    metric VARCHAR(40) NOT NULL,                                 -- Ex: 'POINTS_EARNED', 'WELCOME_BONUSES'
+    instance_id UUID NOT NULL,
+    counter_value BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (bucket_minute, metric, instance_id)
+);
+
+-- Catalogue des récompenses échangeables contre des points
+CREATE TABLE IF NOT EXISTS rewards (
+    id UUID PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    cost INTEGER NOT NULL CHECK (cost > 0),
+    total_stock INTEGER NOT NULL,
+    available_stock INTEGER NOT NULL CHECK (available_stock >= 0), -- Unités pas encore attribuées à une instance
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE
+);
+
+-- Blocs de stock prélevés par les instances (réservations décomptées en mémoire)
+CREATE TABLE IF NOT EXISTS reward_stock_leases (
+    id UUID PRIMARY KEY,
+    reward_id UUID NOT NULL,
+    instance_id UUID NOT NULL,
+    quantity INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,                                 -- 'OPEN' ou 'SETTLED'
+    returned_quantity INTEGER,                                   -- Unités rendues au stock à la clôture
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    settled_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_reward_stock_leases_status_expires ON reward_stock_leases(status, expires_at);
+
+-- Réservations et échanges de récompenses
+CREATE TABLE IF NOT EXISTS reward_redemptions (
+    id UUID PRIMARY KEY,
+    reward_id UUID NOT NULL,
+    lease_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    points INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,                                 -- 'RESERVED', 'CONFIRMED', 'RELEASED', 'EXPIRED'
+    transaction_id UUID,                                         -- Débit de la confirmation
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    settled_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS idx_reward_redemptions_lease_status ON reward_redemptions(lease_id, status);
+CREATE INDEX IF NOT EXISTS idx_reward_redemptions_status_expires ON reward_redemptions(status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_reward_redemptions_user_id ON reward_redemptions(user_id);
@@ -0,0 +1,126 @@
+package com.medina.heritage.gamification.config;
+
+import com.medina.heritage.gamification.service.ReadYourWritesGuard;
+import com.medina.heritage.gamification.service.ReplicaLagMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private ReadYourWritesGuard readYourWritesGuard;
+    private SimpleMeterRegistry meterRegistry;
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        readYourWritesGuard = new ReadYourWritesGuard(true, true, 5, 100);
+        meterRegistry = new SimpleMeterRegistry();
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replica, lagMonitor, readYourWritesGuard, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesGuard.clearCurrentUser();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private static void beginReadOnlyTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("gamification.datasource.read.routes").tag("target", target).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should send writes and accesses outside transactions to the primary")
+    void shouldRouteWritesToPrimary() throws Exception {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When / Then
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(replica, lagMonitor);
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica while its lag is acceptable")
+    void shouldRouteReadOnlyTransactionsToReplica() throws Exception {
+        // Given
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        beginReadOnlyTransaction();
+
+        // When / Then
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(reads("replica")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags behind")
+    void shouldFallBackWhenReplicaLags() throws Exception {
+        // Given
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        beginReadOnlyTransaction();
+
+        // When / Then
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(reads("primary")).isEqualTo(1);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    @DisplayName("Should keep a user who just wrote on the primary")
+    void shouldPinRecentWriterToPrimary() throws Exception {
+        // Given
+        UUID writer = UUID.randomUUID();
+        readYourWritesGuard.pin(List.of(writer));
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        beginReadOnlyTransaction();
+
+        // When / Then
+        ReadYourWritesGuard.setCurrentUser(writer);
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        ReadYourWritesGuard.setCurrentUser(UUID.randomUUID());
+        assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+}
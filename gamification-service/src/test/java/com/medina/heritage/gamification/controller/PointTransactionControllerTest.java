@@ -1,6 +1,7 @@
 package com.medina.heritage.gamification.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medina.heritage.gamification.dto.response.PointTransactionPage;
 import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
 import com.medina.heritage.gamification.enums.TransactionType;
 import com.medina.heritage.gamification.service.PointTransactionService;
@@ -69,16 +70,35 @@ class PointTransactionControllerTest {
             // Given
             List<PointTransactionResponse> transactions = Arrays.asList(testTransactionResponse);
 
-            when(transactionService.getTransactionsByUser(testUserId))
-                    .thenReturn(transactions);
+            when(transactionService.getTransactionsByUser(testUserId, null, 50))
+                    .thenReturn(new PointTransactionPage(transactions, null));
 
             // When/Then
             mockMvc.perform(get("/api/transactions/user/{userId}", testUserId))
                     .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(PointTransactionController.NEXT_CURSOR_HEADER))
                     .andExpect(jsonPath("$.success").value(true))
                     .andExpect(jsonPath("$.data").isArray())
                     .andExpect(jsonPath("$.data[0].points").value(100));
         }
+
+        @Test
+        @DisplayName("Should pass cursor and size and return next cursor header")
+        void shouldReturnNextCursorHeader() throws Exception {
+            // Given
+            List<PointTransactionResponse> transactions = Arrays.asList(testTransactionResponse);
+
+            when(transactionService.getTransactionsByUser(testUserId, "abc", 1))
+                    .thenReturn(new PointTransactionPage(transactions, "def"));
+
+            // When/Then
+            mockMvc.perform(get("/api/transactions/user/{userId}", testUserId)
+                            .param("cursor", "abc")
+                            .param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(PointTransactionController.NEXT_CURSOR_HEADER, "def"))
+                    .andExpect(jsonPath("$.data.length()").value(1));
+        }
     }
 
     @Nested
@@ -91,8 +111,8 @@ class PointTransactionControllerTest {
             // Given
             List<PointTransactionResponse> transactions = Arrays.asList(testTransactionResponse);
 
-            when(transactionService.getTransactionsByUserAndType(testUserId, TransactionType.CREDIT))
-                    .thenReturn(transactions);
+            when(transactionService.getTransactionsByUserAndType(testUserId, TransactionType.CREDIT, null, 50))
+                    .thenReturn(new PointTransactionPage(transactions, null));
 
             // When/Then
             mockMvc.perform(get("/api/transactions/user/{userId}/type/{type}", testUserId, "CREDIT"))
@@ -133,8 +153,8 @@ class PointTransactionControllerTest {
             UUID referenceId = UUID.randomUUID();
             List<PointTransactionResponse> transactions = Arrays.asList(testTransactionResponse);
 
-            when(transactionService.getTransactionsByReference(referenceId, "REPORT"))
-                    .thenReturn(transactions);
+            when(transactionService.getTransactionsByReference(referenceId, "REPORT", null, 50))
+                    .thenReturn(new PointTransactionPage(transactions, null));
 
             // When/Then
             mockMvc.perform(get("/api/transactions/reference/{referenceType}/{referenceId}", 
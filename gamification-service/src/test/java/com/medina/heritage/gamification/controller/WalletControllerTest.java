@@ -3,13 +3,23 @@ package com.medina.heritage.gamification.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medina.heritage.gamification.dto.request.AddPointsRequest;
 import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.dto.response.BadgeResponse;
 import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
+import com.medina.heritage.gamification.dto.response.ReasonCodeStatsResponse;
+import com.medina.heritage.gamification.dto.response.UserActivityResponse;
+import com.medina.heritage.gamification.dto.response.UserPointStatsResponse;
 import com.medina.heritage.gamification.dto.response.WalletResponse;
+import com.medina.heritage.gamification.enums.Badge;
 import com.medina.heritage.gamification.enums.TransactionType;
 import com.medina.heritage.gamification.exception.GlobalExceptionHandler;
 import com.medina.heritage.gamification.exception.InsufficientBalanceException;
 import com.medina.heritage.gamification.exception.WalletNotFoundException;
+import com.medina.heritage.gamification.service.AchievementService;
+import com.medina.heritage.gamification.service.ActivityTracker;
+import com.medina.heritage.gamification.service.BulkAwardService;
+import com.medina.heritage.gamification.service.PointStatsService;
 import com.medina.heritage.gamification.service.WalletService;
+import com.medina.heritage.gamification.service.WalletWriteRouter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -22,7 +32,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -40,6 +52,21 @@ class WalletControllerTest {
     @Mock
     private WalletService walletService;
 
+    @Mock
+    private WalletWriteRouter walletWriteRouter;
+
+    @Mock
+    private BulkAwardService bulkAwardService;
+
+    @Mock
+    private PointStatsService pointStatsService;
+
+    @Mock
+    private AchievementService achievementService;
+
+    @Mock
+    private ActivityTracker activityTracker;
+
     @InjectMocks
     private WalletController walletController;
 
@@ -128,6 +155,75 @@ class WalletControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/wallets/{userId}/stats")
+    class GetStatsTests {
+
+        @Test
+        @DisplayName("Should return stats for user")
+        void shouldReturnStatsForUser() throws Exception {
+            // Given
+            UserPointStatsResponse stats = new UserPointStatsResponse(testUserId, 150L, 50L, 2L, 1L, List.of(
+                    new ReasonCodeStatsResponse("REPORT_VALIDATED", TransactionType.CREDIT, 2L, 150L, OffsetDateTime.now()),
+                    new ReasonCodeStatsResponse("REWARD_REDEMPTION", TransactionType.DEBIT, 1L, 50L, OffsetDateTime.now())));
+            when(pointStatsService.getStats(testUserId)).thenReturn(stats);
+
+            // When/Then
+            mockMvc.perform(get("/api/wallets/{userId}/stats", testUserId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.data.totalEarned").value(150))
+                    .andExpect(jsonPath("$.data.debitCount").value(1))
+                    .andExpect(jsonPath("$.data.byReasonCode.length()").value(2));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/wallets/{userId}/badges")
+    class GetBadgesTests {
+
+        @Test
+        @DisplayName("Should return badges earned by user")
+        void shouldReturnBadgesForUser() throws Exception {
+            // Given
+            when(achievementService.getBadges(testUserId)).thenReturn(List.of(
+                    new BadgeResponse(Badge.FIRST_REPORT, "Premier signalement", 50, OffsetDateTime.now())));
+
+            // When/Then
+            mockMvc.perform(get("/api/wallets/{userId}/badges", testUserId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.data.length()").value(1))
+                    .andExpect(jsonPath("$.data[0].badge").value("FIRST_REPORT"))
+                    .andExpect(jsonPath("$.data[0].points").value(50));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/wallets/{userId}/activity")
+    class GetActivityTests {
+
+        @Test
+        @DisplayName("Should return active days and streaks for the requested period")
+        void shouldReturnActivityForPeriod() throws Exception {
+            // Given
+            LocalDate from = LocalDate.of(2025, 1, 1);
+            LocalDate to = LocalDate.of(2025, 1, 31);
+            when(activityTracker.getUserActivity(testUserId, from, to))
+                    .thenReturn(new UserActivityResponse(testUserId, 12, 3, 7, LocalDate.of(2025, 1, 30)));
+
+            // When/Then
+            mockMvc.perform(get("/api/wallets/{userId}/activity", testUserId)
+                            .param("from", "2025-01-01")
+                            .param("to", "2025-01-31"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.data.activeDays").value(12))
+                    .andExpect(jsonPath("$.data.currentStreak").value(3))
+                    .andExpect(jsonPath("$.data.longestStreak").value(7));
+        }
+    }
+
     @Nested
     @DisplayName("POST /api/wallets/add-points")
     class AddPointsTests {
@@ -142,7 +238,7 @@ class WalletControllerTest {
             request.setReasonCode("REPORT_VALIDATED");
             request.setDescription("Test description");
 
-            when(walletService.addPoints(any(AddPointsRequest.class))).thenReturn(testTransactionResponse);
+            when(walletWriteRouter.addPoints(any(AddPointsRequest.class))).thenReturn(testTransactionResponse);
 
             // When/Then
             mockMvc.perform(post("/api/wallets/add-points")
@@ -203,7 +299,7 @@ class WalletControllerTest {
             debitResponse.setPoints(50);
             debitResponse.setTransactionType(TransactionType.DEBIT);
 
-            when(walletService.deductPoints(any(DeductPointsRequest.class))).thenReturn(debitResponse);
+            when(walletWriteRouter.deductPoints(any(DeductPointsRequest.class))).thenReturn(debitResponse);
 
             // When/Then
             mockMvc.perform(post("/api/wallets/deduct-points")
@@ -224,7 +320,7 @@ class WalletControllerTest {
             request.setPoints(1000);
             request.setReasonCode("REWARD_REDEMPTION");
 
-            when(walletService.deductPoints(any(DeductPointsRequest.class)))
+            when(walletWriteRouter.deductPoints(any(DeductPointsRequest.class)))
                     .thenThrow(new InsufficientBalanceException(1000, 100));
 
             // When/Then
@@ -244,7 +340,7 @@ class WalletControllerTest {
             request.setPoints(50);
             request.setReasonCode("REWARD_REDEMPTION");
 
-            when(walletService.deductPoints(any(DeductPointsRequest.class)))
+            when(walletWriteRouter.deductPoints(any(DeductPointsRequest.class)))
                     .thenThrow(new WalletNotFoundException(testUserId));
 
             // When/Then
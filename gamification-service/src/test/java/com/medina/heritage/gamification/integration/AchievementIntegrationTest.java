@@ -0,0 +1,109 @@
+package com.medina.heritage.gamification.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import com.medina.heritage.gamification.service.BulkAwardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the badge engine (enabled here, disabled in the other integration tests).
+ */
+@SpringBootTest(properties = "gamification.achievements.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class AchievementIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PointTransactionRepository transactionRepository;
+
+    @Autowired
+    private BulkAwardService bulkAwardService;
+
+    private ObjectMapper objectMapper;
+
+    private UUID testUserId;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        testUserId = UUID.randomUUID();
+    }
+
+    private void addPoints(int points, String reasonCode) throws Exception {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(testUserId);
+        request.setPoints(points);
+        request.setReasonCode(reasonCode);
+        mockMvc.perform(post("/api/wallets/add-points")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("Should award the first report badge and its points once")
+    void shouldAwardFirstReportBadgeOnce() throws Exception {
+        // When
+        addPoints(100, "REPORT_VALIDATED");
+        addPoints(100, "REPORT_VALIDATED");
+
+        // Then
+        assertThat(walletRepository.findByUserId(testUserId).orElseThrow().getBalance()).isEqualTo(250);
+        assertThat(transactionRepository.findByUserIdAndReasonCode(testUserId, "BADGE_EARNED"))
+                .singleElement()
+                .satisfies(transaction -> assertThat(transaction.getPoints()).isEqualTo(50));
+        mockMvc.perform(get("/api/wallets/{userId}/badges", testUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].badge").value("FIRST_REPORT"));
+    }
+
+    @Test
+    @DisplayName("Should award a level badge for a bulk award in the same transaction")
+    void shouldAwardLevelBadgeForBulkAward() throws Exception {
+        // Given
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(testUserId);
+        request.setPoints(4000);
+        request.setReasonCode("ADMIN_CREDIT");
+
+        // When
+        bulkAwardService.award(List.of(request));
+
+        // Then - 4000 points: level 5
+        assertThat(walletRepository.findByUserId(testUserId).orElseThrow().getBalance()).isEqualTo(4050);
+        assertThat(transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId))
+                .extracting(PointTransaction::getReasonCode)
+                .containsExactlyInAnyOrder("ADMIN_CREDIT", "BADGE_EARNED");
+        mockMvc.perform(get("/api/wallets/{userId}/badges", testUserId))
+                .andExpect(jsonPath("$.data[0].badge").value("LEVEL_5"));
+    }
+}
@@ -1,11 +1,18 @@
 package com.medina.heritage.gamification.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.medina.heritage.events.user.UserCreatedEvent;
+import com.medina.heritage.gamification.controller.PointTransactionController;
 import com.medina.heritage.gamification.dto.request.AddPointsRequest;
 import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.entity.PointTransaction;
 import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.messaging.GamificationEventConsumer;
 import com.medina.heritage.gamification.repository.PointTransactionRepository;
 import com.medina.heritage.gamification.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,8 +23,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,6 +58,9 @@ class GamificationIntegrationTest {
     @Autowired
     private PointTransactionRepository transactionRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private UUID testUserId;
 
     @BeforeEach
@@ -303,6 +319,54 @@ class GamificationIntegrationTest {
                     .andExpect(jsonPath("$.data.length()").value(2));
         }
 
+        @Test
+        @DisplayName("Should walk transaction history page by page")
+        void shouldWalkTransactionHistoryPageByPage() throws Exception {
+            // Given
+            AddPointsRequest request = new AddPointsRequest();
+            request.setUserId(testUserId);
+            request.setReasonCode("REPORT_VALIDATED");
+            for (int i = 1; i <= 5; i++) {
+                request.setPoints(i * 10);
+                mockMvc.perform(post("/api/wallets/add-points")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isCreated());
+            }
+
+            // When
+            Set<String> seen = new HashSet<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                MockHttpServletRequestBuilder page = get("/api/transactions/user/{userId}", testUserId)
+                        .param("size", "2");
+                if (cursor != null) {
+                    page.param("cursor", cursor);
+                }
+                MvcResult result = mockMvc.perform(page)
+                        .andExpect(status().isOk())
+                        .andReturn();
+                List<String> ids = JsonPath.read(result.getResponse().getContentAsString(), "$.data[*].id");
+                seen.addAll(ids);
+                cursor = result.getResponse().getHeader(PointTransactionController.NEXT_CURSOR_HEADER);
+                pages++;
+            } while (cursor != null);
+
+            // Then
+            assertThat(pages).isEqualTo(3);
+            assertThat(seen).hasSize(5);
+        }
+
+        @Test
+        @DisplayName("Should reject an invalid cursor")
+        void shouldRejectInvalidCursor() throws Exception {
+            // When/Then
+            mockMvc.perform(get("/api/transactions/user/{userId}", testUserId)
+                            .param("cursor", "not-a-cursor"))
+                    .andExpect(status().isBadRequest());
+        }
+
         @Test
         @DisplayName("Should return recent transactions for user")
         void shouldReturnRecentTransactionsForUser() throws Exception {
@@ -325,6 +389,179 @@ class GamificationIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("Bulk Points Integration Tests")
+    class BulkPointsIntegrationTests {
+
+        private AddPointsRequest award(UUID userId, int points, UUID referenceId) {
+            AddPointsRequest request = new AddPointsRequest();
+            request.setUserId(userId);
+            request.setPoints(points);
+            request.setReasonCode("EVENT_PARTICIPATION");
+            request.setReferenceId(referenceId);
+            request.setReferenceType("EVENT");
+            return request;
+        }
+
+        @Test
+        @DisplayName("Should award points in bulk across chunks with per-item outcomes")
+        void shouldAwardPointsInBulk() throws Exception {
+            // Given - 2500 awards over 250 users (several chunks), an already awarded reference,
+            // a reference repeated in the request and an invalid item
+            List<UUID> users = new ArrayList<>();
+            for (int i = 0; i < 250; i++) {
+                users.add(UUID.randomUUID());
+            }
+            createAndSaveWallet(users.get(0), 40);
+
+            UUID alreadyAwarded = UUID.randomUUID();
+            mockMvc.perform(post("/api/wallets/add-points")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(award(users.get(1), 10, alreadyAwarded))))
+                    .andExpect(status().isCreated());
+
+            List<AddPointsRequest> awards = new ArrayList<>();
+            for (int i = 0; i < 2500; i++) {
+                awards.add(award(users.get(i % users.size()), 10, UUID.randomUUID()));
+            }
+            awards.add(award(users.get(1), 10, alreadyAwarded));
+            awards.add(award(users.get(2), 10, awards.get(2).getReferenceId()));
+            awards.add(award(users.get(3), 0, UUID.randomUUID()));
+
+            // When/Then
+            mockMvc.perform(post("/api/wallets/add-points:bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(awards)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.success").value(true))
+                    .andExpect(jsonPath("$.data.total").value(2503))
+                    .andExpect(jsonPath("$.data.awarded").value(2500))
+                    .andExpect(jsonPath("$.data.duplicates").value(2))
+                    .andExpect(jsonPath("$.data.invalid").value(1))
+                    .andExpect(jsonPath("$.data.failed").value(0))
+                    .andExpect(jsonPath("$.data.results[0].status").value("AWARDED"))
+                    .andExpect(jsonPath("$.data.results[0].balanceAfter").value(50))
+                    .andExpect(jsonPath("$.data.results[2500].status").value("DUPLICATE"))
+                    .andExpect(jsonPath("$.data.results[2501].status").value("DUPLICATE"))
+                    .andExpect(jsonPath("$.data.results[2502].status").value("INVALID"));
+
+            // Verify database state: 10 awards of 10 points per user. The bulk path updates wallets through
+            // JDBC, so wallets loaded earlier in this test transaction are stale and must be detached first
+            entityManager.flush();
+            entityManager.clear();
+            assertThat(walletRepository.findByUserId(users.get(0)).orElseThrow().getBalance()).isEqualTo(140);
+            assertThat(walletRepository.findByUserId(users.get(1)).orElseThrow().getBalance()).isEqualTo(110);
+            assertThat(walletRepository.findByUserId(users.get(249)).orElseThrow().getTotalEarned()).isEqualTo(100);
+            assertThat(transactionRepository.findByUserIdOrderByCreatedAtDesc(users.get(5)))
+                    .extracting(PointTransaction::getBalanceAfter)
+                    .containsExactlyInAnyOrder(10, 20, 30, 40, 50, 60, 70, 80, 90, 100);
+        }
+
+        @Test
+        @DisplayName("Should return 400 for malformed bulk body")
+        void shouldReturn400ForMalformedBulkBody() throws Exception {
+            // When/Then
+            mockMvc.perform(post("/api/wallets/add-points:bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[{\"userId\": \"not-a-uuid\"}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.success").value(false));
+        }
+    }
+
+    @Nested
+    @DisplayName("User Created Batch Integration Tests")
+    class UserCreatedBatchIntegrationTests {
+
+        @Autowired
+        private GamificationEventConsumer eventConsumer;
+
+        private UserCreatedEvent userCreated(String userId) {
+            return UserCreatedEvent.builder().userId(userId).build();
+        }
+
+        @Test
+        @DisplayName("Should create wallets with a single welcome bonus for a redelivered batch")
+        void shouldAwardWelcomeBonusOncePerUser() {
+            // Given - a batch with a repeated user and an invalid id, delivered twice
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            List<UserCreatedEvent> batch = List.of(
+                    userCreated(first.toString()),
+                    userCreated(second.toString()),
+                    userCreated(first.toString()),
+                    userCreated("not-a-uuid"));
+
+            // When
+            eventConsumer.userCreatedConsumer().accept(batch);
+            eventConsumer.userCreatedConsumer().accept(batch);
+
+            // Then
+            assertThat(walletRepository.findByUserId(first).orElseThrow().getBalance()).isEqualTo(100);
+            assertThat(walletRepository.findByUserId(second).orElseThrow().getTotalEarned()).isEqualTo(100);
+            assertThat(transactionRepository.findByUserIdOrderByCreatedAtDesc(first))
+                    .singleElement()
+                    .satisfies(transaction -> assertThat(transaction.getReasonCode()).isEqualTo("WELCOME_BONUS"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Stats Integration Tests")
+    class StatsIntegrationTests {
+
+        @Test
+        @DisplayName("Should maintain stats per reason code with each ledger write")
+        void shouldMaintainStatsPerReasonCode() throws Exception {
+            // Given
+            AddPointsRequest request = new AddPointsRequest();
+            request.setUserId(testUserId);
+            for (int points : new int[] {100, 50}) {
+                request.setPoints(points);
+                request.setReasonCode("REPORT_VALIDATED");
+                mockMvc.perform(post("/api/wallets/add-points")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isCreated());
+            }
+            request.setPoints(30);
+            request.setReasonCode("FIRST_REPORT");
+            mockMvc.perform(post("/api/wallets/add-points")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+
+            DeductPointsRequest deduct = new DeductPointsRequest();
+            deduct.setUserId(testUserId);
+            deduct.setPoints(40);
+            deduct.setReasonCode("REWARD_REDEMPTION");
+            mockMvc.perform(post("/api/wallets/deduct-points")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(deduct)))
+                    .andExpect(status().isCreated());
+
+            // When/Then
+            mockMvc.perform(get("/api/wallets/{userId}/stats", testUserId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.totalEarned").value(180))
+                    .andExpect(jsonPath("$.data.totalSpent").value(40))
+                    .andExpect(jsonPath("$.data.creditCount").value(3))
+                    .andExpect(jsonPath("$.data.debitCount").value(1))
+                    .andExpect(jsonPath("$.data.byReasonCode.length()").value(3))
+                    .andExpect(jsonPath("$.data.byReasonCode[?(@.reasonCode == 'REPORT_VALIDATED')].transactionCount").value(2))
+                    .andExpect(jsonPath("$.data.byReasonCode[?(@.reasonCode == 'REPORT_VALIDATED')].points").value(150));
+        }
+
+        @Test
+        @DisplayName("Should return empty stats for user without transactions")
+        void shouldReturnEmptyStats() throws Exception {
+            // When/Then
+            mockMvc.perform(get("/api/wallets/{userId}/stats", testUserId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.totalEarned").value(0))
+                    .andExpect(jsonPath("$.data.byReasonCode").isEmpty());
+        }
+    }
+
     @Nested
     @DisplayName("Validation Integration Tests")
     class ValidationIntegrationTests {
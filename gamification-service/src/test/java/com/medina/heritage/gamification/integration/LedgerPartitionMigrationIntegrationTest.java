@@ -0,0 +1,96 @@
+package com.medina.heritage.gamification.integration;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository.Partition;
+import com.medina.heritage.gamification.service.LedgerPartitionService;
+import com.medina.heritage.gamification.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Converts a populated ledger to monthly partitions on a real PostgreSQL (Testcontainers, own database so the
+ * other stress runs keep an unpartitioned ledger). Excluded from the default build, run with {@code mvn -Pstress test}.
+ */
+@Tag("stress")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:tc:postgresql:16-alpine:///gamification_partitioning",
+        "gamification.ledger.partitioning.enabled=true"})
+@ActiveProfiles("stress")
+class LedgerPartitionMigrationIntegrationTest {
+
+    @Autowired
+    private LedgerPartitionService partitionService;
+
+    @Autowired
+    private LedgerPartitionRepository partitionRepository;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ledgerRows() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM point_transactions", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private void insertCredit(UUID userId, YearMonth month) {
+        jdbcTemplate.update("INSERT INTO point_transactions (id, user_id, points, transaction_type, reason_code, " +
+                        "balance_after, created_at) VALUES (?, ?, 10, 'CREDIT', 'STRESS_TEST', 10, ?)",
+                UUID.randomUUID(), userId,
+                Timestamp.from(LedgerPartitionRepository.monthStart(month).plusDays(1).toInstant()));
+    }
+
+    @Test
+    @DisplayName("Should convert the ledger only in the migration step, keeping every row and routing new ones to monthly partitions")
+    void shouldConvertPopulatedLedger() {
+        // Given - the application started: the ledger is still a plain table
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        UUID userId = UUID.randomUUID();
+        walletService.getOrCreateWallet(userId);
+        insertCredit(userId, current.minusMonths(2));
+        insertCredit(userId, current);
+        walletService.addPoints(new AddPointsRequest(userId, 25, "STRESS_TEST", "Before migration",
+                UUID.randomUUID(), "STRESS", null));
+        long rowsBefore = ledgerRows();
+        assertThat(partitionService.isPartitioned()).isFalse();
+
+        // When
+        boolean converted = partitionService.migrate();
+        boolean convertedAgain = partitionService.migrate();
+
+        // Then
+        assertThat(converted).isTrue();
+        assertThat(convertedAgain).isFalse();
+        assertThat(partitionService.isPartitioned()).isTrue();
+        assertThat(ledgerRows()).isEqualTo(rowsBefore);
+        List<String> names = partitionRepository.listPartitions().stream().map(Partition::name).toList();
+        String legacy = String.format("point_transactions_before_%04d_%02d",
+                current.plusMonths(1).getYear(), current.plusMonths(1).getMonthValue());
+        assertThat(names).contains(legacy, LedgerPartitionRepository.monthlyName(current.plusMonths(3)));
+        assertThat(partitionRepository.countRows(legacy)).isEqualTo(rowsBefore);
+
+        // New credits are written through the partitioned table
+        walletService.addPoints(new AddPointsRequest(userId, 25, "STRESS_TEST", "After migration",
+                UUID.randomUUID(), "STRESS", null));
+        insertCredit(userId, current.plusMonths(2));
+        assertThat(ledgerRows()).isEqualTo(rowsBefore + 2);
+        assertThat(partitionRepository.countRows(LedgerPartitionRepository.monthlyName(current.plusMonths(2)))).isEqualTo(1);
+        assertThat(partitionRepository.countRows(LedgerPartitionRepository.DEFAULT_PARTITION)).isZero();
+    }
+}
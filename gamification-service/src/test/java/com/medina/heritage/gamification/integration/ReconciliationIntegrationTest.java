@@ -0,0 +1,169 @@
+package com.medina.heritage.gamification.integration;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.entity.ReconciliationRun;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.entity.WalletDrift;
+import com.medina.heritage.gamification.enums.ReconciliationMode;
+import com.medina.heritage.gamification.enums.ReconciliationStatus;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import com.medina.heritage.gamification.service.ReconciliationService;
+import com.medina.heritage.gamification.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for wallet / ledger reconciliation.
+ * Not transactional: the reconciliation reads committed data from its own transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReconciliationIntegrationTest {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PointTransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID testUserId;
+
+    @BeforeEach
+    void setUp() {
+        // No settle lag so that the transactions written by the test are folded into the snapshots
+        ReflectionTestUtils.setField(reconciliationService, "settleLagSeconds", 0L);
+        testUserId = UUID.randomUUID();
+        addPoints(300);
+        addPoints(200);
+        DeductPointsRequest deduct = new DeductPointsRequest();
+        deduct.setUserId(testUserId);
+        deduct.setPoints(120);
+        deduct.setReasonCode("REWARD_REDEMPTION");
+        walletService.deductPoints(deduct);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(reconciliationService, "settleLagSeconds", 600L);
+        transactionRepository.deleteAll(transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId));
+        walletRepository.deleteById(testUserId);
+        jdbcTemplate.update("DELETE FROM wallet_snapshots WHERE user_id = ?", testUserId);
+        jdbcTemplate.update("DELETE FROM archived_ledger_totals WHERE user_id = ?", testUserId);
+    }
+
+    @Test
+    @DisplayName("Should report then repair a corrupted wallet")
+    void shouldReportThenRepairDrift() {
+        // Given
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 50 WHERE user_id = ?", testUserId);
+
+        // When
+        ReconciliationRun report = reconciliationService.runNow(ReconciliationMode.FULL, false);
+
+        // Then
+        assertThat(report.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+        WalletDrift drift = findDrift(report);
+        assertThat(drift.getWalletBalance()).isEqualTo(430);
+        assertThat(drift.getExpectedBalance()).isEqualTo(380L);
+        assertThat(drift.getExpectedTotalEarned()).isEqualTo(500L);
+        assertThat(drift.getExpectedTotalSpent()).isEqualTo(120L);
+        assertThat(drift.getRepaired()).isFalse();
+        assertThat(walletRepository.findById(testUserId)).map(Wallet::getBalance).contains(430);
+
+        // When
+        ReconciliationRun repair = reconciliationService.runNow(ReconciliationMode.FULL, true);
+
+        // Then
+        assertThat(repair.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+        assertThat(findDrift(repair).getRepaired()).isTrue();
+        assertThat(walletRepository.findById(testUserId)).map(Wallet::getBalance).contains(380);
+    }
+
+    @Test
+    @DisplayName("Should fold only recent transactions in incremental mode")
+    void shouldReconcileIncrementally() {
+        // Given
+        ReconciliationRun full = reconciliationService.runNow(ReconciliationMode.FULL, false);
+        assertThat(hasDrift(full)).isFalse();
+        addPoints(75);
+
+        // When
+        ReconciliationRun incremental = reconciliationService.runNow(ReconciliationMode.INCREMENTAL, false);
+
+        // Then
+        assertThat(incremental.getMode()).isEqualTo(ReconciliationMode.INCREMENTAL);
+        assertThat(incremental.getSinceCutoff()).isEqualTo(full.getCutoff());
+        assertThat(incremental.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+        assertThat(hasDrift(incremental)).isFalse();
+        Long snapshotEarned = jdbcTemplate.queryForObject(
+                "SELECT total_earned FROM wallet_snapshots WHERE user_id = ?", Long.class, testUserId);
+        assertThat(snapshotEarned).isEqualTo(575L);
+    }
+
+    @Test
+    @DisplayName("Should start a full replay from the totals of the archived ledger partitions")
+    void shouldReplayFromArchivedTotals() {
+        // Given - 1000 points earned in two transactions of an archived month, already in the wallet
+        jdbcTemplate.update("INSERT INTO archived_ledger_totals (user_id, total_earned, total_spent, transaction_count, " +
+                "archived_until) VALUES (?, 1000, 0, 2, CURRENT_TIMESTAMP)", testUserId);
+        jdbcTemplate.update("UPDATE wallets SET balance = balance + 1000, total_earned = total_earned + 1000 " +
+                "WHERE user_id = ?", testUserId);
+
+        // When
+        ReconciliationRun full = reconciliationService.runNow(ReconciliationMode.FULL, false);
+
+        // Then
+        assertThat(full.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+        assertThat(hasDrift(full)).isFalse();
+        Long snapshotEarned = jdbcTemplate.queryForObject(
+                "SELECT total_earned FROM wallet_snapshots WHERE user_id = ?", Long.class, testUserId);
+        Long snapshotCount = jdbcTemplate.queryForObject(
+                "SELECT transaction_count FROM wallet_snapshots WHERE user_id = ?", Long.class, testUserId);
+        assertThat(snapshotEarned).isEqualTo(1500L);
+        assertThat(snapshotCount).isEqualTo(5L);
+    }
+
+    private void addPoints(int points) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(testUserId);
+        request.setPoints(points);
+        request.setReasonCode("TEST_POINTS");
+        walletService.addPoints(request);
+    }
+
+    private WalletDrift findDrift(ReconciliationRun run) {
+        List<WalletDrift> drifts = reconciliationService.getDrifts(run.getId());
+        return drifts.stream()
+                .filter(drift -> drift.getUserId().equals(testUserId))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No drift reported for " + testUserId));
+    }
+
+    private boolean hasDrift(ReconciliationRun run) {
+        return reconciliationService.getDrifts(run.getId()).stream()
+                .anyMatch(drift -> drift.getUserId().equals(testUserId));
+    }
+}
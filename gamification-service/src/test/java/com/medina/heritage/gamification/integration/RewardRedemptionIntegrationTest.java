@@ -0,0 +1,201 @@
+package com.medina.heritage.gamification.integration;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.request.CreateRewardRequest;
+import com.medina.heritage.gamification.dto.response.RedemptionResponse;
+import com.medina.heritage.gamification.entity.RewardRedemption;
+import com.medina.heritage.gamification.enums.RedemptionStatus;
+import com.medina.heritage.gamification.enums.StockLeaseStatus;
+import com.medina.heritage.gamification.exception.InsufficientBalanceException;
+import com.medina.heritage.gamification.exception.OutOfStockException;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.RewardRedemptionRepository;
+import com.medina.heritage.gamification.repository.RewardRepository;
+import com.medina.heritage.gamification.repository.StockLeaseRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import com.medina.heritage.gamification.service.RewardService;
+import com.medina.heritage.gamification.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrency tests for reward redemptions: stock leased in small blocks, many buyers at once.
+ * Not transactional, each call commits its own transaction.
+ */
+@SpringBootTest(properties = "gamification.rewards.lease-size=4")
+@ActiveProfiles("test")
+class RewardRedemptionIntegrationTest {
+
+    private static final int STOCK = 20;
+    private static final int BUYERS = 48;
+    private static final int THREADS = 16;
+    private static final int COST = 60;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private RewardRepository rewardRepository;
+
+    @Autowired
+    private StockLeaseRepository leaseRepository;
+
+    @Autowired
+    private RewardRedemptionRepository redemptionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PointTransactionRepository transactionRepository;
+
+    private UUID rewardId;
+    private List<UUID> buyers;
+
+    @BeforeEach
+    void setUp() {
+        rewardId = rewardService.createReward(new CreateRewardRequest("Visite guidée de la médina", null, COST, STOCK)).getId();
+        buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.add(UUID.randomUUID());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        rewardService.shutdown();
+        redemptionRepository.deleteAll(redemptionRepository.findAll().stream()
+                .filter(redemption -> rewardId.equals(redemption.getRewardId()))
+                .toList());
+        leaseRepository.deleteAll(leaseRepository.findAll().stream()
+                .filter(lease -> rewardId.equals(lease.getRewardId()))
+                .toList());
+        rewardRepository.deleteById(rewardId);
+        for (UUID userId : buyers) {
+            transactionRepository.deleteAll(transactionRepository.findByUserIdOrderByCreatedAtDesc(userId));
+            walletRepository.deleteById(userId);
+        }
+    }
+
+    private void fund(UUID userId, int points) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(userId);
+        request.setPoints(points);
+        request.setReasonCode("ADMIN_CREDIT");
+        walletService.addPoints(request);
+    }
+
+    @Test
+    @DisplayName("Should never sell more units than the stock under concurrent redemptions")
+    void shouldNeverOversell() throws Exception {
+        // Given - every other buyer cannot afford the reward: its reservation is released
+        Set<UUID> funded = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < BUYERS; i++) {
+            if (i % 2 == 0) {
+                fund(buyers.get(i), 100);
+                funded.add(buyers.get(i));
+            } else {
+                walletService.getOrCreateWallet(buyers.get(i));
+            }
+        }
+        AtomicInteger redeemed = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        Set<UUID> winners = ConcurrentHashMap.newKeySet();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (UUID buyer : buyers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        RedemptionResponse response = rewardService.redeem(buyer, rewardId);
+                        assertThat(response.getStatus()).isEqualTo(RedemptionStatus.CONFIRMED);
+                        winners.add(buyer);
+                        redeemed.incrementAndGet();
+                    } catch (OutOfStockException e) {
+                        outOfStock.incrementAndGet();
+                    } catch (InsufficientBalanceException e) {
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        rewardService.shutdown();
+
+        // Then - sold units and units back in stock add up to the stock, never more
+        assertThat(redeemed.get() + outOfStock.get() + refused.get()).isEqualTo(BUYERS);
+        assertThat(redeemed.get()).isPositive().isLessThanOrEqualTo(STOCK);
+        assertThat(funded).containsAll(winners);
+        assertThat(rewardRepository.findById(rewardId).orElseThrow().getAvailableStock())
+                .isEqualTo(STOCK - redeemed.get());
+        List<RewardRedemption> redemptions = redemptionRepository.findAll().stream()
+                .filter(redemption -> rewardId.equals(redemption.getRewardId()))
+                .toList();
+        assertThat(redemptions).filteredOn(redemption -> redemption.getStatus() == RedemptionStatus.CONFIRMED)
+                .hasSize(redeemed.get())
+                .allSatisfy(redemption -> assertThat(redemption.getTransactionId()).isNotNull());
+        assertThat(redemptions).noneMatch(redemption -> redemption.getStatus() == RedemptionStatus.RESERVED);
+        assertThat(leaseRepository.findAll()).filteredOn(lease -> rewardId.equals(lease.getRewardId()))
+                .allMatch(lease -> lease.getStatus() == StockLeaseStatus.SETTLED);
+        for (UUID winner : winners) {
+            assertThat(walletRepository.findByUserId(winner).orElseThrow().getBalance()).isEqualTo(100 - COST);
+        }
+    }
+
+    @Test
+    @DisplayName("Should give an expired reservation back to the stock")
+    void shouldReleaseExpiredReservation() {
+        // Given
+        UUID buyer = buyers.get(0);
+        fund(buyer, 100);
+        RedemptionResponse reservation = rewardService.reserve(buyer, rewardId);
+        RewardRedemption stored = redemptionRepository.findById(reservation.getId()).orElseThrow();
+        stored.setExpiresAt(OffsetDateTime.now().minusSeconds(1));
+        redemptionRepository.save(stored);
+
+        // When
+        rewardService.sweep();
+        rewardService.shutdown();
+
+        // Then
+        assertThat(rewardService.getRedemption(reservation.getId()).getStatus()).isEqualTo(RedemptionStatus.EXPIRED);
+        assertThatThrownBy(() -> rewardService.confirm(reservation.getId()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(rewardRepository.findById(rewardId).orElseThrow().getAvailableStock()).isEqualTo(STOCK);
+        assertThat(walletRepository.findByUserId(buyer).orElseThrow().getBalance()).isEqualTo(100);
+    }
+}
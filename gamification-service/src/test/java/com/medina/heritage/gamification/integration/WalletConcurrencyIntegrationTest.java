@@ -0,0 +1,244 @@
+package com.medina.heritage.gamification.integration;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.dto.response.BulkAddPointsResponse;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.exception.DuplicateTransactionException;
+import com.medina.heritage.gamification.exception.InsufficientBalanceException;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import com.medina.heritage.gamification.service.BulkAwardService;
+import com.medina.heritage.gamification.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency tests for atomic wallet updates: 64 writers on the same wallet.
+ * Not transactional, each call commits its own transaction.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WalletConcurrencyIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletConcurrencyIntegrationTest.class);
+
+    private static final int WRITERS = 64;
+    private static final int OPERATIONS_PER_WRITER = 25;
+    private static final int POINTS = 10;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private BulkAwardService bulkAwardService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PointTransactionRepository transactionRepository;
+
+    private UUID testUserId;
+
+    @BeforeEach
+    void setUp() {
+        testUserId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll(transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId));
+        walletRepository.deleteById(testUserId);
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent credits on the same wallet")
+    void shouldNotLoseConcurrentCredits() throws Exception {
+        // Given
+        walletService.getOrCreateWallet(testUserId);
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(() -> {
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    AddPointsRequest request = new AddPointsRequest();
+                    request.setUserId(testUserId);
+                    request.setPoints(POINTS);
+                    request.setReasonCode("STRESS_TEST");
+                    walletService.addPoints(request);
+                }
+                return null;
+            });
+        }
+
+        // When
+        long elapsedNanos = runConcurrently(writers);
+
+        // Then
+        int operations = WRITERS * OPERATIONS_PER_WRITER;
+        log.info("{} concurrent credits by {} writers in {} ms ({} ops/s)", operations, WRITERS,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), operations * 1_000_000_000L / Math.max(1, elapsedNanos));
+
+        Wallet wallet = walletRepository.findByUserId(testUserId).orElseThrow();
+        assertThat(wallet.getBalance()).isEqualTo(operations * POINTS);
+        assertThat(wallet.getTotalEarned()).isEqualTo(operations * POINTS);
+        assertThat(wallet.getLevel()).isEqualTo(operations * POINTS / 1000 + 1);
+
+        // Every credit observed a distinct resulting balance: no lost update
+        List<PointTransaction> ledger = transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId);
+        assertThat(ledger).hasSize(operations);
+        assertThat(ledger).extracting(PointTransaction::getBalanceAfter).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should never overdraw under concurrent debits")
+    void shouldNeverOverdrawUnderConcurrentDebits() throws Exception {
+        // Given - enough points for exactly half of the debits
+        int operations = WRITERS * OPERATIONS_PER_WRITER;
+        AddPointsRequest seed = new AddPointsRequest();
+        seed.setUserId(testUserId);
+        seed.setPoints(operations / 2 * POINTS);
+        seed.setReasonCode("STRESS_TEST");
+        walletService.addPoints(seed);
+
+        AtomicInteger rejected = new AtomicInteger();
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(() -> {
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    DeductPointsRequest request = new DeductPointsRequest();
+                    request.setUserId(testUserId);
+                    request.setPoints(POINTS);
+                    request.setReasonCode("STRESS_TEST");
+                    try {
+                        walletService.deductPoints(request);
+                    } catch (InsufficientBalanceException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        // When
+        long elapsedNanos = runConcurrently(writers);
+
+        // Then
+        log.info("{} concurrent debits by {} writers in {} ms ({} ops/s)", operations, WRITERS,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), operations * 1_000_000_000L / Math.max(1, elapsedNanos));
+
+        Wallet wallet = walletRepository.findByUserId(testUserId).orElseThrow();
+        assertThat(wallet.getBalance()).isZero();
+        assertThat(wallet.getTotalSpent()).isEqualTo(operations / 2 * POINTS);
+        assertThat(rejected.get()).isEqualTo(operations - operations / 2);
+    }
+
+    @Test
+    @DisplayName("Should accept a reference only once under concurrent replays")
+    void shouldAcceptReferenceOnceUnderConcurrentReplays() throws Exception {
+        // Given - every writer replays the same referenced credit
+        walletService.getOrCreateWallet(testUserId);
+        UUID referenceId = UUID.randomUUID();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(() -> {
+                AddPointsRequest request = new AddPointsRequest();
+                request.setUserId(testUserId);
+                request.setPoints(POINTS);
+                request.setReasonCode("STRESS_TEST");
+                request.setReferenceId(referenceId);
+                request.setReferenceType("EVENT");
+                try {
+                    walletService.addPoints(request);
+                } catch (DuplicateTransactionException e) {
+                    duplicates.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        // When
+        runConcurrently(writers);
+
+        // Then
+        assertThat(duplicates.get()).isEqualTo(WRITERS - 1);
+        assertThat(walletRepository.findByUserId(testUserId).orElseThrow().getBalance()).isEqualTo(POINTS);
+        assertThat(transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should award a reference only once under concurrent bulk replays")
+    void shouldAwardReferenceOnceUnderConcurrentBulkReplays() throws Exception {
+        // Given - every writer sends a bulk request with the same referenced award
+        walletService.getOrCreateWallet(testUserId);
+        UUID referenceId = UUID.randomUUID();
+        List<BulkAddPointsResponse> responses = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(() -> {
+                AddPointsRequest request = new AddPointsRequest();
+                request.setUserId(testUserId);
+                request.setPoints(POINTS);
+                request.setReasonCode("STRESS_TEST");
+                request.setReferenceId(referenceId);
+                request.setReferenceType("EVENT");
+                responses.add(bulkAwardService.award(List.of(request)));
+                return null;
+            });
+        }
+
+        // When
+        runConcurrently(writers);
+
+        // Then
+        assertThat(responses.stream().mapToInt(BulkAddPointsResponse::getAwarded).sum()).isEqualTo(1);
+        assertThat(responses.stream().mapToInt(BulkAddPointsResponse::getDuplicates).sum()).isEqualTo(WRITERS - 1);
+        assertThat(walletRepository.findByUserId(testUserId).orElseThrow().getBalance()).isEqualTo(POINTS);
+        assertThat(transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId)).hasSize(1);
+    }
+
+    private long runConcurrently(List<Callable<Void>> writers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> writer : writers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return writer.call();
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - startNanos;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
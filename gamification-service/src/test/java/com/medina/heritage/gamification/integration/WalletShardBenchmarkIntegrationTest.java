@@ -0,0 +1,233 @@
+package com.medina.heritage.gamification.integration;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.exception.DuplicateTransactionException;
+import com.medina.heritage.gamification.exception.InsufficientBalanceException;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import com.medina.heritage.gamification.service.WalletService;
+import com.medina.heritage.gamification.service.WalletWriteRouter;
+import com.medina.heritage.gamification.stress.ZipfSampler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares plain transactional wallet updates with single-writer wallet shards under a skewed
+ * (Zipf) workload: a few hot wallets receive most of the writes.
+ * Not transactional, each call commits its own transaction. Excluded from the default build,
+ * run with {@code mvn -Pstress test}.
+ */
+@Tag("stress")
+@SpringBootTest(properties = "gamification.wallet-shards.enabled=true")
+@ActiveProfiles("test")
+class WalletShardBenchmarkIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletShardBenchmarkIntegrationTest.class);
+
+    private static final int WALLETS = 200;
+    private static final double ZIPF_EXPONENT = 1.2;
+    private static final int WRITERS = 32;
+    private static final int OPERATIONS_PER_WRITER = 40;
+    private static final int POINTS = 10;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletWriteRouter walletWriteRouter;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PointTransactionRepository transactionRepository;
+
+    private final List<UUID> users = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (UUID userId : users) {
+            transactionRepository.deleteAll(transactionRepository.findByUserIdOrderByCreatedAtDesc(userId));
+            walletRepository.deleteById(userId);
+        }
+        users.clear();
+    }
+
+    @Test
+    @DisplayName("Should keep wallets consistent with the ledger with and without shards under a Zipf workload")
+    void shouldCompareShardedAndPlainUpdates() throws Exception {
+        // Given
+        List<UUID> plainUsers = createWallets();
+        List<UUID> shardedUsers = createWallets();
+
+        // When
+        long plainNanos = runWorkload("plain", plainUsers, walletService::addPoints, walletService::deductPoints);
+        long shardedNanos = runWorkload("sharded", shardedUsers, walletWriteRouter::addPoints, walletWriteRouter::deductPoints);
+
+        // Then
+        log.info("Zipf({}) over {} wallets: plain {} ms, sharded {} ms", ZIPF_EXPONENT, WALLETS,
+                TimeUnit.NANOSECONDS.toMillis(plainNanos), TimeUnit.NANOSECONDS.toMillis(shardedNanos));
+        assertLedgerMatchesWallets(plainUsers);
+        assertLedgerMatchesWallets(shardedUsers);
+    }
+
+    @Test
+    @DisplayName("Should reject duplicates inside a group commit without failing the other commands")
+    void shouldIsolateDuplicatesInGroupCommit() throws Exception {
+        // Given - the same reference sent by every writer, plus one distinct credit per writer
+        UUID userId = newUser();
+        UUID referenceId = UUID.randomUUID();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(() -> {
+                AddPointsRequest referenced = credit(userId);
+                referenced.setReferenceId(referenceId);
+                referenced.setReferenceType("EVENT");
+                try {
+                    walletWriteRouter.addPoints(referenced);
+                } catch (DuplicateTransactionException e) {
+                    duplicates.incrementAndGet();
+                }
+                walletWriteRouter.addPoints(credit(userId));
+                return null;
+            });
+        }
+
+        // When
+        runConcurrently(writers);
+
+        // Then
+        assertThat(duplicates.get()).isEqualTo(WRITERS - 1);
+        assertThat(walletRepository.findByUserId(userId).orElseThrow().getBalance()).isEqualTo((WRITERS + 1) * POINTS);
+        assertLedgerMatchesWallets(List.of(userId));
+    }
+
+    private long runWorkload(String mode, List<UUID> targets,
+                             Consumer<AddPointsRequest> add, Consumer<DeductPointsRequest> deduct) throws Exception {
+        ZipfSampler sampler = new ZipfSampler(targets.size(), ZIPF_EXPONENT);
+        long[][] latencies = new long[WRITERS][OPERATIONS_PER_WRITER];
+        List<Callable<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(() -> {
+                Random random = new Random(writer);
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    UUID userId = targets.get(sampler.next(random));
+                    long start = System.nanoTime();
+                    if (random.nextInt(5) == 0) {
+                        DeductPointsRequest request = new DeductPointsRequest();
+                        request.setUserId(userId);
+                        request.setPoints(POINTS);
+                        request.setReasonCode("STRESS_TEST");
+                        try {
+                            deduct.accept(request);
+                        } catch (InsufficientBalanceException e) {
+                            // Attendu sur les wallets peu crédités
+                        }
+                    } else {
+                        add.accept(credit(userId));
+                    }
+                    latencies[writer][i] = System.nanoTime() - start;
+                }
+                return null;
+            });
+        }
+        long elapsedNanos = runConcurrently(writers);
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        int operations = all.length;
+        log.info("{}: {} operations by {} writers in {} ms ({} ops/s), latency p50={} µs p99={} µs", mode,
+                operations, WRITERS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                operations * 1_000_000_000L / Math.max(1, elapsedNanos),
+                all[operations / 2] / 1000, all[operations * 99 / 100] / 1000);
+        return elapsedNanos;
+    }
+
+    private void assertLedgerMatchesWallets(List<UUID> userIds) {
+        for (UUID userId : userIds) {
+            Wallet wallet = walletRepository.findByUserId(userId).orElseThrow();
+            List<PointTransaction> ledger = transactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+            int earned = ledger.stream().filter(t -> t.getTransactionType() == TransactionType.CREDIT)
+                    .mapToInt(PointTransaction::getPoints).sum();
+            int spent = ledger.stream().filter(t -> t.getTransactionType() == TransactionType.DEBIT)
+                    .mapToInt(PointTransaction::getPoints).sum();
+            assertThat(wallet.getBalance()).isGreaterThanOrEqualTo(0);
+            assertThat(wallet.getTotalEarned()).isEqualTo(earned);
+            assertThat(wallet.getTotalSpent()).isEqualTo(spent);
+            assertThat(wallet.getBalance()).isEqualTo(earned - spent);
+        }
+    }
+
+    private List<UUID> createWallets() {
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            created.add(newUser());
+        }
+        return created;
+    }
+
+    private UUID newUser() {
+        UUID userId = UUID.randomUUID();
+        walletService.getOrCreateWallet(userId);
+        users.add(userId);
+        return userId;
+    }
+
+    private static AddPointsRequest credit(UUID userId) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(userId);
+        request.setPoints(POINTS);
+        request.setReasonCode("STRESS_TEST");
+        return request;
+    }
+
+    private long runConcurrently(List<Callable<Void>> writers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> writer : writers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return writer.call();
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - startNanos;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
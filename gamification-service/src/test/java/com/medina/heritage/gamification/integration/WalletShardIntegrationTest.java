@@ -0,0 +1,153 @@
+package com.medina.heritage.gamification.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Wallet shards (group commit) through the REST API: a single shard so that concurrent commands share
+ * the same batch transaction. Bulk awards do not go through the shards: they commit in their own
+ * transactions, concurrently with the shard batches.
+ */
+@SpringBootTest(properties = {
+        "gamification.wallet-shards.enabled=true",
+        "gamification.wallet-shards.count=1",
+        "gamification.wallet-shards.max-batch=64"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WalletShardIntegrationTest {
+
+    private static final int REPLAYS = 16;
+    private static final int BULK_REPLAYS = 8;
+    private static final int OTHER_USERS = 16;
+    private static final int POINTS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PointTransactionRepository transactionRepository;
+
+    private final List<UUID> users = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (UUID userId : users) {
+            transactionRepository.deleteAll(transactionRepository.findByUserIdOrderByCreatedAtDesc(userId));
+            walletRepository.deleteById(userId);
+        }
+        users.clear();
+    }
+
+    private static String request(UUID userId, UUID referenceId) {
+        return String.format("{\"userId\":\"%s\",\"points\":%d,\"reasonCode\":\"STRESS_TEST\"," +
+                "\"referenceId\":\"%s\",\"referenceType\":\"EVENT\"}", userId, POINTS, referenceId);
+    }
+
+    private int addPoints(UUID userId, UUID referenceId) throws Exception {
+        return mockMvc.perform(post("/api/wallets/add-points")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request(userId, referenceId)))
+                .andReturn().getResponse().getStatus();
+    }
+
+    /**
+     * @return number of awarded items
+     */
+    private int addPointsBulk(UUID userId, UUID referenceId) throws Exception {
+        String response = mockMvc.perform(post("/api/wallets/add-points:bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + request(userId, referenceId) + "]"))
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.data.awarded");
+    }
+
+    @Test
+    @DisplayName("Should answer 409 to concurrent replays of a reference without rolling back the rest of the batch")
+    void shouldRefuseConcurrentDuplicatesInShardBatch() throws Exception {
+        // Given - replays of one referenced credit, through the shard and through bulk awards,
+        // mixed with credits of other users in the same shard
+        UUID userId = UUID.randomUUID();
+        users.add(userId);
+        UUID referenceId = UUID.randomUUID();
+        List<Callable<Integer>> replays = new ArrayList<>();
+        for (int i = 0; i < REPLAYS; i++) {
+            replays.add(() -> addPoints(userId, referenceId));
+        }
+        List<Callable<Integer>> bulkReplays = new ArrayList<>();
+        for (int i = 0; i < BULK_REPLAYS; i++) {
+            bulkReplays.add(() -> addPointsBulk(userId, referenceId));
+        }
+        List<Callable<Integer>> others = new ArrayList<>();
+        for (int i = 0; i < OTHER_USERS; i++) {
+            UUID otherUserId = UUID.randomUUID();
+            users.add(otherUserId);
+            others.add(() -> addPoints(otherUserId, UUID.randomUUID()));
+        }
+        List<Callable<Integer>> requests = new ArrayList<>(replays);
+        requests.addAll(others);
+        requests.addAll(bulkReplays);
+
+        // When
+        List<Integer> statuses = runConcurrently(requests);
+
+        // Then
+        List<Integer> replayStatuses = statuses.subList(0, REPLAYS);
+        int bulkAwarded = statuses.subList(REPLAYS + OTHER_USERS, statuses.size()).stream().mapToInt(Integer::intValue).sum();
+        assertThat(replayStatuses).isSubsetOf(201, 409);
+        assertThat(replayStatuses.stream().filter(status -> status == 201).count() + bulkAwarded).isEqualTo(1);
+        assertThat(statuses.subList(REPLAYS, REPLAYS + OTHER_USERS)).containsOnly(201);
+        assertThat(walletRepository.findByUserId(userId).orElseThrow().getBalance()).isEqualTo(POINTS);
+        assertThat(transactionRepository.findByUserIdOrderByCreatedAtDesc(userId)).hasSize(1);
+        for (UUID otherUserId : users.subList(1, users.size())) {
+            assertThat(walletRepository.findByUserId(otherUserId).orElseThrow().getBalance()).isEqualTo(POINTS);
+        }
+    }
+
+    private List<Integer> runConcurrently(List<Callable<Integer>> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> request : requests) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return request.call();
+                }));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(2, TimeUnit.MINUTES));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
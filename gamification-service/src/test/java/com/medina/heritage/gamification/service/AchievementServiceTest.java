@@ -0,0 +1,206 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.entity.AchievementProgress;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.enums.AchievementCounter;
+import com.medina.heritage.gamification.enums.Badge;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.AchievementProgressRepository;
+import com.medina.heritage.gamification.repository.PointsBatchRepository;
+import com.medina.heritage.gamification.repository.UserBadgeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AchievementServiceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 1, 15, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private AchievementProgressRepository progressRepository;
+
+    @Mock
+    private UserBadgeRepository userBadgeRepository;
+
+    @Mock
+    private PointsBatchRepository batchRepository;
+
+    @InjectMocks
+    private AchievementService achievementService;
+
+    private UUID testUserId;
+
+    @BeforeEach
+    void setUp() {
+        testUserId = UUID.randomUUID();
+        ReflectionTestUtils.setField(achievementService, "enabled", true);
+    }
+
+    private PointTransaction credit(String reasonCode, int points) {
+        PointTransaction transaction = new PointTransaction();
+        transaction.setUserId(testUserId);
+        transaction.setPoints(points);
+        transaction.setTransactionType(TransactionType.CREDIT);
+        transaction.setReasonCode(reasonCode);
+        transaction.setCreatedAt(NOW);
+        return transaction;
+    }
+
+    private AchievementProgress progress(AchievementCounter counter, long value, LocalDate lastActivityDay) {
+        return new AchievementProgress(testUserId, counter, value, lastActivityDay, null);
+    }
+
+    @Nested
+    @DisplayName("Counter Tests")
+    class CounterTests {
+
+        @Test
+        @DisplayName("Should not query counters for a transaction no criterion depends on")
+        void shouldSkipUnrelatedTransaction() {
+            // When
+            List<Badge> badges = achievementService.record(credit("WELCOME_BONUS", 25), 125);
+
+            // Then
+            assertThat(badges).isEmpty();
+            verifyNoInteractions(progressRepository, batchRepository, userBadgeRepository);
+        }
+
+        @Test
+        @DisplayName("Should create missing counters and award the first report badge")
+        void shouldAwardFirstReportBadge() {
+            // Given
+            AchievementProgress reports = progress(AchievementCounter.VALIDATED_REPORTS, 0, null);
+            AchievementProgress streak = progress(AchievementCounter.CONTRIBUTION_STREAK, 0, null);
+            when(progressRepository.findByUserIdInAndCounterIn(anyCollection(), anyCollection()))
+                    .thenReturn(List.of(), List.of(reports, streak));
+            when(userBadgeRepository.insertIfAbsent(eq(testUserId), eq("FIRST_REPORT"), any(OffsetDateTime.class)))
+                    .thenReturn(1);
+
+            // When
+            List<Badge> badges = achievementService.record(credit("REPORT_VALIDATED", 100), 100);
+
+            // Then
+            assertThat(badges).containsExactly(Badge.FIRST_REPORT);
+            assertThat(reports.getProgress()).isEqualTo(1);
+            assertThat(streak.getProgress()).isEqualTo(1);
+            assertThat(streak.getLastActivityDay()).isEqualTo(NOW.toLocalDate());
+            verify(batchRepository).insertMissingProgress(anyCollection(), any(OffsetDateTime.class));
+        }
+
+        @Test
+        @DisplayName("Should not award a badge twice")
+        void shouldNotAwardBadgeTwice() {
+            // Given - counter already past the threshold once (badge row exists)
+            AchievementProgress reports = progress(AchievementCounter.VALIDATED_REPORTS, 9, null);
+            AchievementProgress streak = progress(AchievementCounter.CONTRIBUTION_STREAK, 1, NOW.toLocalDate());
+            when(progressRepository.findByUserIdInAndCounterIn(anyCollection(), anyCollection()))
+                    .thenReturn(List.of(reports, streak));
+            when(userBadgeRepository.insertIfAbsent(eq(testUserId), eq("CONFIRMED_REPORTER"), any(OffsetDateTime.class)))
+                    .thenReturn(0);
+
+            // When
+            List<Badge> badges = achievementService.record(credit("REPORT_VALIDATED", 100), 1100);
+
+            // Then
+            assertThat(badges).isEmpty();
+            assertThat(reports.getProgress()).isEqualTo(10);
+            verifyNoInteractions(batchRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Streak Tests")
+    class StreakTests {
+
+        @Test
+        @DisplayName("Should extend the streak on the next day and award the week badge")
+        void shouldExtendStreakOnNextDay() {
+            // Given
+            AchievementProgress streak = progress(AchievementCounter.CONTRIBUTION_STREAK, 6, NOW.toLocalDate().minusDays(1));
+            when(progressRepository.findByUserIdInAndCounterIn(anyCollection(), anyCollection()))
+                    .thenReturn(List.of(streak));
+            when(userBadgeRepository.insertIfAbsent(eq(testUserId), eq("WEEK_STREAK"), any(OffsetDateTime.class)))
+                    .thenReturn(1);
+
+            // When
+            List<Badge> badges = achievementService.record(credit("EVENT_PARTICIPATION", 30), 530);
+
+            // Then
+            assertThat(badges).containsExactly(Badge.WEEK_STREAK);
+            assertThat(streak.getProgress()).isEqualTo(7);
+            assertThat(streak.getLastActivityDay()).isEqualTo(NOW.toLocalDate());
+        }
+
+        @Test
+        @DisplayName("Should keep the streak for a second contribution the same day")
+        void shouldKeepStreakOnSameDay() {
+            // Given
+            AchievementProgress streak = progress(AchievementCounter.CONTRIBUTION_STREAK, 3, NOW.toLocalDate());
+            when(progressRepository.findByUserIdInAndCounterIn(anyCollection(), anyCollection()))
+                    .thenReturn(List.of(streak));
+
+            // When
+            List<Badge> badges = achievementService.record(credit("EVENT_PARTICIPATION", 30), 530);
+
+            // Then
+            assertThat(badges).isEmpty();
+            assertThat(streak.getProgress()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should restart the streak after a missed day")
+        void shouldRestartStreakAfterGap() {
+            // Given
+            AchievementProgress streak = progress(AchievementCounter.CONTRIBUTION_STREAK, 6, NOW.toLocalDate().minusDays(2));
+            when(progressRepository.findByUserIdInAndCounterIn(anyCollection(), anyCollection()))
+                    .thenReturn(List.of(streak));
+
+            // When
+            List<Badge> badges = achievementService.record(credit("EVENT_PARTICIPATION", 30), 530);
+
+            // Then
+            assertThat(badges).isEmpty();
+            assertThat(streak.getProgress()).isEqualTo(1);
+            assertThat(streak.getLastActivityDay()).isEqualTo(NOW.toLocalDate());
+        }
+    }
+
+    @Nested
+    @DisplayName("Level Tests")
+    class LevelTests {
+
+        @Test
+        @DisplayName("Should award the level badge from the total earned without a stored counter")
+        void shouldAwardLevelBadge() {
+            // Given - 3985 -> 4010 points: level 4 -> 5
+            when(userBadgeRepository.insertIfAbsent(eq(testUserId), eq("LEVEL_5"), any(OffsetDateTime.class)))
+                    .thenReturn(1);
+
+            // When
+            List<Badge> badges = achievementService.record(credit("WELCOME_BONUS", 25), 4010);
+
+            // Then
+            assertThat(badges).containsExactly(Badge.LEVEL_5);
+            verifyNoInteractions(progressRepository, batchRepository);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.medina.heritage.gamification.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivityDaysTest {
+
+    private static final int DAY = (int) LocalDate.of(2025, 1, 15).toEpochDay();
+
+    private static ActivityDays daysOf(int... offsets) {
+        ActivityDays days = new ActivityDays();
+        for (int offset : offsets) {
+            days.add(DAY + offset);
+        }
+        return days;
+    }
+
+    private static ActivityDays range(int fromOffset, int toOffset) {
+        ActivityDays days = new ActivityDays();
+        for (int offset = fromOffset; offset <= toOffset; offset++) {
+            days.add(DAY + offset);
+        }
+        return days;
+    }
+
+    @Nested
+    @DisplayName("Count Tests")
+    class CountTests {
+
+        @Test
+        @DisplayName("Should count each active day once")
+        void shouldCountActiveDays() {
+            // Given
+            ActivityDays days = daysOf(0, 1, 1, 200, 5000);
+
+            // When/Then
+            assertThat(days.count()).isEqualTo(4);
+            assertThat(days.contains(DAY + 200)).isTrue();
+            assertThat(days.contains(DAY + 2)).isFalse();
+            assertThat(days.lastDay()).hasValue(DAY + 5000);
+        }
+
+        @Test
+        @DisplayName("Should count active days in a range spanning several blocks")
+        void shouldCountActiveDaysInRange() {
+            // Given
+            ActivityDays days = range(0, 199);
+
+            // When/Then
+            assertThat(days.count(DAY + 10, DAY + 150)).isEqualTo(141);
+            assertThat(days.count(DAY - 100, DAY)).isEqualTo(1);
+            assertThat(days.count(DAY + 199, DAY + 400)).isEqualTo(1);
+            assertThat(days.count(DAY + 5, DAY + 4)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should survive serialization and merge with another set of days")
+        void shouldSerializeAndMerge() {
+            // Given
+            ActivityDays days = ActivityDays.fromBytes(daysOf(0, 70).toBytes());
+
+            // When
+            days.or(daysOf(1, 70, 300));
+
+            // Then
+            List<Integer> active = new ArrayList<>();
+            days.forEach(day -> active.add(day - DAY));
+            assertThat(active).containsExactly(0, 1, 70, 300);
+            assertThat(ActivityDays.fromBytes(new byte[0]).isEmpty()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Streak Tests")
+    class StreakTests {
+
+        @Test
+        @DisplayName("Should find the longest streak across block boundaries")
+        void shouldFindLongestStreakAcrossBlocks() {
+            // Given - 150 consecutive days, then a gap, then 3 days
+            ActivityDays days = range(-10, 139);
+            days.or(daysOf(141, 142, 143));
+
+            // When/Then
+            assertThat(days.longestStreak()).isEqualTo(150);
+        }
+
+        @Test
+        @DisplayName("Should not join streaks of non-adjacent blocks")
+        void shouldNotJoinDistantBlocks() {
+            // Given - ends of two blocks far apart
+            ActivityDays days = new ActivityDays();
+            days.add(63);
+            days.add(64 * 10);
+
+            // When/Then
+            assertThat(days.longestStreak()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should count the current streak up to today or yesterday")
+        void shouldCountCurrentStreak() {
+            // Given
+            ActivityDays days = range(-100, -1);
+
+            // When/Then
+            assertThat(days.currentStreak(DAY)).isEqualTo(100);
+            days.add(DAY);
+            assertThat(days.currentStreak(DAY)).isEqualTo(101);
+            assertThat(days.currentStreak(DAY + 2)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should return no streak for no activity")
+        void shouldReturnNoStreakWhenEmpty() {
+            // Given
+            ActivityDays days = new ActivityDays();
+
+            // When/Then
+            assertThat(days.currentStreak(DAY)).isZero();
+            assertThat(days.longestStreak()).isZero();
+            assertThat(days.lastDay()).isEmpty();
+        }
+    }
+}
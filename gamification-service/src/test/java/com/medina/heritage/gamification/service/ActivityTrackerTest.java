@@ -0,0 +1,315 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.ActivityCohortResponse;
+import com.medina.heritage.gamification.dto.response.UserActivityResponse;
+import com.medina.heritage.gamification.entity.ActivityBackfill;
+import com.medina.heritage.gamification.entity.ActivityDay;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.UserActivity;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.ActivityBackfillRepository;
+import com.medina.heritage.gamification.repository.ActivityDayRepository;
+import com.medina.heritage.gamification.repository.PointsBatchRepository;
+import com.medina.heritage.gamification.repository.UserActivityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityTrackerTest {
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+
+    @Mock
+    private UserActivityRepository activityRepository;
+
+    @Mock
+    private ActivityDayRepository dayRepository;
+
+    @Mock
+    private ActivityBackfillRepository backfillRepository;
+
+    @Mock
+    private PointsBatchRepository batchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ActivityTracker activityTracker;
+
+    private UUID testUserId;
+
+    @BeforeEach
+    void setUp() {
+        activityTracker = new ActivityTracker(activityRepository, dayRepository, backfillRepository, batchRepository,
+                transactionManager, 120);
+        ReflectionTestUtils.setField(activityTracker, "flushChunkSize", 1000);
+        ReflectionTestUtils.setField(activityTracker, "maxCohortDays", 92);
+        ReflectionTestUtils.setField(activityTracker, "maxCohortUsers", 1000);
+        testUserId = UUID.randomUUID();
+    }
+
+    private PointTransaction transaction(TransactionType type, LocalDate day) {
+        PointTransaction transaction = new PointTransaction();
+        transaction.setUserId(testUserId);
+        transaction.setPoints(100);
+        transaction.setTransactionType(type);
+        transaction.setReasonCode(type == TransactionType.CREDIT ? "REPORT_VALIDATED" : "REWARD_REDEMPTION");
+        transaction.setCreatedAt(day.atTime(12, 0).atOffset(ZoneOffset.UTC));
+        return transaction;
+    }
+
+    private static ActivityDays daysOf(LocalDate... days) {
+        ActivityDays activityDays = new ActivityDays();
+        for (LocalDate day : days) {
+            activityDays.add((int) day.toEpochDay());
+        }
+        return activityDays;
+    }
+
+    @Nested
+    @DisplayName("User Activity Tests")
+    class UserActivityTests {
+
+        @Test
+        @DisplayName("Should combine stored days with credits not yet flushed, ignoring debits")
+        void shouldIncludePendingCredits() {
+            // Given - stored: two days before yesterday; pending: yesterday credit and today debit
+            UserActivity stored = new UserActivity(7, testUserId,
+                    daysOf(TODAY.minusDays(3), TODAY.minusDays(2)).toBytes(), 2, TODAY.minusDays(2), null);
+            when(activityRepository.findByUserId(testUserId)).thenReturn(Optional.of(stored));
+            activityTracker.recordAll(List.of(transaction(TransactionType.CREDIT, TODAY.minusDays(1)),
+                    transaction(TransactionType.DEBIT, TODAY)));
+
+            // When
+            UserActivityResponse response = activityTracker.getUserActivity(testUserId, null, null);
+
+            // Then
+            assertThat(response.getActiveDays()).isEqualTo(3);
+            assertThat(response.getCurrentStreak()).isEqualTo(3);
+            assertThat(response.getLongestStreak()).isEqualTo(3);
+            assertThat(response.getLastActiveDay()).isEqualTo(TODAY.minusDays(1));
+        }
+
+        @Test
+        @DisplayName("Should count active days in the requested period only")
+        void shouldCountActiveDaysInPeriod() {
+            // Given
+            activityTracker.record(transaction(TransactionType.CREDIT, TODAY.minusDays(40)));
+            activityTracker.record(transaction(TransactionType.CREDIT, TODAY));
+            when(activityRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
+
+            // When
+            UserActivityResponse response = activityTracker.getUserActivity(testUserId, TODAY.minusDays(30), null);
+
+            // Then
+            assertThat(response.getActiveDays()).isEqualTo(1);
+            assertThat(response.getCurrentStreak()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Should OR pending days into the user row and add the user to newly active days only")
+        void shouldWritePendingDays() {
+            // Given - yesterday already stored, today pending for both
+            activityTracker.record(transaction(TransactionType.CREDIT, TODAY.minusDays(1)));
+            activityTracker.record(transaction(TransactionType.CREDIT, TODAY));
+            UserActivity stored = new UserActivity(7, testUserId, daysOf(TODAY.minusDays(1)).toBytes(), 1,
+                    TODAY.minusDays(1), null);
+            ActivityDay today = new ActivityDay(TODAY, new byte[0], 0L, null);
+            when(activityRepository.findForUpdate(anyCollection())).thenReturn(List.of(stored));
+            when(dayRepository.findForUpdate(anyCollection()))
+                    .thenReturn(List.of(today));
+
+            // When
+            activityTracker.flush();
+
+            // Then
+            assertThat(stored.getActiveDays()).isEqualTo(2);
+            assertThat(stored.getLastActiveDay()).isEqualTo(TODAY);
+            assertThat(today.getUserCount()).isEqualTo(1);
+            assertThat(CompressedBitmap.fromBytes(today.getUserOrdinals()).contains(7)).isTrue();
+            verify(batchRepository).insertMissingActivity(anyCollection(), any(OffsetDateTime.class));
+            verify(batchRepository).insertMissingActivityDays(eq(Set.of(TODAY)), any(OffsetDateTime.class));
+        }
+
+        @Test
+        @DisplayName("Should keep pending days when the flush fails")
+        void shouldKeepPendingDaysOnFailure() {
+            // Given
+            activityTracker.record(transaction(TransactionType.CREDIT, TODAY));
+            when(activityRepository.findForUpdate(anyCollection())).thenThrow(new RuntimeException("Database unavailable"));
+            when(activityRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
+
+            // When
+            activityTracker.flush();
+
+            // Then
+            assertThat(activityTracker.getUserActivity(testUserId, null, null).getActiveDays()).isEqualTo(1);
+            verify(transactionManager).rollback(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Backfill Tests")
+    class BackfillTests {
+
+        @Test
+        @DisplayName("Should resume after the last written user and mark the backfill completed")
+        @SuppressWarnings("unchecked")
+        void shouldResumeAfterLastWrittenUser() {
+            // Given - an earlier backfill stopped after the first user; live rows exist already
+            UUID firstUser = new UUID(0, 1);
+            ActivityBackfill state = new ActivityBackfill(ActivityBackfill.ID, firstUser, null, null);
+            when(backfillRepository.findById(ActivityBackfill.ID)).thenReturn(Optional.of(state));
+            when(backfillRepository.findForUpdate(ActivityBackfill.ID)).thenReturn(Optional.of(state));
+            doAnswer(invocation -> {
+                invocation.getArgument(2, BiConsumer.class).accept(testUserId, TODAY.minusDays(10));
+                return null;
+            }).when(batchRepository).forEachCreditDay(eq(firstUser), anyInt(), any());
+            UserActivity stored = new UserActivity(7, testUserId, new byte[0], 0, null, null);
+            when(activityRepository.findForUpdate(anyCollection())).thenReturn(List.of(stored));
+            when(dayRepository.findForUpdate(anyCollection()))
+                    .thenReturn(List.of(new ActivityDay(TODAY.minusDays(10), new byte[0], 0L, null)));
+
+            // When
+            activityTracker.backfill();
+            activityTracker.retryBackfill();
+
+            // Then
+            assertThat(stored.getLastActiveDay()).isEqualTo(TODAY.minusDays(10));
+            assertThat(state.getLastUserId()).isEqualTo(testUserId);
+            assertThat(state.getCompletedAt()).isNotNull();
+            verify(batchRepository, times(1)).forEachCreditDay(eq(firstUser), anyInt(), any());
+            verify(activityRepository, never()).count();
+        }
+
+        @Test
+        @DisplayName("Should skip a completed backfill without reading the ledger")
+        void shouldSkipCompletedBackfill() {
+            // Given
+            when(backfillRepository.findById(ActivityBackfill.ID)).thenReturn(Optional.of(
+                    new ActivityBackfill(ActivityBackfill.ID, testUserId, OffsetDateTime.now(), null)));
+
+            // When
+            activityTracker.backfill();
+            activityTracker.retryBackfill();
+
+            // Then
+            verify(backfillRepository, times(1)).findById(ActivityBackfill.ID);
+            verifyNoInteractions(batchRepository);
+        }
+
+        @Test
+        @DisplayName("Should retry a failed backfill from the beginning when no user was written")
+        void shouldRetryFailedBackfill() {
+            // Given - the ledger read fails once, then there is nothing to backfill
+            ActivityBackfill state = new ActivityBackfill(ActivityBackfill.ID, null, null, null);
+            when(backfillRepository.findById(ActivityBackfill.ID)).thenReturn(Optional.empty());
+            when(backfillRepository.findForUpdate(ActivityBackfill.ID)).thenReturn(Optional.of(state));
+            doThrow(new RuntimeException("Database unavailable")).doNothing()
+                    .when(batchRepository).forEachCreditDay(isNull(), anyInt(), any());
+
+            // When
+            activityTracker.backfill();
+            assertThat(state.getCompletedAt()).isNull();
+            activityTracker.retryBackfill();
+
+            // Then
+            verify(batchRepository, times(2)).forEachCreditDay(isNull(), anyInt(), any());
+            assertThat(state.getCompletedAt()).isNotNull();
+            verify(batchRepository).insertMissingActivityBackfill(any(OffsetDateTime.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Cohort Tests")
+    class CohortTests {
+
+        @Test
+        @DisplayName("Should return users active on every day of the period")
+        void shouldIntersectDays() {
+            // Given - ordinal 1 active both days, 2 only the first, 3 only the second
+            LocalDate first = LocalDate.of(2025, 6, 2);
+            LocalDate second = first.plusDays(1);
+            CompressedBitmap firstUsers = new CompressedBitmap();
+            firstUsers.add(1);
+            firstUsers.add(2);
+            CompressedBitmap secondUsers = new CompressedBitmap();
+            secondUsers.add(1);
+            secondUsers.add(3);
+            when(dayRepository.findByActivityDayIn(anyCollection())).thenReturn(List.of(
+                    new ActivityDay(first, firstUsers.toBytes(), 2L, null),
+                    new ActivityDay(second, secondUsers.toBytes(), 2L, null)));
+            when(activityRepository.findUserIdsByOrdinalIn(List.of(1))).thenReturn(List.of(testUserId));
+
+            // When
+            ActivityCohortResponse response = activityTracker.getCohort(first, second, 100);
+            ActivityCohortResponse cached = activityTracker.getCohort(first, second, 100);
+
+            // Then
+            assertThat(response.getUserCount()).isEqualTo(1);
+            assertThat(response.getUserIds()).containsExactly(testUserId);
+            assertThat(cached.getUserCount()).isEqualTo(1);
+            verify(dayRepository, times(1)).findByActivityDayIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Should return no user when a day of the period has no activity")
+        void shouldReturnEmptyCohortForInactiveDay() {
+            // Given
+            LocalDate first = LocalDate.of(2025, 6, 2);
+            CompressedBitmap users = new CompressedBitmap();
+            users.add(1);
+            when(dayRepository.findByActivityDayIn(anyCollection()))
+                    .thenReturn(List.of(new ActivityDay(first, users.toBytes(), 1L, null)));
+
+            // When
+            ActivityCohortResponse response = activityTracker.getCohort(first, first.plusDays(6), 100);
+
+            // Then
+            assertThat(response.getUserCount()).isZero();
+            assertThat(response.getUserIds()).isEmpty();
+            verifyNoMoreInteractions(activityRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject an inverted or too long period")
+        void shouldRejectInvalidPeriod() {
+            LocalDate day = LocalDate.of(2025, 6, 2);
+
+            assertThatThrownBy(() -> activityTracker.getCohort(day, day.minusDays(1), 100))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> activityTracker.getCohort(day, day.plusDays(92), 100))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
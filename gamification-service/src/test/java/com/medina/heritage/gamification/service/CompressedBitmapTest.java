@@ -0,0 +1,102 @@
+package com.medina.heritage.gamification.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedBitmapTest {
+
+    private static CompressedBitmap bitmapOf(Iterable<Integer> values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    private static List<Integer> valuesOf(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    @Test
+    @DisplayName("Should add values to sparse and dense containers")
+    void shouldAddValues() {
+        // Given
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        // When - 5000 values in the first container (dense), 3 in others (sparse)
+        for (int value = 0; value < 10_000; value += 2) {
+            bitmap.add(value);
+        }
+        boolean added = bitmap.add(70_000);
+        boolean replayed = bitmap.add(70_000);
+        bitmap.add(1 << 30);
+        bitmap.add(65_536);
+
+        // Then
+        assertThat(added).isTrue();
+        assertThat(replayed).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(5003);
+        assertThat(bitmap.contains(9998)).isTrue();
+        assertThat(bitmap.contains(9999)).isFalse();
+        assertThat(bitmap.contains(1 << 30)).isTrue();
+        assertThat(bitmap.first(3)).containsExactly(0, 2, 4);
+        assertThatThrownBy(() -> bitmap.add(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should match set intersection and union for random sparse and dense bitmaps")
+    void shouldMatchSetOperations() {
+        // Given
+        Random random = new Random(42);
+        TreeSet<Integer> dense = new TreeSet<>();
+        TreeSet<Integer> sparse = new TreeSet<>();
+        while (dense.size() < 20_000) {
+            dense.add(random.nextInt(150_000));
+        }
+        while (sparse.size() < 2_000) {
+            sparse.add(random.nextInt(150_000));
+        }
+        CompressedBitmap denseBitmap = bitmapOf(dense);
+        CompressedBitmap sparseBitmap = bitmapOf(sparse);
+
+        // When
+        CompressedBitmap intersection = CompressedBitmap.andAll(List.of(denseBitmap, sparseBitmap, denseBitmap));
+        CompressedBitmap union = CompressedBitmap.fromBytes(sparseBitmap.toBytes());
+        union.or(denseBitmap);
+
+        // Then
+        TreeSet<Integer> expectedIntersection = new TreeSet<>(dense);
+        expectedIntersection.retainAll(sparse);
+        TreeSet<Integer> expectedUnion = new TreeSet<>(dense);
+        expectedUnion.addAll(sparse);
+        assertThat(valuesOf(intersection)).containsExactlyElementsOf(expectedIntersection);
+        assertThat(valuesOf(union)).containsExactlyElementsOf(expectedUnion);
+        assertThat(valuesOf(CompressedBitmap.fromBytes(union.toBytes()))).containsExactlyElementsOf(expectedUnion);
+        assertThat(valuesOf(sparseBitmap)).containsExactlyElementsOf(sparse);
+    }
+
+    @Test
+    @DisplayName("Should return an empty intersection when a day has no active user")
+    void shouldReturnEmptyIntersection() {
+        // Given
+        CompressedBitmap active = bitmapOf(List.of(1, 2, 3));
+
+        // When
+        CompressedBitmap intersection = CompressedBitmap.andAll(List.of(active, new CompressedBitmap()));
+
+        // Then
+        assertThat(intersection.isEmpty()).isTrue();
+        assertThat(intersection.first(10)).isEmpty();
+        assertThat(CompressedBitmap.fromBytes(null).cardinality()).isZero();
+    }
+}
@@ -0,0 +1,148 @@
+package com.medina.heritage.gamification.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardIndexTest {
+
+    private LeaderboardIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LeaderboardIndex();
+    }
+
+    private static UUID user(int n) {
+        return new UUID(0, n);
+    }
+
+    @Nested
+    @DisplayName("Rank Tests")
+    class RankTests {
+
+        @Test
+        @DisplayName("Should rank by total earned with shared rank for ties")
+        void shouldRankWithTies() {
+            // Given
+            index.offer(user(1), 500);
+            index.offer(user(2), 900);
+            index.offer(user(3), 500);
+            index.offer(user(4), 100);
+
+            // When/Then
+            assertThat(index.rank(user(2))).isEqualTo(1);
+            assertThat(index.rank(user(1))).isEqualTo(2);
+            assertThat(index.rank(user(3))).isEqualTo(2);
+            assertThat(index.rank(user(4))).isEqualTo(4);
+            assertThat(index.rank(user(5))).isEqualTo(-1);
+        }
+
+        @Test
+        @DisplayName("Should ignore lower or replayed scores")
+        void shouldIgnoreLowerScores() {
+            // Given
+            index.offer(user(1), 300);
+
+            // When
+            boolean replayed = index.offer(user(1), 300);
+            boolean lower = index.offer(user(1), 200);
+            boolean higher = index.offer(user(1), 400);
+
+            // Then
+            assertThat(replayed).isFalse();
+            assertThat(lower).isFalse();
+            assertThat(higher).isTrue();
+            assertThat(index.score(user(1))).isEqualTo(400);
+            assertThat(index.size()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Range Tests")
+    class RangeTests {
+
+        @Test
+        @DisplayName("Should return a page in leaderboard order")
+        void shouldReturnPage() {
+            // Given
+            for (int i = 1; i <= 10; i++) {
+                index.offer(user(i), i * 100);
+            }
+
+            // When
+            List<LeaderboardIndex.Entry> page = index.range(2, 3);
+
+            // Then
+            assertThat(page).extracting(LeaderboardIndex.Entry::userId).containsExactly(user(8), user(7), user(6));
+            assertThat(page).extracting(LeaderboardIndex.Entry::rank).containsExactly(3L, 4L, 5L);
+            assertThat(index.range(9, 5)).hasSize(1);
+            assertThat(index.range(10, 5)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return window around user clipped at the top")
+        void shouldReturnWindowAroundUser() {
+            // Given
+            for (int i = 1; i <= 10; i++) {
+                index.offer(user(i), i * 100);
+            }
+
+            // When
+            List<LeaderboardIndex.Entry> middle = index.around(user(5), 2);
+            List<LeaderboardIndex.Entry> top = index.around(user(10), 2);
+
+            // Then
+            assertThat(middle).extracting(LeaderboardIndex.Entry::userId)
+                    .containsExactly(user(7), user(6), user(5), user(4), user(3));
+            assertThat(top).extracting(LeaderboardIndex.Entry::userId)
+                    .containsExactly(user(10), user(9), user(8));
+            assertThat(index.around(user(42), 2)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should match a sorted list after random updates and removals")
+        void shouldMatchSortedListAfterRandomOperations() {
+            // Given
+            Random random = new Random(42);
+            Map<UUID, Integer> expected = new HashMap<>();
+
+            // When
+            for (int i = 0; i < 5000; i++) {
+                UUID userId = user(random.nextInt(200));
+                if (random.nextInt(10) == 0) {
+                    index.remove(userId);
+                    expected.remove(userId);
+                } else {
+                    int score = random.nextInt(50) * 10;
+                    index.offer(userId, score);
+                    expected.merge(userId, score, Math::max);
+                }
+            }
+
+            // Then
+            List<Map.Entry<UUID, Integer>> sorted = new ArrayList<>(expected.entrySet());
+            sorted.sort(Map.Entry.<UUID, Integer>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()));
+            List<LeaderboardIndex.Entry> all = index.range(0, sorted.size());
+            assertThat(all).extracting(LeaderboardIndex.Entry::userId)
+                    .containsExactlyElementsOf(sorted.stream().map(Map.Entry::getKey).toList());
+            for (LeaderboardIndex.Entry entry : all) {
+                long higher = expected.values().stream().filter(score -> score > entry.score()).count();
+                assertThat(entry.rank()).isEqualTo(higher + 1);
+                assertThat(index.rank(entry.userId())).isEqualTo(higher + 1);
+            }
+        }
+    }
+}
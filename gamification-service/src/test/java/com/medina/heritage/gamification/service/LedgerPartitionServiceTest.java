@@ -0,0 +1,308 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.entity.LedgerArchive;
+import com.medina.heritage.gamification.entity.ReconciliationRun;
+import com.medina.heritage.gamification.enums.ReconciliationStatus;
+import com.medina.heritage.gamification.repository.LedgerArchiveRepository;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository.LedgerRow;
+import com.medina.heritage.gamification.repository.LedgerPartitionRepository.Partition;
+import com.medina.heritage.gamification.repository.ReconciliationRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerPartitionServiceTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2026, 10);
+
+    @Mock
+    private LedgerPartitionRepository partitionRepository;
+
+    @Mock
+    private LedgerArchiveRepository archiveRepository;
+
+    @Mock
+    private ReconciliationRunRepository runRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private LedgerPartitionService partitionService;
+
+    @BeforeEach
+    void setUp() {
+        partitionService = new LedgerPartitionService(partitionRepository, archiveRepository, runRepository, transactionManager);
+        ReflectionTestUtils.setField(partitionService, "monthsAhead", 3);
+        ReflectionTestUtils.setField(partitionService, "retentionMonths", 12);
+        ReflectionTestUtils.setField(partitionService, "archiveDirectory", archiveDirectory.toString());
+    }
+
+    private static Partition monthly(YearMonth month) {
+        return new Partition(LedgerPartitionRepository.monthlyName(month),
+                LedgerPartitionRepository.monthStart(month), LedgerPartitionRepository.monthStart(month.plusMonths(1)));
+    }
+
+    private static Partition before(YearMonth month) {
+        return new Partition(String.format("point_transactions_before_%04d_%02d", month.getYear(), month.getMonthValue()),
+                null, LedgerPartitionRepository.monthStart(month));
+    }
+
+    private void reconciledUntil(OffsetDateTime cutoff) {
+        ReconciliationRun run = new ReconciliationRun();
+        run.setStatus(ReconciliationStatus.COMPLETED);
+        run.setCutoff(cutoff);
+        when(runRepository.findTopByStatusOrderByStartedAtDesc(ReconciliationStatus.COMPLETED)).thenReturn(Optional.of(run));
+    }
+
+    private void stubRows(Partition partition, LedgerRow... rows) {
+        doAnswer(invocation -> {
+            Consumer<LedgerRow> consumer = invocation.getArgument(1);
+            for (LedgerRow row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(partitionRepository).streamRows(eq(partition.name()), any());
+    }
+
+    private static LedgerRow row(String description, OffsetDateTime createdAt) {
+        return new LedgerRow(UUID.randomUUID(), UUID.randomUUID(), 50, "CREDIT", "REPORT_VALIDATED", description,
+                null, null, null, 150, createdAt);
+    }
+
+    private static List<String> readArchive(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Migration Tests")
+    class MigrationTests {
+
+        @Test
+        @DisplayName("Should leave an unpartitioned ledger untouched at startup")
+        void shouldNotConvertAtStartup() {
+            // Given
+            when(partitionRepository.isPartitioned()).thenReturn(false);
+
+            // When
+            partitionService.initialize();
+
+            // Then
+            verify(partitionRepository, never()).tryLock();
+            verify(partitionRepository, never()).convertToPartitioned(any());
+            verify(partitionRepository, never()).createMonthlyPartition(any());
+        }
+
+        @Test
+        @DisplayName("Should convert the ledger when the migration step runs, keeping the current month in the original table")
+        void shouldConvertOnMigration() {
+            // Given
+            YearMonth now = YearMonth.now(ZoneOffset.UTC);
+            when(partitionRepository.tryLock()).thenReturn(true);
+            when(partitionRepository.isPartitioned()).thenReturn(false, true);
+            when(partitionRepository.listPartitions()).thenReturn(List.of(before(now.plusMonths(1))));
+
+            // When
+            boolean converted = partitionService.migrate();
+
+            // Then
+            assertThat(converted).isTrue();
+            verify(partitionRepository).convertToPartitioned(now.plusMonths(1));
+            verify(partitionRepository, never()).createMonthlyPartition(now);
+            verify(partitionRepository).createMonthlyPartition(now.plusMonths(3));
+        }
+
+        @Test
+        @DisplayName("Should not convert an already partitioned ledger twice")
+        void shouldSkipConvertedLedger() {
+            // Given
+            when(partitionRepository.tryLock()).thenReturn(true);
+            when(partitionRepository.isPartitioned()).thenReturn(true);
+            when(partitionRepository.listPartitions()).thenReturn(List.of());
+
+            // When
+            boolean converted = partitionService.migrate();
+
+            // Then
+            assertThat(converted).isFalse();
+            verify(partitionRepository, never()).convertToPartitioned(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ensure Partitions Tests")
+    class EnsurePartitionsTests {
+
+        @Test
+        @DisplayName("Should create the upcoming months not covered by the converted table")
+        void shouldCreateUpcomingMonths() {
+            // Given - the original table holds everything before November
+            when(partitionRepository.tryLock()).thenReturn(true);
+            when(partitionRepository.isPartitioned()).thenReturn(true);
+            when(partitionRepository.listPartitions()).thenReturn(List.of(before(CURRENT.plusMonths(1)), monthly(CURRENT.plusMonths(1))));
+
+            // When
+            int created = partitionService.ensurePartitions(CURRENT);
+
+            // Then
+            assertThat(created).isEqualTo(2);
+            verify(partitionRepository).createMonthlyPartition(CURRENT.plusMonths(2));
+            verify(partitionRepository).createMonthlyPartition(CURRENT.plusMonths(3));
+            verify(partitionRepository, never()).createMonthlyPartition(CURRENT);
+            verify(partitionRepository, never()).createMonthlyPartition(CURRENT.plusMonths(1));
+        }
+
+        @Test
+        @DisplayName("Should leave the maintenance to the instance holding the lock")
+        void shouldSkipWithoutLock() {
+            // Given
+            when(partitionRepository.tryLock()).thenReturn(false);
+
+            // When
+            int created = partitionService.ensurePartitions(CURRENT);
+
+            // Then
+            assertThat(created).isZero();
+            verify(partitionRepository, never()).createMonthlyPartition(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Archive Tests")
+    class ArchiveTests {
+
+        @Test
+        @DisplayName("Should archive expired partitions covered by the last reconciliation")
+        void shouldArchiveExpiredPartitions() throws IOException {
+            // Given - retention of 12 months: everything before October 2025 has expired
+            Partition legacy = before(YearMonth.of(2025, 9));
+            Partition september = monthly(YearMonth.of(2025, 9));
+            Partition october = monthly(YearMonth.of(2025, 10));
+            when(partitionRepository.listPartitions()).thenReturn(List.of(legacy, september, october));
+            when(partitionRepository.tryLock()).thenReturn(true);
+            reconciledUntil(OffsetDateTime.parse("2026-10-18T03:20:00Z"));
+            stubRows(legacy, row("Signalement validé", OffsetDateTime.parse("2025-08-30T10:00:00Z")));
+            stubRows(september,
+                    row("Bonus \"bienvenue\", parrainage", OffsetDateTime.parse("2025-09-01T00:00:00Z")),
+                    row(null, OffsetDateTime.parse("2025-09-30T23:59:59Z")));
+            when(partitionRepository.countRows(legacy.name())).thenReturn(1L);
+            when(partitionRepository.countRows(september.name())).thenReturn(2L);
+
+            // When
+            int archived = partitionService.archiveExpired(CURRENT);
+
+            // Then
+            assertThat(archived).isEqualTo(2);
+            verify(partitionRepository).addArchivedTotals(legacy.name(), legacy.rangeEnd());
+            verify(partitionRepository).addArchivedTotals(september.name(), september.rangeEnd());
+            verify(partitionRepository).detachAndDrop(legacy.name());
+            verify(partitionRepository).detachAndDrop(september.name());
+            verify(partitionRepository, never()).detachAndDrop(october.name());
+
+            List<String> lines = readArchive(archiveDirectory.resolve(september.name() + ".csv.gz"));
+            assertThat(lines).hasSize(3);
+            assertThat(lines.get(0)).startsWith("id,user_id,points,transaction_type");
+            assertThat(lines.get(1)).contains(",\"Bonus \"\"bienvenue\"\", parrainage\",")
+                    .endsWith(",150,2025-09-01T00:00Z");
+            assertThat(lines.get(2)).contains(",REPORT_VALIDATED,,,,,150,");
+
+            ArgumentCaptor<LedgerArchive> record = ArgumentCaptor.forClass(LedgerArchive.class);
+            verify(archiveRepository, times(2)).save(record.capture());
+            assertThat(record.getAllValues().get(1).getRowCount()).isEqualTo(2L);
+            assertThat(record.getAllValues().get(1).getChecksum()).hasSize(64);
+            assertThat(record.getAllValues().get(0).getRangeStart()).isNull();
+            try (var files = Files.list(archiveDirectory)) {
+                assertThat(files).noneMatch(file -> file.toString().endsWith(".tmp"));
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep expired partitions the last reconciliation has not folded into the snapshots")
+        void shouldWaitForReconciliation() {
+            // Given - the last completed reconciliation stopped in the middle of September 2025
+            Partition legacy = before(YearMonth.of(2025, 9));
+            Partition september = monthly(YearMonth.of(2025, 9));
+            when(partitionRepository.listPartitions()).thenReturn(List.of(legacy, september));
+            when(partitionRepository.tryLock()).thenReturn(true);
+            reconciledUntil(OffsetDateTime.parse("2025-09-15T03:20:00Z"));
+            stubRows(legacy);
+            when(partitionRepository.countRows(legacy.name())).thenReturn(0L);
+
+            // When
+            int archived = partitionService.archiveExpired(CURRENT);
+
+            // Then
+            assertThat(archived).isEqualTo(1);
+            verify(partitionRepository).detachAndDrop(legacy.name());
+            verify(partitionRepository, never()).streamRows(eq(september.name()), any());
+            verify(partitionRepository, never()).detachAndDrop(september.name());
+        }
+
+        @Test
+        @DisplayName("Should not archive anything before a first reconciliation completes")
+        void shouldNotArchiveWithoutReconciliation() {
+            // Given
+            when(partitionRepository.listPartitions()).thenReturn(List.of(monthly(YearMonth.of(2025, 9))));
+            when(runRepository.findTopByStatusOrderByStartedAtDesc(ReconciliationStatus.COMPLETED)).thenReturn(Optional.empty());
+
+            // When
+            int archived = partitionService.archiveExpired(CURRENT);
+
+            // Then
+            assertThat(archived).isZero();
+            verify(partitionRepository, never()).streamRows(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should keep a partition that changed during its export")
+        void shouldRefuseChangedPartition() {
+            // Given
+            Partition september = monthly(YearMonth.of(2025, 9));
+            when(partitionRepository.listPartitions()).thenReturn(List.of(september));
+            when(partitionRepository.tryLock()).thenReturn(true);
+            stubRows(september, row(null, OffsetDateTime.parse("2025-09-02T08:00:00Z")));
+            when(partitionRepository.countRows(september.name())).thenReturn(2L);
+
+            // When / Then
+            assertThatThrownBy(() -> partitionService.archive(september))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("changed during its export");
+            verify(partitionRepository, never()).addArchivedTotals(any(), any());
+            verify(partitionRepository, never()).detachAndDrop(any());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.LevelCountResponse;
+import com.medina.heritage.gamification.dto.response.LevelDistributionResponse;
+import com.medina.heritage.gamification.entity.LevelHistogramBucket;
+import com.medina.heritage.gamification.repository.LevelHistogramRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LevelHistogramTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private LevelHistogramRepository histogramRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LevelHistogram levelHistogram;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        levelHistogram = new LevelHistogram(walletRepository, histogramRepository,
+                new TransactionTemplate(transactionManager), meterRegistry);
+    }
+
+    private static LevelHistogramBucket bucket(int level, long userCount) {
+        return new LevelHistogramBucket(level, userCount, OffsetDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should count created wallets and level transitions, including levels beyond initial capacity")
+    void shouldRecordTransitions() {
+        // When
+        levelHistogram.walletsCreated(3);
+        levelHistogram.levelChanged(1, 2);
+        levelHistogram.levelChanged(2, 500);
+        levelHistogram.levelChanged(1, 1);
+
+        // Then
+        LevelDistributionResponse distribution = levelHistogram.getDistribution();
+        assertThat(distribution.getTotalUsers()).isEqualTo(3);
+        assertThat(distribution.getLevels())
+                .extracting(LevelCountResponse::getLevel, LevelCountResponse::getUserCount)
+                .containsExactly(tuple(1, 2L), tuple(500, 1L));
+        verifyNoInteractions(walletRepository, histogramRepository);
+    }
+
+    @Test
+    @DisplayName("Should add local changes to the shared histogram and serve the shared counts")
+    void shouldFlushLocalChanges() {
+        // Given
+        levelHistogram.walletsCreated(2);
+        levelHistogram.levelChanged(1, 3);
+        when(histogramRepository.increment(eq(1), eq(1L), any())).thenReturn(1);
+        when(histogramRepository.increment(eq(3), eq(1L), any())).thenReturn(0, 1);
+        when(histogramRepository.findAllByOrderByLevelAsc())
+                .thenReturn(List.of(bucket(1, 41), bucket(3, 7)));
+
+        // When
+        levelHistogram.flush();
+
+        // Then
+        verify(histogramRepository).insertIfAbsent(eq(3), any());
+        LevelDistributionResponse distribution = levelHistogram.getDistribution();
+        assertThat(distribution.getTotalUsers()).isEqualTo(48);
+        assertThat(distribution.getSyncedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should keep local changes for the next flush when the shared histogram is unavailable")
+    void shouldKeepChangesWhenFlushFails() {
+        // Given
+        levelHistogram.walletsCreated(1);
+        when(histogramRepository.increment(eq(1), eq(1L), any()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(1);
+        when(histogramRepository.findAllByOrderByLevelAsc()).thenReturn(List.of(bucket(1, 1)));
+
+        // When
+        levelHistogram.flush();
+        levelHistogram.flush();
+
+        // Then
+        verify(histogramRepository, times(2)).increment(eq(1), eq(1L), any());
+        assertThat(levelHistogram.getDistribution().getTotalUsers()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should correct only a drift seen identically by two successive checks")
+    void shouldCorrectStableDrift() {
+        // Given - the shared histogram misses one level 1 user
+        when(walletRepository.countUsersByLevel()).thenReturn(List.<Object[]>of(new Object[]{1, 5L}));
+        when(histogramRepository.findAllByOrderByLevelAsc()).thenReturn(List.of(bucket(1, 4)));
+
+        // When
+        levelHistogram.checkDrift();
+
+        // Then
+        verify(histogramRepository, never()).increment(anyInt(), anyLong(), any());
+
+        // When
+        when(histogramRepository.increment(eq(1), eq(1L), any())).thenReturn(1);
+        levelHistogram.checkDrift();
+
+        // Then
+        verify(histogramRepository).increment(eq(1), eq(1L), any());
+        assertThat(meterRegistry.get("gamification.level.histogram.drift").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,276 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.PlatformCountersResponse;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.enums.CounterGranularity;
+import com.medina.heritage.gamification.enums.PlatformMetric;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.repository.PlatformCounterRepository;
+import com.medina.heritage.gamification.repository.PlatformCounterRepository.BucketSum;
+import com.medina.heritage.gamification.repository.PlatformCounterRepository.CounterDelta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlatformCountersTest {
+
+    @Mock
+    private PlatformCounterRepository counterRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PlatformCounters platformCounters;
+
+    @BeforeEach
+    void setUp() {
+        platformCounters = new PlatformCounters(counterRepository, transactionManager);
+        ReflectionTestUtils.setField(platformCounters, "maxBuckets", 1500);
+        ReflectionTestUtils.setField(platformCounters, "retentionDays", 400);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static PointTransaction transaction(TransactionType type, String reasonCode, int points, OffsetDateTime at) {
+        PointTransaction transaction = new PointTransaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setUserId(UUID.randomUUID());
+        transaction.setTransactionType(type);
+        transaction.setReasonCode(reasonCode);
+        transaction.setPoints(points);
+        transaction.setBalanceAfter(points);
+        transaction.setCreatedAt(at);
+        return transaction;
+    }
+
+    private static long epochMinute(OffsetDateTime at) {
+        return Math.floorDiv(at.toEpochSecond(), 60);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CounterDelta> flushedDeltas() {
+        ArgumentCaptor<List<CounterDelta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(counterRepository).addDeltas(any(UUID.class), captor.capture(), any(OffsetDateTime.class));
+        return captor.getValue();
+    }
+
+    @Nested
+    @DisplayName("Record And Flush Tests")
+    class RecordAndFlushTests {
+
+        @Test
+        @DisplayName("Should count ledger writes per minute and metric")
+        void shouldCountPerMinuteAndMetric() {
+            // Given
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            platformCounters.recordAll(List.of(
+                    transaction(TransactionType.CREDIT, "WELCOME_BONUS", 25, now),
+                    transaction(TransactionType.CREDIT, "WELCOME_BONUS", 25, now),
+                    transaction(TransactionType.CREDIT, "REPORT_VALIDATED", 100, now)));
+            platformCounters.record(transaction(TransactionType.DEBIT, "REWARD_REDEMPTION", 60, now));
+
+            // When
+            platformCounters.flush();
+
+            // Then
+            long minute = epochMinute(now);
+            assertThat(flushedDeltas()).containsExactlyInAnyOrder(
+                    new CounterDelta(minute, PlatformMetric.POINTS_EARNED, 150),
+                    new CounterDelta(minute, PlatformMetric.CREDIT_TRANSACTIONS, 3),
+                    new CounterDelta(minute, PlatformMetric.WELCOME_BONUSES, 2),
+                    new CounterDelta(minute, PlatformMetric.POINTS_SPENT, 60),
+                    new CounterDelta(minute, PlatformMetric.DEBIT_TRANSACTIONS, 1),
+                    new CounterDelta(minute, PlatformMetric.REWARD_REDEMPTIONS, 1));
+        }
+
+        @Test
+        @DisplayName("Should count a write only once its transaction commits")
+        void shouldCountAfterCommit() {
+            // Given
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            TransactionSynchronizationManager.initSynchronization();
+            platformCounters.record(transaction(TransactionType.CREDIT, "REPORT_VALIDATED", 100, now));
+
+            // When - flushed before the commit
+            platformCounters.flush();
+
+            // Then
+            verifyNoInteractions(counterRepository);
+
+            // When - committed
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            platformCounters.flush();
+
+            // Then
+            assertThat(flushedDeltas()).contains(
+                    new CounterDelta(epochMinute(now), PlatformMetric.POINTS_EARNED, 100));
+        }
+
+        @Test
+        @DisplayName("Should keep the values of a failed flush for the next one")
+        void shouldKeepValuesOnFailure() {
+            // Given
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            platformCounters.record(transaction(TransactionType.CREDIT, "REPORT_VALIDATED", 100, now));
+            doThrow(new IllegalStateException("database down")).doNothing()
+                    .when(counterRepository).addDeltas(any(UUID.class), any(), any(OffsetDateTime.class));
+
+            // When
+            platformCounters.flush();
+            platformCounters.flush();
+
+            // Then
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<CounterDelta>> captor = ArgumentCaptor.forClass(List.class);
+            verify(counterRepository, times(2)).addDeltas(any(UUID.class), captor.capture(), any(OffsetDateTime.class));
+            assertThat(captor.getAllValues().get(1))
+                    .contains(new CounterDelta(epochMinute(now), PlatformMetric.POINTS_EARNED, 100));
+        }
+
+        @Test
+        @DisplayName("Should not lose increments from concurrent writers")
+        void shouldNotLoseConcurrentIncrements() throws Exception {
+            // Given
+            int threads = 8;
+            int writesPerThread = 5000;
+            List<Long> flushed = new ArrayList<>();
+            doAnswer(invocation -> {
+                List<CounterDelta> deltas = invocation.getArgument(1);
+                deltas.stream()
+                        .filter(delta -> delta.metric() == PlatformMetric.CREDIT_TRANSACTIONS)
+                        .forEach(delta -> flushed.add(delta.delta()));
+                return null;
+            }).when(counterRepository).addDeltas(any(UUID.class), any(), any(OffsetDateTime.class));
+
+            // When - writers and flushes run together
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < writesPerThread; i++) {
+                            platformCounters.record(transaction(TransactionType.CREDIT, "REPORT_VALIDATED", 1, null));
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (int i = 0; i < 20; i++) {
+                    platformCounters.flush();
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            platformCounters.flush();
+
+            // Then
+            assertThat(flushed.stream().mapToLong(Long::longValue).sum()).isEqualTo((long) threads * writesPerThread);
+        }
+    }
+
+    @Nested
+    @DisplayName("Get Counters Tests")
+    class GetCountersTests {
+
+        @Test
+        @DisplayName("Should merge the rows of all instances with the values not flushed yet")
+        void shouldMergeStoredAndLocalValues() {
+            // Given - two hours: the stored rows are already summed across instances
+            OffsetDateTime from = OffsetDateTime.of(2026, 10, 19, 8, 0, 0, 0, ZoneOffset.UTC);
+            OffsetDateTime to = from.plusHours(2);
+            long firstHour = epochMinute(from) / 60;
+            doAnswer(invocation -> {
+                Consumer<BucketSum> consumer = invocation.getArgument(3);
+                consumer.accept(new BucketSum(firstHour, PlatformMetric.POINTS_EARNED, 500));
+                consumer.accept(new BucketSum(firstHour + 1, PlatformMetric.WELCOME_BONUSES, 7));
+                return null;
+            }).when(counterRepository).sumByBucket(eq(epochMinute(from)), eq(epochMinute(to)), eq(60), any());
+            platformCounters.record(transaction(TransactionType.CREDIT, "WELCOME_BONUS", 25, from.plusMinutes(90)));
+
+            // When
+            PlatformCountersResponse response = platformCounters.getCounters(from, to, CounterGranularity.HOUR);
+
+            // Then
+            assertThat(response.getFrom()).isEqualTo(from);
+            assertThat(response.getTo()).isEqualTo(to);
+            assertThat(response.getBuckets()).hasSize(2);
+            assertThat(response.getBuckets().get(0).getValues()).containsEntry(PlatformMetric.POINTS_EARNED, 500L)
+                    .containsEntry(PlatformMetric.WELCOME_BONUSES, 0L);
+            assertThat(response.getBuckets().get(1).getStart()).isEqualTo(from.plusHours(1));
+            assertThat(response.getBuckets().get(1).getValues()).containsEntry(PlatformMetric.WELCOME_BONUSES, 8L)
+                    .containsEntry(PlatformMetric.POINTS_EARNED, 25L);
+            assertThat(response.getTotals()).containsEntry(PlatformMetric.POINTS_EARNED, 525L)
+                    .containsEntry(PlatformMetric.WELCOME_BONUSES, 8L)
+                    .containsEntry(PlatformMetric.REWARD_REDEMPTIONS, 0L);
+        }
+
+        @Test
+        @DisplayName("Should round the period to the buckets that contain it")
+        void shouldRoundPeriodToBuckets() {
+            // Given
+            OffsetDateTime from = OffsetDateTime.of(2026, 10, 19, 8, 20, 0, 0, ZoneOffset.UTC);
+            OffsetDateTime to = OffsetDateTime.of(2026, 10, 19, 10, 0, 30, 0, ZoneOffset.UTC);
+
+            // When
+            PlatformCountersResponse response = platformCounters.getCounters(from, to, CounterGranularity.HOUR);
+
+            // Then
+            assertThat(response.getFrom()).isEqualTo(from.truncatedTo(ChronoUnit.HOURS));
+            assertThat(response.getTo()).isEqualTo(OffsetDateTime.of(2026, 10, 19, 11, 0, 0, 0, ZoneOffset.UTC));
+            assertThat(response.getBuckets()).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Should reject an empty or too long period")
+        void shouldRejectInvalidPeriod() {
+            OffsetDateTime now = OffsetDateTime.now();
+
+            assertThatThrownBy(() -> platformCounters.getCounters(now, now, CounterGranularity.HOUR))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> platformCounters.getCounters(now.minusDays(2), now, CounterGranularity.MINUTE))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(counterRepository, never()).sumByBucket(anyLong(), anyLong(), anyInt(), any());
+        }
+    }
+}
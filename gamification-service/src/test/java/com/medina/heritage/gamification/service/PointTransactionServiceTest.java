@@ -1,5 +1,6 @@
 package com.medina.heritage.gamification.service;
 
+import com.medina.heritage.gamification.dto.response.PointTransactionPage;
 import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
 import com.medina.heritage.gamification.entity.PointTransaction;
 import com.medina.heritage.gamification.enums.TransactionType;
@@ -13,8 +14,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +26,9 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -63,6 +70,19 @@ class PointTransactionServiceTest {
         testTransactionResponse.setTransactionType(TransactionType.CREDIT);
         testTransactionResponse.setReasonCode("REPORT_VALIDATED");
         testTransactionResponse.setBalanceAfter(100);
+        testTransactionResponse.setCreatedAt(testTransaction.getCreatedAt());
+
+        ReflectionTestUtils.setField(transactionService, "maxPageSize", 200);
+    }
+
+    private PointTransactionResponse response(UUID id, OffsetDateTime createdAt) {
+        PointTransactionResponse response = new PointTransactionResponse();
+        response.setId(id);
+        response.setUserId(testUserId);
+        response.setPoints(10);
+        response.setTransactionType(TransactionType.CREDIT);
+        response.setCreatedAt(createdAt);
+        return response;
     }
 
     @Nested
@@ -70,40 +90,90 @@ class PointTransactionServiceTest {
     class GetTransactionsByUserTests {
 
         @Test
-        @DisplayName("Should return all transactions for user")
-        void shouldReturnAllTransactionsForUser() {
+        @DisplayName("Should return first page without next cursor")
+        void shouldReturnFirstPageWithoutNextCursor() {
             // Given
-            List<PointTransaction> transactions = Arrays.asList(testTransaction);
-            List<PointTransactionResponse> expectedResponses = Arrays.asList(testTransactionResponse);
+            when(transactionRepository.findPageByUserId(eq(testUserId), any(OffsetDateTime.class), any(UUID.class),
+                    eq(PageRequest.of(0, 51))))
+                    .thenReturn(List.of(testTransactionResponse));
 
-            when(transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId))
-                    .thenReturn(transactions);
-            when(transactionMapper.toPointTransactionResponseList(transactions))
-                    .thenReturn(expectedResponses);
+            // When
+            PointTransactionPage result = transactionService.getTransactionsByUser(testUserId, null, 50);
+
+            // Then
+            assertThat(result.getItems()).hasSize(1);
+            assertThat(result.getItems().get(0).getId()).isEqualTo(testTransactionId);
+            assertThat(result.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should return next cursor pointing after the last item")
+        void shouldReturnNextCursorAfterLastItem() {
+            // Given
+            OffsetDateTime now = OffsetDateTime.now();
+            List<PointTransactionResponse> rows = List.of(
+                    response(UUID.randomUUID(), now),
+                    response(UUID.randomUUID(), now.minusSeconds(1)),
+                    response(UUID.randomUUID(), now.minusSeconds(2)));
+            when(transactionRepository.findPageByUserId(eq(testUserId), any(OffsetDateTime.class), any(UUID.class),
+                    eq(PageRequest.of(0, 3))))
+                    .thenReturn(rows);
 
             // When
-            List<PointTransactionResponse> result = transactionService.getTransactionsByUser(testUserId);
+            PointTransactionPage result = transactionService.getTransactionsByUser(testUserId, null, 2);
 
             // Then
-            assertThat(result).isNotNull();
-            assertThat(result).hasSize(1);
-            assertThat(result.get(0).getId()).isEqualTo(testTransactionId);
+            assertThat(result.getItems()).hasSize(2);
+            TransactionCursor next = TransactionCursor.decode(result.getNextCursor());
+            assertThat(next.id()).isEqualTo(rows.get(1).getId());
+            assertThat(next.createdAt().toInstant()).isEqualTo(rows.get(1).getCreatedAt().toInstant());
         }
 
         @Test
-        @DisplayName("Should return empty list when no transactions")
-        void shouldReturnEmptyListWhenNoTransactions() {
+        @DisplayName("Should resume from the given cursor")
+        void shouldResumeFromCursor() {
             // Given
-            when(transactionRepository.findByUserIdOrderByCreatedAtDesc(testUserId))
+            OffsetDateTime createdAt = OffsetDateTime.now().minusDays(1);
+            UUID lastId = UUID.randomUUID();
+            String cursor = new TransactionCursor(createdAt, lastId).encode();
+            when(transactionRepository.findPageByUserId(eq(testUserId),
+                    argThat(date -> date.toInstant().equals(createdAt.toInstant())), eq(lastId),
+                    eq(PageRequest.of(0, 11))))
                     .thenReturn(List.of());
-            when(transactionMapper.toPointTransactionResponseList(List.of()))
+
+            // When
+            PointTransactionPage result = transactionService.getTransactionsByUser(testUserId, cursor, 10);
+
+            // Then
+            assertThat(result.getItems()).isEmpty();
+            assertThat(result.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should cap page size")
+        void shouldCapPageSize() {
+            // Given
+            when(transactionRepository.findPageByUserId(eq(testUserId), any(OffsetDateTime.class), any(UUID.class),
+                    eq(PageRequest.of(0, 201))))
                     .thenReturn(List.of());
 
             // When
-            List<PointTransactionResponse> result = transactionService.getTransactionsByUser(testUserId);
+            PointTransactionPage result = transactionService.getTransactionsByUser(testUserId, null, 10_000);
 
             // Then
-            assertThat(result).isEmpty();
+            assertThat(result.getItems()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should reject invalid cursor and page size")
+        void shouldRejectInvalidCursorAndPageSize() {
+            // When/Then
+            assertThatThrownBy(() -> transactionService.getTransactionsByUser(testUserId, "not-a-cursor", 10))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid cursor");
+            assertThatThrownBy(() -> transactionService.getTransactionsByUser(testUserId, null, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(transactionRepository);
         }
     }
 
@@ -115,22 +185,17 @@ class PointTransactionServiceTest {
         @DisplayName("Should return credit transactions for user")
         void shouldReturnCreditTransactionsForUser() {
             // Given
-            List<PointTransaction> transactions = Arrays.asList(testTransaction);
-            List<PointTransactionResponse> expectedResponses = Arrays.asList(testTransactionResponse);
-
-            when(transactionRepository.findByUserIdAndTransactionTypeOrderByCreatedAtDesc(
-                    testUserId, TransactionType.CREDIT))
-                    .thenReturn(transactions);
-            when(transactionMapper.toPointTransactionResponseList(transactions))
-                    .thenReturn(expectedResponses);
+            when(transactionRepository.findPageByUserIdAndTransactionType(eq(testUserId), eq(TransactionType.CREDIT),
+                    any(OffsetDateTime.class), any(UUID.class), eq(PageRequest.of(0, 51))))
+                    .thenReturn(List.of(testTransactionResponse));
 
             // When
-            List<PointTransactionResponse> result = transactionService
-                    .getTransactionsByUserAndType(testUserId, TransactionType.CREDIT);
+            PointTransactionPage result = transactionService
+                    .getTransactionsByUserAndType(testUserId, TransactionType.CREDIT, null, 50);
 
             // Then
-            assertThat(result).isNotNull();
-            assertThat(result).hasSize(1);
+            assertThat(result.getItems()).hasSize(1);
+            assertThat(result.getNextCursor()).isNull();
         }
     }
 
@@ -169,20 +234,54 @@ class PointTransactionServiceTest {
             // Given
             OffsetDateTime startDate = OffsetDateTime.now().minusDays(7);
             OffsetDateTime endDate = OffsetDateTime.now();
-            List<PointTransaction> transactions = Arrays.asList(testTransaction);
-            List<PointTransactionResponse> expectedResponses = Arrays.asList(testTransactionResponse);
 
-            when(transactionRepository.findByUserIdAndPeriod(testUserId, startDate, endDate))
-                    .thenReturn(transactions);
-            when(transactionMapper.toPointTransactionResponseList(transactions))
-                    .thenReturn(expectedResponses);
+            when(transactionRepository.findPageByUserIdAndPeriod(eq(testUserId), eq(startDate), eq(endDate),
+                    any(OffsetDateTime.class), any(UUID.class), eq(PageRequest.of(0, 51))))
+                    .thenReturn(List.of(testTransactionResponse));
 
             // When
-            List<PointTransactionResponse> result = transactionService
-                    .getTransactionsByPeriod(testUserId, startDate, endDate);
+            PointTransactionPage result = transactionService
+                    .getTransactionsByPeriod(testUserId, startDate, endDate, null, 50);
 
             // Then
-            assertThat(result).hasSize(1);
+            assertThat(result.getItems()).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should bound the period by the cursor position")
+        void shouldBoundPeriodByCursor() {
+            // Given
+            OffsetDateTime startDate = OffsetDateTime.now(ZoneOffset.UTC).minusDays(60);
+            OffsetDateTime endDate = OffsetDateTime.now(ZoneOffset.UTC);
+            TransactionCursor cursor = new TransactionCursor(endDate.minusDays(40), UUID.randomUUID());
+
+            when(transactionRepository.findPageByUserIdAndPeriod(testUserId, startDate, cursor.createdAt(),
+                    cursor.createdAt(), cursor.id(), PageRequest.of(0, 51)))
+                    .thenReturn(List.of(testTransactionResponse));
+
+            // When
+            PointTransactionPage result = transactionService
+                    .getTransactionsByPeriod(testUserId, startDate, endDate, cursor.encode(), 50);
+
+            // Then
+            assertThat(result.getItems()).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should return an empty page when the cursor is before the period")
+        void shouldReturnEmptyPageBeforePeriod() {
+            // Given
+            OffsetDateTime startDate = OffsetDateTime.now().minusDays(7);
+            TransactionCursor cursor = new TransactionCursor(startDate.minusDays(1), UUID.randomUUID());
+
+            // When
+            PointTransactionPage result = transactionService
+                    .getTransactionsByPeriod(testUserId, startDate, OffsetDateTime.now(), cursor.encode(), 50);
+
+            // Then
+            assertThat(result.getItems()).isEmpty();
+            assertThat(result.getNextCursor()).isNull();
+            verifyNoInteractions(transactionRepository);
         }
     }
 
@@ -196,20 +295,17 @@ class PointTransactionServiceTest {
             // Given
             UUID referenceId = UUID.randomUUID();
             String referenceType = "REPORT";
-            List<PointTransaction> transactions = Arrays.asList(testTransaction);
-            List<PointTransactionResponse> expectedResponses = Arrays.asList(testTransactionResponse);
 
-            when(transactionRepository.findByReferenceIdAndReferenceType(referenceId, referenceType))
-                    .thenReturn(transactions);
-            when(transactionMapper.toPointTransactionResponseList(transactions))
-                    .thenReturn(expectedResponses);
+            when(transactionRepository.findPageByReference(eq(referenceId), eq(referenceType),
+                    any(OffsetDateTime.class), any(UUID.class), eq(PageRequest.of(0, 51))))
+                    .thenReturn(List.of(testTransactionResponse));
 
             // When
-            List<PointTransactionResponse> result = transactionService
-                    .getTransactionsByReference(referenceId, referenceType);
+            PointTransactionPage result = transactionService
+                    .getTransactionsByReference(referenceId, referenceType, null, 50);
 
             // Then
-            assertThat(result).hasSize(1);
+            assertThat(result.getItems()).hasSize(1);
         }
     }
 
@@ -0,0 +1,314 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
+import com.medina.heritage.gamification.dto.response.RedemptionResponse;
+import com.medina.heritage.gamification.entity.Reward;
+import com.medina.heritage.gamification.entity.RewardRedemption;
+import com.medina.heritage.gamification.entity.StockLease;
+import com.medina.heritage.gamification.enums.RedemptionStatus;
+import com.medina.heritage.gamification.enums.StockLeaseStatus;
+import com.medina.heritage.gamification.exception.InsufficientBalanceException;
+import com.medina.heritage.gamification.exception.OutOfStockException;
+import com.medina.heritage.gamification.exception.RewardNotFoundException;
+import com.medina.heritage.gamification.repository.RewardRedemptionRepository;
+import com.medina.heritage.gamification.repository.RewardRepository;
+import com.medina.heritage.gamification.repository.StockLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RewardServiceTest {
+
+    private static final int COST = 100;
+
+    @Mock
+    private RewardRepository rewardRepository;
+
+    @Mock
+    private StockLeaseRepository leaseRepository;
+
+    @Mock
+    private RewardRedemptionRepository redemptionRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RewardService rewardService;
+
+    private UUID rewardId;
+    private UUID testUserId;
+    private List<StockLease> savedLeases;
+
+    @BeforeEach
+    void setUp() {
+        rewardService = new RewardService(rewardRepository, leaseRepository, redemptionRepository, walletService,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(rewardService, "leaseSize", 10);
+        ReflectionTestUtils.setField(rewardService, "leaseTtlSeconds", 30L);
+        ReflectionTestUtils.setField(rewardService, "reservationTtlSeconds", 300L);
+        ReflectionTestUtils.setField(rewardService, "orphanGraceSeconds", 60L);
+        rewardId = UUID.randomUUID();
+        testUserId = UUID.randomUUID();
+        savedLeases = new ArrayList<>();
+    }
+
+    private Reward reward(int availableStock) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new Reward(rewardId, "Visite guidée", null, COST, 100, availableStock, true, now, now);
+    }
+
+    private StockLease lease(StockLeaseStatus status, int quantity) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new StockLease(UUID.randomUUID(), rewardId, UUID.randomUUID(), quantity, status, null,
+                now.minusMinutes(5), now.minusMinutes(4), null);
+    }
+
+    private RewardRedemption reservation(OffsetDateTime expiresAt, UUID leaseId) {
+        return new RewardRedemption(UUID.randomUUID(), rewardId, leaseId, testUserId, COST,
+                RedemptionStatus.RESERVED, null, OffsetDateTime.now(), expiresAt, null);
+    }
+
+    private void stubLeaseAndReservationSaves() {
+        when(leaseRepository.save(any(StockLease.class))).thenAnswer(invocation -> {
+            StockLease lease = invocation.getArgument(0);
+            if (lease.getId() == null) {
+                lease.setId(UUID.randomUUID());
+                savedLeases.add(lease);
+            }
+            return lease;
+        });
+        when(redemptionRepository.save(any(RewardRedemption.class))).thenAnswer(invocation -> {
+            RewardRedemption reservation = invocation.getArgument(0);
+            reservation.setId(UUID.randomUUID());
+            return reservation;
+        });
+    }
+
+    @Nested
+    @DisplayName("Reserve Tests")
+    class ReserveTests {
+
+        @Test
+        @DisplayName("Should claim one block of stock and serve the next reservations from memory")
+        void shouldClaimOneBlockForSeveralReservations() {
+            // Given - 100 units left: a block of min(10, 100 / 4) units
+            when(rewardRepository.findById(rewardId)).thenReturn(Optional.of(reward(100)));
+            when(rewardRepository.claimStock(eq(rewardId), eq(10), any())).thenReturn(1);
+            stubLeaseAndReservationSaves();
+
+            // When
+            List<RedemptionResponse> responses = List.of(
+                    rewardService.reserve(testUserId, rewardId),
+                    rewardService.reserve(UUID.randomUUID(), rewardId),
+                    rewardService.reserve(UUID.randomUUID(), rewardId));
+
+            // Then
+            assertThat(responses).allSatisfy(response -> {
+                assertThat(response.getStatus()).isEqualTo(RedemptionStatus.RESERVED);
+                assertThat(response.getPoints()).isEqualTo(COST);
+                assertThat(response.getExpiresAt()).isAfter(OffsetDateTime.now().plusSeconds(290));
+            });
+            verify(rewardRepository, times(1)).claimStock(any(), anyInt(), any());
+            verify(redemptionRepository, times(3)).save(any(RewardRedemption.class));
+            assertThat(savedLeases).singleElement()
+                    .satisfies(lease -> assertThat(lease.getQuantity()).isEqualTo(10));
+        }
+
+        @Test
+        @DisplayName("Should refuse once the stock is exhausted without querying the database again")
+        void shouldRefuseWhenStockIsExhausted() {
+            // Given - 2 units left: a block of 1 unit, then nothing
+            when(rewardRepository.findById(rewardId)).thenReturn(Optional.of(reward(2)), Optional.of(reward(0)));
+            when(rewardRepository.claimStock(eq(rewardId), eq(1), any())).thenReturn(1);
+            stubLeaseAndReservationSaves();
+            rewardService.reserve(testUserId, rewardId);
+            when(leaseRepository.findForUpdate(any())).thenAnswer(invocation -> Optional.of(savedLeases.get(0)));
+            when(redemptionRepository.countByLeaseIdAndStatusIn(any(), any())).thenReturn(1L);
+
+            // When / Then
+            assertThatThrownBy(() -> rewardService.reserve(UUID.randomUUID(), rewardId))
+                    .isInstanceOf(OutOfStockException.class);
+            assertThatThrownBy(() -> rewardService.reserve(UUID.randomUUID(), rewardId))
+                    .isInstanceOf(OutOfStockException.class);
+
+            // The exhausted block was settled with nothing to give back
+            assertThat(savedLeases.get(0).getStatus()).isEqualTo(StockLeaseStatus.SETTLED);
+            assertThat(savedLeases.get(0).getReturnedQuantity()).isZero();
+            verify(rewardRepository, never()).returnStock(any(), anyInt(), any());
+            verify(rewardRepository, times(2)).findById(rewardId);
+        }
+
+        @Test
+        @DisplayName("Should throw when the reward does not exist")
+        void shouldThrowWhenRewardDoesNotExist() {
+            // Given
+            when(rewardRepository.findById(rewardId)).thenReturn(Optional.empty());
+
+            // When / Then
+            assertThatThrownBy(() -> rewardService.reserve(testUserId, rewardId))
+                    .isInstanceOf(RewardNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Confirm Tests")
+    class ConfirmTests {
+
+        @Test
+        @DisplayName("Should debit the reward cost and confirm the reservation")
+        void shouldDebitAndConfirm() {
+            // Given
+            RewardRedemption reservation = reservation(OffsetDateTime.now().plusMinutes(5), UUID.randomUUID());
+            UUID transactionId = UUID.randomUUID();
+            PointTransactionResponse debit = new PointTransactionResponse();
+            debit.setId(transactionId);
+            RewardRedemption confirmed = reservation(reservation.getExpiresAt(), reservation.getLeaseId());
+            confirmed.setId(reservation.getId());
+            confirmed.setStatus(RedemptionStatus.CONFIRMED);
+            confirmed.setTransactionId(transactionId);
+            when(redemptionRepository.findById(reservation.getId()))
+                    .thenReturn(Optional.of(reservation), Optional.of(confirmed));
+            when(walletService.deductPoints(any(DeductPointsRequest.class))).thenReturn(debit);
+            when(redemptionRepository.confirm(eq(reservation.getId()), eq(transactionId), any())).thenReturn(1);
+
+            // When
+            RedemptionResponse response = rewardService.confirm(reservation.getId());
+
+            // Then
+            assertThat(response.getStatus()).isEqualTo(RedemptionStatus.CONFIRMED);
+            assertThat(response.getTransactionId()).isEqualTo(transactionId);
+            ArgumentCaptor<DeductPointsRequest> captor = ArgumentCaptor.forClass(DeductPointsRequest.class);
+            verify(walletService).deductPoints(captor.capture());
+            assertThat(captor.getValue().getUserId()).isEqualTo(testUserId);
+            assertThat(captor.getValue().getPoints()).isEqualTo(COST);
+            assertThat(captor.getValue().getReasonCode()).isEqualTo("REWARD_REDEMPTION");
+            assertThat(captor.getValue().getReferenceId()).isEqualTo(reservation.getId());
+        }
+
+        @Test
+        @DisplayName("Should release the reservation when the balance is insufficient")
+        void shouldReleaseWhenBalanceIsInsufficient() {
+            // Given - the block was already settled: the unit goes straight back to the stock
+            StockLease settled = lease(StockLeaseStatus.SETTLED, 10);
+            RewardRedemption reservation = reservation(OffsetDateTime.now().plusMinutes(5), settled.getId());
+            when(redemptionRepository.findById(reservation.getId())).thenReturn(Optional.of(reservation));
+            when(walletService.deductPoints(any(DeductPointsRequest.class)))
+                    .thenThrow(new InsufficientBalanceException(COST, 40));
+            when(leaseRepository.findForUpdate(settled.getId())).thenReturn(Optional.of(settled));
+            when(redemptionRepository.release(eq(reservation.getId()), eq(RedemptionStatus.RELEASED), any())).thenReturn(1);
+
+            // When / Then
+            assertThatThrownBy(() -> rewardService.confirm(reservation.getId()))
+                    .isInstanceOf(InsufficientBalanceException.class);
+            verify(rewardRepository).returnStock(eq(rewardId), eq(1), any());
+            verify(redemptionRepository, never()).confirm(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should refuse and expire a reservation past its deadline")
+        void shouldRefuseExpiredReservation() {
+            // Given - the block is still open: the unit goes back to it, not to the stock
+            StockLease open = lease(StockLeaseStatus.OPEN, 10);
+            RewardRedemption reservation = reservation(OffsetDateTime.now().minusSeconds(1), open.getId());
+            when(redemptionRepository.findById(reservation.getId())).thenReturn(Optional.of(reservation));
+            when(leaseRepository.findForUpdate(open.getId())).thenReturn(Optional.of(open));
+            when(redemptionRepository.release(eq(reservation.getId()), eq(RedemptionStatus.EXPIRED), any())).thenReturn(1);
+
+            // When / Then
+            assertThatThrownBy(() -> rewardService.confirm(reservation.getId()))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("expired");
+            verify(walletService, never()).deductPoints(any());
+            verify(rewardRepository, never()).returnStock(any(), anyInt(), any());
+        }
+
+        @Test
+        @DisplayName("Should refuse a reservation already confirmed")
+        void shouldRefuseConfirmedReservation() {
+            // Given
+            RewardRedemption reservation = reservation(OffsetDateTime.now().plusMinutes(5), UUID.randomUUID());
+            reservation.setStatus(RedemptionStatus.CONFIRMED);
+            when(redemptionRepository.findById(reservation.getId())).thenReturn(Optional.of(reservation));
+
+            // When / Then
+            assertThatThrownBy(() -> rewardService.confirm(reservation.getId()))
+                    .isInstanceOf(IllegalStateException.class);
+            verify(walletService, never()).deductPoints(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Lease Settlement Tests")
+    class LeaseSettlementTests {
+
+        @Test
+        @DisplayName("Should give unreserved units back to the stock on shutdown")
+        void shouldReturnUnreservedUnitsOnShutdown() {
+            // Given - one reservation out of a block of 10
+            when(rewardRepository.findById(rewardId)).thenReturn(Optional.of(reward(100)));
+            when(rewardRepository.claimStock(eq(rewardId), eq(10), any())).thenReturn(1);
+            stubLeaseAndReservationSaves();
+            rewardService.reserve(testUserId, rewardId);
+            when(leaseRepository.findForUpdate(any())).thenAnswer(invocation -> Optional.of(savedLeases.get(0)));
+            when(redemptionRepository.countByLeaseIdAndStatusIn(any(), any())).thenReturn(1L);
+
+            // When
+            rewardService.shutdown();
+
+            // Then
+            verify(rewardRepository).returnStock(eq(rewardId), eq(9), any());
+            assertThat(savedLeases.get(0).getStatus()).isEqualTo(StockLeaseStatus.SETTLED);
+            assertThat(savedLeases.get(0).getReturnedQuantity()).isEqualTo(9);
+        }
+
+        @Test
+        @DisplayName("Should expire overdue reservations and settle leases left open by a stopped instance")
+        void shouldExpireReservationsAndSettleOrphanLeases() {
+            // Given
+            StockLease orphan = lease(StockLeaseStatus.OPEN, 5);
+            RewardRedemption overdue = reservation(OffsetDateTime.now().minusSeconds(1), orphan.getId());
+            when(redemptionRepository.findIdsExpiredBefore(eq(RedemptionStatus.RESERVED), any(), any()))
+                    .thenReturn(List.of(overdue.getId()));
+            when(redemptionRepository.findById(overdue.getId())).thenReturn(Optional.of(overdue));
+            when(leaseRepository.findForUpdate(orphan.getId())).thenReturn(Optional.of(orphan));
+            when(redemptionRepository.release(eq(overdue.getId()), eq(RedemptionStatus.EXPIRED), any())).thenReturn(1);
+            when(leaseRepository.findIdsExpiredBefore(eq(StockLeaseStatus.OPEN), any(), any()))
+                    .thenReturn(List.of(orphan.getId()));
+            when(redemptionRepository.countByLeaseIdAndStatusIn(eq(orphan.getId()), any())).thenReturn(2L);
+
+            // When
+            rewardService.sweep();
+
+            // Then - the expired unit is part of the 3 units given back with the lease
+            verify(rewardRepository).returnStock(eq(rewardId), eq(3), any());
+            assertThat(orphan.getStatus()).isEqualTo(StockLeaseStatus.SETTLED);
+            assertThat(orphan.getReturnedQuantity()).isEqualTo(3);
+        }
+    }
+}
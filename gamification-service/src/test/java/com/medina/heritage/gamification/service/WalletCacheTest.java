@@ -0,0 +1,161 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.response.WalletResponse;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.mapper.WalletMapper;
+import com.medina.heritage.gamification.messaging.GamificationEventPublisher;
+import com.medina.heritage.gamification.messaging.WalletCacheInvalidationEvent;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletCacheTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletMapper walletMapper;
+
+    @Mock
+    private GamificationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadYourWritesGuard readYourWritesGuard;
+    private WalletCache walletCache;
+    private UUID testUserId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        readYourWritesGuard = new ReadYourWritesGuard(true, true, 5, 100);
+        walletCache = new WalletCache(walletRepository, walletMapper, eventPublisher, readYourWritesGuard,
+                meterRegistry, 100, 300);
+        testUserId = UUID.randomUUID();
+    }
+
+    private WalletResponse response(int totalEarned, int totalSpent) {
+        WalletResponse response = new WalletResponse();
+        response.setUserId(testUserId);
+        response.setBalance(totalEarned - totalSpent);
+        response.setTotalEarned(totalEarned);
+        response.setTotalSpent(totalSpent);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Should load once and serve later reads from cache")
+    void shouldLoadOnceAndServeFromCache() {
+        // Given
+        Wallet wallet = new Wallet(testUserId);
+        WalletResponse loaded = response(100, 0);
+        when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(wallet));
+        when(walletMapper.toWalletResponse(wallet)).thenReturn(loaded);
+
+        // When
+        WalletResponse first = walletCache.get(testUserId);
+        WalletResponse second = walletCache.get(testUserId);
+
+        // Then
+        assertThat(first).isSameAs(loaded);
+        assertThat(second).isSameAs(loaded);
+        verify(walletRepository, times(1)).findByUserId(testUserId);
+        assertThat(meterRegistry.get("gamification.wallet.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("gamification.wallet.cache.load").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache missing wallets")
+    void shouldNotCacheMissingWallets() {
+        // Given
+        when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
+
+        // When
+        walletCache.get(testUserId);
+        WalletResponse result = walletCache.get(testUserId);
+
+        // Then
+        assertThat(result).isNull();
+        verify(walletRepository, times(2)).findByUserId(testUserId);
+    }
+
+    @Test
+    @DisplayName("Should write through newer states and broadcast an invalidation")
+    void shouldWriteThroughNewerStates() {
+        // Given
+        Wallet newer = new Wallet(testUserId);
+        newer.setTotalSpent(20);
+        Wallet older = new Wallet(testUserId);
+        when(walletMapper.toWalletResponse(newer)).thenReturn(response(150, 20));
+        when(walletMapper.toWalletResponse(older)).thenReturn(response(150, 0));
+
+        // When - commits observed out of order
+        walletCache.putAfterCommit(newer);
+        walletCache.putAfterCommit(older);
+
+        // Then
+        assertThat(walletCache.get(testUserId).getBalance()).isEqualTo(130);
+        verify(walletRepository, never()).findByUserId(any());
+        verify(eventPublisher, times(2)).publishWalletCacheInvalidation(argThat(event ->
+                event.getUserIds().equals(List.of(testUserId))));
+    }
+
+    @Test
+    @DisplayName("Should drop wallets invalidated by other instances only")
+    void shouldApplyInvalidationsFromOtherInstances() {
+        // Given
+        walletCache.put(response(100, 0));
+        walletCache.evictAfterCommit(List.of(UUID.randomUUID()));
+        ArgumentCaptor<WalletCacheInvalidationEvent> sent = ArgumentCaptor.forClass(WalletCacheInvalidationEvent.class);
+        verify(eventPublisher).publishWalletCacheInvalidation(sent.capture());
+        UUID ownInstance = sent.getValue().getOrigin();
+
+        // When - own message echoed back by the broker
+        walletCache.onInvalidation(new WalletCacheInvalidationEvent(ownInstance, List.of(testUserId)));
+
+        // Then
+        assertThat(walletCache.get(testUserId)).isNotNull();
+
+        // When - message from another instance
+        walletCache.onInvalidation(new WalletCacheInvalidationEvent(UUID.randomUUID(), List.of(testUserId)));
+        when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
+
+        // Then
+        assertThat(walletCache.get(testUserId)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should pin users written here or on other instances to the primary")
+    void shouldPinWrittenUsers() {
+        // Given
+        Wallet wallet = new Wallet(testUserId);
+        when(walletMapper.toWalletResponse(wallet)).thenReturn(response(100, 0));
+        UUID bulkUserId = UUID.randomUUID();
+        UUID remoteUserId = UUID.randomUUID();
+
+        // When
+        walletCache.putAfterCommit(wallet);
+        walletCache.evictAfterCommit(List.of(bulkUserId));
+        walletCache.onInvalidation(new WalletCacheInvalidationEvent(UUID.randomUUID(), List.of(remoteUserId)));
+
+        // Then
+        assertThat(readYourWritesGuard.isPinned(testUserId)).isTrue();
+        assertThat(readYourWritesGuard.isPinned(bulkUserId)).isTrue();
+        assertThat(readYourWritesGuard.isPinned(remoteUserId)).isTrue();
+        assertThat(readYourWritesGuard.isPinned(UUID.randomUUID())).isFalse();
+    }
+}
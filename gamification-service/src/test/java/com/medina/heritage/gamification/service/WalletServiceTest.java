@@ -6,6 +6,7 @@ import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
 import com.medina.heritage.gamification.dto.response.WalletResponse;
 import com.medina.heritage.gamification.entity.PointTransaction;
 import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.enums.Badge;
 import com.medina.heritage.gamification.enums.TransactionType;
 import com.medina.heritage.gamification.exception.DuplicateTransactionException;
 import com.medina.heritage.gamification.exception.InsufficientBalanceException;
@@ -19,17 +20,22 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +53,27 @@ class WalletServiceTest {
     @Mock
     private PointTransactionMapper transactionMapper;
 
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private WalletCache walletCache;
+
+    @Mock
+    private PointStatsService pointStatsService;
+
+    @Mock
+    private LevelHistogram levelHistogram;
+
+    @Mock
+    private AchievementService achievementService;
+
+    @Mock
+    private ActivityTracker activityTracker;
+
+    @Mock
+    private PlatformCounters platformCounters;
+
     @InjectMocks
     private WalletService walletService;
 
@@ -84,8 +111,7 @@ class WalletServiceTest {
         @DisplayName("Should return existing wallet")
         void shouldReturnExistingWallet() {
             // Given
-            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(testWallet));
-            when(walletMapper.toWalletResponse(testWallet)).thenReturn(testWalletResponse);
+            when(walletCache.get(testUserId)).thenReturn(testWalletResponse);
 
             // When
             WalletResponse result = walletService.getOrCreateWallet(testUserId);
@@ -107,7 +133,7 @@ class WalletServiceTest {
             newWalletResponse.setBalance(0);
             newWalletResponse.setLevel(1);
 
-            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
+            when(walletCache.get(testUserId)).thenReturn(null);
             when(walletRepository.save(any(Wallet.class))).thenReturn(newWallet);
             when(walletMapper.toWalletResponse(newWallet)).thenReturn(newWalletResponse);
 
@@ -119,6 +145,7 @@ class WalletServiceTest {
             assertThat(result.getUserId()).isEqualTo(testUserId);
             assertThat(result.getBalance()).isEqualTo(0);
             verify(walletRepository).save(any(Wallet.class));
+            verify(walletCache).putAfterCommit(newWallet);
         }
     }
 
@@ -130,8 +157,7 @@ class WalletServiceTest {
         @DisplayName("Should return wallet when exists")
         void shouldReturnWalletWhenExists() {
             // Given
-            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(testWallet));
-            when(walletMapper.toWalletResponse(testWallet)).thenReturn(testWalletResponse);
+            when(walletCache.get(testUserId)).thenReturn(testWalletResponse);
 
             // When
             WalletResponse result = walletService.getWallet(testUserId);
@@ -139,13 +165,14 @@ class WalletServiceTest {
             // Then
             assertThat(result).isNotNull();
             assertThat(result.getUserId()).isEqualTo(testUserId);
+            verifyNoInteractions(walletRepository);
         }
 
         @Test
         @DisplayName("Should throw exception when wallet not found")
         void shouldThrowExceptionWhenWalletNotFound() {
             // Given
-            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
+            when(walletCache.get(testUserId)).thenReturn(null);
 
             // When/Then
             assertThatThrownBy(() -> walletService.getWallet(testUserId))
@@ -181,8 +208,11 @@ class WalletServiceTest {
             transactionResponse.setPoints(50);
             transactionResponse.setTransactionType(TransactionType.CREDIT);
 
+            when(walletRepository.findForUpdate(testUserId)).thenReturn(Optional.of(testWallet));
+            when(walletRepository.creditPoints(eq(testUserId), eq(50), any(OffsetDateTime.class))).thenReturn(1);
+            testWallet.setBalance(150);
+            testWallet.setTotalEarned(150);
             when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(testWallet));
-            when(walletRepository.save(any(Wallet.class))).thenReturn(testWallet);
             when(transactionRepository.save(any(PointTransaction.class))).thenReturn(savedTransaction);
             when(transactionMapper.toPointTransactionResponse(savedTransaction)).thenReturn(transactionResponse);
 
@@ -193,8 +223,13 @@ class WalletServiceTest {
             assertThat(result).isNotNull();
             assertThat(result.getPoints()).isEqualTo(50);
             assertThat(result.getTransactionType()).isEqualTo(TransactionType.CREDIT);
-            verify(walletRepository).save(any(Wallet.class));
-            verify(transactionRepository).save(any(PointTransaction.class));
+            verify(walletRepository, never()).insertIfAbsent(any(), any());
+            verify(walletRepository, never()).save(any());
+            verify(transactionRepository).save(argThat(tx -> tx.getBalanceAfter() == 150));
+            verify(leaderboardService).recordScore(eq(testUserId), eq(150), eq(50), any(OffsetDateTime.class));
+            verify(walletCache).putAfterCommit(testWallet);
+            verify(pointStatsService).record(savedTransaction);
+            verify(levelHistogram).levelChanged(1, 1);
         }
 
         @Test
@@ -206,13 +241,14 @@ class WalletServiceTest {
             request.setPoints(100);
             request.setReasonCode("WELCOME_BONUS");
 
-            Wallet newWallet = new Wallet(testUserId);
             PointTransaction savedTransaction = new PointTransaction();
             savedTransaction.setId(UUID.randomUUID());
             PointTransactionResponse transactionResponse = new PointTransactionResponse();
 
-            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
-            when(walletRepository.save(any(Wallet.class))).thenReturn(newWallet);
+            when(walletRepository.findForUpdate(testUserId)).thenReturn(Optional.empty(), Optional.of(new Wallet(testUserId)));
+            when(walletRepository.creditPoints(eq(testUserId), eq(100), any(OffsetDateTime.class))).thenReturn(1);
+            when(walletRepository.insertIfAbsent(eq(testUserId), any(OffsetDateTime.class))).thenReturn(1);
+            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(testWallet));
             when(transactionRepository.save(any(PointTransaction.class))).thenReturn(savedTransaction);
             when(transactionMapper.toPointTransactionResponse(savedTransaction)).thenReturn(transactionResponse);
 
@@ -221,7 +257,48 @@ class WalletServiceTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(walletRepository, times(2)).save(any(Wallet.class));
+            verify(walletRepository).insertIfAbsent(eq(testUserId), any(OffsetDateTime.class));
+            verify(walletRepository, times(2)).findForUpdate(testUserId);
+            verify(walletRepository).creditPoints(eq(testUserId), eq(100), any(OffsetDateTime.class));
+            verify(transactionRepository).save(argThat(tx -> tx.getBalanceAfter() == 100));
+            verify(levelHistogram).walletsCreated(1);
+        }
+
+        @Test
+        @DisplayName("Should credit badge points in the same transaction when a badge is earned")
+        void shouldCreditBadgePointsWhenBadgeEarned() {
+            // Given
+            AddPointsRequest request = new AddPointsRequest();
+            request.setUserId(testUserId);
+            request.setPoints(100);
+            request.setReasonCode("REPORT_VALIDATED");
+
+            PointTransaction reportTransaction = new PointTransaction();
+            reportTransaction.setUserId(testUserId);
+            reportTransaction.setReasonCode("REPORT_VALIDATED");
+            PointTransaction badgeTransaction = new PointTransaction();
+            badgeTransaction.setUserId(testUserId);
+            badgeTransaction.setReasonCode("BADGE_EARNED");
+
+            when(walletRepository.findForUpdate(testUserId)).thenReturn(Optional.of(testWallet));
+            when(walletRepository.creditPoints(eq(testUserId), anyInt(), any(OffsetDateTime.class))).thenReturn(1);
+            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(testWallet));
+            when(transactionRepository.save(any(PointTransaction.class))).thenReturn(reportTransaction, badgeTransaction);
+            when(achievementService.record(any(PointTransaction.class), anyInt()))
+                    .thenReturn(List.of(Badge.FIRST_REPORT), List.of());
+            when(transactionMapper.toPointTransactionResponse(reportTransaction)).thenReturn(new PointTransactionResponse());
+
+            // When
+            walletService.addPoints(request);
+
+            // Then
+            verify(walletRepository).creditPoints(eq(testUserId), eq(100), any(OffsetDateTime.class));
+            verify(walletRepository).creditPoints(eq(testUserId), eq(Badge.FIRST_REPORT.getPoints()), any(OffsetDateTime.class));
+            verify(transactionRepository).save(argThat(tx -> "BADGE_EARNED".equals(tx.getReasonCode())
+                    && tx.getPoints() == Badge.FIRST_REPORT.getPoints()));
+            verify(achievementService).record(reportTransaction, 100);
+            verify(achievementService).record(badgeTransaction, 100);
+            verify(pointStatsService).record(badgeTransaction);
         }
 
         @Test
@@ -242,7 +319,35 @@ class WalletServiceTest {
             // When/Then
             assertThatThrownBy(() -> walletService.addPoints(request))
                     .isInstanceOf(DuplicateTransactionException.class);
-            verify(walletRepository, never()).save(any());
+            verify(walletRepository, never()).creditPoints(any(), anyInt(), any());
+            verify(leaderboardService, never()).recordScore(any(), anyInt(), anyInt(), any());
+            verifyNoInteractions(walletCache);
+        }
+
+        @Test
+        @DisplayName("Should refuse a concurrent duplicate seen under the wallet lock before crediting")
+        void shouldRefuseDuplicateUnderWalletLock() {
+            // Given - the reference is committed by a concurrent credit while this one waits for the row lock
+            UUID referenceId = UUID.randomUUID();
+            AddPointsRequest request = new AddPointsRequest();
+            request.setUserId(testUserId);
+            request.setPoints(50);
+            request.setReasonCode("REPORT_VALIDATED");
+            request.setReferenceId(referenceId);
+            request.setReferenceType("REPORT");
+            when(transactionRepository.existsByReferenceIdAndReferenceTypeAndReasonCode(
+                    referenceId, "REPORT", "REPORT_VALIDATED")).thenReturn(false, true);
+            when(walletRepository.findForUpdate(testUserId)).thenReturn(Optional.of(testWallet));
+
+            // When/Then
+            assertThatThrownBy(() -> walletService.addPoints(request))
+                    .isInstanceOf(DuplicateTransactionException.class);
+            InOrder inOrder = inOrder(walletRepository, transactionRepository);
+            inOrder.verify(walletRepository).findForUpdate(testUserId);
+            inOrder.verify(transactionRepository).existsByReferenceIdAndReferenceTypeAndReasonCode(
+                    referenceId, "REPORT", "REPORT_VALIDATED");
+            verify(walletRepository, never()).creditPoints(any(), anyInt(), any());
+            verify(transactionRepository, never()).save(any());
         }
     }
 
@@ -270,8 +375,10 @@ class WalletServiceTest {
             transactionResponse.setPoints(50);
             transactionResponse.setTransactionType(TransactionType.DEBIT);
 
+            testWallet.setBalance(50);
+            testWallet.setTotalSpent(50);
+            when(walletRepository.debitPoints(eq(testUserId), eq(50), any(OffsetDateTime.class))).thenReturn(1);
             when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(testWallet));
-            when(walletRepository.save(any(Wallet.class))).thenReturn(testWallet);
             when(transactionRepository.save(any(PointTransaction.class))).thenReturn(savedTransaction);
             when(transactionMapper.toPointTransactionResponse(savedTransaction)).thenReturn(transactionResponse);
 
@@ -282,6 +389,9 @@ class WalletServiceTest {
             assertThat(result).isNotNull();
             assertThat(result.getPoints()).isEqualTo(50);
             assertThat(result.getTransactionType()).isEqualTo(TransactionType.DEBIT);
+            verify(transactionRepository).save(argThat(tx -> tx.getBalanceAfter() == 50));
+            verify(walletCache).putAfterCommit(testWallet);
+            verify(pointStatsService).record(savedTransaction);
         }
 
         @Test
@@ -293,11 +403,13 @@ class WalletServiceTest {
             request.setPoints(50);
             request.setReasonCode("REWARD_REDEMPTION");
 
-            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.empty());
+            when(walletRepository.debitPoints(eq(testUserId), eq(50), any(OffsetDateTime.class))).thenReturn(0);
+            when(walletRepository.findBalanceByUserId(testUserId)).thenReturn(Optional.empty());
 
             // When/Then
             assertThatThrownBy(() -> walletService.deductPoints(request))
                     .isInstanceOf(WalletNotFoundException.class);
+            verify(transactionRepository, never()).save(any());
         }
 
         @Test
@@ -309,13 +421,41 @@ class WalletServiceTest {
             request.setPoints(200); // More than balance (100)
             request.setReasonCode("REWARD_REDEMPTION");
 
-            when(walletRepository.findByUserId(testUserId)).thenReturn(Optional.of(testWallet));
+            when(walletRepository.debitPoints(eq(testUserId), eq(200), any(OffsetDateTime.class))).thenReturn(0);
+            when(walletRepository.findBalanceByUserId(testUserId)).thenReturn(Optional.of(100));
 
             // When/Then
             assertThatThrownBy(() -> walletService.deductPoints(request))
                     .isInstanceOf(InsufficientBalanceException.class)
                     .hasMessageContaining("200")
                     .hasMessageContaining("100");
+            verify(transactionRepository, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Wallet Exists Tests")
+    class WalletExistsTests {
+
+        @Test
+        @DisplayName("Should answer from wallet cache")
+        void shouldAnswerFromWalletCache() {
+            // Given
+            when(walletCache.get(testUserId)).thenReturn(testWalletResponse);
+
+            // When/Then
+            assertThat(walletService.walletExists(testUserId)).isTrue();
+            verify(walletRepository, never()).existsByUserId(any());
+        }
+
+        @Test
+        @DisplayName("Should return false when user has no wallet")
+        void shouldReturnFalseWhenNoWallet() {
+            // Given
+            when(walletCache.get(testUserId)).thenReturn(null);
+
+            // When/Then
+            assertThat(walletService.walletExists(testUserId)).isFalse();
         }
     }
 
@@ -323,10 +463,25 @@ class WalletServiceTest {
     @DisplayName("User Rank Tests")
     class UserRankTests {
 
+        @Test
+        @DisplayName("Should return rank from leaderboard without querying database")
+        void shouldReturnRankFromLeaderboard() {
+            // Given
+            when(leaderboardService.getRank(testUserId)).thenReturn(3L);
+
+            // When
+            Long rank = walletService.getUserRank(testUserId);
+
+            // Then
+            assertThat(rank).isEqualTo(3L);
+            verify(walletRepository, never()).getUserRank(any());
+        }
+
         @Test
         @DisplayName("Should return user rank")
         void shouldReturnUserRank() {
-            // Given
+            // Given - not ranked in memory yet
+            when(leaderboardService.getRank(testUserId)).thenReturn(null);
             when(walletRepository.existsByUserId(testUserId)).thenReturn(true);
             when(walletRepository.getUserRank(testUserId)).thenReturn(5L);
 
@@ -341,6 +496,7 @@ class WalletServiceTest {
         @DisplayName("Should return null for non-existing user")
         void shouldReturnNullForNonExistingUser() {
             // Given
+            when(leaderboardService.getRank(testUserId)).thenReturn(null);
             when(walletRepository.existsByUserId(testUserId)).thenReturn(false);
 
             // When
@@ -349,5 +505,20 @@ class WalletServiceTest {
             // Then
             assertThat(rank).isNull();
         }
+
+        @Test
+        @DisplayName("Should fall back to the database when the leaderboard has no valid rank")
+        void shouldIgnoreInvalidLeaderboardRank() {
+            // Given
+            when(leaderboardService.getRank(testUserId)).thenReturn(0L);
+            when(walletRepository.existsByUserId(testUserId)).thenReturn(true);
+            when(walletRepository.getUserRank(testUserId)).thenReturn(7L);
+
+            // When
+            Long rank = walletService.getUserRank(testUserId);
+
+            // Then
+            assertThat(rank).isEqualTo(7L);
+        }
     }
 }
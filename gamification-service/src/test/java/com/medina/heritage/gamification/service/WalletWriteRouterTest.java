@@ -0,0 +1,306 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.response.PointTransactionResponse;
+import com.medina.heritage.gamification.exception.DuplicateTransactionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletWriteRouterTest {
+
+    private static final int COMMANDS = 5;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WalletWriteRouter router;
+    private ExecutorService callers;
+
+    // Hold the shard thread in the running command while its queue is filled
+    private final CountDownLatch blocking = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        callers = Executors.newCachedThreadPool();
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        callers.shutdownNow();
+        if (router != null) {
+            router.shutdown();
+        }
+    }
+
+    private WalletWriteRouter router(boolean enabled, int queueCapacity, long timeoutMillis) {
+        router = new WalletWriteRouter(walletService, new TransactionTemplate(transactionManager), meterRegistry,
+                enabled, 1, 32, queueCapacity, timeoutMillis);
+        return router;
+    }
+
+    private static AddPointsRequest request(int points) {
+        AddPointsRequest request = new AddPointsRequest();
+        request.setUserId(UUID.randomUUID());
+        request.setPoints(points);
+        request.setReasonCode("REPORT_VALIDATED");
+        return request;
+    }
+
+    private static PointTransactionResponse response(AddPointsRequest request) {
+        PointTransactionResponse response = new PointTransactionResponse();
+        response.setPoints(request.getPoints());
+        return response;
+    }
+
+    /**
+     * A 0-point command holds the shard until {@link #release}; the others answer their points.
+     */
+    private void stubAddPoints() {
+        when(walletService.addPoints(any(AddPointsRequest.class))).thenAnswer(invocation -> {
+            AddPointsRequest request = invocation.getArgument(0);
+            if (request.getPoints() == 0) {
+                blocking.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return response(request);
+        });
+    }
+
+    private Future<PointTransactionResponse> submit(AddPointsRequest request) {
+        return callers.submit(() -> router.addPoints(request));
+    }
+
+    /**
+     * Holds the shard with the blocking command, then queues {@code count} commands.
+     */
+    private List<Future<PointTransactionResponse>> queueBehindBlockingCommand(int count) throws Exception {
+        submit(request(0));
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<PointTransactionResponse>> results = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            results.add(submit(request(i)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queueSize() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(queueSize()).isEqualTo(count);
+        return results;
+    }
+
+    private double queueSize() {
+        return meterRegistry.get("gamification.wallet.shard.queue.size").gauge().value();
+    }
+
+    @Test
+    @DisplayName("Should call the wallet service directly when shards are disabled")
+    void shouldBypassShardsWhenDisabled() {
+        // Given
+        router(false, 10, 1000);
+        AddPointsRequest request = request(10);
+        when(walletService.addPoints(request)).thenReturn(response(request));
+
+        // When
+        PointTransactionResponse result = router.addPoints(request);
+
+        // Then
+        assertThat(result.getPoints()).isEqualTo(10);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Nested
+    @DisplayName("Group Commit Tests")
+    class GroupCommitTests {
+
+        @Test
+        @DisplayName("Should apply queued commands in one transaction and answer only after its commit")
+        void shouldGroupCommitQueuedCommands() throws Exception {
+            // Given
+            router(true, 100, 5000);
+            stubAddPoints();
+            List<Future<PointTransactionResponse>> results = queueBehindBlockingCommand(COMMANDS);
+            AtomicBoolean answeredBeforeCommit = new AtomicBoolean();
+            doAnswer(invocation -> {
+                if (results.stream().anyMatch(Future::isDone)) {
+                    answeredBeforeCommit.set(true);
+                }
+                return null;
+            }).when(transactionManager).commit(any());
+
+            // When
+            release.countDown();
+
+            // Then - one transaction for the blocking command, one for the queued batch
+            for (int i = 0; i < COMMANDS; i++) {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS).getPoints()).isEqualTo(i + 1);
+            }
+            assertThat(answeredBeforeCommit).isFalse();
+            verify(transactionManager, times(2)).commit(any());
+            assertThat(meterRegistry.get("gamification.wallet.shard.batch.size").summary().max()).isEqualTo(COMMANDS);
+        }
+
+        @Test
+        @DisplayName("Should replay each command alone when the batch transaction fails")
+        void shouldReplayCommandsAfterFailedBatch() throws Exception {
+            // Given - the commit of the queued batch fails, single replays succeed
+            router(true, 100, 5000);
+            stubAddPoints();
+            List<Future<PointTransactionResponse>> results = queueBehindBlockingCommand(COMMANDS);
+            doNothing()
+                    .doThrow(new TransactionSystemException("commit failed"))
+                    .doNothing()
+                    .when(transactionManager).commit(any());
+
+            // When
+            release.countDown();
+
+            // Then
+            for (int i = 0; i < COMMANDS; i++) {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS).getPoints()).isEqualTo(i + 1);
+            }
+            verify(transactionManager, times(2 + COMMANDS)).commit(any());
+            verify(walletService, times(1 + 2 * COMMANDS)).addPoints(any(AddPointsRequest.class));
+        }
+
+        @Test
+        @DisplayName("Should fail only the faulty command when its single replay fails too")
+        void shouldFailFaultyCommandOnly() throws Exception {
+            // Given - the third command always fails with an unexpected error
+            router(true, 100, 5000);
+            when(walletService.addPoints(any(AddPointsRequest.class))).thenAnswer(invocation -> {
+                AddPointsRequest request = invocation.getArgument(0);
+                if (request.getPoints() == 0) {
+                    blocking.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                } else if (request.getPoints() == 3) {
+                    throw new IllegalStateException("boom");
+                }
+                return response(request);
+            });
+            List<Future<PointTransactionResponse>> results = queueBehindBlockingCommand(COMMANDS);
+
+            // When
+            release.countDown();
+
+            // Then
+            assertThatThrownBy(() -> results.get(2).get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            for (int i : new int[]{0, 1, 3, 4}) {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS).getPoints()).isEqualTo(i + 1);
+            }
+        }
+
+        @Test
+        @DisplayName("Should answer a business refusal without rolling back the rest of the batch")
+        void shouldKeepBatchOnBusinessRefusal() throws Exception {
+            // Given - the second queued command is a duplicate
+            router(true, 100, 5000);
+            UUID referenceId = UUID.randomUUID();
+            when(walletService.addPoints(any(AddPointsRequest.class))).thenAnswer(invocation -> {
+                AddPointsRequest request = invocation.getArgument(0);
+                if (request.getPoints() == 0) {
+                    blocking.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                } else if (request.getPoints() == 2) {
+                    throw new DuplicateTransactionException(referenceId, "REPORT", "REPORT_VALIDATED");
+                }
+                return response(request);
+            });
+            List<Future<PointTransactionResponse>> results = queueBehindBlockingCommand(COMMANDS);
+
+            // When
+            release.countDown();
+
+            // Then
+            assertThatThrownBy(() -> results.get(1).get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(DuplicateTransactionException.class);
+            assertThat(results.get(4).get(5, TimeUnit.SECONDS).getPoints()).isEqualTo(5);
+            verify(transactionManager, times(2)).commit(any());
+            verify(transactionManager, never()).rollback(any());
+            verify(walletService, times(1 + COMMANDS)).addPoints(any(AddPointsRequest.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Rejection Tests")
+    class RejectionTests {
+
+        @Test
+        @DisplayName("Should reject a command when the shard queue is full")
+        void shouldRejectWhenQueueFull() throws Exception {
+            // Given
+            router(true, 1, 5000);
+            stubAddPoints();
+            queueBehindBlockingCommand(1);
+
+            // When/Then
+            assertThatThrownBy(() -> router.addPoints(request(10)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("not accepting commands");
+        }
+
+        @Test
+        @DisplayName("Should reject a command once the shards are stopped")
+        void shouldRejectWhenStopped() throws Exception {
+            // Given
+            router(true, 10, 1000);
+            router.shutdown();
+
+            // When/Then
+            assertThatThrownBy(() -> router.addPoints(request(10)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("not accepting commands");
+            verifyNoInteractions(walletService);
+        }
+
+        @Test
+        @DisplayName("Should give up waiting after the timeout")
+        void shouldTimeOut() {
+            // Given
+            router(true, 10, 100);
+            stubAddPoints();
+
+            // When/Then
+            assertThatThrownBy(() -> router.addPoints(request(0)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("did not answer within 100 ms");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.medina.heritage.gamification.service;
+
+import com.medina.heritage.gamification.enums.LeaderboardWindow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowedLeaderboardTest {
+
+    // Mercredi 15 janvier 2025
+    private static final Instant WEDNESDAY = Instant.parse("2025-01-15T10:00:00Z");
+
+    private static UUID user(int n) {
+        return new UUID(0, n);
+    }
+
+    @Test
+    @DisplayName("Should start weekly windows on Monday and monthly windows on the first day, in UTC")
+    void shouldComputeWindowStarts() {
+        assertThat(LeaderboardWindow.WEEKLY.start(WEDNESDAY)).isEqualTo(Instant.parse("2025-01-13T00:00:00Z"));
+        assertThat(LeaderboardWindow.WEEKLY.start(Instant.parse("2025-01-13T00:00:00Z")))
+                .isEqualTo(Instant.parse("2025-01-13T00:00:00Z"));
+        assertThat(LeaderboardWindow.MONTHLY.start(WEDNESDAY)).isEqualTo(Instant.parse("2025-01-01T00:00:00Z"));
+        assertThat(LeaderboardWindow.ALL_TIME.start(WEDNESDAY)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should rank users by points earned in the current window")
+    void shouldRankByWindowPoints() {
+        // Given
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(LeaderboardWindow.WEEKLY, WEDNESDAY);
+
+        // When
+        leaderboard.add(user(1), 300, WEDNESDAY, WEDNESDAY);
+        leaderboard.add(user(2), 200, WEDNESDAY, WEDNESDAY);
+        leaderboard.add(user(2), 200, WEDNESDAY.plusSeconds(60), WEDNESDAY.plusSeconds(60));
+
+        // Then
+        LeaderboardIndex index = leaderboard.index(WEDNESDAY);
+        assertThat(index.rank(user(2))).isEqualTo(1);
+        assertThat(index.score(user(2))).isEqualTo(400);
+        assertThat(index.rank(user(1))).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should ignore credits of a closed window")
+    void shouldIgnoreClosedWindowCredits() {
+        // Given
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(LeaderboardWindow.WEEKLY, WEDNESDAY);
+
+        // When - credit dated from the previous week
+        boolean added = leaderboard.add(user(1), 300, Instant.parse("2025-01-12T23:59:59Z"), WEDNESDAY);
+
+        // Then
+        assertThat(added).isFalse();
+        assertThat(leaderboard.index(WEDNESDAY).size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop the bucket when the window closes")
+    void shouldDropBucketWhenWindowCloses() {
+        // Given
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(LeaderboardWindow.WEEKLY, WEDNESDAY);
+        leaderboard.add(user(1), 300, WEDNESDAY, WEDNESDAY);
+        Instant nextMonday = Instant.parse("2025-01-20T00:00:00Z");
+
+        // Then - closed window no longer served, even before the bucket is dropped
+        assertThat(leaderboard.index(nextMonday).size()).isZero();
+
+        // When
+        boolean rolled = leaderboard.roll(nextMonday);
+        leaderboard.add(user(2), 50, nextMonday, nextMonday);
+
+        // Then
+        assertThat(rolled).isTrue();
+        LeaderboardIndex index = leaderboard.index(nextMonday);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.rank(user(1))).isEqualTo(-1);
+        assertThat(index.score(user(2))).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Should count a redelivered or replayed credit only once")
+    void shouldIgnoreRedeliveredCredit() {
+        // Given - user 1 earned 100 then 50 points (total earned 100, then 150)
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(LeaderboardWindow.WEEKLY, WEDNESDAY);
+        assertThat(leaderboard.credit(user(1), 100, 100, WEDNESDAY, WEDNESDAY)).isTrue();
+        assertThat(leaderboard.credit(user(1), 150, 50, WEDNESDAY, WEDNESDAY)).isTrue();
+
+        // When
+        boolean redelivered = leaderboard.credit(user(1), 150, 50, WEDNESDAY, WEDNESDAY);
+        boolean replayed = leaderboard.credit(user(1), 100, 100, WEDNESDAY, WEDNESDAY);
+
+        // Then
+        assertThat(redelivered).isFalse();
+        assertThat(replayed).isFalse();
+        assertThat(leaderboard.index(WEDNESDAY).score(user(1))).isEqualTo(150);
+    }
+
+    @Test
+    @DisplayName("Should count credits received out of order once each")
+    void shouldCountOutOfOrderCredits() {
+        // Given
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(LeaderboardWindow.WEEKLY, WEDNESDAY);
+
+        // When - credits taking the total from 1000 to 1030, received in any order, some twice
+        leaderboard.credit(user(1), 1030, 10, WEDNESDAY, WEDNESDAY);
+        leaderboard.credit(user(1), 1010, 10, WEDNESDAY, WEDNESDAY);
+        leaderboard.credit(user(1), 1030, 10, WEDNESDAY, WEDNESDAY);
+        leaderboard.credit(user(1), 1020, 10, WEDNESDAY, WEDNESDAY);
+        leaderboard.credit(user(1), 1010, 10, WEDNESDAY, WEDNESDAY);
+        // A bulk chunk reported as one credit covering the same range is also a replay
+        boolean chunk = leaderboard.credit(user(1), 1030, 30, WEDNESDAY, WEDNESDAY);
+
+        // Then
+        assertThat(chunk).isFalse();
+        assertThat(leaderboard.index(WEDNESDAY).score(user(1))).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Should add message credits to the points rebuilt from the ledger")
+    void shouldAddCreditsToRebuiltPoints() {
+        // Given - 200 points read from the ledger at startup
+        WindowedLeaderboard leaderboard = new WindowedLeaderboard(LeaderboardWindow.MONTHLY, WEDNESDAY);
+        leaderboard.add(user(1), 200, LeaderboardWindow.MONTHLY.start(WEDNESDAY), WEDNESDAY);
+
+        // When
+        leaderboard.credit(user(1), 500, 40, WEDNESDAY, WEDNESDAY);
+        leaderboard.credit(user(1), 500, 40, WEDNESDAY, WEDNESDAY);
+
+        // Then
+        assertThat(leaderboard.index(WEDNESDAY).score(user(1))).isEqualTo(240);
+    }
+}
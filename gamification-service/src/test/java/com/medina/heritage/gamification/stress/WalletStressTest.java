@@ -0,0 +1,307 @@
+package com.medina.heritage.gamification.stress;
+
+import com.medina.heritage.gamification.dto.request.AddPointsRequest;
+import com.medina.heritage.gamification.dto.request.DeductPointsRequest;
+import com.medina.heritage.gamification.entity.PointTransaction;
+import com.medina.heritage.gamification.entity.Wallet;
+import com.medina.heritage.gamification.enums.TransactionType;
+import com.medina.heritage.gamification.exception.DuplicateTransactionException;
+import com.medina.heritage.gamification.exception.InsufficientBalanceException;
+import com.medina.heritage.gamification.repository.PointTransactionRepository;
+import com.medina.heritage.gamification.repository.WalletRepository;
+import com.medina.heritage.gamification.service.WalletService;
+import com.medina.heritage.gamification.service.WalletWriteRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stress and throughput harness for wallet updates against PostgreSQL.
+ *
+ * Mixed workload (credits, debits, rank lookups, replays of an already used reference) on wallets
+ * picked with a Zipf distribution, then invariant checks on the ledger. Excluded from the default
+ * build, run with {@code mvn -Pstress test}; the workload is tuned with {@code -Dstress.*}
+ * properties (see application-stress.properties).
+ */
+@Tag("stress")
+@SpringBootTest
+@ActiveProfiles("stress")
+class WalletStressTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletStressTest.class);
+
+    private static final String REASON_CODE = "STRESS_TEST";
+    private static final String REFERENCE_TYPE = "STRESS";
+
+    private enum Operation { CREDIT, REPLAY, DEBIT, RANK }
+
+    @Value("${stress.writers}")
+    private int writers;
+
+    @Value("${stress.operations-per-writer}")
+    private int operationsPerWriter;
+
+    @Value("${stress.wallets}")
+    private int walletCount;
+
+    @Value("${stress.zipf-exponent}")
+    private double zipfExponent;
+
+    @Value("${stress.debit-ratio}")
+    private double debitRatio;
+
+    @Value("${stress.rank-ratio}")
+    private double rankRatio;
+
+    @Value("${stress.replay-ratio}")
+    private double replayRatio;
+
+    @Value("${stress.points}")
+    private int points;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletWriteRouter walletWriteRouter;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PointTransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> users = new ArrayList<>();
+
+    // Crédits et débits acceptés, par utilisateur, vus par les écrivains
+    private final Map<UUID, AtomicLong> acceptedCredits = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicLong> acceptedDebits = new ConcurrentHashMap<>();
+
+    // Dernière référence créditée par utilisateur (rejouée) et nombre d'acceptations par référence
+    private final Map<UUID, UUID> lastReferences = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicInteger> acceptedReferences = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        for (UUID userId : users) {
+            transactionRepository.deleteAll(transactionRepository.findByUserIdOrderByCreatedAtDesc(userId));
+            walletRepository.deleteById(userId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep every wallet consistent with its ledger under a mixed concurrent workload")
+    void shouldKeepInvariantsUnderMixedWorkload() throws Exception {
+        // Given
+        for (int i = 0; i < walletCount; i++) {
+            UUID userId = UUID.randomUUID();
+            walletService.getOrCreateWallet(userId);
+            users.add(userId);
+        }
+        ZipfSampler sampler = new ZipfSampler(walletCount, zipfExponent);
+        Map<Operation, long[][]> latencies = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new long[writers][]);
+        }
+
+        // When
+        long elapsedNanos = runConcurrently(writer -> {
+            Random random = new Random(writer);
+            Map<Operation, long[]> samples = new EnumMap<>(Operation.class);
+            Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                samples.put(operation, new long[operationsPerWriter]);
+                counts.put(operation, 0);
+            }
+            for (int i = 0; i < operationsPerWriter; i++) {
+                UUID userId = users.get(sampler.next(random));
+                Operation operation = pick(random, userId);
+                long start = System.nanoTime();
+                execute(operation, userId);
+                int count = counts.get(operation);
+                samples.get(operation)[count] = System.nanoTime() - start;
+                counts.put(operation, count + 1);
+            }
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation)[writer] = Arrays.copyOf(samples.get(operation), counts.get(operation));
+            }
+        });
+
+        // Then
+        report(elapsedNanos, latencies);
+        assertLedgerMatchesWallets();
+        assertReferencesAcceptedOnce();
+    }
+
+    private Operation pick(Random random, UUID userId) {
+        double draw = random.nextDouble();
+        if (draw < rankRatio) {
+            return Operation.RANK;
+        }
+        if (draw < rankRatio + debitRatio) {
+            return Operation.DEBIT;
+        }
+        if (draw < rankRatio + debitRatio + replayRatio && lastReferences.containsKey(userId)) {
+            return Operation.REPLAY;
+        }
+        return Operation.CREDIT;
+    }
+
+    private void execute(Operation operation, UUID userId) {
+        switch (operation) {
+            case RANK -> walletService.getUserRank(userId);
+            case DEBIT -> {
+                DeductPointsRequest request = new DeductPointsRequest();
+                request.setUserId(userId);
+                request.setPoints(points);
+                request.setReasonCode(REASON_CODE);
+                try {
+                    walletWriteRouter.deductPoints(request);
+                    acceptedDebits.computeIfAbsent(userId, id -> new AtomicLong()).addAndGet(points);
+                } catch (InsufficientBalanceException e) {
+                    // Attendu sur les wallets peu crédités
+                }
+            }
+            case CREDIT, REPLAY -> {
+                UUID referenceId = operation == Operation.REPLAY ? lastReferences.get(userId) : UUID.randomUUID();
+                if (operation == Operation.CREDIT) {
+                    lastReferences.put(userId, referenceId);
+                }
+                AddPointsRequest request = new AddPointsRequest();
+                request.setUserId(userId);
+                request.setPoints(points);
+                request.setReasonCode(REASON_CODE);
+                request.setReferenceId(referenceId);
+                request.setReferenceType(REFERENCE_TYPE);
+                try {
+                    walletWriteRouter.addPoints(request);
+                    acceptedCredits.computeIfAbsent(userId, id -> new AtomicLong()).addAndGet(points);
+                    acceptedReferences.computeIfAbsent(referenceId, id -> new AtomicInteger()).incrementAndGet();
+                } catch (DuplicateTransactionException e) {
+                    // Attendu pour un rejeu
+                }
+            }
+        }
+    }
+
+    /**
+     * Solde = crédits - débits du ledger, solde jamais négatif, et ledger égal aux opérations acceptées
+     * (ni mise à jour perdue, ni écriture fantôme).
+     */
+    private void assertLedgerMatchesWallets() {
+        List<String> violations = new ArrayList<>();
+        for (UUID userId : users) {
+            Wallet wallet = walletRepository.findByUserId(userId).orElseThrow();
+            List<PointTransaction> ledger = transactionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+            long earned = ledger.stream().filter(t -> t.getTransactionType() == TransactionType.CREDIT)
+                    .mapToLong(PointTransaction::getPoints).sum();
+            long spent = ledger.stream().filter(t -> t.getTransactionType() == TransactionType.DEBIT)
+                    .mapToLong(PointTransaction::getPoints).sum();
+            // Les crédits de badges (niveaux) s'ajoutent à ceux de la charge
+            long credited = ledger.stream().filter(t -> t.getTransactionType() == TransactionType.CREDIT
+                            && REASON_CODE.equals(t.getReasonCode()))
+                    .mapToLong(PointTransaction::getPoints).sum();
+            long accepted = acceptedCredits.getOrDefault(userId, new AtomicLong()).get();
+            long debited = acceptedDebits.getOrDefault(userId, new AtomicLong()).get();
+            if (wallet.getBalance() < 0 || wallet.getBalance() != earned - spent
+                    || wallet.getTotalEarned() != earned || wallet.getTotalSpent() != spent
+                    || credited != accepted || spent != debited) {
+                violations.add(String.format("%s: balance=%d totalEarned=%d totalSpent=%d ledgerCredits=%d "
+                                + "ledgerDebits=%d workloadCredits=%d acceptedCredits=%d acceptedDebits=%d", userId,
+                        wallet.getBalance(), wallet.getTotalEarned(), wallet.getTotalSpent(), earned, spent, credited,
+                        accepted, debited));
+            }
+        }
+        violations.stream().limit(20).forEach(violation -> log.error("Wallet invariant violated: {}", violation));
+        assertThat(violations).isEmpty();
+    }
+
+    /**
+     * Chaque référence est acceptée une seule fois et n'apparaît qu'une fois dans le ledger.
+     */
+    private void assertReferencesAcceptedOnce() {
+        assertThat(acceptedReferences.values()).allMatch(count -> count.get() == 1);
+        List<Map<String, Object>> duplicates = jdbcTemplate.queryForList(
+                "SELECT reference_id, COUNT(*) AS copies FROM point_transactions " +
+                "WHERE reference_type = ? AND reason_code = ? GROUP BY reference_id HAVING COUNT(*) > 1",
+                REFERENCE_TYPE, REASON_CODE);
+        assertThat(duplicates).isEmpty();
+    }
+
+    private void report(long elapsedNanos, Map<Operation, long[][]> latencies) {
+        int total = writers * operationsPerWriter;
+        log.info("Stress run: {} operations by {} writers on {} wallets (Zipf {}) in {} ms, {} ops/s", total,
+                writers, walletCount, zipfExponent, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                total * 1_000_000_000L / Math.max(1, elapsedNanos));
+        latencies.forEach((operation, perWriter) -> {
+            long[] all = Arrays.stream(perWriter).flatMapToLong(Arrays::stream).sorted().toArray();
+            if (all.length == 0) {
+                return;
+            }
+            log.info("{}: {} operations, latency p50={} µs p95={} µs p99={} µs max={} µs", operation, all.length,
+                    percentile(all, 50), percentile(all, 95), percentile(all, 99), all[all.length - 1] / 1000);
+        });
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)] / 1000;
+    }
+
+    private long runConcurrently(WriterTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(writer);
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - startNanos;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface WriterTask {
+        void run(int writer) throws Exception;
+    }
+}
@@ -0,0 +1,34 @@
+package com.medina.heritage.gamification.stress;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tirage de rangs selon une loi de Zipf : le rang k (à partir de 0) a un poids 1 / (k + 1)^s.
+ * Un exposant nul donne un tirage uniforme ; plus il est grand, plus les premiers rangs concentrent
+ * les tirages.
+ */
+public final class ZipfSampler {
+
+    private final double[] cdf;
+
+    public ZipfSampler(int size, double exponent) {
+        if (size < 1 || exponent < 0) {
+            throw new IllegalArgumentException("Size must be >= 1 and exponent must be >= 0");
+        }
+        cdf = new double[size];
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += 1 / Math.pow(k + 1, exponent);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= total;
+        }
+    }
+
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,43 @@
+package com.medina.heritage.iot.config;
+
+import com.medina.heritage.iot.service.SwingingDoorCompressor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compression des mesures à l'ingestion, par type de métrique normalisé (HUMIDITY, VIBRATION...).
+ * Binds to application.properties with prefix 'iot.compression'.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "iot.compression")
+public class CompressionProperties {
+
+    /**
+     * Configuration par type de métrique ; une métrique absente est stockée sans compression
+     */
+    private Map<String, Metric> metrics = new HashMap<>();
+
+    @Data
+    public static class Metric {
+
+        /**
+         * NONE, DEADBAND ou SWINGING_DOOR
+         */
+        private SwingingDoorCompressor.Mode mode = SwingingDoorCompressor.Mode.NONE;
+
+        /**
+         * Écart toléré entre la valeur reçue et la série reconstruite (unité de la mesure)
+         */
+        private double tolerance = 0.5;
+
+        /**
+         * Durée maximale sans point enregistré
+         */
+        private long maxIntervalSeconds = 900;
+    }
+}
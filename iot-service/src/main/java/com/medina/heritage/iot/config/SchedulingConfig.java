@@ -0,0 +1,12 @@
+package com.medina.heritage.iot.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (heartbeats SSE, tâches de fond de l'ingestion).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,35 @@
+package com.medina.heritage.iot.controller;
+
+import com.medina.heritage.iot.service.MeasurementStreamHub;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/iot/buildings")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class BuildingStreamController {
+
+    private final MeasurementStreamHub measurementStreamHub;
+
+    /**
+     * Flux SSE des mesures en direct des capteurs d'un bâtiment
+     * GET http://localhost:8083/api/iot/buildings/{id}/stream
+     */
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMeasurements(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(measurementStreamHub.subscribe(id));
+        } catch (IllegalStateException e) {
+            log.warn("Rejected live stream subscription for building {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.medina.heritage.iot.controller;
+
+import com.medina.heritage.iot.dto.CompressionStatsDto;
+import com.medina.heritage.iot.service.MeasurementCompressionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/iot/compression")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class CompressionController {
+
+    private final MeasurementCompressionService measurementCompressionService;
+
+    /**
+     * Lignes enregistrées et erreur de reconstruction par type de métrique depuis le démarrage
+     * GET http://localhost:8083/api/iot/compression/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CompressionStatsDto>> getStats() {
+        return ResponseEntity.ok(measurementCompressionService.getStats());
+    }
+}
@@ -1,12 +1,20 @@
 package com.medina.heritage.iot.controller;
 
+import com.medina.heritage.iot.dto.ChartSeriesDto;
+import com.medina.heritage.iot.dto.ForecastDto;
 import com.medina.heritage.iot.entity.Device;
+import com.medina.heritage.iot.entity.SpectralSummary;
 import com.medina.heritage.iot.service.DeviceService;
+import com.medina.heritage.iot.service.ForecastService;
+import com.medina.heritage.iot.service.MeasurementChartService;
+import com.medina.heritage.iot.service.SpectralAnalysisService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,6 +26,9 @@ import java.util.UUID;
 public class DeviceController {
     
     private final DeviceService deviceService;
+    private final MeasurementChartService measurementChartService;
+    private final ForecastService forecastService;
+    private final SpectralAnalysisService spectralAnalysisService;
     
     @GetMapping
     public ResponseEntity<List<Device>> getAllDevices() {
@@ -62,5 +73,49 @@ public class DeviceController {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    /**
+     * Série sous-échantillonnée (LTTB) pour les graphiques, 24 dernières heures par défaut
+     * GET http://localhost:8083/api/iot/devices/{id}/chart?from=&to=&points=800
+     */
+    @GetMapping("/{id}/chart")
+    public ResponseEntity<ChartSeriesDto> getChart(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "800") int points) {
+        try {
+            deviceService.findById(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(24);
+        try {
+            return ResponseEntity.ok(measurementChartService.buildChart(id, start, end, points));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid chart request for device {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Prévision de la métrique du device et temps estimé avant franchissement des seuils
+     * GET http://localhost:8083/api/iot/devices/{id}/forecast
+     */
+    @GetMapping("/{id}/forecast")
+    public ResponseEntity<ForecastDto> getForecast(@PathVariable UUID id) {
+        return forecastService.getForecast(id)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Derniers résumés spectraux (énergie par bande) d'un capteur de vibration
+     * GET http://localhost:8083/api/iot/devices/{id}/spectrum
+     */
+    @GetMapping("/{id}/spectrum")
+    public ResponseEntity<List<SpectralSummary>> getSpectrum(@PathVariable UUID id) {
+        return ResponseEntity.ok(spectralAnalysisService.findRecent(id));
+    }
 }
-
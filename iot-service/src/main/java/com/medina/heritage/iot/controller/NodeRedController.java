@@ -2,7 +2,9 @@ package com.medina.heritage.iot.controller;
 
 import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
 import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.dto.WalStatusDto;
 import com.medina.heritage.iot.service.MeasurementService;
+import com.medina.heritage.iot.service.MeasurementWalService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,10 +21,12 @@ import java.util.List;
 public class NodeRedController {
     
     private final MeasurementService measurementService;
+    private final MeasurementWalService measurementWalService;
     
     /**
      * Endpoint pour recevoir une seule mesure de Node-RED
      * POST http://localhost:8083/api/iot/nodered/measurements
+     * 201 si la mesure est enregistrée, 202 si elle est différée (WAL) ou absorbée par la compression
      */
     @PostMapping("/measurements")
     public ResponseEntity<?> receiveMeasurement(@Valid @RequestBody NodeRedMeasurementDto dto) {
@@ -30,13 +34,28 @@ public class NodeRedController {
             log.info("Received measurement from Node-RED: serialNumber={}, deviceId={}, value={}, unit={}, metricType={}", 
                 dto.getSerialNumber(), dto.getDeviceId(), dto.getValue(), dto.getUnit(), dto.getMetricType());
             
+            // WAL actif : acquittement dès l'écriture dans le journal, enregistrement différé
+            if (measurementWalService.isEnabled()) {
+                measurementWalService.accept(List.of(dto));
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(new AcceptedResponse("ACCEPTED", 1));
+            }
+            
             Measurement saved = measurementService.saveMeasurement(dto);
             
+            // Compression active : une mesure absorbée n'est pas enregistrée (pas d'id), donc pas de 201
+            if (saved.getId() == null) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(new AcceptedResponse("NOT_STORED", 1));
+            }
+            
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
         } catch (IllegalArgumentException e) {
             log.error("Invalid measurement data: {}", e.getMessage());
             return ResponseEntity.badRequest()
                 .body(new ErrorResponse("BAD_REQUEST", e.getMessage()));
+        } catch (IllegalStateException e) {
+            log.error("Measurement not buffered: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("SERVICE_UNAVAILABLE", e.getMessage()));
         } catch (Exception e) {
             log.error("Error saving measurement", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -47,6 +66,7 @@ public class NodeRedController {
     /**
      * Endpoint pour recevoir plusieurs mesures en batch
      * POST http://localhost:8083/api/iot/nodered/measurements/batch
+     * 201 avec les seules mesures enregistrées, 202 si aucune ne l'est (WAL ou compression)
      */
     @PostMapping("/measurements/batch")
     public ResponseEntity<?> receiveBatchMeasurements(
@@ -60,13 +80,25 @@ public class NodeRedController {
                     dto.getSerialNumber(), dto.getMetricType(), dto.getValue(), dto.getUnit());
             });
             
+            // WAL actif : le lot est journalisé en entier ou refusé en entier
+            if (measurementWalService.isEnabled()) {
+                measurementWalService.accept(dtos);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(new AcceptedResponse("ACCEPTED", dtos.size()));
+            }
+            
             // Traiter chaque mesure individuellement pour éviter qu'une erreur arrête tout
             List<Measurement> saved = new java.util.ArrayList<>();
             List<String> errors = new java.util.ArrayList<>();
+            int notStored = 0;
             
             for (NodeRedMeasurementDto dto : dtos) {
                 try {
                     Measurement measurement = measurementService.saveMeasurement(dto);
+                    // Seules les mesures réellement enregistrées sont renvoyées
+                    if (measurement.getId() == null) {
+                        notStored++;
+                        continue;
+                    }
                     saved.add(measurement);
                     log.info("Successfully saved measurement: serialNumber={}, type={}", 
                         dto.getSerialNumber(), dto.getMetricType());
@@ -78,15 +110,24 @@ public class NodeRedController {
                 }
             }
             
-            log.info("Batch processing complete: {} saved, {} errors", saved.size(), errors.size());
+            log.info("Batch processing complete: {} saved, {} not stored, {} errors", saved.size(), notStored, errors.size());
             
-            if (saved.isEmpty() && !errors.isEmpty()) {
+            if (saved.isEmpty() && notStored == 0 && !errors.isEmpty()) {
                 // Toutes les mesures ont échoué
                 return ResponseEntity.badRequest()
                     .body(new ErrorResponse("BAD_REQUEST", "All measurements failed: " + String.join("; ", errors)));
             }
             
+            if (saved.isEmpty()) {
+                // Toutes les mesures acceptées ont été absorbées par la compression
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(new AcceptedResponse("NOT_STORED", notStored));
+            }
+            
             return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.error("Measurement batch not buffered: {}", e.getMessage());
+            HttpStatus status = e instanceof IllegalStateException ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(new ErrorResponse(status.name(), e.getMessage()));
         } catch (Exception e) {
             log.error("Error processing batch measurements", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -103,6 +144,15 @@ public class NodeRedController {
         return ResponseEntity.ok(new HealthResponse("UP", "IoT Service is running and ready to receive data from Node-RED"));
     }
     
+    /**
+     * État du journal d'ingestion local (WAL)
+     * GET http://localhost:8083/api/iot/nodered/wal
+     */
+    @GetMapping("/wal")
+    public ResponseEntity<WalStatusDto> walStatus() {
+        return ResponseEntity.ok(measurementWalService.getStatus());
+    }
+    
     // Classes internes pour les réponses
     private static class ErrorResponse {
         private String error;
@@ -139,5 +189,22 @@ public class NodeRedController {
             return message;
         }
     }
+    
+    private static class AcceptedResponse {
+        private String status;
+        private int accepted;
+        
+        public AcceptedResponse(String status, int accepted) {
+            this.status = status;
+            this.accepted = accepted;
+        }
+        
+        public String getStatus() {
+            return status;
+        }
+        
+        public int getAccepted() {
+            return accepted;
+        }
+    }
 }
-
@@ -0,0 +1,62 @@
+package com.medina.heritage.iot.controller;
+
+import com.medina.heritage.iot.entity.RiskRule;
+import com.medina.heritage.iot.service.RiskRuleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/**
+ * Règles de risque : globales, par bâtiment (buildingId) ou par device (deviceId).
+ */
+@RestController
+@RequestMapping("/api/iot/risk-rules")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class RiskRuleController {
+    
+    private final RiskRuleService riskRuleService;
+    
+    @GetMapping
+    public ResponseEntity<List<RiskRule>> getAllRules() {
+        return ResponseEntity.ok(riskRuleService.findAll());
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<RiskRule> getRuleById(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(riskRuleService.findById(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping
+    public ResponseEntity<RiskRule> createRule(@RequestBody RiskRule rule) {
+        RiskRule saved = riskRuleService.create(rule);
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<RiskRule> updateRule(@PathVariable Integer id, @RequestBody RiskRule rule) {
+        try {
+            return ResponseEntity.ok(riskRuleService.update(id, rule));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable Integer id) {
+        try {
+            riskRuleService.delete(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
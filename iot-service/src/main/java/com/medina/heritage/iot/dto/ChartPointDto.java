@@ -0,0 +1,15 @@
+package com.medina.heritage.iot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChartPointDto {
+    private LocalDateTime time;
+    private BigDecimal value;
+}
@@ -0,0 +1,26 @@
+package com.medina.heritage.iot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Série sous-échantillonnée prête à être tracée.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChartSeriesDto {
+    private UUID deviceId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Integer requestedPoints;
+    private String source; // RAW ou AGGREGATED
+    private Long sourcePoints; // Nombre de points lus avant sous-échantillonnage
+    private List<ChartPointDto> points;
+}
@@ -0,0 +1,26 @@
+package com.medina.heritage.iot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bilan de la compression à l'ingestion d'un type de métrique depuis le démarrage.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompressionStatsDto {
+    private String metricType;
+    private String mode;
+    private double tolerance;
+    private long maxIntervalSeconds;
+    private int devices;
+    private long receivedSamples;
+    private long storedRows;
+    private double compressionRatio;
+    private double maxError;
+    private double rmsError;
+}
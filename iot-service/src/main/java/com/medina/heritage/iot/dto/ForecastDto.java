@@ -0,0 +1,33 @@
+package com.medina.heritage.iot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Prévision Holt-Winters d'une métrique et temps estimé avant franchissement de la bande de risque.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastDto {
+    private UUID deviceId;
+    private String metricType;
+    private Long samples;
+    private Boolean warmedUp; // false tant que le nombre minimal d'échantillons n'est pas atteint
+    private LocalDateTime lastSampleAt;
+    private BigDecimal estimatedValue;
+    private BigDecimal trendPerHour;
+    private BigDecimal thresholdMin;
+    private BigDecimal thresholdMax;
+    private String predictedBreachDirection; // ABOVE_MAX, BELOW_MIN ou null
+    private LocalDateTime predictedBreachAt;
+    private Long minutesToBreach;
+    private List<ChartPointDto> forecast; // Valeurs prévues à pas réguliers sur l'horizon
+}
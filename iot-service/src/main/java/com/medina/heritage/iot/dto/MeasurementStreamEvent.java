@@ -0,0 +1,26 @@
+package com.medina.heritage.iot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mesure diffusée en direct aux abonnés SSE d'un bâtiment.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeasurementStreamEvent {
+    private UUID buildingId;
+    private UUID deviceId;
+    private String serialNumber;
+    private String metricType; // VIBRATION, HUMIDITY
+    private BigDecimal value;
+    private String unit;
+    private LocalDateTime time;
+}
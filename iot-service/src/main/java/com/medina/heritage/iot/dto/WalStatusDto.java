@@ -0,0 +1,26 @@
+package com.medina.heritage.iot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * État du journal d'ingestion local (WAL) et de son vidage vers Postgres.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalStatusDto {
+    private boolean enabled;
+    private int segments;
+    private long backlogBytes;
+    private long acceptedRecords;
+    private long drainedRecords;
+    private long skippedRecords;
+    private boolean draining;
+    private LocalDateTime lastDrainAt;
+    private String lastError;
+}
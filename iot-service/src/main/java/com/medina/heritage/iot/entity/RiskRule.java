@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Entity
 @Table(name = "risk_rules")
@@ -30,5 +31,19 @@ public class RiskRule {
     
     @Column(length = 255)
     private String description;
+    
+    // Portée de la règle : globale si les deux sont nuls, sinon bâtiment ou device (la plus spécifique l'emporte)
+    @Column(name = "building_id")
+    private UUID buildingId;
+    
+    @Column(name = "device_id")
+    private UUID deviceId;
+    
+    // Règles spectrales (metric_type = 'SPECTRAL_BAND') : threshold_max porte sur l'énergie de la bande
+    @Column(name = "band_min_hz", precision = 10, scale = 2)
+    private BigDecimal bandMinHz;
+    
+    @Column(name = "band_max_hz", precision = 10, scale = 2)
+    private BigDecimal bandMaxHz;
 }
 
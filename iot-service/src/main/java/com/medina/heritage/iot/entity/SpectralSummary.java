@@ -0,0 +1,44 @@
+package com.medina.heritage.iot.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Résumé spectral d'une fenêtre de mesures de vibration (énergie par bande de fréquences).
+ */
+@Entity
+@Table(name = "spectral_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpectralSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDateTime time; // Fin de la fenêtre
+    
+    @Column(name = "device_id", nullable = false)
+    private UUID deviceId;
+    
+    @Column(name = "window_size", nullable = false)
+    private Integer windowSize;
+    
+    @Column(name = "sample_rate_hz", nullable = false)
+    private Double sampleRateHz;
+    
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "band_edges_hz", nullable = false)
+    private double[] bandEdgesHz; // n+1 bornes pour n bandes
+    
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "band_energies", nullable = false)
+    private double[] bandEnergies;
+}
@@ -3,11 +3,13 @@ package com.medina.heritage.iot.messaging;
 import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
 import com.medina.heritage.iot.entity.Measurement;
 import com.medina.heritage.iot.service.MeasurementService;
+import com.medina.heritage.iot.service.MeasurementWalService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -20,6 +22,7 @@ import java.util.function.Consumer;
 public class NodeRedMeasurementConsumer {
 
     private final MeasurementService measurementService;
+    private final MeasurementWalService measurementWalService;
 
     @Bean
     public Consumer<NodeRedMeasurementDto> receiveMeasurement() {
@@ -28,6 +31,12 @@ public class NodeRedMeasurementConsumer {
                 log.info("Received measurement from Node-RED via RabbitMQ: serialNumber={}, deviceId={}, value={}, unit={}, metricType={}", 
                     dto.getSerialNumber(), dto.getDeviceId(), dto.getValue(), dto.getUnit(), dto.getMetricType());
                 
+                // WAL actif : le message est acquitté auprès de RabbitMQ une fois journalisé localement
+                if (measurementWalService.isEnabled()) {
+                    measurementWalService.accept(List.of(dto));
+                    return;
+                }
+                
                 // Sauvegarder la mesure (cela déclenchera aussi l'évaluation des risques)
                 Measurement saved = measurementService.saveMeasurement(dto);
                 
@@ -1,13 +1,17 @@
 package com.medina.heritage.iot.repository;
 
 import com.medina.heritage.iot.entity.Measurement;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface MeasurementRepository extends JpaRepository<Measurement, Long> {
@@ -19,5 +23,35 @@ public interface MeasurementRepository extends JpaRepository<Measurement, Long>
         @Param("start") LocalDateTime start,
         @Param("end") LocalDateTime end
     );
-}
 
+    /**
+     * Parcourt (time, value) en ordre croissant sans hydrater d'entités.
+     * Doit être consommé dans une transaction et fermé après usage.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "2000"))
+    @Query("SELECT m.time, m.value FROM Measurement m WHERE m.deviceId = :deviceId AND m.time BETWEEN :start AND :end ORDER BY m.time ASC")
+    Stream<Object[]> streamPointsByDeviceIdAndTimeRange(
+        @Param("deviceId") UUID deviceId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    /**
+     * Agrège min/max par intervalle de stepSeconds secondes :
+     * [bucket (epoch / step), min, epoch du min, max, epoch du max].
+     * Les epochs sont ceux de l'heure locale enregistrée lue comme UTC. Le minimum (maximum) de
+     * {@code [valeur, epoch]} donne la valeur extrême et l'instant de sa première (dernière) occurrence.
+     */
+    @Query(value = "SELECT b.bucket, b.lo[1], b.lo[2], b.hi[1], b.hi[2] FROM (" +
+        "SELECT FLOOR(EXTRACT(EPOCH FROM m.time) / :stepSeconds) AS bucket, " +
+        "MIN(ARRAY[CAST(m.value AS float8), CAST(EXTRACT(EPOCH FROM m.time) AS float8)]) AS lo, " +
+        "MAX(ARRAY[CAST(m.value AS float8), CAST(EXTRACT(EPOCH FROM m.time) AS float8)]) AS hi " +
+        "FROM measurements m WHERE m.device_id = :deviceId AND m.time BETWEEN :start AND :end " +
+        "GROUP BY bucket) b ORDER BY b.bucket", nativeQuery = true)
+    List<Object[]> aggregateMinMaxByBucket(
+        @Param("deviceId") UUID deviceId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("stepSeconds") long stepSeconds
+    );
+}
@@ -0,0 +1,12 @@
+package com.medina.heritage.iot.repository;
+
+import com.medina.heritage.iot.entity.SpectralSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SpectralSummaryRepository extends JpaRepository<SpectralSummary, Long> {
+    List<SpectralSummary> findTop100ByDeviceIdOrderByTimeDesc(UUID deviceId);
+}
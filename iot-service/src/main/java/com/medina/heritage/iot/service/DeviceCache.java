@@ -0,0 +1,94 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.entity.Device;
+import com.medina.heritage.iot.repository.DeviceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Devices connus de l'ingestion tamponnée, pour évaluer les mesures sans attendre Postgres.
+ *
+ * Une entrée est relue en base après {@code iot.wal.device-cache-ttl-ms} ; si la base ne répond pas,
+ * la copie expirée reste utilisée. Seul un device jamais vu exige la base. Les copies ne sont que lues
+ * (type, bâtiment, numéro de série) : {@code last_seen_at} et le statut sont tenus par le vidage du WAL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeviceCache {
+
+    private final DeviceRepository deviceRepository;
+
+    @Value("${iot.wal.device-cache-ttl-ms:300000}")
+    private long ttlMs;
+
+    private final Map<UUID, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, UUID> idsBySerial = new ConcurrentHashMap<>();
+
+    /**
+     * Device par identifiant, ou à défaut par numéro de série.
+     *
+     * @return vide si le device n'existe pas
+     * @throws DataAccessException si la base ne répond pas et qu'aucune copie n'est en cache
+     */
+    public Optional<Device> find(UUID deviceId, String serialNumber) {
+        UUID id = deviceId != null ? deviceId : serialNumber != null ? idsBySerial.get(serialNumber) : null;
+        Entry cached = id != null ? byId.get(id) : null;
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMs) {
+            return Optional.of(cached.device);
+        }
+        if (deviceId == null && serialNumber == null) {
+            return Optional.empty();
+        }
+
+        try {
+            Optional<Device> loaded = deviceId != null
+                ? deviceRepository.findById(deviceId)
+                : deviceRepository.findBySerialNumber(serialNumber);
+            loaded.ifPresentOrElse(this::put, () -> {
+                if (id != null) {
+                    evict(id);
+                }
+            });
+            return loaded;
+        } catch (DataAccessException e) {
+            if (cached != null) {
+                log.debug("Device {} served from an expired cache entry: {}", id, e.getMessage());
+                return Optional.of(cached.device);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * À appeler après le commit de la création ou modification d'un device.
+     */
+    public void put(Device device) {
+        Entry previous = byId.put(device.getId(), new Entry(device, System.currentTimeMillis()));
+        if (previous != null && previous.device.getSerialNumber() != null
+            && !previous.device.getSerialNumber().equals(device.getSerialNumber())) {
+            idsBySerial.remove(previous.device.getSerialNumber(), device.getId());
+        }
+        if (device.getSerialNumber() != null) {
+            idsBySerial.put(device.getSerialNumber(), device.getId());
+        }
+    }
+
+    private void evict(UUID id) {
+        Entry removed = byId.remove(id);
+        if (removed != null && removed.device.getSerialNumber() != null) {
+            idsBySerial.remove(removed.device.getSerialNumber(), id);
+        }
+    }
+
+    private record Entry(Device device, long loadedAt) {
+    }
+}
@@ -16,6 +16,8 @@ import java.util.UUID;
 public class DeviceService {
     
     private final DeviceRepository deviceRepository;
+    private final RiskRuleResolver riskRuleResolver;
+    private final DeviceCache deviceCache;
     
     public List<Device> findAll() {
         return deviceRepository.findAll();
@@ -33,7 +35,13 @@ public class DeviceService {
     
     @Transactional
     public Device save(Device device) {
-        return deviceRepository.save(device);
+        Device saved = deviceRepository.save(device);
+        // La table de résolution et le cache d'ingestion ne suivent le device qu'une fois la transaction validée
+        TransactionCallbacks.afterCommit(() -> {
+            riskRuleResolver.onDeviceChanged(saved);
+            deviceCache.put(saved);
+        });
+        return saved;
     }
     
     @Transactional
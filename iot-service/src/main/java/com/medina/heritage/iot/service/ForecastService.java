@@ -0,0 +1,198 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.ChartPointDto;
+import com.medina.heritage.iot.dto.ForecastDto;
+import com.medina.heritage.iot.entity.Device;
+import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.entity.RiskRule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prévision par device (Holt-Winters) du moment où une métrique franchira la bande de ses règles de risque.
+ *
+ * L'état est uniquement en mémoire et se reconstruit à partir des mesures entrantes après un redémarrage.
+ * Une alerte prédictive est publiée une seule fois quand le temps estimé avant franchissement passe
+ * sous l'horizon configuré ; elle est réarmée quand la prévision repasse au-delà de cet horizon.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastService {
+
+    private static final int SCALE = 4;
+
+    private final RiskEvaluationService riskEvaluationService;
+
+    @Value("${iot.forecast.metrics:HUMIDITY}")
+    private Set<String> forecastMetrics;
+
+    @Value("${iot.forecast.alpha:0.1}")
+    private double alpha;
+
+    @Value("${iot.forecast.beta:0.01}")
+    private double beta;
+
+    @Value("${iot.forecast.gamma:0.05}")
+    private double gamma;
+
+    @Value("${iot.forecast.season-slots:24}")
+    private int seasonSlots;
+
+    @Value("${iot.forecast.min-samples:30}")
+    private long minSamples;
+
+    @Value("${iot.forecast.alert-horizon-minutes:360}")
+    private long alertHorizonMinutes;
+
+    @Value("${iot.forecast.scan-step-seconds:600}")
+    private long scanStepSeconds;
+
+    @Value("${iot.forecast.display-horizon-hours:24}")
+    private int displayHorizonHours;
+
+    private final Map<UUID, DeviceForecast> forecasts = new ConcurrentHashMap<>();
+
+    /**
+     * Intègre une nouvelle mesure dans la prévision du device et publie une alerte prédictive si nécessaire.
+     */
+    public void update(Device device, String metricType, Measurement measurement, List<RiskRule> rules) {
+        if (metricType == null || !forecastMetrics.contains(metricType)) {
+            return;
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        long epochSecond = measurement.getTime().atZone(zone).toEpochSecond();
+        DeviceForecast state = forecasts.computeIfAbsent(device.getId(), id -> new DeviceForecast(metricType,
+            new HoltWintersForecaster(alpha, beta, gamma, seasonSlots, zone)));
+
+        RiskRule breachedRule;
+        String direction;
+        long secondsToBreach;
+        synchronized (state) {
+            state.forecaster.update(epochSecond, measurement.getValue().doubleValue());
+            state.applyRules(rules);
+            if (state.forecaster.getCount() < minSamples || (state.minRule == null && state.maxRule == null)) {
+                return;
+            }
+
+            secondsToBreach = state.forecaster.secondsToBreach(
+                state.min, state.max, alertHorizonMinutes * 60, scanStepSeconds);
+            if (secondsToBreach < 0) {
+                state.alerted = false;
+                return;
+            }
+            // Déjà hors bande : l'évaluation classique des règles s'en charge
+            if (secondsToBreach == 0 || state.alerted) {
+                return;
+            }
+            state.alerted = true;
+            boolean above = state.forecaster.isLastBreachAbove();
+            breachedRule = above ? state.maxRule : state.minRule;
+            direction = above ? "ABOVE_MAX" : "BELOW_MIN";
+        }
+
+        riskEvaluationService.publishPredictedBreach(breachedRule, measurement, device, metricType, direction,
+            Instant.ofEpochSecond(epochSecond + secondsToBreach));
+    }
+
+    public Optional<ForecastDto> getForecast(UUID deviceId) {
+        DeviceForecast state = forecasts.get(deviceId);
+        if (state == null) {
+            return Optional.empty();
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        synchronized (state) {
+            HoltWintersForecaster forecaster = state.forecaster;
+            long last = forecaster.getLastEpochSecond();
+
+            List<ChartPointDto> points = new ArrayList<>(displayHorizonHours);
+            for (int h = 1; h <= displayHorizonHours; h++) {
+                long at = last + h * 3600L;
+                points.add(new ChartPointDto(toLocal(at, zone), scaled(forecaster.forecast(at))));
+            }
+
+            ForecastDto.ForecastDtoBuilder dto = ForecastDto.builder()
+                .deviceId(deviceId)
+                .metricType(state.metricType)
+                .samples(forecaster.getCount())
+                .warmedUp(forecaster.getCount() >= minSamples)
+                .lastSampleAt(toLocal(last, zone))
+                .estimatedValue(scaled(forecaster.forecast(last)))
+                .trendPerHour(scaled(forecaster.getTrendPerSecond() * 3600))
+                .thresholdMin(state.minRule != null ? state.minRule.getThresholdMin() : null)
+                .thresholdMax(state.maxRule != null ? state.maxRule.getThresholdMax() : null)
+                .forecast(points);
+
+            if (state.minRule != null || state.maxRule != null) {
+                long seconds = forecaster.secondsToBreach(
+                    state.min, state.max, displayHorizonHours * 3600L, scanStepSeconds);
+                if (seconds >= 0) {
+                    dto.predictedBreachDirection(forecaster.isLastBreachAbove() ? "ABOVE_MAX" : "BELOW_MIN")
+                        .predictedBreachAt(toLocal(last + seconds, zone))
+                        .minutesToBreach(seconds / 60);
+                }
+            }
+            return Optional.of(dto.build());
+        }
+    }
+
+    private static LocalDateTime toLocal(long epochSecond, ZoneId zone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+    }
+
+    private static BigDecimal scaled(double value) {
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * État de prévision d'un device et bande de risque la plus étroite parmi ses règles.
+     */
+    private static final class DeviceForecast {
+        private final String metricType;
+        private final HoltWintersForecaster forecaster;
+        private RiskRule minRule;
+        private RiskRule maxRule;
+        private double min = Double.NaN;
+        private double max = Double.NaN;
+        private boolean alerted;
+
+        private DeviceForecast(String metricType, HoltWintersForecaster forecaster) {
+            this.metricType = metricType;
+            this.forecaster = forecaster;
+        }
+
+        private void applyRules(List<RiskRule> rules) {
+            minRule = null;
+            maxRule = null;
+            for (RiskRule rule : rules) {
+                if (rule.getThresholdMin() != null
+                    && (minRule == null || rule.getThresholdMin().compareTo(minRule.getThresholdMin()) > 0)) {
+                    minRule = rule;
+                }
+                if (rule.getThresholdMax() != null
+                    && (maxRule == null || rule.getThresholdMax().compareTo(maxRule.getThresholdMax()) < 0)) {
+                    maxRule = rule;
+                }
+            }
+            min = minRule != null ? minRule.getThresholdMin().doubleValue() : Double.NaN;
+            max = maxRule != null ? maxRule.getThresholdMax().doubleValue() : Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.medina.heritage.iot.service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Lissage exponentiel triple (Holt-Winters additif) pour des mesures à pas irrégulier.
+ *
+ * L'état tient dans quelques champs primitifs et un tableau de saisonnalité journalière
+ * ({@code seasonSlots} créneaux sur 24h). Chaque mise à jour est en O(1) et n'alloue rien.
+ * La tendance est exprimée par seconde pour supporter des intervalles d'échantillonnage variables.
+ * Les créneaux suivent l'heure locale du fuseau, changements d'heure compris : le décalage en vigueur
+ * est gardé avec sa période de validité et n'est recalculé qu'au passage d'une transition.
+ * Non thread-safe : l'appelant synchronise.
+ */
+public final class HoltWintersForecaster {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final long slotSeconds;
+    private final ZoneRules zoneRules;
+    private final double[] season;
+
+    // Décalage du fuseau valable sur [offsetFrom, offsetUntil) (epoch en secondes)
+    private long offsetFrom = Long.MAX_VALUE;
+    private long offsetUntil = Long.MIN_VALUE;
+    private int offsetSeconds;
+
+    private double level;
+    private double trend; // par seconde
+    private long lastEpochSecond;
+    private long count;
+    private boolean lastBreachAbove;
+
+    public HoltWintersForecaster(double alpha, double beta, double gamma, int seasonSlots, ZoneId zone) {
+        if (seasonSlots < 1 || SECONDS_PER_DAY % seasonSlots != 0) {
+            throw new IllegalArgumentException("seasonSlots must divide a day evenly");
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.slotSeconds = SECONDS_PER_DAY / seasonSlots;
+        this.zoneRules = zone.getRules();
+        this.season = new double[seasonSlots];
+    }
+
+    public void update(long epochSecond, double value) {
+        count++;
+        if (count == 1) {
+            level = value;
+            trend = 0;
+            lastEpochSecond = epochSecond;
+            return;
+        }
+
+        int slot = slotOf(epochSecond);
+        long dt = epochSecond - lastEpochSecond;
+        double previousLevel = level;
+        double predictedLevel = dt > 0 ? level + trend * dt : level;
+
+        level = alpha * (value - season[slot]) + (1 - alpha) * predictedLevel;
+        if (dt > 0) {
+            trend = beta * ((level - previousLevel) / dt) + (1 - beta) * trend;
+            lastEpochSecond = epochSecond;
+        }
+        season[slot] = gamma * (value - level) + (1 - gamma) * season[slot];
+    }
+
+    /**
+     * Valeur prévue à un instant futur (epoch en secondes).
+     */
+    public double forecast(long epochSecond) {
+        long horizon = Math.max(0, epochSecond - lastEpochSecond);
+        return level + trend * horizon + season[slotOf(epochSecond)];
+    }
+
+    /**
+     * Cherche le premier franchissement de la bande [min, max] dans l'horizon donné.
+     * Les bornes NaN sont ignorées.
+     *
+     * @return secondes avant franchissement (interpolées entre deux pas), 0 si l'estimation courante
+     *         est déjà hors bande, ou -1 si aucun franchissement n'est prévu. Le sens du dernier
+     *         franchissement trouvé est donné par {@link #isLastBreachAbove()}.
+     */
+    public long secondsToBreach(double min, double max, long horizonSeconds, long stepSeconds) {
+        double previous = forecast(lastEpochSecond);
+        if (isAbove(previous, max) || isBelow(previous, min)) {
+            lastBreachAbove = isAbove(previous, max);
+            return 0;
+        }
+        for (long h = stepSeconds; h <= horizonSeconds; h += stepSeconds) {
+            double next = forecast(lastEpochSecond + h);
+            if (isAbove(next, max)) {
+                lastBreachAbove = true;
+                return interpolate(h - stepSeconds, previous, h, next, max);
+            }
+            if (isBelow(next, min)) {
+                lastBreachAbove = false;
+                return interpolate(h - stepSeconds, previous, h, next, min);
+            }
+            previous = next;
+        }
+        return -1;
+    }
+
+    public boolean isLastBreachAbove() {
+        return lastBreachAbove;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getLevel() {
+        return level;
+    }
+
+    public double getTrendPerSecond() {
+        return trend;
+    }
+
+    public long getLastEpochSecond() {
+        return lastEpochSecond;
+    }
+
+    private static boolean isAbove(double value, double max) {
+        return !Double.isNaN(max) && value > max;
+    }
+
+    private static boolean isBelow(double value, double min) {
+        return !Double.isNaN(min) && value < min;
+    }
+
+    private static long interpolate(long h0, double v0, long h1, double v1, double threshold) {
+        if (v1 == v0) {
+            return h1;
+        }
+        double ratio = (threshold - v0) / (v1 - v0);
+        ratio = Math.max(0, Math.min(1, ratio));
+        return h0 + Math.round(ratio * (h1 - h0));
+    }
+
+    private int slotOf(long epochSecond) {
+        return (int) (Math.floorMod(epochSecond + offsetAt(epochSecond), SECONDS_PER_DAY) / slotSeconds);
+    }
+
+    private int offsetAt(long epochSecond) {
+        if (epochSecond < offsetFrom || epochSecond >= offsetUntil) {
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            offsetSeconds = zoneRules.getOffset(instant).getTotalSeconds();
+            ZoneOffsetTransition previous = zoneRules.previousTransition(instant.plusSeconds(1));
+            ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+            offsetFrom = previous != null ? previous.toEpochSecond() : Long.MIN_VALUE;
+            offsetUntil = next != null ? next.toEpochSecond() : Long.MAX_VALUE;
+        }
+        return offsetSeconds;
+    }
+}
@@ -0,0 +1,181 @@
+package com.medina.heritage.iot.service;
+
+import java.util.Arrays;
+
+/**
+ * Sous-échantillonnage Largest-Triangle-Three-Buckets en une seule passe.
+ *
+ * Les points doivent arriver triés par temps croissant. L'intervalle [start, end] est découpé
+ * en {@code threshold - 2} seaux de même durée ; le premier et le dernier point sont toujours
+ * conservés. Seuls le seau en attente de sélection et le seau en cours de remplissage sont
+ * gardés en mémoire (tableaux primitifs réutilisés), en plus des {@code threshold} points retenus.
+ */
+public final class LttbDownsampler {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 64;
+
+    private final int threshold;
+    private final long startMillis;
+    private final double bucketWidth;
+    private final int lastBucketIndex;
+
+    private final long[] outTimes;
+    private final double[] outValues;
+    private int outSize;
+
+    // Seau complet, en attente de la moyenne du seau suivant pour choisir son point
+    private long[] pendingTimes = new long[INITIAL_BUCKET_CAPACITY];
+    private double[] pendingValues = new double[INITIAL_BUCKET_CAPACITY];
+    private int pendingSize;
+
+    // Seau en cours de remplissage
+    private long[] currentTimes = new long[INITIAL_BUCKET_CAPACITY];
+    private double[] currentValues = new double[INITIAL_BUCKET_CAPACITY];
+    private int currentSize;
+    private int currentBucket = -1;
+    private double currentSumTime;
+    private double currentSumValue;
+
+    private long count;
+    private long lastTime;
+    private double lastValue;
+
+    public LttbDownsampler(long startMillis, long endMillis, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("LTTB threshold must be at least 3");
+        }
+        this.threshold = threshold;
+        this.startMillis = startMillis;
+        this.lastBucketIndex = threshold - 3;
+        this.bucketWidth = Math.max(1.0, (double) (endMillis - startMillis) / (threshold - 2));
+        this.outTimes = new long[threshold];
+        this.outValues = new double[threshold];
+    }
+
+    public void add(long timeMillis, double value) {
+        count++;
+        if (count == 1) {
+            append(timeMillis, value);
+            lastTime = timeMillis;
+            lastValue = value;
+            return;
+        }
+        lastTime = timeMillis;
+        lastValue = value;
+
+        int bucket = bucketOf(timeMillis);
+        if (currentBucket < 0) {
+            currentBucket = bucket;
+        } else if (bucket > currentBucket) {
+            // Le seau courant est complet : sa moyenne permet de choisir le point du seau en attente
+            if (pendingSize > 0) {
+                selectFromPending(currentSumTime / currentSize, currentSumValue / currentSize);
+            }
+            swapBuckets();
+            currentBucket = bucket;
+        }
+        pushCurrent(timeMillis, value);
+    }
+
+    /**
+     * Termine le flux et retourne le nombre de points retenus.
+     */
+    public int finish() {
+        if (count <= 1) {
+            return outSize;
+        }
+        // Le dernier point est toujours conservé tel quel : le retirer du seau courant
+        currentSize--;
+        currentSumTime -= relative(lastTime);
+        currentSumValue -= lastValue;
+
+        if (currentSize > 0) {
+            if (pendingSize > 0) {
+                selectFromPending(currentSumTime / currentSize, currentSumValue / currentSize);
+            }
+            swapBuckets();
+        }
+        if (pendingSize > 0) {
+            selectFromPending(relative(lastTime), lastValue);
+        }
+        append(lastTime, lastValue);
+        return outSize;
+    }
+
+    public int size() {
+        return outSize;
+    }
+
+    public long timeAt(int index) {
+        return outTimes[index];
+    }
+
+    public double valueAt(int index) {
+        return outValues[index];
+    }
+
+    public long getInputCount() {
+        return count;
+    }
+
+    private int bucketOf(long timeMillis) {
+        int bucket = (int) Math.floor((timeMillis - startMillis) / bucketWidth);
+        bucket = Math.max(0, Math.min(lastBucketIndex, bucket));
+        // Garantit des seaux monotones même si deux points arrivent dans le désordre
+        return Math.max(bucket, currentBucket);
+    }
+
+    private void selectFromPending(double nextAvgTime, double nextAvgValue) {
+        double aTime = relative(outTimes[outSize - 1]);
+        double aValue = outValues[outSize - 1];
+        double maxArea = -1;
+        int selected = 0;
+        for (int i = 0; i < pendingSize; i++) {
+            double area = Math.abs((aTime - nextAvgTime) * (pendingValues[i] - aValue)
+                - (aTime - relative(pendingTimes[i])) * (nextAvgValue - aValue));
+            if (area > maxArea) {
+                maxArea = area;
+                selected = i;
+            }
+        }
+        append(pendingTimes[selected], pendingValues[selected]);
+        pendingSize = 0;
+    }
+
+    private void swapBuckets() {
+        long[] times = pendingTimes;
+        double[] values = pendingValues;
+        pendingTimes = currentTimes;
+        pendingValues = currentValues;
+        pendingSize = currentSize;
+        currentTimes = times;
+        currentValues = values;
+        currentSize = 0;
+        currentSumTime = 0;
+        currentSumValue = 0;
+    }
+
+    private void pushCurrent(long timeMillis, double value) {
+        if (currentSize == currentTimes.length) {
+            currentTimes = Arrays.copyOf(currentTimes, currentSize * 2);
+            currentValues = Arrays.copyOf(currentValues, currentSize * 2);
+        }
+        currentTimes[currentSize] = timeMillis;
+        currentValues[currentSize] = value;
+        currentSize++;
+        currentSumTime += relative(timeMillis);
+        currentSumValue += value;
+    }
+
+    private void append(long timeMillis, double value) {
+        if (outSize < threshold) {
+            outTimes[outSize] = timeMillis;
+            outValues[outSize] = value;
+            outSize++;
+        }
+    }
+
+    private double relative(long timeMillis) {
+        return timeMillis - startMillis;
+    }
+}
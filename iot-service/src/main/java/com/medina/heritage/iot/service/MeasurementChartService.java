@@ -0,0 +1,120 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.ChartPointDto;
+import com.medina.heritage.iot.dto.ChartSeriesDto;
+import com.medina.heritage.iot.repository.MeasurementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Construit des séries sous-échantillonnées (LTTB) pour les graphiques.
+ *
+ * Les fenêtres courtes sont lues brutes en flux ; au-delà de {@code iot.chart.raw-window-hours},
+ * la base pré-agrège min/max par intervalle (quelques intervalles par point demandé) et seul
+ * ce résultat passe par le downsampler, ce qui évite de transférer des centaines de milliers de lignes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MeasurementChartService {
+
+    private static final String SOURCE_RAW = "RAW";
+    private static final String SOURCE_AGGREGATED = "AGGREGATED";
+
+    private final MeasurementRepository measurementRepository;
+
+    @Value("${iot.chart.raw-window-hours:6}")
+    private long rawWindowHours;
+
+    @Value("${iot.chart.aggregate-buckets-per-point:4}")
+    private int aggregateBucketsPerPoint;
+
+    @Value("${iot.chart.max-points:5000}")
+    private int maxPoints;
+
+    @Transactional(readOnly = true)
+    public ChartSeriesDto buildChart(UUID deviceId, LocalDateTime from, LocalDateTime to, int points) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (points < 3 || points > maxPoints) {
+            throw new IllegalArgumentException("points must be between 3 and " + maxPoints);
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        long fromMillis = from.atZone(zone).toInstant().toEpochMilli();
+        long toMillis = to.atZone(zone).toInstant().toEpochMilli();
+        LttbDownsampler downsampler = new LttbDownsampler(fromMillis, toMillis, points);
+
+        String source;
+        if (Duration.between(from, to).compareTo(Duration.ofHours(rawWindowHours)) <= 0) {
+            source = SOURCE_RAW;
+            try (Stream<Object[]> rows = measurementRepository.streamPointsByDeviceIdAndTimeRange(deviceId, from, to)) {
+                rows.forEach(row -> downsampler.add(
+                    ((LocalDateTime) row[0]).atZone(zone).toInstant().toEpochMilli(),
+                    ((BigDecimal) row[1]).doubleValue()));
+            }
+        } else {
+            source = SOURCE_AGGREGATED;
+            long stepSeconds = Math.max(1, (toMillis - fromMillis) / 1000 / ((long) points * aggregateBucketsPerPoint));
+            for (Object[] row : measurementRepository.aggregateMinMaxByBucket(deviceId, from, to, stepSeconds)) {
+                double min = ((Number) row[1]).doubleValue();
+                long minMillis = storedEpochToMillis(((Number) row[2]).doubleValue(), zone);
+                double max = ((Number) row[3]).doubleValue();
+                long maxMillis = storedEpochToMillis(((Number) row[4]).doubleValue(), zone);
+                // Min et max de l'intervalle sont proposés tous les deux, à leur instant et dans l'ordre du temps :
+                // LTTB garde l'extrême le plus visible
+                if (minMillis <= maxMillis) {
+                    downsampler.add(minMillis, min);
+                    downsampler.add(maxMillis, max);
+                } else {
+                    downsampler.add(maxMillis, max);
+                    downsampler.add(minMillis, min);
+                }
+            }
+        }
+
+        int size = downsampler.finish();
+        List<ChartPointDto> series = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            series.add(new ChartPointDto(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(downsampler.timeAt(i)), zone),
+                BigDecimal.valueOf(downsampler.valueAt(i))));
+        }
+
+        log.debug("Chart built for device {}: source={}, {} input points -> {} points",
+            deviceId, source, downsampler.getInputCount(), size);
+
+        return ChartSeriesDto.builder()
+            .deviceId(deviceId)
+            .from(from)
+            .to(to)
+            .requestedPoints(points)
+            .source(source)
+            .sourcePoints(downsampler.getInputCount())
+            .points(series)
+            .build();
+    }
+
+    /**
+     * L'epoch calculé par la base lit l'heure locale enregistrée comme de l'UTC : le ramener dans le fuseau du service.
+     */
+    private static long storedEpochToMillis(double epochSeconds, ZoneId zone) {
+        long millis = Math.round(epochSeconds * 1000);
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC).atZone(zone).toInstant().toEpochMilli();
+    }
+}
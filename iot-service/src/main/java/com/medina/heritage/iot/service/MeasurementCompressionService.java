@@ -0,0 +1,218 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.config.CompressionProperties;
+import com.medina.heritage.iot.dto.CompressionStatsDto;
+import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.repository.MeasurementRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Choisit, à l'ingestion, les mesures à enregistrer dans {@code measurements} selon la compression
+ * configurée pour la métrique (bande morte ou porte battante, voir {@link SwingingDoorCompressor}).
+ *
+ * La sélection ne concerne que le stockage : chaque échantillon continue d'alimenter l'évaluation des
+ * règles, la prévision et le flux en direct. En porte battante, le dernier échantillon reçu est retenu
+ * en mémoire jusqu'à ce que le suivant décide s'il doit être enregistré ; les points retenus trop
+ * longtemps (capteur silencieux) sont enregistrés périodiquement, et tous le sont à l'arrêt. Un point
+ * dont l'enregistrement échoue reste en mémoire et est représenté au flush suivant.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MeasurementCompressionService {
+
+    private final CompressionProperties compressionProperties;
+    private final MeasurementRepository measurementRepository;
+
+    private final Map<UUID, DeviceCompression> states = new ConcurrentHashMap<>();
+
+    // Points retirés de la compression dont l'enregistrement a échoué, repris au flush suivant
+    private final List<Measurement> unsaved = new ArrayList<>();
+
+    /**
+     * Mesures à enregistrer suite à la réception de {@code measurement} : aucune, la mesure elle-même,
+     * un échantillon retenu précédemment, ou les deux (dans l'ordre chronologique).
+     */
+    public List<Measurement> select(UUID deviceId, String metricType, Measurement measurement) {
+        CompressionProperties.Metric config = metricType != null ? compressionProperties.getMetrics().get(metricType) : null;
+        if (config == null || config.getMode() == SwingingDoorCompressor.Mode.NONE) {
+            return List.of(measurement);
+        }
+
+        DeviceCompression state = states.computeIfAbsent(deviceId, id -> new DeviceCompression(metricType,
+            new SwingingDoorCompressor(config.getMode(), config.getTolerance(), config.getMaxIntervalSeconds() * 1000)));
+        long timeMillis = measurement.getTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        synchronized (state) {
+            rememberForRollback(state);
+            Measurement held = state.held;
+            SwingingDoorCompressor.Decision decision = state.compressor.offer(timeMillis, measurement.getValue().doubleValue());
+            if (state.compressor.isCurrentHeld()) {
+                state.held = measurement;
+            } else if (!state.compressor.hasHeld()) {
+                state.held = null;
+            }
+            return switch (decision) {
+                case SKIP -> List.of();
+                case STORE_CURRENT -> List.of(measurement);
+                case STORE_HELD -> List.of(held);
+                case STORE_HELD_AND_CURRENT -> List.of(held, measurement);
+            };
+        }
+    }
+
+    /**
+     * Enregistre les échantillons retenus depuis plus que l'intervalle maximal de leur métrique.
+     */
+    @Scheduled(fixedDelayString = "${iot.compression.flush-ms:60000}")
+    public void flushStaleHeld() {
+        flushHeld(false);
+    }
+
+    @PreDestroy
+    void flushAllHeld() {
+        flushHeld(true);
+    }
+
+    public List<CompressionStatsDto> getStats() {
+        Map<String, CompressionStatsDto> byMetric = new TreeMap<>();
+        Map<String, Double> squaredErrors = new TreeMap<>();
+        Map<String, Long> errorSamples = new TreeMap<>();
+
+        compressionProperties.getMetrics().forEach((metricType, config) -> byMetric.put(metricType,
+            CompressionStatsDto.builder()
+                .metricType(metricType)
+                .mode(config.getMode().name())
+                .tolerance(config.getTolerance())
+                .maxIntervalSeconds(config.getMaxIntervalSeconds())
+                .build()));
+
+        for (DeviceCompression state : states.values()) {
+            CompressionStatsDto stats = byMetric.get(state.metricType);
+            if (stats == null) {
+                continue;
+            }
+            synchronized (state) {
+                SwingingDoorCompressor compressor = state.compressor;
+                stats.setDevices(stats.getDevices() + 1);
+                stats.setReceivedSamples(stats.getReceivedSamples() + compressor.getReceived());
+                stats.setStoredRows(stats.getStoredRows() + compressor.getStored());
+                stats.setMaxError(Math.max(stats.getMaxError(), compressor.getMaxError()));
+                squaredErrors.merge(state.metricType, compressor.getSumSquaredError(), Double::sum);
+                errorSamples.merge(state.metricType, compressor.getErrorSamples(), Long::sum);
+            }
+        }
+
+        byMetric.forEach((metricType, stats) -> {
+            long samples = errorSamples.getOrDefault(metricType, 0L);
+            if (samples > 0) {
+                stats.setRmsError(Math.sqrt(squaredErrors.get(metricType) / samples));
+            }
+            if (stats.getStoredRows() > 0) {
+                stats.setCompressionRatio((double) stats.getReceivedSamples() / stats.getStoredRows());
+            }
+        });
+        return new ArrayList<>(byMetric.values());
+    }
+
+    /**
+     * Si la transaction d'enregistrement est annulée, l'état du device est restauré : sans cela, la même
+     * mesure renvoyée (ou rejouée depuis le WAL) serait vue comme un doublon et jamais enregistrée.
+     * Une mesure concurrente du même device acceptée entre-temps repasse simplement par la compression.
+     */
+    @SuppressWarnings("unchecked")
+    private void rememberForRollback(DeviceCompression state) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Map<DeviceCompression, Snapshot> snapshots =
+            (Map<DeviceCompression, Snapshot>) TransactionSynchronizationManager.getResource(this);
+        if (snapshots == null) {
+            Map<DeviceCompression, Snapshot> registered = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, registered);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MeasurementCompressionService.this);
+                    if (status != STATUS_COMMITTED) {
+                        registered.forEach(DeviceCompression::restore);
+                    }
+                }
+            });
+            snapshots = registered;
+        }
+        snapshots.computeIfAbsent(state, DeviceCompression::snapshot);
+    }
+
+    private synchronized void flushHeld(boolean all) {
+        long now = System.currentTimeMillis();
+        List<Measurement> toSave = new ArrayList<>(unsaved);
+        unsaved.clear();
+        for (DeviceCompression state : states.values()) {
+            CompressionProperties.Metric config = compressionProperties.getMetrics().get(state.metricType);
+            long maxIntervalMillis = config != null ? config.getMaxIntervalSeconds() * 1000 : 0;
+            synchronized (state) {
+                if (state.held != null && (all || now - state.compressor.getHeldTime() >= maxIntervalMillis)) {
+                    state.compressor.archiveHeld();
+                    toSave.add(state.held);
+                    state.held = null;
+                }
+            }
+        }
+        if (toSave.isEmpty()) {
+            return;
+        }
+        try {
+            // saveAll est transactionnel : le lot est enregistré en entier ou pas du tout
+            measurementRepository.saveAll(toSave);
+            log.debug("Flushed {} held measurement(s)", toSave.size());
+        } catch (Exception e) {
+            // Un identifiant a pu être attribué avant l'annulation
+            toSave.forEach(measurement -> measurement.setId(null));
+            unsaved.addAll(toSave);
+            log.error("Failed to store {} held measurement(s), retrying at next flush: {}", toSave.size(), e.getMessage());
+        }
+    }
+
+    private static final class DeviceCompression {
+        private final String metricType;
+        private SwingingDoorCompressor compressor;
+        private Measurement held;
+
+        private DeviceCompression(String metricType, SwingingDoorCompressor compressor) {
+            this.metricType = metricType;
+            this.compressor = compressor;
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(compressor.copy(), held);
+        }
+
+        private synchronized void restore(Snapshot snapshot) {
+            compressor = snapshot.compressor();
+            held = snapshot.held();
+            if (held != null) {
+                // Un identifiant a pu être attribué pendant la transaction annulée
+                held.setId(null);
+            }
+        }
+    }
+
+    private record Snapshot(SwingingDoorCompressor compressor, Measurement held) {
+    }
+}
@@ -1,16 +1,24 @@
 package com.medina.heritage.iot.service;
 
+import com.medina.heritage.iot.dto.MeasurementStreamEvent;
 import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
 import com.medina.heritage.iot.entity.Device;
 import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.entity.RiskRule;
 import com.medina.heritage.iot.repository.DeviceRepository;
 import com.medina.heritage.iot.repository.MeasurementRepository;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -21,16 +29,141 @@ public class MeasurementService {
     private final MeasurementRepository measurementRepository;
     private final DeviceRepository deviceRepository;
     private final RiskEvaluationService riskEvaluationService;
+    private final MeasurementStreamHub measurementStreamHub;
+    private final ForecastService forecastService;
+    private final SpectralAnalysisService spectralAnalysisService;
+    private final MeasurementCompressionService measurementCompressionService;
+    private final DeviceCache deviceCache;
     
     @Transactional
     public Measurement saveMeasurement(NodeRedMeasurementDto dto) {
+        Device device = resolveDevice(dto);
+        String deviceType = supportedDeviceType(device);
+        
+        // Mettre à jour last_seen_at du device
+        device.setLastSeenAt(LocalDateTime.now());
+        device.setStatus("ONLINE");
+        deviceRepository.save(device);
+        
+        // Créer la mesure ; la compression décide des lignes réellement enregistrées
+        Measurement measurement = toMeasurement(device, dto);
+        String metricType = normalizeMetricType(dto.getMetricType(), deviceType);
+        measurementRepository.saveAll(measurementCompressionService.select(device.getId(), metricType, measurement));
+        log.info("Measurement received: type={}, serialNumber={}, deviceId={}, value={}, unit={}, time={}, stored={}", 
+            deviceType, device.getSerialNumber(), device.getId(), dto.getValue(), dto.getUnit(), measurement.getTime(),
+            measurement.getId() != null);
+
+        processMeasurement(device, deviceType, metricType, measurement);
+        return measurement;
+    }
+    
+    /**
+     * Résout les devices d'un lot avant sa journalisation dans le WAL, via {@link DeviceCache} :
+     * une panne de la base n'empêche pas l'évaluation des devices déjà vus.
+     *
+     * @return un device par mesure, null pour une mesure qui sera écartée au vidage (device inconnu,
+     *         type non supporté)
+     * @throws IllegalStateException si la base ne répond pas pour un device absent du cache
+     */
+    public List<Device> resolveBuffered(List<NodeRedMeasurementDto> dtos) {
+        List<Device> devices = new ArrayList<>(dtos.size());
+        for (NodeRedMeasurementDto dto : dtos) {
+            Device device;
+            try {
+                device = deviceCache.find(dto.getDeviceId(), dto.getSerialNumber())
+                    .filter(found -> isSupported(found.getType()))
+                    .orElse(null);
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("Device lookup unavailable for serialNumber=" + dto.getSerialNumber()
+                    + ", deviceId=" + dto.getDeviceId(), e);
+            }
+            devices.add(device);
+        }
+        return devices;
+    }
+    
+    /**
+     * Traitements temps réel d'un lot acquitté par le WAL (règles de risque, prévision, analyse spectrale,
+     * diffusion), sans attendre son enregistrement. Appelé une seule fois par mesure acquittée : le vidage
+     * du journal ne fait qu'enregistrer, un lot rejoué après un échec ne republie donc rien.
+     * Les alertes n'ont pas d'identifiant de mesure, la ligne n'existant pas encore.
+     */
+    public void processBuffered(List<NodeRedMeasurementDto> dtos, List<Device> devices) {
+        for (int i = 0; i < dtos.size(); i++) {
+            Device device = devices.get(i);
+            if (device == null) {
+                continue;
+            }
+            NodeRedMeasurementDto dto = dtos.get(i);
+            try {
+                String deviceType = device.getType().trim().toUpperCase();
+                processMeasurement(device, deviceType, normalizeMetricType(dto.getMetricType(), deviceType),
+                    toMeasurement(device, dto));
+            } catch (RuntimeException e) {
+                log.warn("Real-time processing failed for buffered measurement of device {}: {}",
+                    device.getSerialNumber(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Enregistre un lot de mesures dans une seule transaction (vidage du WAL d'ingestion).
+     * Les mesures invalides (device inconnu, type non supporté) sont journalisées et ignorées
+     * pour ne pas bloquer le lot ; une erreur de base annule tout le lot, qui sera rejoué.
+     * Les traitements temps réel ont eu lieu à l'ingestion ({@link #processBuffered}).
+     *
+     * @return nombre de mesures acceptées (avant compression du stockage)
+     */
+    @Transactional
+    public int saveMeasurements(List<NodeRedMeasurementDto> dtos) {
+        Map<String, Device> devicesBySerial = new HashMap<>();
+        Map<UUID, Device> touchedDevices = new LinkedHashMap<>();
+        List<Measurement> toStore = new ArrayList<>(dtos.size());
+        int accepted = 0;
+        
+        for (NodeRedMeasurementDto dto : dtos) {
+            try {
+                Device device = dto.getDeviceId() == null && dto.getSerialNumber() != null
+                    ? devicesBySerial.computeIfAbsent(dto.getSerialNumber(), serial -> resolveDevice(dto))
+                    : resolveDevice(dto);
+                String metricType = normalizeMetricType(dto.getMetricType(), supportedDeviceType(device));
+                touchedDevices.put(device.getId(), device);
+                toStore.addAll(measurementCompressionService.select(device.getId(), metricType, toMeasurement(device, dto)));
+                accepted++;
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping buffered measurement for serialNumber={}, deviceId={}: {}",
+                    dto.getSerialNumber(), dto.getDeviceId(), e.getMessage());
+            }
+        }
+        if (accepted == 0) {
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        touchedDevices.values().forEach(device -> {
+            device.setLastSeenAt(now);
+            device.setStatus("ONLINE");
+        });
+        deviceRepository.saveAll(touchedDevices.values());
+        measurementRepository.saveAll(toStore);
+        
+        log.info("Measurement batch stored: {} accepted ({} rows stored), {} skipped",
+            accepted, toStore.size(), dtos.size() - accepted);
+        return accepted;
+    }
+    
+    public Measurement findById(Long id) {
+        return measurementRepository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Measurement not found with ID: " + id));
+    }
+
+    private Device resolveDevice(NodeRedMeasurementDto dto) {
         // Vérifier ou obtenir le device_id
         UUID deviceId = dto.getDeviceId();
         
         // Si device_id n'est pas fourni, essayer de le trouver via serial_number
         if (deviceId == null && dto.getSerialNumber() != null) {
-            deviceId = deviceRepository.findBySerialNumber(dto.getSerialNumber())
-                .map(Device::getId)
+            return deviceRepository.findBySerialNumber(dto.getSerialNumber())
                 .orElseThrow(() -> new IllegalArgumentException(
                     "Device not found with serial number: " + dto.getSerialNumber()
                 ));
@@ -41,16 +174,16 @@ public class MeasurementService {
             throw new IllegalArgumentException("Device ID or Serial Number is required");
         }
         
-        // Utiliser une variable finale pour la lambda
-        final UUID finalDeviceId = deviceId;
-        
-        // Vérifier que le device existe
-        Device device = deviceRepository.findById(finalDeviceId)
+        return deviceRepository.findById(deviceId)
             .orElseThrow(() -> new IllegalArgumentException(
-                "Device not found with ID: " + finalDeviceId
+                "Device not found with ID: " + dto.getDeviceId()
             ));
-        
-        // Validation explicite : accepter uniquement HUMIDITY et VIBRATION
+    }
+    
+    /**
+     * Validation explicite : accepter uniquement HUMIDITY et VIBRATION.
+     */
+    private String supportedDeviceType(Device device) {
         String deviceType = device.getType();
         if (deviceType != null) {
             deviceType = deviceType.trim().toUpperCase();
@@ -60,39 +193,56 @@ public class MeasurementService {
         log.debug("Processing measurement for device type: '{}', serialNumber: '{}'", 
             deviceType, device.getSerialNumber());
         
-        if (deviceType == null || (!deviceType.equals("HUMIDITY") && !deviceType.equals("VIBRATION"))) {
+        if (!isSupported(deviceType)) {
             log.error("Unsupported device type: '{}' for device: {}", deviceType, device.getSerialNumber());
             throw new IllegalArgumentException(
                 "Unsupported device type: " + deviceType + ". Only HUMIDITY and VIBRATION are supported."
             );
         }
-        
-        // Mettre à jour last_seen_at du device
-        device.setLastSeenAt(LocalDateTime.now());
-        device.setStatus("ONLINE");
-        deviceRepository.save(device);
-        
-        // Créer et sauvegarder la mesure
+        return deviceType;
+    }
+    
+    private static boolean isSupported(String deviceType) {
+        String normalized = deviceType != null ? deviceType.trim().toUpperCase() : null;
+        return "HUMIDITY".equals(normalized) || "VIBRATION".equals(normalized);
+    }
+    
+    private Measurement toMeasurement(Device device, NodeRedMeasurementDto dto) {
         Measurement measurement = new Measurement();
-        measurement.setDeviceId(finalDeviceId);
+        measurement.setDeviceId(device.getId());
         measurement.setValue(dto.getValue());
         measurement.setUnit(dto.getUnit());
         measurement.setTime(dto.getTimestamp() != null ? dto.getTimestamp() : LocalDateTime.now());
-        
-        Measurement saved = measurementRepository.save(measurement);
-        log.info("Measurement saved: type={}, serialNumber={}, deviceId={}, value={}, unit={}, time={}", 
-            deviceType, device.getSerialNumber(), finalDeviceId, dto.getValue(), dto.getUnit(), measurement.getTime());
-
-        // Déclencher l'évaluation du risque et l'envoi éventuel d'un événement RabbitMQ
-        String metricType = normalizeMetricType(dto.getMetricType(), deviceType);
-        riskEvaluationService.evaluateAndPublish(metricType, saved, device);
-
-        return saved;
+        return measurement;
     }
     
-    public Measurement findById(Long id) {
-        return measurementRepository.findById(id)
-            .orElseThrow(() -> new IllegalArgumentException("Measurement not found with ID: " + id));
+    /**
+     * Traitements aval de chaque mesure reçue, enregistrée ou non par la compression :
+     * règles de risque, prévision, analyse spectrale et diffusion.
+     */
+    private void processMeasurement(Device device, String deviceType, String metricType, Measurement measurement) {
+        // Déclencher l'évaluation du risque et l'envoi éventuel d'un événement RabbitMQ
+        List<RiskRule> rules = riskEvaluationService.evaluateAndPublish(metricType, measurement, device);
+
+        // Mettre à jour la prévision et anticiper un franchissement de seuil
+        forecastService.update(device, metricType, measurement, rules);
+
+        // Les capteurs de vibration alimentent aussi l'analyse spectrale par fenêtre
+        if (deviceType.equals("VIBRATION")) {
+            spectralAnalysisService.onMeasurement(device, measurement);
+        }
+
+        // Diffuser la mesure aux tableaux de bord abonnés (non bloquant), une fois la transaction validée
+        MeasurementStreamEvent event = MeasurementStreamEvent.builder()
+            .buildingId(device.getBuildingId())
+            .deviceId(device.getId())
+            .serialNumber(device.getSerialNumber())
+            .metricType(metricType)
+            .value(measurement.getValue())
+            .unit(measurement.getUnit())
+            .time(measurement.getTime())
+            .build();
+        TransactionCallbacks.afterCommit(() -> measurementStreamHub.publish(device.getBuildingId(), event));
     }
 
     private String normalizeMetricType(String rawMetricType, @NonNull String fallbackDeviceType) {
@@ -0,0 +1,340 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.MeasurementStreamEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hub de diffusion des mesures en direct (Server-Sent Events) par bâtiment.
+ *
+ * La publication depuis l'ingestion ne bloque jamais : chaque abonné possède son propre
+ * tampon borné (l'élément le plus ancien est abandonné quand il est plein) et l'écriture
+ * sur la connexion HTTP est faite par au plus {@code writer-threads} écrivains à la fois.
+ * Un abonné n'est planifié qu'une seule fois à la fois, donc la file d'attente reste bornée
+ * par le nombre d'abonnés.
+ *
+ * Un envoi bloqué plus de {@code send-timeout-ms} (client qui ne lit plus) déconnecte l'abonné
+ * et rend sa place d'écrivain aux autres : le thread bloqué n'est plus compté et se termine
+ * quand le connecteur abandonne l'écriture. Quelques clients figés ne retardent donc les autres
+ * que de {@code send-timeout-ms} au plus.
+ */
+@Service
+@Slf4j
+public class MeasurementStreamHub {
+
+    @Value("${iot.stream.subscriber-buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${iot.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${iot.stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${iot.stream.writer-threads:4}")
+    private int writerThreads;
+
+    @Value("${iot.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final Map<UUID, Set<Subscriber>> subscribersByBuilding = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong stalledDisconnects = new AtomicLong();
+    // Abonnés ayant des événements en attente, servis par les écrivains dans l'ordre d'arrivée
+    private final Queue<Subscriber> ready = new ConcurrentLinkedQueue<>();
+    private Semaphore writerSlots;
+    private ExecutorService writers;
+
+    @PostConstruct
+    void start() {
+        writerSlots = new Semaphore(writerThreads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        writers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sse-writer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        writers.shutdownNow();
+        subscribersByBuilding.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+        subscribersByBuilding.clear();
+    }
+
+    /**
+     * Ouvre un flux SSE pour un bâtiment.
+     */
+    public SseEmitter subscribe(UUID buildingId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many live stream subscribers (max " + maxSubscribers + ")");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(buildingId, emitter, bufferSize);
+        subscribersByBuilding.computeIfAbsent(buildingId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // Premier heartbeat immédiat pour que le client reçoive les en-têtes sans attendre une mesure
+        subscriber.requestHeartbeat();
+        schedule(subscriber);
+
+        log.debug("Live stream subscriber added for building {} ({} total)", buildingId, subscriberCount.get());
+        return emitter;
+    }
+
+    /**
+     * Diffuse une mesure à tous les abonnés du bâtiment. Ne bloque jamais l'appelant.
+     */
+    public void publish(UUID buildingId, MeasurementStreamEvent event) {
+        if (buildingId == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = subscribersByBuilding.get(buildingId);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(event)) {
+                droppedEvents.incrementAndGet();
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Envoie un commentaire SSE à chaque abonné pour garder les connexions ouvertes
+     * à travers les proxys et détecter les clients partis.
+     */
+    @Scheduled(fixedRateString = "${iot.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribersByBuilding.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public long getStalledDisconnects() {
+        return stalledDisconnects.get();
+    }
+
+    /**
+     * Déconnecte les abonnés dont l'envoi en cours dépasse {@code send-timeout-ms} et rend leur
+     * place d'écrivain aux autres abonnés.
+     */
+    @Scheduled(fixedDelayString = "${iot.stream.stall-check-ms:1000}")
+    public void disconnectStalled() {
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        subscribersByBuilding.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            Writer writer = subscriber.sendingWriter;
+            if (writer != null && now - subscriber.sendStartedAt > timeout) {
+                log.info("Live stream subscriber for building {} stalled for more than {} ms, disconnecting",
+                    subscriber.buildingId, sendTimeoutMs);
+                stalledDisconnects.incrementAndGet();
+                unsubscribe(subscriber);
+                if (writer.releaseSlot()) {
+                    dispatch();
+                }
+            }
+        }));
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.closed || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        ready.add(subscriber);
+        dispatch();
+    }
+
+    /**
+     * Démarre un écrivain par place libre tant que des abonnés attendent.
+     */
+    private void dispatch() {
+        while (!ready.isEmpty() && writerSlots.tryAcquire()) {
+            try {
+                writers.execute(new Writer());
+            } catch (RejectedExecutionException e) {
+                writerSlots.release();
+                return;
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber, Writer writer) {
+        try {
+            while (!subscriber.closed) {
+                if (subscriber.takeHeartbeat()) {
+                    send(subscriber, writer, SseEmitter.event().comment("heartbeat"));
+                }
+                MeasurementStreamEvent event = subscriber.poll();
+                if (event == null) {
+                    break;
+                }
+                send(subscriber, writer, SseEmitter.event()
+                    .name("measurement")
+                    .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (Exception e) {
+            log.debug("Live stream subscriber for building {} disconnected: {}", subscriber.buildingId, e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.scheduled.set(false);
+            // Un événement a pu arriver entre le dernier poll et la remise à zéro du drapeau
+            if (!subscriber.closed && subscriber.hasPending()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private static void send(Subscriber subscriber, Writer writer, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStartedAt = System.nanoTime();
+        subscriber.sendingWriter = writer;
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendingWriter = null;
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscriber.closed) {
+            return;
+        }
+        subscriber.closed = true;
+        Set<Subscriber> subscribers = subscribersByBuilding.get(subscriber.buildingId);
+        if (subscribers != null && subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            if (subscribers.isEmpty()) {
+                subscribersByBuilding.remove(subscriber.buildingId, subscribers);
+            }
+        }
+    }
+
+    /**
+     * Écrivain occupant une place : vide les abonnés prêts jusqu'à ce qu'il n'y en ait plus
+     * ou que sa place lui soit retirée (envoi bloqué).
+     */
+    private final class Writer implements Runnable {
+        private final AtomicBoolean holdsSlot = new AtomicBoolean(true);
+
+        @Override
+        public void run() {
+            try {
+                Subscriber subscriber;
+                while (holdsSlot.get() && (subscriber = ready.poll()) != null) {
+                    drain(subscriber, this);
+                }
+            } finally {
+                // Un abonné a pu être mis en attente entre le dernier poll et la libération de la place
+                if (releaseSlot()) {
+                    dispatch();
+                }
+            }
+        }
+
+        /**
+         * @return true si la place était encore tenue par cet écrivain
+         */
+        private boolean releaseSlot() {
+            if (holdsSlot.compareAndSet(true, false)) {
+                writerSlots.release();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Abonné SSE avec son tampon borné (politique drop-oldest).
+     */
+    private static final class Subscriber {
+        private final UUID buildingId;
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final ArrayDeque<MeasurementStreamEvent> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private boolean heartbeatPending;
+        private volatile boolean closed;
+        // Envoi en cours : écrivain et début (System.nanoTime)
+        private volatile Writer sendingWriter;
+        private volatile long sendStartedAt;
+
+        private Subscriber(UUID buildingId, SseEmitter emitter, int capacity) {
+            this.buildingId = buildingId;
+            this.emitter = emitter;
+            this.capacity = Math.max(1, capacity);
+            this.buffer = new ArrayDeque<>(this.capacity);
+        }
+
+        /**
+         * @return true si un ancien événement a été abandonné pour faire de la place
+         */
+        private synchronized boolean offer(MeasurementStreamEvent event) {
+            boolean dropped = false;
+            if (buffer.size() >= capacity) {
+                buffer.pollFirst();
+                dropped = true;
+            }
+            buffer.addLast(event);
+            return dropped;
+        }
+
+        private synchronized MeasurementStreamEvent poll() {
+            return buffer.pollFirst();
+        }
+
+        private synchronized void requestHeartbeat() {
+            heartbeatPending = true;
+        }
+
+        private synchronized boolean takeHeartbeat() {
+            boolean pending = heartbeatPending;
+            heartbeatPending = false;
+            return pending;
+        }
+
+        private synchronized boolean hasPending() {
+            return heartbeatPending || !buffer.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'écriture anticipée (WAL) des mesures reçues, en segments de taille fixe projetés en mémoire.
+ *
+ * Format d'un enregistrement : longueur (int), CRC32 du contenu (int), contenu binaire. Les segments sont
+ * préalloués (remplis de zéros) : une longueur nulle ou un CRC invalide marque la fin des données valides,
+ * ce qui permet de retrouver la fin du journal après un arrêt brutal sans fichier d'index.
+ *
+ * Écriture : l'encodage se fait hors verrou, seule la copie dans le segment actif est sérialisée.
+ * Les {@code force()} sont regroupés par un thread unique (group commit) : tous les enregistrements
+ * écrits pendant une synchronisation disque sont couverts par la suivante.
+ *
+ * Lecture : un seul consommateur lit depuis un curseur (segment, position) sauvegardé dans un fichier
+ * de point de reprise après chaque lot traité ; les segments entièrement consommés sont supprimés.
+ * La livraison est donc « au moins une fois » : un lot enregistré mais dont le point de reprise n'a pas
+ * été écrit avant un arrêt est rejoué au redémarrage.
+ */
+@Slf4j
+public final class MeasurementWal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 2048;
+    private static final int MAX_STRING_BYTES = 255;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition appended = writeLock.newCondition();
+    private final Condition durable = writeLock.newCondition();
+    private Segment active;
+    private long appendedSeq;
+    private long durableSeq;
+    private volatile boolean closed;
+    private Thread flusher;
+
+    // État du lecteur (thread de vidage uniquement)
+    private long readSegment;
+    private int readOffset;
+
+    public MeasurementWal(Path directory, int segmentBytes, int maxSegments) {
+        if (segmentBytes < MAX_RECORD_BYTES * 4) {
+            throw new IllegalArgumentException("WAL segment size too small: " + segmentBytes);
+        }
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("WAL needs at least 2 segments");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Ouvre le journal : relit les segments existants (fin valide par CRC), restaure le curseur de lecture
+     * depuis le point de reprise, puis ouvre un nouveau segment actif et démarre le thread de synchronisation.
+     *
+     * @return nombre d'enregistrements à rejouer
+     */
+    public long open() throws IOException {
+        Files.createDirectories(directory);
+        long[] checkpoint = readCheckpoint();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)).sorted().toList();
+        }
+
+        long pending = 0;
+        for (Path file : files) {
+            long index = segmentIndex(file);
+            if (checkpoint != null && index < checkpoint[0]) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            Segment segment = Segment.open(file, index, (int) Math.max(Files.size(file), HEADER_BYTES));
+            int from = checkpoint != null && index == checkpoint[0] ? (int) checkpoint[1] : 0;
+            pending += segment.recover(from);
+            segment.sealed = true;
+            segments.put(index, segment);
+        }
+
+        long nextIndex = segments.isEmpty() ? (checkpoint != null ? checkpoint[0] : 0) : segments.lastKey() + 1;
+        if (checkpoint != null && segments.containsKey(checkpoint[0])) {
+            readSegment = checkpoint[0];
+            readOffset = (int) checkpoint[1];
+        } else {
+            readSegment = segments.isEmpty() ? nextIndex : segments.firstKey();
+            readOffset = 0;
+        }
+        active = Segment.create(segmentPath(nextIndex), nextIndex, segmentBytes);
+        segments.put(nextIndex, active);
+
+        flusher = new Thread(this::flushLoop, "iot-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        return pending;
+    }
+
+    /**
+     * Ajoute un lot de mesures. Le lot est accepté en entier ou refusé en entier.
+     *
+     * @return numéro de séquence du dernier enregistrement, à passer à {@link #awaitDurable}
+     * @throws IllegalStateException si le journal est plein (limite de segments atteinte)
+     * @throws IllegalArgumentException si une mesure ne peut pas être encodée
+     */
+    public long append(List<NodeRedMeasurementDto> dtos) {
+        List<byte[]> records = new ArrayList<>(dtos.size());
+        long totalBytes = 0;
+        for (NodeRedMeasurementDto dto : dtos) {
+            byte[] record = encode(dto);
+            records.add(record);
+            totalBytes += record.length;
+        }
+
+        writeLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("WAL is closed");
+            }
+            // Chaque rotation peut perdre au plus un enregistrement de place en fin de segment
+            long rotations = totalBytes / segmentBytes + 1;
+            long free = (long) (segmentBytes - active.writeOffset)
+                + (long) (maxSegments - segments.size()) * segmentBytes - rotations * MAX_RECORD_BYTES;
+            if (totalBytes > free) {
+                throw new IllegalStateException("WAL is full (" + segments.size() + " segments)");
+            }
+            for (byte[] record : records) {
+                if (active.writeOffset + record.length > active.capacity) {
+                    rotate();
+                }
+                active.buffer.put(active.writeOffset, record);
+                active.writeOffset += record.length;
+            }
+            active.writeLimit = active.writeOffset;
+            appendedSeq += records.size();
+            appended.signal();
+            return appendedSeq;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Attend que l'enregistrement {@code seq} soit synchronisé sur disque.
+     *
+     * @return false si le délai a expiré
+     */
+    public boolean awaitDurable(long seq, long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        writeLock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (remaining <= 0 || closed) {
+                    return false;
+                }
+                remaining = durable.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lit jusqu'à {@code max} mesures depuis le curseur, sans l'avancer : {@link #commit} le fait une fois
+     * le lot enregistré. Appelé par un seul thread.
+     */
+    public Batch read(int max) {
+        List<NodeRedMeasurementDto> records = new ArrayList<>(Math.min(max, 1024));
+        long segmentIndex = readSegment;
+        int offset = readOffset;
+
+        while (records.size() < max) {
+            Segment segment = segments.get(segmentIndex);
+            if (segment == null) {
+                break;
+            }
+            // sealed est lu avant writeLimit : un segment scellé a sa limite définitive
+            boolean sealed = segment.sealed;
+            int limit = segment.writeLimit;
+            if (offset >= limit) {
+                if (sealed && segments.higherKey(segmentIndex) != null) {
+                    segmentIndex = segments.higherKey(segmentIndex);
+                    offset = 0;
+                    continue;
+                }
+                break;
+            }
+            int length = segment.buffer.getInt(offset);
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            records.add(decode(ByteBuffer.wrap(payload)));
+            offset += HEADER_BYTES + length;
+        }
+        return new Batch(records, segmentIndex, offset);
+    }
+
+    /**
+     * Avance le curseur après un lot enregistré, persiste le point de reprise et supprime les segments consommés.
+     */
+    public void commit(Batch batch) throws IOException {
+        readSegment = batch.segmentIndex;
+        readOffset = batch.offset;
+        writeCheckpoint(readSegment, readOffset);
+
+        for (Map.Entry<Long, Segment> entry : segments.headMap(readSegment).entrySet()) {
+            Segment segment = entry.getValue();
+            segments.remove(entry.getKey());
+            // Le mapping reste valide jusqu'au GC ; le fichier peut être supprimé sans attendre
+            segment.close();
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    /**
+     * Octets encore à rejouer (approximation : somme des segments depuis le curseur).
+     */
+    public long backlogBytes() {
+        long total = 0;
+        for (Segment segment : segments.tailMap(readSegment).values()) {
+            total += segment.writeLimit;
+        }
+        return Math.max(0, total - readOffset);
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appended.signalAll();
+            durable.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.close();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            Segment segment;
+            writeLock.lock();
+            try {
+                while (durableSeq == appendedSeq && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                target = appendedSeq;
+                segment = active;
+            } finally {
+                writeLock.unlock();
+            }
+
+            // Un seul force() couvre tous les enregistrements écrits depuis le précédent ;
+            // les segments précédents ont été synchronisés lors de leur rotation.
+            try {
+                segment.buffer.force();
+            } catch (UncheckedIOException e) {
+                log.error("WAL force failed, will retry: {}", e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                continue;
+            }
+
+            writeLock.lock();
+            try {
+                durableSeq = target;
+                durable.signalAll();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Scelle le segment actif et en ouvre un nouveau. Appelé sous le verrou d'écriture.
+     */
+    private void rotate() {
+        try {
+            active.buffer.force();
+            active.writeLimit = active.writeOffset;
+            active.sealed = true;
+            long next = active.index + 1;
+            active = Segment.create(segmentPath(next), next, segmentBytes);
+            segments.put(next, active);
+            log.debug("WAL rotated to segment {}", next);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate WAL segment", e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 20) {
+            log.warn("Ignoring truncated WAL checkpoint");
+            return null;
+        }
+        long segment = buffer.getLong();
+        long offset = buffer.getLong();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 16);
+        if ((int) crc.getValue() != buffer.getInt()) {
+            log.warn("Ignoring corrupted WAL checkpoint");
+            return null;
+        }
+        return new long[] {segment, offset};
+    }
+
+    private void writeCheckpoint(long segment, int offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.putLong(segment).putLong(offset);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 16);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            channel.force(false);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static byte[] encode(NodeRedMeasurementDto dto) {
+        if (dto.getValue() == null) {
+            throw new IllegalArgumentException("Value is required");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_RECORD_BYTES);
+        buffer.position(HEADER_BYTES);
+
+        LocalDateTime time = dto.getTimestamp() != null ? dto.getTimestamp() : LocalDateTime.now();
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        UUID deviceId = dto.getDeviceId();
+        buffer.put((byte) (deviceId != null ? 1 : 0));
+        if (deviceId != null) {
+            buffer.putLong(deviceId.getMostSignificantBits()).putLong(deviceId.getLeastSignificantBits());
+        }
+        putString(buffer, dto.getSerialNumber());
+        putString(buffer, dto.getUnit());
+        putString(buffer, dto.getMetricType());
+        byte[] unscaled = dto.getValue().unscaledValue().toByteArray();
+        if (unscaled.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value too large");
+        }
+        buffer.putInt(dto.getValue().scale()).put((byte) unscaled.length).put(unscaled);
+
+        int length = buffer.position() - HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(0, length).putInt(4, (int) crc.getValue());
+        byte[] record = new byte[HEADER_BYTES + length];
+        System.arraycopy(buffer.array(), 0, record, 0, record.length);
+        return record;
+    }
+
+    static NodeRedMeasurementDto decode(ByteBuffer buffer) {
+        NodeRedMeasurementDto dto = new NodeRedMeasurementDto();
+        long epochSecond = buffer.getLong();
+        dto.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, buffer.getInt(), ZoneOffset.UTC));
+        if (buffer.get() == 1) {
+            dto.setDeviceId(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        dto.setSerialNumber(getString(buffer));
+        dto.setUnit(getString(buffer));
+        dto.setMetricType(getString(buffer));
+        int scale = buffer.getInt();
+        byte[] unscaled = new byte[buffer.get() & 0xFF];
+        buffer.get(unscaled);
+        dto.setValue(new BigDecimal(new BigInteger(unscaled), scale));
+        return dto;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.put((byte) 0).put((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Field too long for WAL record: " + value.length() + " chars");
+        }
+        buffer.put((byte) 1).put((byte) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        boolean present = buffer.get() == 1;
+        byte[] bytes = new byte[buffer.get() & 0xFF];
+        buffer.get(bytes);
+        return present ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Lot lu depuis le journal et position du curseur après ce lot.
+     */
+    public record Batch(List<NodeRedMeasurementDto> records, long segmentIndex, int offset) {
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final long index;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+        private volatile int writeLimit;
+        private volatile boolean sealed;
+
+        private Segment(Path path, long index, int capacity, FileChannel channel) throws IOException {
+            this.path = path;
+            this.index = index;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        static Segment create(Path path, long index, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Préallocation : la fin des données valides est repérée par une longueur nulle
+            channel.write(ByteBuffer.wrap(new byte[1]), capacity - 1L);
+            return new Segment(path, index, capacity, channel);
+        }
+
+        static Segment open(Path path, long index, int capacity) throws IOException {
+            return new Segment(path, index, capacity,
+                FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        }
+
+        /**
+         * Parcourt les enregistrements valides (longueur et CRC) et fixe la limite d'écriture à la fin
+         * de la partie saine ; une écriture interrompue en fin de segment est ainsi ignorée.
+         *
+         * @return nombre d'enregistrements valides à partir de {@code from}
+         */
+        long recover(int from) {
+            CRC32 crc = new CRC32();
+            int offset = 0;
+            long count = 0;
+            while (offset + HEADER_BYTES <= capacity) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > capacity) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER_BYTES, payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    log.warn("WAL segment {} truncated at offset {} (checksum mismatch)", index, offset);
+                    break;
+                }
+                if (offset >= from) {
+                    count++;
+                }
+                offset += HEADER_BYTES + length;
+            }
+            writeOffset = offset;
+            writeLimit = offset;
+            return count;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close WAL segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
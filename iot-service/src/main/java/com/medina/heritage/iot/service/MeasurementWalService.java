@@ -0,0 +1,217 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
+import com.medina.heritage.iot.dto.WalStatusDto;
+import com.medina.heritage.iot.entity.Device;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingestion tamponnée par le WAL local ({@code iot.wal.enabled}).
+ *
+ * Les mesures sont acquittées dès qu'elles sont synchronisées dans le journal, sans attendre Postgres ;
+ * un thread de vidage les enregistre ensuite par lots via {@link MeasurementService#saveMeasurements}.
+ * En cas d'échec de la base, le même lot est rejoué avec un délai croissant jusqu'au retour de la base,
+ * pendant que l'ingestion continue d'alimenter le journal (dans la limite de sa taille).
+ *
+ * Les traitements temps réel (règles de risque, prévision, analyse spectrale, diffusion) ont lieu à
+ * l'acquittement, avec les devices de {@link DeviceCache} : les alertes continuent pendant une panne
+ * de la base, et un lot rejoué par le vidage ne les republie pas. L'enregistrement et la validation
+ * définitive (device connu, type supporté) ont lieu au vidage.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MeasurementWalService {
+
+    private final MeasurementService measurementService;
+
+    @Value("${iot.wal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${iot.wal.directory:./data/wal}")
+    private String directory;
+
+    @Value("${iot.wal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${iot.wal.max-segments:16}")
+    private int maxSegments;
+
+    @Value("${iot.wal.sync-ack:true}")
+    private boolean syncAck;
+
+    @Value("${iot.wal.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    @Value("${iot.wal.drain-batch-size:500}")
+    private int drainBatchSize;
+
+    @Value("${iot.wal.drain-idle-ms:50}")
+    private long drainIdleMs;
+
+    @Value("${iot.wal.drain-max-backoff-ms:30000}")
+    private long drainMaxBackoffMs;
+
+    private MeasurementWal wal;
+    private Thread drainer;
+    private volatile boolean running;
+    private final AtomicLong acceptedRecords = new AtomicLong();
+    private final AtomicLong drainedRecords = new AtomicLong();
+    private final AtomicLong skippedRecords = new AtomicLong();
+    private volatile boolean draining;
+    private volatile LocalDateTime lastDrainAt;
+    private volatile String lastError;
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        wal = new MeasurementWal(Path.of(directory), segmentSizeMb * 1024 * 1024, maxSegments);
+        long pending = wal.open();
+        log.info("Ingest WAL opened at {} ({} segment(s), {} record(s) to replay)", directory, wal.segmentCount(), pending);
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "iot-wal-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (wal == null) {
+            return;
+        }
+        running = false;
+        drainer.interrupt();
+        drainer.join(10_000);
+        wal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ajoute des mesures au journal, attend leur synchronisation disque (si {@code iot.wal.sync-ack}) puis
+     * lance leurs traitements temps réel.
+     *
+     * @throws IllegalStateException si le journal est plein, si la synchronisation n'a pas abouti à temps
+     *         ou si un device absent du cache ne peut pas être lu en base
+     */
+    public void accept(List<NodeRedMeasurementDto> dtos) {
+        if (dtos.isEmpty()) {
+            return;
+        }
+        // Heure de réception figée avant la journalisation : l'évaluation et l'enregistrement voient la même
+        LocalDateTime receivedAt = LocalDateTime.now();
+        dtos.forEach(dto -> {
+            if (dto.getTimestamp() == null) {
+                dto.setTimestamp(receivedAt);
+            }
+        });
+        List<Device> devices = measurementService.resolveBuffered(dtos);
+
+        long seq = wal.append(dtos);
+        acceptedRecords.addAndGet(dtos.size());
+        if (syncAck) {
+            try {
+                if (!wal.awaitDurable(seq, ackTimeoutMs)) {
+                    throw new IllegalStateException("WAL sync timed out after " + ackTimeoutMs + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for WAL sync", e);
+            }
+        }
+        measurementService.processBuffered(dtos, devices);
+    }
+
+    public WalStatusDto getStatus() {
+        if (wal == null) {
+            return WalStatusDto.builder().enabled(false).build();
+        }
+        return WalStatusDto.builder()
+            .enabled(true)
+            .segments(wal.segmentCount())
+            .backlogBytes(wal.backlogBytes())
+            .acceptedRecords(acceptedRecords.get())
+            .drainedRecords(drainedRecords.get())
+            .skippedRecords(skippedRecords.get())
+            .draining(draining)
+            .lastDrainAt(lastDrainAt)
+            .lastError(lastError)
+            .build();
+    }
+
+    /**
+     * Enregistre un lot ; si une ligne viole une contrainte, le lot est rejoué mesure par mesure
+     * pour écarter uniquement les lignes fautives au lieu de bloquer le journal.
+     */
+    private int save(List<NodeRedMeasurementDto> records) {
+        try {
+            return measurementService.saveMeasurements(records);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Ingest WAL batch rejected by a constraint, retrying record by record: {}", e.getMessage());
+        }
+        int saved = 0;
+        for (NodeRedMeasurementDto dto : records) {
+            try {
+                saved += measurementService.saveMeasurements(List.of(dto));
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropping buffered measurement for serialNumber={}, deviceId={}: {}",
+                    dto.getSerialNumber(), dto.getDeviceId(), e.getMessage());
+            }
+        }
+        return saved;
+    }
+
+    private void drainLoop() {
+        long backoff = 0;
+        while (running) {
+            try {
+                if (backoff > 0) {
+                    Thread.sleep(backoff);
+                }
+                MeasurementWal.Batch batch = wal.read(drainBatchSize);
+                if (batch.isEmpty()) {
+                    draining = false;
+                    Thread.sleep(drainIdleMs);
+                    continue;
+                }
+
+                draining = true;
+                int saved = save(batch.records());
+                wal.commit(batch);
+                drainedRecords.addAndGet(saved);
+                skippedRecords.addAndGet(batch.records().size() - saved);
+                lastDrainAt = LocalDateTime.now();
+                if (backoff > 0) {
+                    log.info("Ingest WAL drain resumed, database reachable again");
+                }
+                backoff = 0;
+                lastError = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Base indisponible ou lente : le lot sera rejoué tel quel
+                backoff = backoff == 0 ? 200 : Math.min(drainMaxBackoffMs, backoff * 2);
+                lastError = e.getMessage();
+                log.warn("Ingest WAL drain failed, retrying in {} ms: {}", backoff, e.getMessage());
+            }
+        }
+    }
+}
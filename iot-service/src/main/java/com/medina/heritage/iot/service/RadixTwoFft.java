@@ -0,0 +1,73 @@
+package com.medina.heritage.iot.service;
+
+/**
+ * FFT radix-2 en place (Cooley-Tukey itératif).
+ *
+ * Les tables de twiddles et de permutation sont calculées une fois par taille et partagées :
+ * une instance est immuable et peut être utilisée par plusieurs threads sur des tampons distincts.
+ */
+public final class RadixTwoFft {
+
+    private final int size;
+    private final double[] cos;
+    private final double[] sin;
+    private final int[] bitReversed;
+
+    public RadixTwoFft(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        }
+        this.size = size;
+        this.cos = new double[size / 2];
+        this.sin = new double[size / 2];
+        for (int i = 0; i < size / 2; i++) {
+            double angle = -2 * Math.PI * i / size;
+            cos[i] = Math.cos(angle);
+            sin[i] = Math.sin(angle);
+        }
+        this.bitReversed = new int[size];
+        int bits = Integer.numberOfTrailingZeros(size);
+        for (int i = 0; i < size; i++) {
+            bitReversed[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Transforme {@code re}/{@code im} en place. Les deux tableaux doivent avoir la taille de la FFT.
+     */
+    public void transform(double[] re, double[] im) {
+        for (int i = 0; i < size; i++) {
+            int j = bitReversed[i];
+            if (j > i) {
+                double tr = re[i];
+                re[i] = re[j];
+                re[j] = tr;
+                double ti = im[i];
+                im[i] = im[j];
+                im[j] = ti;
+            }
+        }
+        for (int length = 2; length <= size; length <<= 1) {
+            int half = length >>> 1;
+            int tableStep = size / length;
+            for (int start = 0; start < size; start += length) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * tableStep];
+                    double wi = sin[k * tableStep];
+                    int even = start + k;
+                    int odd = even + half;
+                    double xr = re[odd] * wr - im[odd] * wi;
+                    double xi = re[odd] * wi + im[odd] * wr;
+                    re[odd] = re[even] - xr;
+                    im[odd] = im[even] - xi;
+                    re[even] += xr;
+                    im[even] += xi;
+                }
+            }
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.medina.heritage.events.iot.RiskAlertEvent;
 import com.medina.heritage.iot.entity.Device;
 import com.medina.heritage.iot.entity.Measurement;
 import com.medina.heritage.iot.entity.RiskRule;
-import com.medina.heritage.iot.repository.RiskRuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.stream.function.StreamBridge;
@@ -12,6 +11,7 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Locale;
@@ -21,28 +21,64 @@ import java.util.Locale;
 @Slf4j
 public class RiskEvaluationService {
 
-    private final RiskRuleRepository riskRuleRepository;
+    private final RiskRuleResolver riskRuleResolver;
     private final StreamBridge streamBridge;
 
     private static final String RISK_ALERT_BINDING = "riskAlertSupplier-out-0";
 
-    public void evaluateAndPublish(String rawMetricType, Measurement measurement, Device device) {
+    /**
+     * Évalue la mesure contre les règles effectives du device pour le type de métrique
+     * (la règle la plus spécifique l'emporte, voir {@link RiskRuleResolver}).
+     *
+     * @return les règles évaluées (vide si aucune), réutilisables par la prévision
+     */
+    public List<RiskRule> evaluateAndPublish(String rawMetricType, Measurement measurement, Device device) {
         String metricType = normalize(rawMetricType);
         if (metricType == null) {
             log.warn("Metric type missing; cannot evaluate risk for device {}", device.getSerialNumber());
-            return;
+            return List.of();
         }
 
-        List<RiskRule> rules = riskRuleRepository.findByMetricType(metricType);
+        List<RiskRule> rules = riskRuleResolver.resolve(device, metricType);
         if (rules.isEmpty()) {
             log.info("No risk rules configured for metricType={}, device={}, value={} - skipping risk evaluation", 
                 metricType, device.getSerialNumber(), measurement.getValue());
-            return;
+            return rules;
         }
         
         log.debug("Found {} risk rule(s) for metricType={}, evaluating thresholds...", rules.size(), metricType);
 
         rules.forEach(rule -> checkRuleAndPublish(rule, measurement, device, metricType));
+        return rules;
+    }
+
+    /**
+     * Publie une alerte prédictive : la prévision franchit la bande de la règle avant l'horizon configuré.
+     */
+    public void publishPredictedBreach(RiskRule rule, Measurement measurement, Device device, String metricType,
+                                       String direction, Instant predictedAt) {
+        RiskAlertEvent event = RiskAlertEvent.builder()
+            .measurementId(measurement.getId())
+            .deviceId(device.getId())
+            .deviceSerialNumber(device.getSerialNumber())
+            .buildingId(device.getBuildingId())
+            .sfAssetId(device.getSfAssetId())
+            .metricType(metricType)
+            .value(measurement.getValue())
+            .unit(measurement.getUnit())
+            .measuredAt(measurement.getTime().atZone(ZoneId.systemDefault()).toInstant())
+            .thresholdMin(rule.getThresholdMin())
+            .thresholdMax(rule.getThresholdMax())
+            .severityLevel(rule.getSeverityLevel())
+            .breachDirection("PREDICTED_" + direction)
+            .description("Franchissement prévu vers " + predictedAt + " - " + rule.getDescription())
+            .build();
+        event.initializeDefaults();
+
+        if (send(event)) {
+            log.warn("Predicted breach for device {} metricType={} direction={} at {} -> published via Spring Cloud Stream",
+                device.getSerialNumber(), metricType, direction, predictedAt);
+        }
     }
 
     private void checkRuleAndPublish(RiskRule rule, Measurement measurement, Device device, String metricType) {
@@ -83,17 +119,51 @@ public class RiskEvaluationService {
         // Initialiser les valeurs par défaut de l'événement
         event.initializeDefaults();
 
+        if (send(event)) {
+            log.warn("Risk rule triggered for device {} metricType={} value={} direction={} severity={} -> published via Spring Cloud Stream",
+                device.getSerialNumber(), metricType, value, direction, rule.getSeverityLevel());
+        }
+    }
+
+    /**
+     * Publie une alerte quand l'énergie d'une bande de fréquences dépasse le seuil d'une règle spectrale.
+     */
+    public void publishSpectralBreach(RiskRule rule, Device device, double bandEnergy, LocalDateTime windowEnd) {
+        RiskAlertEvent event = RiskAlertEvent.builder()
+            .deviceId(device.getId())
+            .deviceSerialNumber(device.getSerialNumber())
+            .buildingId(device.getBuildingId())
+            .sfAssetId(device.getSfAssetId())
+            .metricType(rule.getMetricType())
+            .value(BigDecimal.valueOf(bandEnergy))
+            .unit("ENERGY")
+            .measuredAt(windowEnd.atZone(ZoneId.systemDefault()).toInstant())
+            .thresholdMin(rule.getThresholdMin())
+            .thresholdMax(rule.getThresholdMax())
+            .severityLevel(rule.getSeverityLevel())
+            .breachDirection("ABOVE_MAX")
+            .description(String.format(Locale.ROOT, "Bande %s-%s Hz - %s",
+                rule.getBandMinHz(), rule.getBandMaxHz(), rule.getDescription()))
+            .build();
+        event.initializeDefaults();
+
+        if (send(event)) {
+            log.warn("Spectral rule id={} triggered for device {} band=[{}, {}) Hz energy={} -> published via Spring Cloud Stream",
+                rule.getId(), device.getSerialNumber(), rule.getBandMinHz(), rule.getBandMaxHz(), bandEnergy);
+        }
+    }
+
+    private boolean send(RiskAlertEvent event) {
         try {
             boolean sent = streamBridge.send(RISK_ALERT_BINDING, event);
-            if (sent) {
-                log.warn("Risk rule triggered for device {} metricType={} value={} direction={} severity={} -> published via Spring Cloud Stream",
-                    device.getSerialNumber(), metricType, value, direction, rule.getSeverityLevel());
-            } else {
-                log.error("Failed to publish risk alert event via Spring Cloud Stream for device {}", device.getSerialNumber());
+            if (!sent) {
+                log.error("Failed to publish risk alert event via Spring Cloud Stream for device {}", event.getDeviceSerialNumber());
             }
+            return sent;
         } catch (Exception e) {
             log.error("Failed to publish risk alert event via Spring Cloud Stream: {}", e.getMessage(), e);
             // Continue processing despite messaging failure - measurement is already saved
+            return false;
         }
     }
 
@@ -0,0 +1,199 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.entity.Device;
+import com.medina.heritage.iot.entity.RiskRule;
+import com.medina.heritage.iot.repository.DeviceRepository;
+import com.medina.heritage.iot.repository.RiskRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Résolution des règles de risque effectives par device.
+ *
+ * Une règle est globale, propre à un bâtiment ({@code building_id}) ou propre à un device ({@code device_id}).
+ * Pour une même clé (métrique, sévérité et, pour les règles spectrales, bande de fréquences), la règle la plus
+ * spécifique remplace les autres : device, puis bâtiment, puis globale.
+ *
+ * Les règles effectives sont précalculées dans une table par device ; sur le chemin chaud, la résolution se
+ * limite à une lecture de map. Un changement de règle ne recalcule que les devices concernés (le device,
+ * les devices du bâtiment, ou tous pour une règle globale) ; un changement de device ne recalcule que lui.
+ * Une reconstruction complète périodique rattrape les modifications faites directement en base.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RiskRuleResolver {
+
+    private final RiskRuleRepository riskRuleRepository;
+    private final DeviceRepository deviceRepository;
+
+    // Règles indexées par portée, remplacées d'un bloc (copie sur écriture)
+    private volatile RuleIndex index = new RuleIndex(List.of());
+
+    // Table précalculée : deviceId -> règles effectives par type de métrique
+    private final Map<UUID, DeviceRules> effective = new ConcurrentHashMap<>();
+
+    /**
+     * Règles effectives du device pour le type de métrique (liste immuable, éventuellement vide).
+     */
+    public List<RiskRule> resolve(Device device, String metricType) {
+        DeviceRules rules = effective.get(device.getId());
+        if (rules == null || !Objects.equals(rules.buildingId, device.getBuildingId())) {
+            // Device inconnu de la table ou rattaché à un autre bâtiment depuis le dernier calcul
+            rules = recompute(device.getId(), device.getBuildingId());
+        }
+        List<RiskRule> resolved = rules.byMetric.get(metricType);
+        return resolved != null ? resolved : List.of();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruction complète de l'index et de la table (règles ou devices modifiés hors de l'API).
+     */
+    @Scheduled(initialDelayString = "${iot.rules.refresh-ms:60000}", fixedDelayString = "${iot.rules.refresh-ms:60000}")
+    public synchronized void rebuild() {
+        try {
+            index = new RuleIndex(riskRuleRepository.findAll());
+            Map<UUID, UUID> buildings = new HashMap<>();
+            for (Device device : deviceRepository.findAll()) {
+                buildings.put(device.getId(), device.getBuildingId());
+            }
+            effective.keySet().retainAll(buildings.keySet());
+            buildings.forEach(this::put);
+            log.debug("Risk rule table rebuilt: {} rule(s), {} device(s)", index.size, effective.size());
+        } catch (Exception e) {
+            log.warn("Failed to rebuild risk rule table, keeping previous resolution: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * À appeler après le commit de la création, modification ou suppression d'une règle. {@code previous} est l'état de la règle
+     * avant modification (null pour une création), {@code current} son nouvel état (null pour une suppression) :
+     * les deux portées sont recalculées si la règle a changé de portée.
+     */
+    public synchronized void onRuleChanged(RiskRule previous, RiskRule current) {
+        List<RiskRule> rules = new ArrayList<>(index.all);
+        if (previous != null) {
+            rules.removeIf(rule -> Objects.equals(rule.getId(), previous.getId()));
+        }
+        if (current != null) {
+            rules.removeIf(rule -> Objects.equals(rule.getId(), current.getId()));
+            rules.add(current);
+        }
+        index = new RuleIndex(rules);
+
+        if (isGlobal(previous) || isGlobal(current)) {
+            recomputeAll();
+            return;
+        }
+        recomputeScope(previous);
+        recomputeScope(current);
+    }
+
+    /**
+     * À appeler après le commit de la création ou modification d'un device (changement de bâtiment notamment).
+     */
+    public synchronized void onDeviceChanged(Device device) {
+        put(device.getId(), device.getBuildingId());
+    }
+
+    private synchronized DeviceRules recompute(UUID deviceId, UUID buildingId) {
+        return put(deviceId, buildingId);
+    }
+
+    private void recomputeAll() {
+        effective.forEach((deviceId, rules) -> put(deviceId, rules.buildingId));
+    }
+
+    private void recomputeScope(RiskRule rule) {
+        if (rule == null) {
+            return;
+        }
+        if (rule.getDeviceId() != null) {
+            DeviceRules rules = effective.get(rule.getDeviceId());
+            if (rules != null) {
+                put(rule.getDeviceId(), rules.buildingId);
+            }
+            return;
+        }
+        effective.forEach((deviceId, rules) -> {
+            if (Objects.equals(rules.buildingId, rule.getBuildingId())) {
+                put(deviceId, rules.buildingId);
+            }
+        });
+    }
+
+    private DeviceRules put(UUID deviceId, UUID buildingId) {
+        RuleIndex current = index;
+        // Ordre d'application : la portée la plus spécifique écrase les précédentes pour une même clé
+        Map<String, RiskRule> byKey = new LinkedHashMap<>();
+        current.global.forEach(rule -> byKey.put(overrideKey(rule), rule));
+        if (buildingId != null) {
+            current.byBuilding.getOrDefault(buildingId, List.of()).forEach(rule -> byKey.put(overrideKey(rule), rule));
+        }
+        current.byDevice.getOrDefault(deviceId, List.of()).forEach(rule -> byKey.put(overrideKey(rule), rule));
+
+        Map<String, List<RiskRule>> byMetric = new HashMap<>();
+        for (RiskRule rule : byKey.values()) {
+            byMetric.computeIfAbsent(rule.getMetricType(), metric -> new ArrayList<>()).add(rule);
+        }
+        byMetric.replaceAll((metric, rules) -> List.copyOf(rules));
+
+        DeviceRules rules = new DeviceRules(buildingId, Map.copyOf(byMetric));
+        effective.put(deviceId, rules);
+        return rules;
+    }
+
+    private static boolean isGlobal(RiskRule rule) {
+        return rule != null && rule.getDeviceId() == null && rule.getBuildingId() == null;
+    }
+
+    private static String overrideKey(RiskRule rule) {
+        return rule.getMetricType() + '|' + rule.getSeverityLevel() + '|' + rule.getBandMinHz() + '|' + rule.getBandMaxHz();
+    }
+
+    private record DeviceRules(UUID buildingId, Map<String, List<RiskRule>> byMetric) {
+    }
+
+    /**
+     * Règles regroupées par portée ; immuable une fois construit.
+     */
+    private static final class RuleIndex {
+        private final List<RiskRule> all;
+        private final List<RiskRule> global = new ArrayList<>();
+        private final Map<UUID, List<RiskRule>> byBuilding = new HashMap<>();
+        private final Map<UUID, List<RiskRule>> byDevice = new HashMap<>();
+        private final int size;
+
+        private RuleIndex(List<RiskRule> rules) {
+            this.all = List.copyOf(rules);
+            this.size = rules.size();
+            for (RiskRule rule : rules) {
+                if (rule.getDeviceId() != null) {
+                    byDevice.computeIfAbsent(rule.getDeviceId(), id -> new ArrayList<>()).add(rule);
+                } else if (rule.getBuildingId() != null) {
+                    byBuilding.computeIfAbsent(rule.getBuildingId(), id -> new ArrayList<>()).add(rule);
+                } else {
+                    global.add(rule);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.entity.RiskRule;
+import com.medina.heritage.iot.repository.RiskRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+/**
+ * Gestion des règles de risque ; chaque modification met à jour la table de résolution précalculée
+ * une fois la transaction validée.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RiskRuleService {
+    
+    private final RiskRuleRepository riskRuleRepository;
+    private final RiskRuleResolver riskRuleResolver;
+    
+    public List<RiskRule> findAll() {
+        return riskRuleRepository.findAll();
+    }
+    
+    public RiskRule findById(Integer id) {
+        return riskRuleRepository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Risk rule not found with ID: " + id));
+    }
+    
+    @Transactional
+    public RiskRule create(RiskRule rule) {
+        rule.setId(null);
+        RiskRule saved = riskRuleRepository.save(rule);
+        TransactionCallbacks.afterCommit(() -> riskRuleResolver.onRuleChanged(null, saved));
+        log.info("Risk rule {} created for metricType={} (building={}, device={})",
+            saved.getId(), saved.getMetricType(), saved.getBuildingId(), saved.getDeviceId());
+        return saved;
+    }
+    
+    @Transactional
+    public RiskRule update(Integer id, RiskRule rule) {
+        RiskRule existing = findById(id);
+        // Copie de l'état précédent : l'ancienne portée doit aussi être recalculée
+        RiskRule previous = new RiskRule(existing.getId(), existing.getMetricType(), existing.getThresholdMin(),
+            existing.getThresholdMax(), existing.getSeverityLevel(), existing.getDescription(),
+            existing.getBuildingId(), existing.getDeviceId(), existing.getBandMinHz(), existing.getBandMaxHz());
+        
+        existing.setMetricType(rule.getMetricType());
+        existing.setThresholdMin(rule.getThresholdMin());
+        existing.setThresholdMax(rule.getThresholdMax());
+        existing.setSeverityLevel(rule.getSeverityLevel());
+        existing.setDescription(rule.getDescription());
+        existing.setBuildingId(rule.getBuildingId());
+        existing.setDeviceId(rule.getDeviceId());
+        existing.setBandMinHz(rule.getBandMinHz());
+        existing.setBandMaxHz(rule.getBandMaxHz());
+        RiskRule saved = riskRuleRepository.save(existing);
+        TransactionCallbacks.afterCommit(() -> riskRuleResolver.onRuleChanged(previous, saved));
+        return saved;
+    }
+    
+    @Transactional
+    public void delete(Integer id) {
+        RiskRule existing = findById(id);
+        riskRuleRepository.delete(existing);
+        TransactionCallbacks.afterCommit(() -> riskRuleResolver.onRuleChanged(existing, null));
+        log.info("Risk rule {} deleted", id);
+    }
+}
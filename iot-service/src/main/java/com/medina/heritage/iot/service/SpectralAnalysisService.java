@@ -0,0 +1,120 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.entity.Device;
+import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.entity.RiskRule;
+import com.medina.heritage.iot.entity.SpectralSummary;
+import com.medina.heritage.iot.repository.SpectralSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Étage spectral des capteurs de vibration : FFT par fenêtre fixe et comparaison de l'énergie
+ * par bande de fréquences aux règles {@code SPECTRAL_BAND}.
+ *
+ * Chaque device possède un {@link SpectralAnalyzer} dont les tampons sont réutilisés ; les tables
+ * de la FFT et la fenêtre de Hann sont partagées. Le calcul d'une fenêtre n'alloue rien, seul le
+ * résumé persisté (une ligne par fenêtre) crée un objet. Les règles spectrales effectives du device
+ * viennent de la table précalculée de {@link RiskRuleResolver}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpectralAnalysisService {
+
+    public static final String SPECTRAL_BAND_METRIC = "SPECTRAL_BAND";
+
+    private final RiskRuleResolver riskRuleResolver;
+    private final SpectralSummaryRepository spectralSummaryRepository;
+    private final RiskEvaluationService riskEvaluationService;
+
+    @Value("${iot.spectral.window-size:256}")
+    private int windowSize;
+
+    @Value("${iot.spectral.nominal-sample-rate-hz:1.0}")
+    private double nominalSampleRateHz;
+
+    @Value("${iot.spectral.band-edges-hz:0,0.05,0.1,0.2,0.5}")
+    private double[] bandEdgesHz;
+
+    private RadixTwoFft fft;
+    private double[] hann;
+    private final Map<UUID, DeviceSpectrum> spectra = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        fft = new RadixTwoFft(windowSize);
+        hann = SpectralAnalyzer.hannWindow(windowSize);
+    }
+
+    /**
+     * Ajoute une mesure de vibration à la fenêtre du device ; analyse et persiste la fenêtre quand elle est pleine.
+     */
+    public void onMeasurement(Device device, Measurement measurement) {
+        DeviceSpectrum spectrum = spectra.computeIfAbsent(device.getId(), id -> new DeviceSpectrum(
+            new SpectralAnalyzer(fft, hann, nominalSampleRateHz), bandEdgesHz.length - 1));
+
+        ZoneId zone = ZoneId.systemDefault();
+        SpectralSummary summary;
+        synchronized (spectrum) {
+            SpectralAnalyzer analyzer = spectrum.analyzer;
+            long timeMillis = measurement.getTime().atZone(zone).toInstant().toEpochMilli();
+            if (!analyzer.add(timeMillis, measurement.getValue().doubleValue())) {
+                return;
+            }
+
+            for (int b = 0; b < spectrum.bandEnergies.length; b++) {
+                spectrum.bandEnergies[b] = analyzer.bandEnergy(bandEdgesHz[b], bandEdgesHz[b + 1]);
+            }
+            LocalDateTime windowEnd = LocalDateTime.ofInstant(Instant.ofEpochMilli(analyzer.getWindowEndMillis()), zone);
+            evaluateRules(analyzer, device, windowEnd);
+
+            summary = new SpectralSummary(null, windowEnd, device.getId(), analyzer.getWindowSize(),
+                analyzer.getSampleRateHz(), bandEdgesHz, spectrum.bandEnergies.clone());
+        }
+
+        spectralSummaryRepository.save(summary);
+        log.debug("Spectral window stored for device {}: sampleRate={} Hz", device.getSerialNumber(), summary.getSampleRateHz());
+    }
+
+    public List<SpectralSummary> findRecent(UUID deviceId) {
+        return spectralSummaryRepository.findTop100ByDeviceIdOrderByTimeDesc(deviceId);
+    }
+
+    private void evaluateRules(SpectralAnalyzer analyzer, Device device, LocalDateTime windowEnd) {
+        List<RiskRule> rules = riskRuleResolver.resolve(device, SPECTRAL_BAND_METRIC);
+        for (int i = 0; i < rules.size(); i++) {
+            RiskRule rule = rules.get(i);
+            if (rule.getThresholdMax() == null) {
+                continue;
+            }
+            double fromHz = rule.getBandMinHz() != null ? rule.getBandMinHz().doubleValue() : 0;
+            double toHz = rule.getBandMaxHz() != null ? rule.getBandMaxHz().doubleValue() : Double.MAX_VALUE;
+            double energy = analyzer.bandEnergy(fromHz, toHz);
+            if (energy > rule.getThresholdMax().doubleValue()) {
+                riskEvaluationService.publishSpectralBreach(rule, device, energy, windowEnd);
+            }
+        }
+    }
+
+    private static final class DeviceSpectrum {
+        private final SpectralAnalyzer analyzer;
+        private final double[] bandEnergies;
+
+        private DeviceSpectrum(SpectralAnalyzer analyzer, int bands) {
+            this.analyzer = analyzer;
+            this.bandEnergies = new double[bands];
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.medina.heritage.iot.service;
+
+/**
+ * Analyse spectrale par fenêtres fixes (sans recouvrement) pour un device de vibration.
+ *
+ * Tous les tampons sont alloués à la construction et réutilisés : l'ajout d'un échantillon
+ * et le calcul d'une fenêtre n'allouent aucun objet. La fréquence d'échantillonnage est
+ * estimée à partir des horodatages de la fenêtre, avec repli sur la fréquence nominale.
+ * Non thread-safe : l'appelant synchronise.
+ */
+public final class SpectralAnalyzer {
+
+    private final RadixTwoFft fft;
+    private final double[] hann;
+    private final double[] re;
+    private final double[] im;
+    private final double[] power;
+    private final double nominalSampleRateHz;
+
+    private int filled;
+    private long firstMillis;
+    private long lastMillis;
+    private double sampleRateHz;
+
+    public SpectralAnalyzer(RadixTwoFft fft, double[] hann, double nominalSampleRateHz) {
+        this.fft = fft;
+        this.hann = hann;
+        this.re = new double[fft.getSize()];
+        this.im = new double[fft.getSize()];
+        this.power = new double[fft.getSize() / 2 + 1];
+        this.nominalSampleRateHz = nominalSampleRateHz;
+    }
+
+    /**
+     * Fenêtre de Hann partagée entre analyseurs de même taille.
+     */
+    public static double[] hannWindow(int size) {
+        double[] window = new double[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / (size - 1));
+        }
+        return window;
+    }
+
+    /**
+     * Ajoute un échantillon.
+     *
+     * @return true si une fenêtre vient d'être complétée et analysée
+     */
+    public boolean add(long timeMillis, double value) {
+        if (filled == 0) {
+            firstMillis = timeMillis;
+        }
+        lastMillis = timeMillis;
+        re[filled++] = value;
+        if (filled < re.length) {
+            return false;
+        }
+        analyze();
+        filled = 0;
+        return true;
+    }
+
+    /**
+     * Énergie du dernier spectre calculé dans la bande [fromHz, toHz).
+     */
+    public double bandEnergy(double fromHz, double toHz) {
+        double binWidth = sampleRateHz / re.length;
+        int from = Math.max(0, (int) Math.ceil(fromHz / binWidth));
+        int to = Math.min(power.length, (int) Math.ceil(toHz / binWidth));
+        double energy = 0;
+        for (int k = from; k < to; k++) {
+            energy += power[k];
+        }
+        return energy;
+    }
+
+    public double getSampleRateHz() {
+        return sampleRateHz;
+    }
+
+    public long getWindowEndMillis() {
+        return lastMillis;
+    }
+
+    public int getWindowSize() {
+        return re.length;
+    }
+
+    private void analyze() {
+        int n = re.length;
+        sampleRateHz = lastMillis > firstMillis
+            ? (n - 1) * 1000.0 / (lastMillis - firstMillis)
+            : nominalSampleRateHz;
+
+        // Retirer la composante continue pour que l'amplitude moyenne ne masque pas les bandes
+        double mean = 0;
+        for (int i = 0; i < n; i++) {
+            mean += re[i];
+        }
+        mean /= n;
+        for (int i = 0; i < n; i++) {
+            re[i] = (re[i] - mean) * hann[i];
+            im[i] = 0;
+        }
+
+        fft.transform(re, im);
+
+        // Spectre de puissance unilatéral
+        for (int k = 0; k < power.length; k++) {
+            double p = (re[k] * re[k] + im[k] * im[k]) / n;
+            power[k] = (k == 0 || k == n / 2) ? p : 2 * p;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.medina.heritage.iot.service;
+
+import java.util.Arrays;
+
+/**
+ * Compression à l'ingestion d'une série (un device) : bande morte ou porte battante (swinging door).
+ *
+ * <ul>
+ *   <li>{@link Mode#DEADBAND} : un échantillon est conservé quand il s'écarte de plus de la tolérance
+ *       de la dernière valeur conservée ; reconstruction par palier.</li>
+ *   <li>{@link Mode#SWINGING_DOOR} : les deux « portes » pivotent autour du dernier point conservé
+ *       (± tolérance) ; quand la droite vers le nouvel échantillon en sort, le point précédent (retenu)
+ *       est conservé. Tous les échantillons écartés restent à moins de la tolérance de la droite reliant
+ *       deux points conservés ; reconstruction par interpolation linéaire.</li>
+ * </ul>
+ * Dans les deux cas un point est conservé au plus tard {@code maxIntervalMillis} après le précédent.
+ *
+ * L'erreur de reconstruction réelle est calculée quand un segment est clos : les échantillons écartés du
+ * segment ouvert sont gardés dans des tableaux primitifs réutilisés (bornés par l'intervalle maximal).
+ * Non thread-safe : l'appelant synchronise.
+ */
+public final class SwingingDoorCompressor {
+
+    public enum Mode { NONE, DEADBAND, SWINGING_DOOR }
+
+    public enum Decision {
+        /** Échantillon écarté (ou retenu en attente, voir {@link #isCurrentHeld()}) */
+        SKIP,
+        /** L'échantillon courant doit être enregistré */
+        STORE_CURRENT,
+        /** L'échantillon retenu précédemment doit être enregistré ; le courant est retenu à sa place */
+        STORE_HELD,
+        /** Intervalle maximal atteint : le point retenu puis l'échantillon courant doivent être enregistrés */
+        STORE_HELD_AND_CURRENT
+    }
+
+    private final Mode mode;
+    private final double tolerance;
+    private final long maxIntervalMillis;
+
+    // Dernier point conservé
+    private boolean hasArchive;
+    private long archiveTime;
+    private double archiveValue;
+
+    // Point retenu (porte battante) : dernier échantillon reçu, non encore conservé
+    private boolean hasHeld;
+    private boolean currentHeld;
+    private long heldTime;
+    private double heldValue;
+    private double upperSlope;
+    private double lowerSlope;
+
+    // Échantillons écartés du segment ouvert, pour le calcul d'erreur à sa clôture
+    private long[] skippedTimes = new long[64];
+    private double[] skippedValues = new double[64];
+    private int skippedSize;
+
+    private long received;
+    private long stored;
+    private long errorSamples;
+    private double sumSquaredError;
+    private double maxError;
+
+    public SwingingDoorCompressor(Mode mode, double tolerance, long maxIntervalMillis) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Compression tolerance must be positive");
+        }
+        this.mode = mode;
+        this.tolerance = tolerance;
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    public Decision offer(long timeMillis, double value) {
+        received++;
+        currentHeld = false;
+        if (mode == Mode.NONE || !hasArchive) {
+            archive(timeMillis, value);
+            return Decision.STORE_CURRENT;
+        }
+
+        // Échantillon en retard ou dupliqué : écarté, l'erreur est mesurée contre le dernier point connu
+        long lastTime = hasHeld ? heldTime : archiveTime;
+        if (timeMillis <= lastTime) {
+            recordError(Math.abs(value - (hasHeld ? heldValue : archiveValue)));
+            return Decision.SKIP;
+        }
+
+        if (timeMillis - archiveTime >= maxIntervalMillis) {
+            if (hasHeld && !acceptsEndpoint(timeMillis, value)) {
+                // La droite vers le courant sortirait du corridor : le point retenu est conservé d'abord
+                archiveHeld();
+                archive(timeMillis, value);
+                return Decision.STORE_HELD_AND_CURRENT;
+            }
+            if (hasHeld) {
+                pushSkipped(heldTime, heldValue);
+            }
+            closeSegment(timeMillis, value);
+            archive(timeMillis, value);
+            return Decision.STORE_CURRENT;
+        }
+
+        if (mode == Mode.DEADBAND) {
+            double deviation = Math.abs(value - archiveValue);
+            if (deviation > tolerance) {
+                archive(timeMillis, value);
+                return Decision.STORE_CURRENT;
+            }
+            // Reconstruction par palier : l'erreur est connue immédiatement
+            recordError(deviation);
+            return Decision.SKIP;
+        }
+
+        if (!hasHeld) {
+            upperSlope = Double.POSITIVE_INFINITY;
+            lowerSlope = Double.NEGATIVE_INFINITY;
+            hold(timeMillis, value);
+            return Decision.SKIP;
+        }
+
+        if (acceptsEndpoint(timeMillis, value)) {
+            narrowDoors(heldTime, heldValue);
+            pushSkipped(heldTime, heldValue);
+            hold(timeMillis, value);
+            return Decision.SKIP;
+        }
+
+        // La droite vers le courant sort du corridor : le point retenu est conservé et devient le pivot
+        archiveHeld();
+        upperSlope = Double.POSITIVE_INFINITY;
+        lowerSlope = Double.NEGATIVE_INFINITY;
+        hold(timeMillis, value);
+        return Decision.STORE_HELD;
+    }
+
+    /**
+     * Le point {@code (t, v)} peut clore le segment si la droite depuis le pivot reste dans le corridor des
+     * portes, point retenu compris : tous les échantillons écartés sont alors à moins de la tolérance.
+     * Contrairement à la porte battante classique, cette vérification porte sur la pente réelle du segment,
+     * ce qui garantit la borne d'erreur tout en ne conservant que des valeurs mesurées.
+     */
+    private boolean acceptsEndpoint(long timeMillis, double value) {
+        double heldDt = heldTime - archiveTime;
+        double upper = Math.min(upperSlope, (heldValue + tolerance - archiveValue) / heldDt);
+        double lower = Math.max(lowerSlope, (heldValue - tolerance - archiveValue) / heldDt);
+        double slope = (value - archiveValue) / (timeMillis - archiveTime);
+        return slope >= lower && slope <= upper;
+    }
+
+    private void narrowDoors(long timeMillis, double value) {
+        double dt = timeMillis - archiveTime;
+        upperSlope = Math.min(upperSlope, (value + tolerance - archiveValue) / dt);
+        lowerSlope = Math.max(lowerSlope, (value - tolerance - archiveValue) / dt);
+    }
+
+    /**
+     * Copie indépendante de l'état, pour pouvoir l'annuler (transaction d'enregistrement annulée).
+     */
+    public SwingingDoorCompressor copy() {
+        SwingingDoorCompressor copy = new SwingingDoorCompressor(mode, tolerance, maxIntervalMillis);
+        copy.hasArchive = hasArchive;
+        copy.archiveTime = archiveTime;
+        copy.archiveValue = archiveValue;
+        copy.hasHeld = hasHeld;
+        copy.currentHeld = currentHeld;
+        copy.heldTime = heldTime;
+        copy.heldValue = heldValue;
+        copy.upperSlope = upperSlope;
+        copy.lowerSlope = lowerSlope;
+        copy.skippedTimes = skippedTimes.clone();
+        copy.skippedValues = skippedValues.clone();
+        copy.skippedSize = skippedSize;
+        copy.received = received;
+        copy.stored = stored;
+        copy.errorSamples = errorSamples;
+        copy.sumSquaredError = sumSquaredError;
+        copy.maxError = maxError;
+        return copy;
+    }
+
+    /**
+     * Conserve le point retenu (flush périodique ou arrêt) ; le segment ouvert est clos sur ce point.
+     */
+    public void archiveHeld() {
+        if (!hasHeld) {
+            return;
+        }
+        closeSegment(heldTime, heldValue);
+        archive(heldTime, heldValue);
+    }
+
+    /**
+     * Vrai si le dernier échantillon offert est retenu en attente (porte battante) :
+     * il sera enregistré plus tard via {@link Decision#STORE_HELD} ou {@link #archiveHeld()}.
+     */
+    public boolean isCurrentHeld() {
+        return currentHeld;
+    }
+
+    public boolean hasHeld() {
+        return hasHeld;
+    }
+
+    public long getHeldTime() {
+        return heldTime;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getStored() {
+        return stored;
+    }
+
+    public long getErrorSamples() {
+        return errorSamples;
+    }
+
+    public double getSumSquaredError() {
+        return sumSquaredError;
+    }
+
+    public double getMaxError() {
+        return maxError;
+    }
+
+    private void hold(long timeMillis, double value) {
+        hasHeld = true;
+        currentHeld = true;
+        heldTime = timeMillis;
+        heldValue = value;
+    }
+
+    private void archive(long timeMillis, double value) {
+        hasArchive = true;
+        hasHeld = false;
+        archiveTime = timeMillis;
+        archiveValue = value;
+        skippedSize = 0;
+        stored++;
+        recordError(0);
+    }
+
+    /**
+     * Erreur des échantillons écartés par rapport à la droite entre le dernier point conservé et {@code (t, v)}.
+     */
+    private void closeSegment(long timeMillis, double value) {
+        double span = timeMillis - archiveTime;
+        for (int i = 0; i < skippedSize; i++) {
+            double interpolated = archiveValue + (value - archiveValue) * (skippedTimes[i] - archiveTime) / span;
+            recordError(Math.abs(skippedValues[i] - interpolated));
+        }
+        skippedSize = 0;
+    }
+
+    private void pushSkipped(long timeMillis, double value) {
+        if (skippedSize == skippedTimes.length) {
+            skippedTimes = Arrays.copyOf(skippedTimes, skippedSize * 2);
+            skippedValues = Arrays.copyOf(skippedValues, skippedSize * 2);
+        }
+        skippedTimes[skippedSize] = timeMillis;
+        skippedValues[skippedSize] = value;
+        skippedSize++;
+    }
+
+    private void recordError(double error) {
+        errorSamples++;
+        sumSquaredError += error * error;
+        if (error > maxError) {
+            maxError = error;
+        }
+    }
+}
@@ -29,4 +29,27 @@ CREATE TABLE IF NOT EXISTS measurements (
         device_id UUID NOT NULL,
         value DECIMAL(10, 4) NOT NULL,
         unit VARCHAR(20) NOT NULL
-);
\ No newline at end of file
+);
+
+-- Règles spectrales : bande de fréquences ciblée (metric_type = 'SPECTRAL_BAND')
+ALTER TABLE risk_rules ADD COLUMN IF NOT EXISTS band_min_hz DECIMAL(10, 2);
+ALTER TABLE risk_rules ADD COLUMN IF NOT EXISTS band_max_hz DECIMAL(10, 2);
+
+-- Résumés spectraux par fenêtre des capteurs de vibration
+CREATE TABLE IF NOT EXISTS spectral_summaries (
+    id BIGSERIAL PRIMARY KEY,
+    time TIMESTAMP
+    WITH
+        TIME ZONE NOT NULL, -- Fin de la fenêtre
+        device_id UUID NOT NULL,
+        window_size INTEGER NOT NULL,
+        sample_rate_hz DOUBLE PRECISION NOT NULL,
+        band_edges_hz DOUBLE PRECISION[] NOT NULL,
+        band_energies DOUBLE PRECISION[] NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_spectral_summaries_device_time ON spectral_summaries (device_id, time DESC);
+
+-- Portée des règles de risque : globale, par bâtiment ou par device
+ALTER TABLE risk_rules ADD COLUMN IF NOT EXISTS building_id UUID;
+ALTER TABLE risk_rules ADD COLUMN IF NOT EXISTS device_id UUID;
@@ -0,0 +1,125 @@
+package com.medina.heritage.iot.controller;
+
+import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
+import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.service.MeasurementService;
+import com.medina.heritage.iot.service.MeasurementWalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class NodeRedControllerTest {
+
+    private static final String MEASUREMENT = """
+        {"serial_number": "HUM-001", "metric_type": "HUMIDITY", "value": 82.5, "unit": "%"}
+        """;
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private MeasurementService measurementService;
+
+    @Mock
+    private MeasurementWalService measurementWalService;
+
+    @InjectMocks
+    private NodeRedController nodeRedController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(nodeRedController).build();
+    }
+
+    private static Measurement measurement(Long id) {
+        return new Measurement(id, LocalDateTime.of(2026, 10, 19, 8, 0), UUID.randomUUID(), new BigDecimal("82.5"), "%");
+    }
+
+    @Nested
+    @DisplayName("POST /api/iot/nodered/measurements")
+    class ReceiveMeasurementTests {
+
+        @Test
+        @DisplayName("Should answer 201 with the stored measurement")
+        void shouldAnswerCreatedWhenStored() throws Exception {
+            // Given
+            when(measurementService.saveMeasurement(any(NodeRedMeasurementDto.class))).thenReturn(measurement(42L));
+
+            // When/Then
+            mockMvc.perform(post("/api/iot/nodered/measurements")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(MEASUREMENT))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(42));
+        }
+
+        @Test
+        @DisplayName("Should answer 202 when compression did not store the measurement")
+        void shouldAnswerAcceptedWhenNotStored() throws Exception {
+            // Given
+            when(measurementService.saveMeasurement(any(NodeRedMeasurementDto.class))).thenReturn(measurement(null));
+
+            // When/Then
+            mockMvc.perform(post("/api/iot/nodered/measurements")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(MEASUREMENT))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.status").value("NOT_STORED"))
+                    .andExpect(jsonPath("$.accepted").value(1));
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/iot/nodered/measurements/batch")
+    class ReceiveBatchMeasurementsTests {
+
+        @Test
+        @DisplayName("Should list only the measurements actually stored")
+        void shouldListOnlyStoredMeasurements() throws Exception {
+            // Given
+            when(measurementService.saveMeasurement(any(NodeRedMeasurementDto.class)))
+                    .thenReturn(measurement(1L), measurement(null), measurement(3L));
+
+            // When/Then
+            mockMvc.perform(post("/api/iot/nodered/measurements/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[" + MEASUREMENT + "," + MEASUREMENT + "," + MEASUREMENT + "]"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].id").value(1))
+                    .andExpect(jsonPath("$[1].id").value(3));
+        }
+
+        @Test
+        @DisplayName("Should answer 202 when compression stored none of the measurements")
+        void shouldAnswerAcceptedWhenNoneStored() throws Exception {
+            // Given
+            when(measurementService.saveMeasurement(any(NodeRedMeasurementDto.class))).thenReturn(measurement(null));
+
+            // When/Then
+            mockMvc.perform(post("/api/iot/nodered/measurements/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[" + MEASUREMENT + "," + MEASUREMENT + "]"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.status").value("NOT_STORED"))
+                    .andExpect(jsonPath("$.accepted").value(2));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.medina.heritage.iot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class HoltWintersForecasterTest {
+
+    private static final ZoneId PARIS = ZoneId.of("Europe/Paris");
+
+    private static long epoch(LocalDateTime local) {
+        return local.atZone(PARIS).toEpochSecond();
+    }
+
+    @Test
+    @DisplayName("Should keep the daily season on local time across a daylight saving change")
+    void shouldKeepSeasonAcrossDstShift() {
+        // Given - a daily peak at 14:00 local time, learned in winter (UTC+1)
+        HoltWintersForecaster forecaster = new HoltWintersForecaster(0.1, 0.01, 0.2, 24, PARIS);
+        for (LocalDate day = LocalDate.of(2026, 2, 1); day.isBefore(LocalDate.of(2026, 3, 28)); day = day.plusDays(1)) {
+            for (int hour = 0; hour < 24; hour++) {
+                forecaster.update(epoch(day.atTime(hour, 0)), hour == 14 ? 15 : 10);
+            }
+        }
+
+        // When - forecast after the switch to summer time (UTC+2) on March 29
+        double atPeak = forecaster.forecast(epoch(LocalDateTime.of(2026, 3, 30, 14, 0)));
+        double hourBefore = forecaster.forecast(epoch(LocalDateTime.of(2026, 3, 30, 13, 0)));
+
+        // Then - the peak stays at 14:00 local, not at 13:00
+        assertThat(atPeak - hourBefore).isGreaterThan(3);
+    }
+
+    @Test
+    @DisplayName("Should estimate the time left before a rising series crosses its maximum")
+    void shouldEstimateTimeToBreach() {
+        // Given - one unit more every hour, no season
+        HoltWintersForecaster forecaster = new HoltWintersForecaster(0.5, 0.5, 0, 24, ZoneId.of("UTC"));
+        long start = epoch(LocalDateTime.of(2026, 6, 1, 0, 0));
+        for (int i = 0; i <= 48; i++) {
+            forecaster.update(start + i * 3600L, 20 + i);
+        }
+
+        // When - the maximum is 5 units above the last value
+        long seconds = forecaster.secondsToBreach(Double.NaN, 73, 24 * 3600, 600);
+
+        // Then
+        assertThat(seconds).isBetween(4 * 3600L + 1800, 5 * 3600L + 1800);
+        assertThat(forecaster.isLastBreachAbove()).isTrue();
+        assertThat(forecaster.getTrendPerSecond() * 3600).isCloseTo(1.0, offset(0.05));
+    }
+
+    @Test
+    @DisplayName("Should report no breach inside the band and an immediate breach outside of it")
+    void shouldReportBreachState() {
+        // Given
+        HoltWintersForecaster forecaster = new HoltWintersForecaster(0.5, 0.1, 0, 24, ZoneId.of("UTC"));
+        long start = epoch(LocalDateTime.of(2026, 6, 1, 0, 0));
+        for (int i = 0; i < 10; i++) {
+            forecaster.update(start + i * 600L, 50);
+        }
+
+        // When / Then
+        assertThat(forecaster.secondsToBreach(40, 60, 6 * 3600, 600)).isEqualTo(-1);
+        assertThat(forecaster.secondsToBreach(55, 60, 6 * 3600, 600)).isZero();
+        assertThat(forecaster.isLastBreachAbove()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject a number of season slots that does not divide a day")
+    void shouldRejectInvalidSeasonSlots() {
+        assertThatThrownBy(() -> new HoltWintersForecaster(0.1, 0.01, 0.05, 7, PARIS))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
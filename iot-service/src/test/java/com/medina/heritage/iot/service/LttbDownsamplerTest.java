@@ -0,0 +1,108 @@
+package com.medina.heritage.iot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LttbDownsamplerTest {
+
+    private static LttbDownsampler downsample(long[] times, double[] values, int threshold) {
+        LttbDownsampler downsampler = new LttbDownsampler(times[0], times[times.length - 1], threshold);
+        for (int i = 0; i < times.length; i++) {
+            downsampler.add(times[i], values[i]);
+        }
+        downsampler.finish();
+        return downsampler;
+    }
+
+    private static long[] evenTimes(int count, long stepMillis) {
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = 1_700_000_000_000L + i * stepMillis;
+        }
+        return times;
+    }
+
+    @Test
+    @DisplayName("Should keep the first and last points and return the requested number of points")
+    void shouldKeepEndpointsAndRespectThreshold() {
+        // Given
+        long[] times = evenTimes(10_000, 1000);
+        double[] values = new double[times.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i / 50.0) * 10 + (i % 7);
+        }
+
+        // When
+        LttbDownsampler downsampler = downsample(times, values, 100);
+
+        // Then
+        assertThat(downsampler.size()).isEqualTo(100);
+        assertThat(downsampler.getInputCount()).isEqualTo(10_000);
+        assertThat(downsampler.timeAt(0)).isEqualTo(times[0]);
+        assertThat(downsampler.valueAt(0)).isEqualTo(values[0]);
+        assertThat(downsampler.timeAt(99)).isEqualTo(times[times.length - 1]);
+        assertThat(downsampler.valueAt(99)).isEqualTo(values[values.length - 1]);
+        for (int i = 1; i < downsampler.size(); i++) {
+            assertThat(downsampler.timeAt(i)).isGreaterThan(downsampler.timeAt(i - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep an isolated spike")
+    void shouldKeepSpike() {
+        // Given
+        long[] times = evenTimes(1000, 1000);
+        double[] values = new double[times.length];
+        values[537] = 80;
+
+        // When
+        LttbDownsampler downsampler = downsample(times, values, 20);
+
+        // Then
+        boolean spikeKept = false;
+        for (int i = 0; i < downsampler.size(); i++) {
+            spikeKept |= downsampler.timeAt(i) == times[537] && downsampler.valueAt(i) == 80;
+        }
+        assertThat(spikeKept).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should return every point when there are fewer points than buckets")
+    void shouldKeepAllPointsBelowThreshold() {
+        // Given
+        long[] times = evenTimes(8, 60_000);
+        double[] values = {1, 5, 2, 8, 3, 9, 4, 7};
+
+        // When
+        LttbDownsampler downsampler = downsample(times, values, 50);
+
+        // Then
+        assertThat(downsampler.size()).isEqualTo(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(downsampler.timeAt(i)).isEqualTo(times[i]);
+            assertThat(downsampler.valueAt(i)).isEqualTo(values[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle an empty or single point series")
+    void shouldHandleTinySeries() {
+        LttbDownsampler empty = new LttbDownsampler(0, 1000, 10);
+        assertThat(empty.finish()).isZero();
+
+        LttbDownsampler single = new LttbDownsampler(0, 1000, 10);
+        single.add(500, 3.5);
+        assertThat(single.finish()).isEqualTo(1);
+        assertThat(single.valueAt(0)).isEqualTo(3.5);
+    }
+
+    @Test
+    @DisplayName("Should reject a threshold below three points")
+    void shouldRejectSmallThreshold() {
+        assertThatThrownBy(() -> new LttbDownsampler(0, 1000, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.ChartPointDto;
+import com.medina.heritage.iot.dto.ChartSeriesDto;
+import com.medina.heritage.iot.repository.MeasurementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeasurementChartServiceTest {
+
+    @Mock
+    private MeasurementRepository measurementRepository;
+
+    @InjectMocks
+    private MeasurementChartService chartService;
+
+    private final UUID deviceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(chartService, "rawWindowHours", 6L);
+        ReflectionTestUtils.setField(chartService, "aggregateBucketsPerPoint", 4);
+        ReflectionTestUtils.setField(chartService, "maxPoints", 5000);
+    }
+
+    private static double storedEpoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Should place the minimum and maximum of an interval at their own instants")
+    void shouldKeepMinAndMaxInstants() {
+        // Given - one day, one aggregated interval with its maximum before its minimum
+        LocalDateTime from = LocalDateTime.of(2026, 3, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        LocalDateTime maxAt = from.plusHours(10).plusMinutes(2);
+        LocalDateTime minAt = from.plusHours(10).plusMinutes(9);
+        when(measurementRepository.aggregateMinMaxByBucket(eq(deviceId), eq(from), eq(to), anyLong()))
+            .thenReturn(List.<Object[]>of(
+                new Object[]{0L, 40.0, storedEpoch(from), 41.0, storedEpoch(from.plusMinutes(20))},
+                new Object[]{1L, 35.0, storedEpoch(minAt), 71.5, storedEpoch(maxAt)},
+                new Object[]{2L, 41.0, storedEpoch(to.minusMinutes(20)), 42.0, storedEpoch(to)}));
+
+        // When
+        ChartSeriesDto chart = chartService.buildChart(deviceId, from, to, 500);
+
+        // Then
+        assertThat(chart.getSource()).isEqualTo("AGGREGATED");
+        assertThat(chart.getPoints()).extracting(ChartPointDto::getTime)
+            .containsExactly(from, from.plusMinutes(20), maxAt, minAt, to.minusMinutes(20), to);
+        assertThat(chart.getPoints()).extracting(point -> point.getValue().doubleValue())
+            .containsExactly(40.0, 41.0, 71.5, 35.0, 41.0, 42.0);
+    }
+
+    @Test
+    @DisplayName("Should reject an empty period or an out of range number of points")
+    void shouldRejectInvalidRequest() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThatThrownBy(() -> chartService.buildChart(deviceId, now, now, 100))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chartService.buildChart(deviceId, now.minusHours(1), now, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> chartService.buildChart(deviceId, now.minusHours(1), now, 5001))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
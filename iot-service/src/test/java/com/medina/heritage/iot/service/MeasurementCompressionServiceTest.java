@@ -0,0 +1,117 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.config.CompressionProperties;
+import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.repository.MeasurementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MeasurementCompressionServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 19, 8, 0);
+
+    @Mock
+    private MeasurementRepository measurementRepository;
+
+    private MeasurementCompressionService service;
+    private final UUID deviceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        CompressionProperties properties = new CompressionProperties();
+        CompressionProperties.Metric humidity = new CompressionProperties.Metric();
+        humidity.setMode(SwingingDoorCompressor.Mode.SWINGING_DOOR);
+        properties.getMetrics().put("HUMIDITY", humidity);
+        service = new MeasurementCompressionService(properties, measurementRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Measurement measurement(int seconds, String value) {
+        Measurement measurement = new Measurement();
+        measurement.setDeviceId(deviceId);
+        measurement.setTime(START.plusSeconds(seconds));
+        measurement.setValue(new BigDecimal(value));
+        measurement.setUnit("%");
+        return measurement;
+    }
+
+    @Test
+    @DisplayName("Should store every sample of a metric without compression")
+    void shouldStoreUncompressedMetric() {
+        Measurement vibration = measurement(0, "1.2");
+
+        assertThat(service.select(deviceId, "VIBRATION", vibration)).containsExactly(vibration);
+        assertThat(service.select(deviceId, null, vibration)).containsExactly(vibration);
+    }
+
+    @Test
+    @DisplayName("Should keep a held sample whose flush fails and store it at the next flush")
+    void shouldRetryFailedFlush() {
+        // Given - the second sample is held in memory
+        Measurement first = measurement(0, "50.0");
+        Measurement held = measurement(5, "50.1");
+        assertThat(service.select(deviceId, "HUMIDITY", first)).containsExactly(first);
+        assertThat(service.select(deviceId, "HUMIDITY", held)).isEmpty();
+        when(measurementRepository.saveAll(anyList()))
+            .thenAnswer(invocation -> {
+                held.setId(42L);
+                throw new DataAccessResourceFailureException("down");
+            })
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        service.flushAllHeld();
+        service.flushAllHeld();
+
+        // Then
+        verify(measurementRepository, times(2)).saveAll(List.of(held));
+        assertThat(held.getId()).isNull();
+        service.flushAllHeld();
+        verifyNoMoreInteractions(measurementRepository);
+    }
+
+    @Test
+    @DisplayName("Should hand back the held sample when the storing transaction rolls back")
+    void shouldRestoreOnRollback() {
+        // Given
+        Measurement first = measurement(0, "50.0");
+        Measurement held = measurement(5, "50.1");
+        service.select(deviceId, "HUMIDITY", first);
+        service.select(deviceId, "HUMIDITY", held);
+        Measurement jump = measurement(10, "58.0");
+
+        // When - the batch storing the held sample rolls back, then is replayed
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(service.select(deviceId, "HUMIDITY", jump)).containsExactly(held);
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Then
+        assertThat(service.select(deviceId, "HUMIDITY", jump)).containsExactly(held);
+    }
+}
@@ -0,0 +1,166 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
+import com.medina.heritage.iot.entity.Device;
+import com.medina.heritage.iot.entity.Measurement;
+import com.medina.heritage.iot.repository.DeviceRepository;
+import com.medina.heritage.iot.repository.MeasurementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MeasurementServiceTest {
+
+    @Mock
+    private MeasurementRepository measurementRepository;
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private RiskEvaluationService riskEvaluationService;
+
+    @Mock
+    private MeasurementStreamHub measurementStreamHub;
+
+    @Mock
+    private ForecastService forecastService;
+
+    @Mock
+    private SpectralAnalysisService spectralAnalysisService;
+
+    @Mock
+    private MeasurementCompressionService measurementCompressionService;
+
+    @Mock
+    private DeviceCache deviceCache;
+
+    @InjectMocks
+    private MeasurementService measurementService;
+
+    private Device device;
+    private NodeRedMeasurementDto dto;
+
+    @BeforeEach
+    void setUp() {
+        device = new Device();
+        device.setId(UUID.randomUUID());
+        device.setSerialNumber("HUM-001");
+        device.setType("HUMIDITY");
+        device.setBuildingId(UUID.randomUUID());
+
+        dto = new NodeRedMeasurementDto();
+        dto.setSerialNumber("HUM-001");
+        dto.setMetricType("HUMIDITY");
+        dto.setValue(new BigDecimal("82.5"));
+        dto.setUnit("%");
+        dto.setTimestamp(LocalDateTime.of(2026, 10, 19, 8, 0));
+    }
+
+    @Test
+    @DisplayName("Should evaluate a buffered measurement at ingest, without the database")
+    void shouldEvaluateAtIngest() {
+        // Given
+        when(deviceCache.find(null, "HUM-001")).thenReturn(Optional.of(device));
+
+        // When
+        List<Device> devices = measurementService.resolveBuffered(List.of(dto));
+        measurementService.processBuffered(List.of(dto), devices);
+
+        // Then
+        verify(riskEvaluationService).evaluateAndPublish(eq("HUMIDITY"), any(Measurement.class), eq(device));
+        verify(measurementStreamHub).publish(eq(device.getBuildingId()), any());
+        verifyNoInteractions(measurementRepository, deviceRepository);
+    }
+
+    @Test
+    @DisplayName("Should skip unknown devices at ingest and refuse the batch when an uncached device cannot be looked up")
+    void shouldResolveFromCacheOnly() {
+        // Given
+        NodeRedMeasurementDto unknown = new NodeRedMeasurementDto();
+        unknown.setSerialNumber("HUM-404");
+        NodeRedMeasurementDto uncached = new NodeRedMeasurementDto();
+        uncached.setSerialNumber("HUM-002");
+        when(deviceCache.find(null, "HUM-001")).thenReturn(Optional.of(device));
+        when(deviceCache.find(null, "HUM-404")).thenReturn(Optional.empty());
+        when(deviceCache.find(null, "HUM-002")).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Then
+        assertThat(measurementService.resolveBuffered(List.of(dto, unknown))).containsExactly(device, null);
+        assertThatThrownBy(() -> measurementService.resolveBuffered(List.of(dto, uncached)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should only store when draining, so a replayed batch publishes nothing twice")
+    void shouldOnlyStoreWhenDraining() {
+        // Given
+        when(deviceRepository.findBySerialNumber("HUM-001")).thenReturn(Optional.of(device));
+        when(measurementCompressionService.select(eq(device.getId()), eq("HUMIDITY"), any(Measurement.class)))
+            .thenAnswer(invocation -> List.of(invocation.getArgument(2, Measurement.class)));
+
+        // When - the first drain fails, the batch is replayed
+        when(measurementRepository.saveAll(anyList()))
+            .thenThrow(new DataAccessResourceFailureException("down"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        assertThatThrownBy(() -> measurementService.saveMeasurements(List.of(dto)))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+        int accepted = measurementService.saveMeasurements(List.of(dto));
+
+        // Then
+        assertThat(accepted).isEqualTo(1);
+        verifyNoInteractions(riskEvaluationService, forecastService, spectralAnalysisService, measurementStreamHub);
+    }
+
+    @Test
+    @DisplayName("Should publish to the live stream only once the transaction commits")
+    void shouldPublishAfterCommitOnly() {
+        // Given
+        when(deviceRepository.findBySerialNumber("HUM-001")).thenReturn(Optional.of(device));
+        when(measurementCompressionService.select(eq(device.getId()), eq("HUMIDITY"), any(Measurement.class)))
+            .thenAnswer(invocation -> List.of(invocation.getArgument(2, Measurement.class)));
+
+        // When/Then - rolled back: nothing is published
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            measurementService.saveMeasurement(dto);
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verifyNoInteractions(measurementStreamHub);
+
+        // When/Then - committed: published once
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            measurementService.saveMeasurement(dto);
+            verifyNoInteractions(measurementStreamHub);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(measurementStreamHub).publish(eq(device.getBuildingId()), any());
+    }
+}
@@ -0,0 +1,226 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.MeasurementStreamEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MeasurementStreamHubTest {
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final UUID buildingId = UUID.randomUUID();
+    private MeasurementStreamHub hub;
+    private MockedConstruction<SseEmitter> emitters;
+
+    // Per emitter, numbered in subscription order from 1
+    private final Map<Integer, CountDownLatch> gates = new ConcurrentHashMap<>();
+    private final Map<Integer, CountDownLatch> sendStarted = new ConcurrentHashMap<>();
+    private final Map<Integer, List<Object>> sent = new ConcurrentHashMap<>();
+    private final Map<Integer, Runnable> completions = new ConcurrentHashMap<>();
+    private final AtomicInteger runningSends = new AtomicInteger();
+    private final AtomicInteger maxRunningSends = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        // The emitters record what they are sent; a gated emitter blocks its sends until the gate opens
+        emitters = mockConstruction(SseEmitter.class, withSettings().lenient(), (emitter, context) -> {
+            int index = context.getCount();
+            doAnswer(invocation -> {
+                maxRunningSends.accumulateAndGet(runningSends.incrementAndGet(), Math::max);
+                try {
+                    started(index).countDown();
+                    CountDownLatch gate = gates.get(index);
+                    if (gate != null) {
+                        gate.await(5, TimeUnit.SECONDS);
+                    }
+                    sent(index).add(payload(invocation.getArgument(0)));
+                } finally {
+                    runningSends.decrementAndGet();
+                }
+                return null;
+            }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+            doAnswer(invocation -> completions.put(index, invocation.getArgument(0)))
+                .when(emitter).onCompletion(any());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        gates.values().forEach(CountDownLatch::countDown);
+        if (hub != null) {
+            hub.stop();
+        }
+        emitters.close();
+    }
+
+    private MeasurementStreamHub hub(int bufferSize, int maxSubscribers, int writerThreads, long sendTimeoutMs) {
+        hub = new MeasurementStreamHub();
+        ReflectionTestUtils.setField(hub, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(hub, "maxSubscribers", maxSubscribers);
+        ReflectionTestUtils.setField(hub, "emitterTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(hub, "writerThreads", writerThreads);
+        ReflectionTestUtils.setField(hub, "sendTimeoutMs", sendTimeoutMs);
+        hub.start();
+        return hub;
+    }
+
+    private CountDownLatch gate(int index) {
+        return gates.computeIfAbsent(index, i -> new CountDownLatch(1));
+    }
+
+    private CountDownLatch started(int index) {
+        return sendStarted.computeIfAbsent(index, i -> new CountDownLatch(1));
+    }
+
+    private List<Object> sent(int index) {
+        return sent.computeIfAbsent(index, i -> new CopyOnWriteArrayList<>());
+    }
+
+    private static Object payload(SseEmitter.SseEventBuilder builder) {
+        return builder.build().stream()
+            .map(ResponseBodyEmitter.DataWithMediaType::getData)
+            .filter(MeasurementStreamEvent.class::isInstance)
+            .findFirst()
+            .orElse(HEARTBEAT);
+    }
+
+    private MeasurementStreamEvent event(int value) {
+        return MeasurementStreamEvent.builder()
+            .buildingId(buildingId)
+            .metricType("HUMIDITY")
+            .value(BigDecimal.valueOf(value))
+            .build();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @Nested
+    @DisplayName("Buffering Tests")
+    class BufferingTests {
+
+        @Test
+        @DisplayName("Should drop the oldest events of a slow subscriber and count them")
+        void shouldDropOldestEvents() throws Exception {
+            // Given - the first heartbeat is held while the measurements arrive
+            hub(2, 10, 1, 60_000);
+            CountDownLatch gate = gate(1);
+            hub.subscribe(buildingId);
+            assertThat(started(1).await(5, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            for (int i = 1; i <= 5; i++) {
+                hub.publish(buildingId, event(i));
+            }
+            gate.countDown();
+
+            // Then - only the two most recent events are delivered
+            awaitUntil(() -> sent(1).size() == 3);
+            assertThat(hub.getDroppedEvents()).isEqualTo(3);
+            assertThat(sent(1)).containsExactly(HEARTBEAT, event(4), event(5));
+        }
+
+        @Test
+        @DisplayName("Should drain a subscriber on one writer at a time")
+        void shouldScheduleOneDrainPerSubscriber() throws Exception {
+            // Given - several free writers, the subscriber's first send is held
+            hub(256, 10, 4, 60_000);
+            CountDownLatch gate = gate(1);
+            hub.subscribe(buildingId);
+            assertThat(started(1).await(5, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            for (int i = 1; i <= 20; i++) {
+                hub.publish(buildingId, event(i));
+                hub.heartbeat();
+            }
+            gate.countDown();
+
+            // Then - every event is delivered in order, never by two writers at once
+            awaitUntil(() -> sent(1).stream().filter(MeasurementStreamEvent.class::isInstance).count() == 20);
+            assertThat(maxRunningSends.get()).isEqualTo(1);
+            assertThat(sent(1).stream().filter(MeasurementStreamEvent.class::isInstance).toList())
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, 20).mapToObj(i -> event(i)).toList());
+            assertThat(hub.getDroppedEvents()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Subscriber Lifecycle Tests")
+    class SubscriberLifecycleTests {
+
+        @Test
+        @DisplayName("Should disconnect a stalled subscriber and hand its writer slot to the others")
+        void shouldDisconnectStalledSubscriber() throws Exception {
+            // Given - a single writer, held by a subscriber that never finishes its send
+            hub(256, 10, 1, 60_000);
+            gate(1);
+            hub.subscribe(buildingId);
+            assertThat(started(1).await(5, TimeUnit.SECONDS)).isTrue();
+            UUID otherBuildingId = UUID.randomUUID();
+            hub.subscribe(otherBuildingId);
+
+            // When - not stalled yet, then past the send timeout
+            hub.disconnectStalled();
+            assertThat(hub.getSubscriberCount()).isEqualTo(2);
+            assertThat(sent(2)).isEmpty();
+            ReflectionTestUtils.setField(hub, "sendTimeoutMs", 0L);
+            Thread.sleep(1);
+            hub.disconnectStalled();
+
+            // Then
+            assertThat(hub.getStalledDisconnects()).isEqualTo(1);
+            assertThat(hub.getSubscriberCount()).isEqualTo(1);
+            awaitUntil(() -> sent(2).contains(HEARTBEAT));
+        }
+
+        @Test
+        @DisplayName("Should refuse subscribers above the limit until one leaves")
+        void shouldEnforceMaxSubscribers() throws Exception {
+            // Given
+            hub(256, 2, 1, 60_000);
+            hub.subscribe(buildingId);
+            hub.subscribe(buildingId);
+
+            // When/Then
+            assertThatThrownBy(() -> hub.subscribe(buildingId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("max 2");
+            assertThat(hub.getSubscriberCount()).isEqualTo(2);
+
+            completions.get(1).run();
+            assertThat(hub.getSubscriberCount()).isEqualTo(1);
+            hub.subscribe(buildingId);
+            assertThat(hub.getSubscriberCount()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.dto.NodeRedMeasurementDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MeasurementWalTest {
+
+    private static final int SEGMENT_BYTES = 16 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final List<MeasurementWal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(MeasurementWal::close);
+    }
+
+    private MeasurementWal open(int maxSegments) throws IOException {
+        MeasurementWal wal = new MeasurementWal(directory, SEGMENT_BYTES, maxSegments);
+        opened.add(wal);
+        wal.open();
+        return wal;
+    }
+
+    private MeasurementWal reopen(MeasurementWal wal, int maxSegments) throws IOException {
+        wal.close();
+        return open(maxSegments);
+    }
+
+    private static NodeRedMeasurementDto measurement(int i) {
+        NodeRedMeasurementDto dto = new NodeRedMeasurementDto();
+        dto.setSerialNumber("HUM-" + i);
+        dto.setMetricType("HUMIDITY");
+        dto.setUnit("%");
+        dto.setValue(new BigDecimal("55.2" + i));
+        dto.setTimestamp(LocalDateTime.of(2026, 10, 19, 8, 0).plusSeconds(i));
+        return dto;
+    }
+
+    private static List<NodeRedMeasurementDto> measurements(int from, int count) {
+        List<NodeRedMeasurementDto> dtos = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            dtos.add(measurement(i));
+        }
+        return dtos;
+    }
+
+    @Test
+    @DisplayName("Should replay every durable record after a restart")
+    void shouldReplayAfterRestart() throws Exception {
+        // Given
+        MeasurementWal wal = open(4);
+        NodeRedMeasurementDto withDevice = measurement(0);
+        withDevice.setDeviceId(UUID.randomUUID());
+        withDevice.setSerialNumber(null);
+        long seq = wal.append(List.of(withDevice));
+        seq = wal.append(measurements(1, 9));
+        assertThat(wal.awaitDurable(seq, 5000)).isTrue();
+
+        // When
+        wal.close();
+        MeasurementWal reopened = new MeasurementWal(directory, SEGMENT_BYTES, 4);
+        opened.add(reopened);
+        long pending = reopened.open();
+
+        // Then
+        assertThat(pending).isEqualTo(10);
+        MeasurementWal.Batch batch = reopened.read(100);
+        assertThat(batch.records()).hasSize(10);
+        assertThat(batch.records().get(0)).isEqualTo(withDevice);
+        assertThat(batch.records().subList(1, 10)).containsExactlyElementsOf(measurements(1, 9));
+    }
+
+    @Test
+    @DisplayName("Should replay a batch read but not committed, and nothing after a commit")
+    void shouldReplayUncommittedBatchOnly() throws Exception {
+        // Given - the first batch is stored, the second one fails (database down)
+        MeasurementWal wal = open(4);
+        wal.awaitDurable(wal.append(measurements(0, 6)), 5000);
+        MeasurementWal.Batch first = wal.read(4);
+        wal.commit(first);
+        MeasurementWal.Batch failed = wal.read(4);
+        assertThat(failed.records()).containsExactlyElementsOf(measurements(4, 2));
+
+        // When
+        MeasurementWal reopened = reopen(wal, 4);
+
+        // Then - only the uncommitted records come back
+        assertThat(reopened.read(100).records()).containsExactlyElementsOf(measurements(4, 2));
+        reopened.commit(reopened.read(100));
+        assertThat(reopen(reopened, 4).read(100).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should stop at a torn record left by a crash")
+    void shouldIgnoreTornTail() throws Exception {
+        // Given
+        MeasurementWal wal = open(4);
+        wal.awaitDurable(wal.append(measurements(0, 3)), 5000);
+        wal.close();
+        int torn = MeasurementWal.encode(measurement(0)).length + MeasurementWal.encode(measurement(1)).length;
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(torn + 12);
+            file.write(0x7F);
+        }
+
+        // When
+        MeasurementWal reopened = new MeasurementWal(directory, SEGMENT_BYTES, 4);
+        opened.add(reopened);
+        long pending = reopened.open();
+
+        // Then
+        assertThat(pending).isEqualTo(2);
+        assertThat(reopened.read(100).records()).containsExactlyElementsOf(measurements(0, 2));
+    }
+
+    @Test
+    @DisplayName("Should spread records over several segments and refuse a batch when full")
+    void shouldRotateAndRefuseWhenFull() throws Exception {
+        // Given
+        MeasurementWal wal = open(3);
+        List<NodeRedMeasurementDto> dtos = measurements(0, 400);
+
+        // When
+        wal.awaitDurable(wal.append(dtos), 5000);
+
+        // Then
+        assertThat(wal.segmentCount()).isGreaterThan(1);
+        assertThatThrownBy(() -> wal.append(measurements(0, 2000)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("full");
+        assertThat(reopen(wal, 3).read(1000).records()).containsExactlyElementsOf(dtos);
+    }
+}
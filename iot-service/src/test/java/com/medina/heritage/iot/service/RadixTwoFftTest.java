@@ -0,0 +1,77 @@
+package com.medina.heritage.iot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class RadixTwoFftTest {
+
+    @Test
+    @DisplayName("Should put a pure sine wave in its frequency bin")
+    void shouldFindSinePeakBin() {
+        // Given - 8 periods over 64 samples
+        int n = 64;
+        double[] re = new double[n];
+        double[] im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = 3 * Math.sin(2 * Math.PI * 8 * i / n);
+        }
+
+        // When
+        new RadixTwoFft(n).transform(re, im);
+
+        // Then - amplitude n/2 * 3 in bins 8 and n - 8, nothing elsewhere
+        for (int k = 0; k < n; k++) {
+            double magnitude = Math.hypot(re[k], im[k]);
+            if (k == 8 || k == n - 8) {
+                assertThat(magnitude).isCloseTo(96, offset(1e-9));
+            } else {
+                assertThat(magnitude).isCloseTo(0, offset(1e-9));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should match a direct discrete Fourier transform")
+    void shouldMatchDirectTransform() {
+        // Given
+        int n = 32;
+        Random random = new Random(42);
+        double[] re = new double[n];
+        double[] im = new double[n];
+        for (int i = 0; i < n; i++) {
+            re[i] = random.nextGaussian();
+            im[i] = random.nextGaussian();
+        }
+        double[] expectedRe = new double[n];
+        double[] expectedIm = new double[n];
+        for (int k = 0; k < n; k++) {
+            for (int t = 0; t < n; t++) {
+                double angle = -2 * Math.PI * k * t / n;
+                expectedRe[k] += re[t] * Math.cos(angle) - im[t] * Math.sin(angle);
+                expectedIm[k] += re[t] * Math.sin(angle) + im[t] * Math.cos(angle);
+            }
+        }
+
+        // When
+        new RadixTwoFft(n).transform(re, im);
+
+        // Then
+        for (int k = 0; k < n; k++) {
+            assertThat(re[k]).isCloseTo(expectedRe[k], offset(1e-9));
+            assertThat(im[k]).isCloseTo(expectedIm[k], offset(1e-9));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a size that is not a power of two")
+    void shouldRejectInvalidSize() {
+        assertThatThrownBy(() -> new RadixTwoFft(100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RadixTwoFft(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
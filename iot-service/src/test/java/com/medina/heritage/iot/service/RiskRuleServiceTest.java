@@ -0,0 +1,96 @@
+package com.medina.heritage.iot.service;
+
+import com.medina.heritage.iot.entity.RiskRule;
+import com.medina.heritage.iot.repository.RiskRuleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RiskRuleServiceTest {
+
+    @Mock
+    private RiskRuleRepository riskRuleRepository;
+
+    @Mock
+    private RiskRuleResolver riskRuleResolver;
+
+    @InjectMocks
+    private RiskRuleService riskRuleService;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static RiskRule rule(Integer id, UUID buildingId) {
+        return new RiskRule(id, "HUMIDITY", BigDecimal.valueOf(30), BigDecimal.valueOf(70), "WARNING",
+            "Humidité hors plage", buildingId, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Should update the resolution table only once the creation commits")
+    void shouldResolveAfterCommit() {
+        // Given
+        RiskRule saved = rule(7, UUID.randomUUID());
+        when(riskRuleRepository.save(any(RiskRule.class))).thenReturn(saved);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        riskRuleService.create(rule(null, saved.getBuildingId()));
+
+        // Then - nothing before the commit
+        verifyNoInteractions(riskRuleResolver);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(riskRuleResolver).onRuleChanged(isNull(), eq(saved));
+    }
+
+    @Test
+    @DisplayName("Should keep serving a deleted rule when the deletion rolls back")
+    void shouldIgnoreRolledBackDeletion() {
+        // Given
+        RiskRule existing = rule(7, UUID.randomUUID());
+        when(riskRuleRepository.findById(7)).thenReturn(Optional.of(existing));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        riskRuleService.delete(7);
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        verifyNoInteractions(riskRuleResolver);
+    }
+
+    @Test
+    @DisplayName("Should update the resolution table right away outside a transaction")
+    void shouldResolveWithoutTransaction() {
+        // Given
+        RiskRule existing = rule(7, UUID.randomUUID());
+        when(riskRuleRepository.findById(7)).thenReturn(Optional.of(existing));
+
+        // When
+        riskRuleService.delete(7);
+
+        // Then
+        verify(riskRuleResolver).onRuleChanged(existing, null);
+    }
+}
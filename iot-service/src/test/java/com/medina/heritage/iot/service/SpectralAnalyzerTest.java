@@ -0,0 +1,66 @@
+package com.medina.heritage.iot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class SpectralAnalyzerTest {
+
+    private static final int WINDOW = 256;
+
+    private static SpectralAnalyzer analyzer() {
+        return new SpectralAnalyzer(new RadixTwoFft(WINDOW), SpectralAnalyzer.hannWindow(WINDOW), 1.0);
+    }
+
+    @Test
+    @DisplayName("Should put the energy of a sine wave in the band containing its frequency")
+    void shouldFindSineBand() {
+        // Given - 0.125 Hz on top of a constant level, sampled every 500 ms (2 Hz)
+        SpectralAnalyzer analyzer = analyzer();
+        boolean analyzed = false;
+        for (int i = 0; i < WINDOW; i++) {
+            analyzed = analyzer.add(1_700_000_000_000L + i * 500L, 40 + 2 * Math.sin(2 * Math.PI * 0.125 * i * 0.5));
+        }
+
+        // Then
+        assertThat(analyzed).isTrue();
+        assertThat(analyzer.getSampleRateHz()).isCloseTo(2.0, offset(1e-9));
+        double inBand = analyzer.bandEnergy(0.1, 0.2);
+        double total = analyzer.bandEnergy(0, 1.01);
+        assertThat(inBand / total).isGreaterThan(0.99);
+        // The constant level is removed before the transform
+        assertThat(analyzer.bandEnergy(0, 0.02)).isLessThan(total * 1e-3);
+    }
+
+    @Test
+    @DisplayName("Should analyze one window per full buffer and start a new one")
+    void shouldAnalyzeFixedWindows() {
+        // Given
+        SpectralAnalyzer analyzer = analyzer();
+        int analyzed = 0;
+
+        // When
+        for (int i = 0; i < WINDOW * 3 - 1; i++) {
+            if (analyzer.add(i * 1000L, Math.sin(i))) {
+                analyzed++;
+            }
+        }
+
+        // Then
+        assertThat(analyzed).isEqualTo(2);
+        assertThat(analyzer.getWindowEndMillis()).isEqualTo((WINDOW * 3 - 2) * 1000L);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the nominal sample rate when timestamps do not move")
+    void shouldUseNominalSampleRate() {
+        SpectralAnalyzer analyzer = analyzer();
+        for (int i = 0; i < WINDOW; i++) {
+            analyzer.add(1000L, Math.sin(i));
+        }
+
+        assertThat(analyzer.getSampleRateHz()).isEqualTo(1.0);
+    }
+}
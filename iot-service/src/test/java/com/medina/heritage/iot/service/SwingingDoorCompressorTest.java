@@ -0,0 +1,141 @@
+package com.medina.heritage.iot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class SwingingDoorCompressorTest {
+
+    private static final long STEP_MILLIS = 5_000;
+    private static final long DAY_MILLIS = 86_400_000;
+    private static final double TOLERANCE = 0.5;
+
+    /**
+     * A day of humidity sampled every 5 s: daily swing of +/- 8 %RH, a faster +/- 1.5 %RH cycle and sensor noise.
+     */
+    private static double[] simulatedDay() {
+        Random random = new Random(42);
+        int samples = (int) (DAY_MILLIS / STEP_MILLIS);
+        double[] values = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            double t = (double) i * STEP_MILLIS / DAY_MILLIS;
+            values[i] = 55 + 8 * Math.sin(2 * Math.PI * t) + 1.5 * Math.sin(2 * Math.PI * 7 * t)
+                + random.nextGaussian() * 0.05;
+        }
+        return values;
+    }
+
+    /**
+     * Feeds the series and returns the stored points (time index, value), held point flushed at the end.
+     */
+    private static List<double[]> compress(SwingingDoorCompressor compressor, double[] values) {
+        List<double[]> stored = new ArrayList<>();
+        double[] held = null;
+        for (int i = 0; i < values.length; i++) {
+            double[] current = {i, values[i]};
+            switch (compressor.offer(i * STEP_MILLIS, values[i])) {
+                case STORE_CURRENT -> stored.add(current);
+                case STORE_HELD -> stored.add(held);
+                case STORE_HELD_AND_CURRENT -> {
+                    stored.add(held);
+                    stored.add(current);
+                }
+                case SKIP -> { }
+            }
+            if (compressor.isCurrentHeld()) {
+                held = current;
+            }
+        }
+        if (compressor.hasHeld()) {
+            compressor.archiveHeld();
+            stored.add(held);
+        }
+        return stored;
+    }
+
+    private static double maxInterpolationError(List<double[]> stored, double[] values) {
+        double maxError = 0;
+        for (int k = 1; k < stored.size(); k++) {
+            double[] from = stored.get(k - 1);
+            double[] to = stored.get(k);
+            for (int i = (int) from[0]; i <= (int) to[0]; i++) {
+                double interpolated = from[1] + (to[1] - from[1]) * (i - from[0]) / (to[0] - from[0]);
+                maxError = Math.max(maxError, Math.abs(values[i] - interpolated));
+            }
+        }
+        return maxError;
+    }
+
+    @Test
+    @DisplayName("Should keep every sample of a simulated day within the tolerance of the interpolated series")
+    void shouldBoundReconstructionError() {
+        // Given
+        double[] values = simulatedDay();
+        SwingingDoorCompressor compressor = new SwingingDoorCompressor(SwingingDoorCompressor.Mode.SWINGING_DOOR,
+            TOLERANCE, 900_000);
+
+        // When
+        List<double[]> stored = compress(compressor, values);
+
+        // Then - the reconstruction is checked independently of the compressor statistics
+        double maxError = maxInterpolationError(stored, values);
+        assertThat(maxError).isLessThanOrEqualTo(TOLERANCE);
+        assertThat(compressor.getMaxError()).isCloseTo(maxError, offset(1e-9));
+        assertThat(compressor.getStored()).isEqualTo(stored.size());
+        assertThat(compressor.getReceived()).isEqualTo(values.length);
+        assertThat((double) values.length / stored.size()).isGreaterThan(100);
+        // Stored values are real readings, in chronological order
+        for (int k = 0; k < stored.size(); k++) {
+            assertThat(stored.get(k)[1]).isEqualTo(values[(int) stored.get(k)[0]]);
+            if (k > 0) {
+                assertThat(stored.get(k)[0]).isGreaterThan(stored.get(k - 1)[0]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should store a point at least once per maximum interval on a flat series")
+    void shouldStoreAtMaxInterval() {
+        // Given - constant readings for an hour, 15 min maximum interval
+        double[] values = new double[720];
+        Arrays.fill(values, 60.0);
+        SwingingDoorCompressor compressor = new SwingingDoorCompressor(SwingingDoorCompressor.Mode.SWINGING_DOOR,
+            TOLERANCE, 900_000);
+
+        // When
+        List<double[]> stored = compress(compressor, values);
+
+        // Then
+        for (int k = 1; k < stored.size(); k++) {
+            assertThat((stored.get(k)[0] - stored.get(k - 1)[0]) * STEP_MILLIS).isLessThanOrEqualTo(900_000);
+        }
+        assertThat(stored).hasSizeBetween(5, 6);
+        assertThat(compressor.getMaxError()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should store a deadband sample only once it leaves the band around the last stored value")
+    void shouldApplyDeadband() {
+        // Given
+        SwingingDoorCompressor compressor = new SwingingDoorCompressor(SwingingDoorCompressor.Mode.DEADBAND,
+            TOLERANCE, 900_000);
+
+        // Then
+        assertThat(compressor.offer(0, 50.0)).isEqualTo(SwingingDoorCompressor.Decision.STORE_CURRENT);
+        assertThat(compressor.offer(5_000, 50.4)).isEqualTo(SwingingDoorCompressor.Decision.SKIP);
+        assertThat(compressor.offer(10_000, 49.6)).isEqualTo(SwingingDoorCompressor.Decision.SKIP);
+        assertThat(compressor.offer(15_000, 50.6)).isEqualTo(SwingingDoorCompressor.Decision.STORE_CURRENT);
+        assertThat(compressor.offer(20_000, 50.2)).isEqualTo(SwingingDoorCompressor.Decision.SKIP);
+        // Samples older than the last stored point are never stored
+        assertThat(compressor.offer(10_000, 58.0)).isEqualTo(SwingingDoorCompressor.Decision.SKIP);
+        assertThat(compressor.isCurrentHeld()).isFalse();
+        assertThat(compressor.getStored()).isEqualTo(2);
+    }
+}